@@ -0,0 +1,304 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ *
+ * Copyright (C) 2009-2013 The University Of Queensland
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.openrdf.model.Model;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.LinkedHashModel;
+import org.openrdf.model.vocabulary.RDFS;
+
+/**
+ * An immutable, in-memory index of the named class hierarchy in a set of schema ontologies, built
+ * from their <code>rdfs:subClassOf</code> statements. Statements that do not link two URIs, such as
+ * those that link a class to an OWL restriction, are ignored.
+ * <p>
+ * Each class is interned to an integer identifier, with arrays of direct parents and children and
+ * a precomputed set of ancestors for each class, so that subclass and superclass questions do not
+ * need to query the repository.
+ *
+ * @author Peter Ansell p_ansell@yahoo.com
+ */
+public final class ClassTaxonomy
+{
+    private static final int[] NO_CLASSES = new int[0];
+    
+    private final Map<URI, Integer> ids;
+    
+    private final URI[] classes;
+    
+    private final int[][] parents;
+    
+    private final int[][] children;
+    
+    private final BitSet[] ancestors;
+    
+    /**
+     * Creates an index from the <code>rdfs:subClassOf</code> statements in the given statements.
+     *
+     * @param statements
+     *            The statements to index. Statements with other predicates are ignored.
+     */
+    public ClassTaxonomy(final Collection<Statement> statements)
+    {
+        final Map<URI, Integer> classIds = new HashMap<URI, Integer>();
+        final List<URI> classList = new ArrayList<URI>();
+        final List<Set<Integer>> parentSets = new ArrayList<Set<Integer>>();
+        final List<Set<Integer>> childSets = new ArrayList<Set<Integer>>();
+        
+        for(final Statement nextStatement : statements)
+        {
+            if(!RDFS.SUBCLASSOF.equals(nextStatement.getPredicate()) || !(nextStatement.getSubject() instanceof URI)
+                    || !(nextStatement.getObject() instanceof URI)
+                    || nextStatement.getSubject().equals(nextStatement.getObject()))
+            {
+                continue;
+            }
+            final int subClass =
+                    ClassTaxonomy.intern((URI)nextStatement.getSubject(), classIds, classList, parentSets, childSets);
+            final int superClass =
+                    ClassTaxonomy.intern((URI)nextStatement.getObject(), classIds, classList, parentSets, childSets);
+            parentSets.get(subClass).add(superClass);
+            childSets.get(superClass).add(subClass);
+        }
+        
+        this.ids = classIds;
+        this.classes = classList.toArray(new URI[classList.size()]);
+        this.parents = ClassTaxonomy.toArrays(parentSets);
+        this.children = ClassTaxonomy.toArrays(childSets);
+        this.ancestors = new BitSet[this.classes.length];
+        for(int i = 0; i < this.classes.length; i++)
+        {
+            this.ancestors[i] = this.computeAncestors(i);
+        }
+    }
+    
+    private static int intern(final URI nextClass, final Map<URI, Integer> classIds, final List<URI> classList,
+            final List<Set<Integer>> parentSets, final List<Set<Integer>> childSets)
+    {
+        final Integer existing = classIds.get(nextClass);
+        if(existing != null)
+        {
+            return existing;
+        }
+        final int id = classList.size();
+        classIds.put(nextClass, id);
+        classList.add(nextClass);
+        parentSets.add(new LinkedHashSet<Integer>());
+        childSets.add(new LinkedHashSet<Integer>());
+        return id;
+    }
+    
+    private static int[][] toArrays(final List<Set<Integer>> sets)
+    {
+        final int[][] result = new int[sets.size()][];
+        for(int i = 0; i < result.length; i++)
+        {
+            final Set<Integer> nextSet = sets.get(i);
+            if(nextSet.isEmpty())
+            {
+                result[i] = ClassTaxonomy.NO_CLASSES;
+                continue;
+            }
+            result[i] = new int[nextSet.size()];
+            int j = 0;
+            for(final Integer nextId : nextSet)
+            {
+                result[i][j++] = nextId;
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Finds all of the classes reachable through parent links from the given class, which may
+     * include the class itself if the hierarchy contains a cycle.
+     */
+    private BitSet computeAncestors(final int classId)
+    {
+        final BitSet result = new BitSet(this.classes.length);
+        final ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+        queue.add(classId);
+        while(!queue.isEmpty())
+        {
+            for(final int nextParent : this.parents[queue.remove()])
+            {
+                if(!result.get(nextParent))
+                {
+                    result.set(nextParent);
+                    queue.add(nextParent);
+                }
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * @param superClass
+     *            The class to find subclasses for.
+     * @return The classes that are directly declared or inferred to be subclasses of the given
+     *         class, or an empty set if it is not in the index.
+     */
+    public Set<URI> getDirectSubClasses(final URI superClass)
+    {
+        final Integer id = this.ids.get(superClass);
+        if(id == null)
+        {
+            return Collections.emptySet();
+        }
+        return this.toUris(this.children[id]);
+    }
+    
+    /**
+     * @param subClass
+     *            The class to find superclasses for.
+     * @return The classes that the given class is directly declared or inferred to be a subclass
+     *         of, or an empty set if it is not in the index.
+     */
+    public Set<URI> getDirectSuperClasses(final URI subClass)
+    {
+        final Integer id = this.ids.get(subClass);
+        if(id == null)
+        {
+            return Collections.emptySet();
+        }
+        return this.toUris(this.parents[id]);
+    }
+    
+    /**
+     * @param subClass
+     *            The class to find superclasses for.
+     * @return All of the transitive superclasses of the given class, not including the class
+     *         itself, or an empty set if it is not in the index.
+     */
+    public Set<URI> getSuperClasses(final URI subClass)
+    {
+        final Integer id = this.ids.get(subClass);
+        if(id == null)
+        {
+            return Collections.emptySet();
+        }
+        final Set<URI> result = new LinkedHashSet<URI>();
+        final BitSet classAncestors = this.ancestors[id];
+        for(int i = classAncestors.nextSetBit(0); i >= 0; i = classAncestors.nextSetBit(i + 1))
+        {
+            if(i != id)
+            {
+                result.add(this.classes[i]);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * @param superClass
+     *            The class to find subclasses for.
+     * @return All of the transitive subclasses of the given class, not including the class itself,
+     *         or an empty set if it is not in the index.
+     */
+    public Set<URI> getSubClasses(final URI superClass)
+    {
+        final Integer id = this.ids.get(superClass);
+        if(id == null)
+        {
+            return Collections.emptySet();
+        }
+        final Set<URI> result = new LinkedHashSet<URI>();
+        for(int i = 0; i < this.classes.length; i++)
+        {
+            if(i != id && this.ancestors[i].get(id))
+            {
+                result.add(this.classes[i]);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Returns the <code>rdfs:subClassOf</code> statements linking each of the given classes to its
+     * direct subclasses.
+     *
+     * @param superClasses
+     *            The classes to find direct subclasses for.
+     * @return A model containing statements of the form <code>?subClass rdfs:subClassOf
+     *         ?superClass</code>.
+     */
+    public Model getDirectSubClassStatements(final Collection<URI> superClasses)
+    {
+        final Model result = new LinkedHashModel();
+        for(final URI nextSuperClass : superClasses)
+        {
+            for(final URI nextSubClass : this.getDirectSubClasses(nextSuperClass))
+            {
+                result.add(nextSubClass, RDFS.SUBCLASSOF, nextSuperClass);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * @param subClass
+     *            The class to check.
+     * @param superClass
+     *            The possible superclass.
+     * @return True if the classes are equal, or the first class is a transitive subclass of the
+     *         second class, and false otherwise.
+     */
+    public boolean isSubClassOf(final URI subClass, final URI superClass)
+    {
+        if(subClass.equals(superClass))
+        {
+            return true;
+        }
+        final Integer subClassId = this.ids.get(subClass);
+        final Integer superClassId = this.ids.get(superClass);
+        return subClassId != null && superClassId != null && this.ancestors[subClassId].get(superClassId);
+    }
+    
+    /**
+     * @return The number of classes in the index.
+     */
+    public int size()
+    {
+        return this.classes.length;
+    }
+    
+    private Set<URI> toUris(final int[] classIds)
+    {
+        if(classIds.length == 0)
+        {
+            return Collections.emptySet();
+        }
+        final Set<URI> result = new LinkedHashSet<URI>(classIds.length * 2);
+        for(final int nextId : classIds)
+        {
+            result.add(this.classes[nextId]);
+        }
+        return Collections.unmodifiableSet(result);
+    }
+}
@@ -625,4 +625,55 @@ public interface PODD
     public static final URI PODD_REPOSITORY_CONTAINS_SCHEMA_VERSION = PODD.VF
             .createURI("http://purl.org/podd/ns/repository#containsSchemaVersion");
     
+    public static final URI PODD_REPOSITORY_SHARD = PODD.VF
+            .createURI("http://purl.org/podd/ns/repository#RepositoryShard");
+    
+    public static final URI PODD_REPOSITORY_HAS_SHARD = PODD.VF
+            .createURI("http://purl.org/podd/ns/repository#hasShard");
+    
+    public static final URI PODD_REPOSITORY_SHARD_INDEX = PODD.VF
+            .createURI("http://purl.org/podd/ns/repository#shardIndex");
+    
+    public static final URI PODD_REPOSITORY_CONTAINS_ARTIFACT = PODD.VF
+            .createURI("http://purl.org/podd/ns/repository#containsArtifact");
+    
+    public static final String PODD_METRICS = "http://purl.org/podd/ns/metrics#";
+    
+    public static final URI PODD_METRICS_QUERY_STATISTICS = PODD.VF.createURI(PODD.PODD_METRICS, "QueryStatistics");
+    
+    public static final URI PODD_METRICS_REQUEST_STATISTICS = PODD.VF.createURI(PODD.PODD_METRICS,
+            "RequestStatistics");
+    
+    public static final URI PODD_METRICS_PHASE_STATISTICS = PODD.VF.createURI(PODD.PODD_METRICS, "PhaseStatistics");
+    
+    public static final URI PODD_METRICS_SLOW_QUERY = PODD.VF.createURI(PODD.PODD_METRICS, "SlowQuery");
+    
+    public static final URI PODD_METRICS_OPERATION = PODD.VF.createURI(PODD.PODD_METRICS, "operation");
+    
+    public static final URI PODD_METRICS_COUNT = PODD.VF.createURI(PODD.PODD_METRICS, "count");
+    
+    public static final URI PODD_METRICS_RESULTS = PODD.VF.createURI(PODD.PODD_METRICS, "results");
+    
+    public static final URI PODD_METRICS_MEAN_MILLIS = PODD.VF.createURI(PODD.PODD_METRICS, "meanMillis");
+    
+    public static final URI PODD_METRICS_P50_MILLIS = PODD.VF.createURI(PODD.PODD_METRICS, "p50Millis");
+    
+    public static final URI PODD_METRICS_P95_MILLIS = PODD.VF.createURI(PODD.PODD_METRICS, "p95Millis");
+    
+    public static final URI PODD_METRICS_P99_MILLIS = PODD.VF.createURI(PODD.PODD_METRICS, "p99Millis");
+    
+    public static final URI PODD_METRICS_MAX_MILLIS = PODD.VF.createURI(PODD.PODD_METRICS, "maxMillis");
+    
+    public static final URI PODD_METRICS_DURATION_MILLIS = PODD.VF.createURI(PODD.PODD_METRICS, "durationMillis");
+    
+    public static final URI PODD_METRICS_TIMESTAMP = PODD.VF.createURI(PODD.PODD_METRICS, "timestamp");
+    
+    public static final URI PODD_METRICS_QUERY = PODD.VF.createURI(PODD.PODD_METRICS, "query");
+    
+    public static final URI PODD_METRICS_BINDINGS = PODD.VF.createURI(PODD.PODD_METRICS, "bindings");
+    
+    public static final URI PODD_METRICS_CONTEXT = PODD.VF.createURI(PODD.PODD_METRICS, "context");
+    
+    public static final URI PODD_METRICS_CALLER = PODD.VF.createURI(PODD.PODD_METRICS, "caller");
+    
 }
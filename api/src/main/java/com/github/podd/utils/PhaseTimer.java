@@ -0,0 +1,223 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ *
+ * Copyright (C) 2009-2013 The University Of Queensland
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.utils;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lightweight per-thread timing of the phases of a long running operation, such as loading or
+ * updating an artifact.
+ * <p>
+ * The outermost caller on a thread calls {@link #start(String)} and later {@link #stop()} on the
+ * returned timer. Code running on the same thread in between, including in other components,
+ * calls {@link #lap(String)} at the end of each phase, which attributes the time since the
+ * previous lap to the named phase. If a timer is already active on the thread, {@link #start(String)}
+ * returns null and the laps are attributed to the outer timer, so that nested operations are not
+ * counted twice.
+ * <p>
+ * When a timer stops, each phase is recorded in {@link QueryMetrics#getPhaseInstance()} as
+ * <code>&lt;name&gt;.&lt;phase&gt;</code> so that phase latency histograms are available through
+ * JMX and the admin metrics service, separately from the query latency histograms.
+ * <p>
+ * When timing is disabled, or no timer is active, {@link #lap(String)} only performs a thread
+ * local lookup.
+ *
+ * @author Peter Ansell p_ansell@yahoo.com
+ */
+public final class PhaseTimer
+{
+    private static final Logger log = LoggerFactory.getLogger(PhaseTimer.class);
+    
+    private static final ThreadLocal<PhaseTimer> CURRENT = new ThreadLocal<PhaseTimer>();
+    
+    private static volatile boolean enabled = true;
+    
+    private final String name;
+    
+    private final long startNanos;
+    
+    private final Map<String, Long> phases = new LinkedHashMap<String, Long>();
+    
+    private long lastLapNanos;
+    
+    private long totalNanos = -1;
+    
+    private PhaseTimer(final String name)
+    {
+        this.name = name;
+        this.startNanos = System.nanoTime();
+        this.lastLapNanos = this.startNanos;
+    }
+    
+    /**
+     * @return True if phase timing is enabled, and false otherwise.
+     */
+    public static boolean isEnabled()
+    {
+        return PhaseTimer.enabled;
+    }
+    
+    /**
+     * @param enabled
+     *            True to enable phase timing and false to disable it.
+     */
+    public static void setEnabled(final boolean enabled)
+    {
+        PhaseTimer.enabled = enabled;
+    }
+    
+    /**
+     * Starts timing an operation on the current thread.
+     *
+     * @param name
+     *            The name of the operation.
+     * @return A new timer that the caller must {@link #stop()}, or null if timing is disabled or a
+     *         timer is already active on this thread.
+     */
+    public static PhaseTimer start(final String name)
+    {
+        if(!PhaseTimer.enabled || PhaseTimer.CURRENT.get() != null)
+        {
+            return null;
+        }
+        final PhaseTimer result = new PhaseTimer(name);
+        PhaseTimer.CURRENT.set(result);
+        return result;
+    }
+    
+    /**
+     * Attributes the time since the previous lap, or since the timer started, to the given phase
+     * of the timer that is active on this thread. Does nothing if no timer is active.
+     *
+     * @param phase
+     *            The name of the phase that has just finished.
+     */
+    public static void lap(final String phase)
+    {
+        final PhaseTimer current = PhaseTimer.CURRENT.get();
+        if(current != null)
+        {
+            current.lapInternal(phase);
+        }
+    }
+    
+    private void lapInternal(final String phase)
+    {
+        final long now = System.nanoTime();
+        final Long existing = this.phases.get(phase);
+        final long elapsed = now - this.lastLapNanos;
+        this.phases.put(phase, existing == null ? elapsed : existing + elapsed);
+        this.lastLapNanos = now;
+    }
+    
+    /**
+     * Stops this timer, detaches it from the current thread, and records the phases and the total
+     * in {@link QueryMetrics#getPhaseInstance()}. Stopping a timer more than once has no further effect.
+     *
+     * @return This timer.
+     */
+    public PhaseTimer stop()
+    {
+        if(this.totalNanos >= 0)
+        {
+            return this;
+        }
+        
+        this.totalNanos = System.nanoTime() - this.startNanos;
+        if(PhaseTimer.CURRENT.get() == this)
+        {
+            PhaseTimer.CURRENT.remove();
+        }
+        
+        final QueryMetrics metrics = QueryMetrics.getPhaseInstance();
+        for(final Entry<String, Long> nextPhase : this.phases.entrySet())
+        {
+            metrics.record(this.name + "." + nextPhase.getKey(), nextPhase.getValue(), 0);
+        }
+        metrics.record(this.name, this.totalNanos, 0);
+        
+        PhaseTimer.log.debug("{}", this);
+        
+        return this;
+    }
+    
+    /**
+     * @return The name of the operation that this timer is timing.
+     */
+    public String getName()
+    {
+        return this.name;
+    }
+    
+    /**
+     * @return The time, in nanoseconds, spent in each phase, in the order that the phases first
+     *         finished.
+     */
+    public Map<String, Long> getPhases()
+    {
+        return Collections.unmodifiableMap(this.phases);
+    }
+    
+    /**
+     * @return The total time, in nanoseconds, between starting and stopping this timer, or -1 if it
+     *         has not been stopped.
+     */
+    public long getTotalNanos()
+    {
+        return this.totalNanos;
+    }
+    
+    /**
+     * @return The phases in the format used by the HTTP Server-Timing header, with durations in
+     *         milliseconds, for example <code>parse;dur=12.5, total;dur=40.1</code>.
+     */
+    public String toServerTiming()
+    {
+        final StringBuilder result = new StringBuilder();
+        for(final Entry<String, Long> nextPhase : this.phases.entrySet())
+        {
+            this.appendTiming(result, nextPhase.getKey(), nextPhase.getValue());
+        }
+        if(this.totalNanos >= 0)
+        {
+            this.appendTiming(result, "total", this.totalNanos);
+        }
+        return result.toString();
+    }
+    
+    private void appendTiming(final StringBuilder result, final String phase, final long nanos)
+    {
+        if(result.length() > 0)
+        {
+            result.append(", ");
+        }
+        result.append(phase).append(";dur=").append(String.format(Locale.ROOT, "%.1f", nanos / 1000000.0d));
+    }
+    
+    @Override
+    public String toString()
+    {
+        return this.name + " phases: " + this.toServerTiming();
+    }
+}
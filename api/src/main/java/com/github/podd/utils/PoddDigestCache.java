@@ -0,0 +1,241 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ *
+ * Copyright (C) 2009-2013 The University Of Queensland
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.github.podd.utils.PoddDigestUtils.Algorithm;
+
+/**
+ * A cache of file digests keyed on the absolute path, size and last modified time of each file, so
+ * that files which have not changed since they were last digested do not need to be read again.
+ * <p>
+ * The cache may optionally be stored in a file, which is read when the cache is created and
+ * replaced when {@link #save()} is called.
+ *
+ * @author Peter Ansell p_ansell@yahoo.com
+ */
+public final class PoddDigestCache
+{
+    private final ConcurrentMap<Path, Entry> entries = new ConcurrentHashMap<>();
+    
+    private final Path cacheFile;
+    
+    /**
+     * Creates a cache that is only stored in memory.
+     */
+    public PoddDigestCache()
+    {
+        this.cacheFile = null;
+    }
+    
+    /**
+     * Creates a cache that is stored in the given file, loading any existing entries from it.
+     *
+     * @param cacheFile
+     *            The file to load the cache from and save it to.
+     * @throws IOException
+     *             If the cache file exists but could not be read.
+     */
+    public PoddDigestCache(final Path cacheFile) throws IOException
+    {
+        this.cacheFile = cacheFile;
+        if(Files.exists(cacheFile))
+        {
+            final Properties properties = new Properties();
+            try (final Reader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8))
+            {
+                properties.load(reader);
+            }
+            for(final String nextPath : properties.stringPropertyNames())
+            {
+                final Entry nextEntry = Entry.parse(properties.getProperty(nextPath));
+                if(nextEntry != null)
+                {
+                    this.entries.put(PoddDigestCache.normalise(cacheFile.getFileSystem().getPath(nextPath)),
+                            nextEntry);
+                }
+            }
+        }
+    }
+    
+    private static Path normalise(final Path path)
+    {
+        return path.toAbsolutePath().normalize();
+    }
+    
+    /**
+     * @param path
+     *            The file to find digests for.
+     * @param size
+     *            The current size of the file.
+     * @param lastModified
+     *            The current last modified time of the file, in milliseconds.
+     * @return The digests for the file, or null if the file has not been digested, or it has
+     *         changed since it was digested.
+     */
+    public Map<Algorithm, String> get(final Path path, final long size, final long lastModified)
+    {
+        final Entry entry = this.entries.get(PoddDigestCache.normalise(path));
+        if(entry == null || entry.size != size || entry.lastModified != lastModified)
+        {
+            return null;
+        }
+        return entry.digests;
+    }
+    
+    /**
+     * Adds or replaces the digests for a file.
+     *
+     * @param path
+     *            The file that was digested.
+     * @param size
+     *            The size of the file when it was digested.
+     * @param lastModified
+     *            The last modified time of the file, in milliseconds, when it was digested.
+     * @param digests
+     *            The digests for the file, which must include every {@link Algorithm}.
+     */
+    public void put(final Path path, final long size, final long lastModified, final Map<Algorithm, String> digests)
+    {
+        final Map<Algorithm, String> copy = new EnumMap<>(digests);
+        if(copy.size() != Algorithm.values().length)
+        {
+            throw new IllegalArgumentException("Digests must be given for all algorithms: " + digests);
+        }
+        this.entries.put(PoddDigestCache.normalise(path),
+                new Entry(size, lastModified, Collections.unmodifiableMap(copy)));
+    }
+    
+    /**
+     * @return The number of files in the cache.
+     */
+    public int size()
+    {
+        return this.entries.size();
+    }
+    
+    /**
+     * Writes the cache to its cache file, replacing the previous contents. Does nothing if the
+     * cache is only stored in memory.
+     *
+     * @throws IOException
+     *             If the cache file could not be written.
+     */
+    public void save() throws IOException
+    {
+        if(this.cacheFile == null)
+        {
+            return;
+        }
+        
+        final Properties properties = new Properties();
+        for(final Map.Entry<Path, Entry> nextEntry : this.entries.entrySet())
+        {
+            properties.setProperty(nextEntry.getKey().toString(), nextEntry.getValue().format());
+        }
+        
+        final Path parent = PoddDigestCache.normalise(this.cacheFile).getParent();
+        Files.createDirectories(parent);
+        // Write to a temporary file first so that an interrupted save does not corrupt the cache
+        final Path tempFile = Files.createTempFile(parent, "podd-digest-cache-", ".tmp");
+        try
+        {
+            try (final Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8))
+            {
+                properties.store(writer, "PODD file digest cache");
+            }
+            Files.move(tempFile, this.cacheFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally
+        {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+    
+    /**
+     * The digests for a file, along with the size and last modified time of the file when it was
+     * digested.
+     */
+    private static final class Entry
+    {
+        private final long size;
+        
+        private final long lastModified;
+        
+        private final Map<Algorithm, String> digests;
+        
+        Entry(final long size, final long lastModified, final Map<Algorithm, String> digests)
+        {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.digests = digests;
+        }
+        
+        /**
+         * Parses an entry in the format written by {@link #format()}, returning null if it is not
+         * valid, or if it does not include every algorithm.
+         */
+        static Entry parse(final String value)
+        {
+            final String[] fields = value.split(" ");
+            final Algorithm[] algorithms = Algorithm.values();
+            if(fields.length != 2 + algorithms.length)
+            {
+                return null;
+            }
+            try
+            {
+                final Map<Algorithm, String> digests = new EnumMap<>(Algorithm.class);
+                for(int i = 0; i < algorithms.length; i++)
+                {
+                    digests.put(algorithms[i], fields[2 + i]);
+                }
+                return new Entry(Long.parseLong(fields[0]), Long.parseLong(fields[1]),
+                        Collections.unmodifiableMap(digests));
+            }
+            catch(final NumberFormatException e)
+            {
+                return null;
+            }
+        }
+        
+        String format()
+        {
+            final StringBuilder result = new StringBuilder();
+            result.append(this.size).append(' ').append(this.lastModified);
+            for(final Algorithm nextAlgorithm : Algorithm.values())
+            {
+                result.append(' ').append(this.digests.get(nextAlgorithm));
+            }
+            return result.toString();
+        }
+    }
+}
@@ -17,16 +17,28 @@
 package com.github.podd.utils;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.security.DigestInputStream;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.github.ansell.jdefaultdict.JDefaultDict;
 
@@ -64,38 +76,184 @@ public class PoddDigestUtils
         }
     }
     
+    /**
+     * The size of the buffer used to read each file. Both digests are updated from the same buffer.
+     */
+    private static final int BUFFER_SIZE = 1 << 20;
+    
+    /**
+     * Calculates the SHA-1 and MD5 digests for the given files, reading one file at a time, and
+     * without caching the results.
+     *
+     * @param pathsToDigest
+     *            The files to digest.
+     * @return A map from each file to its digests.
+     * @throws IOException
+     *             If any of the files could not be read.
+     * @throws NoSuchAlgorithmException
+     *             If one of the digest algorithms is not supported.
+     */
     public static ConcurrentMap<Path, ConcurrentMap<Algorithm, String>> getDigests(final Collection<Path> pathsToDigest)
         throws IOException, NoSuchAlgorithmException
+    {
+        return PoddDigestUtils.getDigests(pathsToDigest, 1, null);
+    }
+    
+    /**
+     * Calculates the SHA-1 and MD5 digests for the given files, reading up to the given number of
+     * files concurrently, and without caching the results.
+     *
+     * @param pathsToDigest
+     *            The files to digest.
+     * @param concurrency
+     *            The maximum number of files to read concurrently, or 0 to use one thread for each
+     *            available processor.
+     * @return A map from each file to its digests.
+     * @throws IOException
+     *             If any of the files could not be read.
+     * @throws NoSuchAlgorithmException
+     *             If one of the digest algorithms is not supported.
+     */
+    public static ConcurrentMap<Path, ConcurrentMap<Algorithm, String>> getDigests(
+            final Collection<Path> pathsToDigest, final int concurrency) throws IOException, NoSuchAlgorithmException
+    {
+        return PoddDigestUtils.getDigests(pathsToDigest, concurrency, null);
+    }
+    
+    /**
+     * Calculates the SHA-1 and MD5 digests for the given files, reading up to the given number of
+     * files concurrently. Files that are in the cache with the same size and last modified time are
+     * not read again, and the cache is updated with the digests for all other files. The cache is
+     * not saved by this method.
+     *
+     * @param pathsToDigest
+     *            The files to digest.
+     * @param concurrency
+     *            The maximum number of files to read concurrently, or 0 to use one thread for each
+     *            available processor.
+     * @param cache
+     *            The cache to check and update, or null to digest every file.
+     * @return A map from each file to its digests.
+     * @throws IOException
+     *             If any of the files could not be read.
+     * @throws NoSuchAlgorithmException
+     *             If one of the digest algorithms is not supported.
+     */
+    public static ConcurrentMap<Path, ConcurrentMap<Algorithm, String>> getDigests(
+            final Collection<Path> pathsToDigest, final int concurrency, final PoddDigestCache cache)
+        throws IOException, NoSuchAlgorithmException
     {
         final ConcurrentMap<Path, ConcurrentMap<Algorithm, String>> result =
                 new JDefaultDict<>(k -> new ConcurrentHashMap<>());
         
-        for(final Path nextPath : pathsToDigest)
+        final int threads =
+                Math.min(concurrency > 0 ? concurrency : Runtime.getRuntime().availableProcessors(),
+                        Math.max(1, pathsToDigest.size()));
+        
+        if(threads == 1)
+        {
+            for(final Path nextPath : pathsToDigest)
+            {
+                result.get(nextPath).putAll(PoddDigestUtils.getDigests(nextPath, cache));
+            }
+            return result;
+        }
+        
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try
         {
-            try (final InputStream inputStream = Files.newInputStream(nextPath))
+            final Map<Path, Future<Map<Algorithm, String>>> futures = new LinkedHashMap<>();
+            for(final Path nextPath : pathsToDigest)
             {
-                final DigestInputStream shaStream =
-                        new DigestInputStream(inputStream, MessageDigest.getInstance(Algorithm.SHA1.getName()));
-                final DigestInputStream md5Stream =
-                        new DigestInputStream(shaStream, MessageDigest.getInstance(Algorithm.MD5.getName()));
-                int b;
-                while((b = md5Stream.read()) != -1)
+                futures.put(nextPath, executor.submit(new Callable<Map<Algorithm, String>>()
+                    {
+                        @Override
+                        public Map<Algorithm, String> call() throws IOException, NoSuchAlgorithmException
+                        {
+                            return PoddDigestUtils.getDigests(nextPath, cache);
+                        }
+                    }));
+            }
+            
+            for(final Entry<Path, Future<Map<Algorithm, String>>> nextFuture : futures.entrySet())
+            {
+                try
+                {
+                    result.get(nextFuture.getKey()).putAll(nextFuture.getValue().get());
+                }
+                catch(final InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while digesting: " + nextFuture.getKey());
+                }
+                catch(final ExecutionException e)
                 {
-                    // No processing needed
+                    final Throwable cause = e.getCause();
+                    if(cause instanceof IOException)
+                    {
+                        throw (IOException)cause;
+                    }
+                    else if(cause instanceof NoSuchAlgorithmException)
+                    {
+                        throw (NoSuchAlgorithmException)cause;
+                    }
+                    else if(cause instanceof RuntimeException)
+                    {
+                        throw (RuntimeException)cause;
+                    }
+                    else if(cause instanceof Error)
+                    {
+                        throw (Error)cause;
+                    }
+                    throw new IOException("Failed to digest: " + nextFuture.getKey(), cause);
                 }
-                final ConcurrentMap<Algorithm, String> nextMap = result.get(nextPath);
-                nextMap.computeIfAbsent(Algorithm.MD5, k -> {
-                    final byte[] md5Digest = md5Stream.getMessageDigest().digest();
-                    return new BigInteger(1, md5Digest).toString(16);
-                });
-                nextMap.computeIfAbsent(Algorithm.SHA1, k -> {
-                    final byte[] shaDigest = shaStream.getMessageDigest().digest();
-                    return new BigInteger(1, shaDigest).toString(16);
-                });
             }
         }
+        finally
+        {
+            executor.shutdownNow();
+        }
         
         return result;
     }
     
+    private static Map<Algorithm, String> getDigests(final Path nextPath, final PoddDigestCache cache)
+        throws IOException, NoSuchAlgorithmException
+    {
+        final BasicFileAttributes attributes = Files.readAttributes(nextPath, BasicFileAttributes.class);
+        final long size = attributes.size();
+        final long lastModified = attributes.lastModifiedTime().toMillis();
+        if(cache != null)
+        {
+            final Map<Algorithm, String> cached = cache.get(nextPath, size, lastModified);
+            if(cached != null)
+            {
+                return cached;
+            }
+        }
+        
+        final MessageDigest sha = MessageDigest.getInstance(Algorithm.SHA1.getName());
+        final MessageDigest md5 = MessageDigest.getInstance(Algorithm.MD5.getName());
+        final ByteBuffer buffer = ByteBuffer.allocate((int)Math.min(PoddDigestUtils.BUFFER_SIZE, Math.max(1, size)));
+        try (final FileChannel channel = FileChannel.open(nextPath, StandardOpenOption.READ))
+        {
+            while(channel.read(buffer) != -1)
+            {
+                buffer.flip();
+                sha.update(buffer.duplicate());
+                md5.update(buffer);
+                buffer.clear();
+            }
+        }
+        
+        final Map<Algorithm, String> digests = new EnumMap<>(Algorithm.class);
+        digests.put(Algorithm.MD5, new BigInteger(1, md5.digest()).toString(16));
+        digests.put(Algorithm.SHA1, new BigInteger(1, sha.digest()).toString(16));
+        if(cache != null)
+        {
+            cache.put(nextPath, size, lastModified, digests);
+        }
+        return digests;
+    }
+    
 }
@@ -254,6 +254,11 @@ public interface PoddWebConstants
      */
     public static final String PATH_DATA_REPOSITORY_LIST = "datarepositories/list";
     
+    /**
+     * Path to the administrator query metrics and slow query log service.
+     */
+    public static final String PATH_ADMIN_QUERY_METRICS = "admin/metrics/queries";
+    
     /**
      * Path to the ontology search service
      */
@@ -366,12 +371,188 @@ public interface PoddWebConstants
     // public static final String DEFAULT_PERMANENT_SESAME_REPOSITORY_LOCATION =
     // "http://localhost:8080/openrdf-sesame/";
     
+    /**
+     * The number of repositories that the artifacts for each set of schema ontologies are spread
+     * across. Set to 1 to keep all of the artifacts for a set of schema ontologies in a single
+     * repository. Artifacts that were assigned to a shard can not be found if this is later reduced
+     * to 1.
+     */
+    public static final String PROPERTY_PERMANENT_SESAME_REPOSITORY_SHARDS = "podd.repository.permanent.shards";
+    public static final String DEFAULT_PERMANENT_SESAME_REPOSITORY_SHARDS = "1";
+    
+    /**
+     * A comma separated list of Sesame server URLs that additional shard repositories are created
+     * on, in turn. If empty, additional shards are created alongside the first shard.
+     */
+    public static final String PROPERTY_PERMANENT_SESAME_REPOSITORY_SHARD_SERVERS =
+            "podd.repository.permanent.shard.servers";
+    public static final String DEFAULT_PERMANENT_SESAME_REPOSITORY_SHARD_SERVERS = "";
+    
+    /**
+     * How new artifacts are assigned to shards, either "hash" to use a hash of the artifact IRI, or
+     * "size" to use the shard containing the fewest statements.
+     */
+    public static final String PROPERTY_PERMANENT_SESAME_REPOSITORY_SHARD_PLACEMENT =
+            "podd.repository.permanent.shard.placement";
+    public static final String DEFAULT_PERMANENT_SESAME_REPOSITORY_SHARD_PLACEMENT = "hash";
+    
     /**
      * Link to a single management repository.
      */
     public static final String PROPERTY_MANAGEMENT_SESAME_LOCATION = "podd.repository.management.location";
     public static final String DEFAULT_MANAGEMENT_SESAME_LOCATION = "";
     
+    /**
+     * Set to true to keep a local in-memory copy of a remote management repository, so that reads
+     * do not need to be sent to the remote server. Changes are still written to the remote server.
+     * Has no effect if the management repository is not remote.
+     */
+    public static final String PROPERTY_MANAGEMENT_SESAME_REPLICA = "podd.repository.management.replica";
+    public static final String DEFAULT_MANAGEMENT_SESAME_REPLICA = "true";
+    
+    /**
+     * The minimum time, in milliseconds, between checks for changes made to the remote management
+     * repository by other servers. Set to 0 to check before every connection.
+     */
+    public static final String PROPERTY_MANAGEMENT_SESAME_REPLICA_SYNC_INTERVAL =
+            "podd.repository.management.replica.sync.interval";
+    public static final String DEFAULT_MANAGEMENT_SESAME_REPLICA_SYNC_INTERVAL = "1000";
+    
+    /**
+     * The number of threads used to load and classify schema ontologies at startup. Set to 0 to
+     * disable the startup warm-up phase.
+     */
+    public static final String PROPERTY_SCHEMA_WARMUP_THREADS = "podd.schema.warmup.threads";
+    public static final String DEFAULT_SCHEMA_WARMUP_THREADS = "2";
+    
+    /**
+     * The number of threads used to load and reason over schema ontologies from the schema
+     * manifest, as soon as the schema ontologies that they import are loaded. Set to 0 to use one
+     * thread for each available processor, or 1 to load them in sequence.
+     */
+    public static final String PROPERTY_SCHEMA_UPLOAD_THREADS = "podd.schema.upload.threads";
+    public static final String DEFAULT_SCHEMA_UPLOAD_THREADS = "0";
+    
+    /**
+     * The maximum time, in milliseconds, for the reasoner to check the consistency of an ontology.
+     * Set to 0 for no limit.
+     */
+    public static final String PROPERTY_REASONER_TIMEOUT_CONSISTENCY = "podd.reasoner.timeout.consistency";
+    public static final String DEFAULT_REASONER_TIMEOUT_CONSISTENCY = "120000";
+    
+    /**
+     * The maximum time, in milliseconds, for the reasoner to classify an ontology and generate the
+     * inferred axioms. Set to 0 for no limit.
+     */
+    public static final String PROPERTY_REASONER_TIMEOUT_CLASSIFICATION = "podd.reasoner.timeout.classification";
+    public static final String DEFAULT_REASONER_TIMEOUT_CLASSIFICATION = "300000";
+    
+    /**
+     * The maximum time, in milliseconds, for the reasoner to explain why an ontology is
+     * inconsistent. Set to 0 for no limit.
+     */
+    public static final String PROPERTY_REASONER_TIMEOUT_EXPLANATION = "podd.reasoner.timeout.explanation";
+    public static final String DEFAULT_REASONER_TIMEOUT_EXPLANATION = "30000";
+    
+    /**
+     * Set to true to generate inferred statements using RDFS forward chaining if the reasoner does
+     * not classify an ontology within its time limit, and false to fail instead.
+     */
+    public static final String PROPERTY_REASONER_FALLBACK = "podd.reasoner.fallback";
+    public static final String DEFAULT_REASONER_FALLBACK = "true";
+    
+    /**
+     * Set to true to reason over artifacts that only contain ABox axioms using a shared reasoner
+     * that has already classified the schema ontologies, and false to create a new reasoner for
+     * each artifact.
+     */
+    public static final String PROPERTY_REASONER_SCHEMA_REUSE = "podd.reasoner.schema.reuse";
+    public static final String DEFAULT_REASONER_SCHEMA_REUSE = "true";
+    
+    /**
+     * The type of store used to hold artifacts temporarily while they are uploaded, either "memory"
+     * or "native". Native stores are kept on disk in the PODD home directory, and should be used if
+     * very large artifacts are uploaded.
+     */
+    public static final String PROPERTY_TEMPORARY_REPOSITORY_TYPE = "podd.temporaryrepository.type";
+    public static final String DEFAULT_TEMPORARY_REPOSITORY_TYPE = "memory";
+    
+    /**
+     * The number of individuals at which an artifact is treated as large. Inferred statements for
+     * large artifacts are generated and stored in chunks, and the reasoner state for the artifact is
+     * discarded as soon as it has been stored.
+     */
+    public static final String PROPERTY_INGEST_LARGE_ARTIFACT_INDIVIDUALS = "podd.ingest.large.individuals";
+    public static final String DEFAULT_INGEST_LARGE_ARTIFACT_INDIVIDUALS = "10000";
+    
+    /**
+     * The number of individuals in each chunk when inferred statements are generated for large
+     * artifacts.
+     */
+    public static final String PROPERTY_INGEST_INFERENCE_CHUNK_SIZE = "podd.ingest.inference.chunksize";
+    public static final String DEFAULT_INGEST_INFERENCE_CHUNK_SIZE = "1000";
+    
+    /**
+     * The time, in milliseconds, at or above which a SPARQL query is added to the slow query log.
+     */
+    public static final String PROPERTY_QUERY_SLOW_THRESHOLD = "podd.query.slow.threshold";
+    public static final String DEFAULT_QUERY_SLOW_THRESHOLD = "50";
+    
+    /**
+     * The maximum number of recent slow queries that are kept in the slow query log.
+     */
+    public static final String PROPERTY_QUERY_SLOW_CAPACITY = "podd.query.slow.capacity";
+    public static final String DEFAULT_QUERY_SLOW_CAPACITY = "100";
+    
+    /**
+     * Set to false to disable timing of the phases of artifact uploads and updates. When enabled,
+     * the phases are returned in the Server-Timing header and aggregated in the query metrics.
+     */
+    public static final String PROPERTY_TRACE_PHASES = "podd.trace.phases";
+    public static final String DEFAULT_TRACE_PHASES = "true";
+    
+    /**
+     * The maximum size, in bytes, of an artifact upload, or -1 for no limit. Defaults to 1 GiB.
+     */
+    public static final String PROPERTY_UPLOAD_MAX_SIZE = "podd.upload.maxsize";
+    public static final String DEFAULT_UPLOAD_MAX_SIZE = "1073741824";
+    
+    /**
+     * Set to false to disable gzip and deflate compression of responses for clients that accept
+     * it.
+     */
+    public static final String PROPERTY_HTTP_COMPRESSION = "podd.http.compression";
+    public static final String DEFAULT_HTTP_COMPRESSION = "true";
+    
+    /**
+     * The maximum number of bytes of serialised artifact versions to keep in memory, or 0 to
+     * disable the cache. Defaults to 64 MiB.
+     */
+    public static final String PROPERTY_ARTIFACT_CACHE_MEMORY_SIZE = "podd.artifact.cache.memory";
+    public static final String DEFAULT_ARTIFACT_CACHE_MEMORY_SIZE = "67108864";
+    
+    /**
+     * A directory to write serialised artifact versions to after they are evicted from memory. The
+     * default, an empty string, discards evicted versions.
+     */
+    public static final String PROPERTY_ARTIFACT_CACHE_SPILL_DIRECTORY = "podd.artifact.cache.spill.directory";
+    public static final String DEFAULT_ARTIFACT_CACHE_SPILL_DIRECTORY = "";
+    
+    /**
+     * The maximum number of bytes of serialised artifact versions to keep in the spill directory.
+     * Defaults to 1 GiB.
+     */
+    public static final String PROPERTY_ARTIFACT_CACHE_SPILL_SIZE = "podd.artifact.cache.spill.size";
+    public static final String DEFAULT_ARTIFACT_CACHE_SPILL_SIZE = "1073741824";
+    
+    /**
+     * The number of milliseconds that the index of users and role mappings in the realm is used for
+     * before it is loaded again, so that changes made by other PODD instances sharing the user
+     * management graph are seen. Defaults to 30 seconds.
+     */
+    public static final String PROPERTY_USER_DIRECTORY_TIMEOUT = "podd.user.directory.timeout";
+    public static final String DEFAULT_USER_DIRECTORY_TIMEOUT = "30000";
+    
     /**
      * Key used to select published artifacts. Defaults to true.
      */
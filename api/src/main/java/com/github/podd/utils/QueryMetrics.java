@@ -0,0 +1,453 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ *
+ * Copyright (C) 2009-2013 The University Of Queensland
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.utils;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.openrdf.model.URI;
+import org.openrdf.query.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records latency histograms and result counts for each named query operation, and keeps a bounded
+ * log of the most recent slow queries, including the query text, contexts and the calling method.
+ * <p>
+ * The shared instance for SPARQL queries is available from {@link #getInstance()}, and is
+ * registered with the platform MBean server under {@link #OBJECT_NAME} using
+ * {@link #registerMBean()}. HTTP request timings and the {@link PhaseTimer} phases of long running
+ * operations are recorded separately, in the instances from {@link #getRequestInstance()} and
+ * {@link #getPhaseInstance()}, so that they do not distort the query percentiles.
+ *
+ * @author Peter Ansell p_ansell@yahoo.com
+ */
+public final class QueryMetrics implements QueryMetricsMXBean
+{
+    /**
+     * The JMX object name that the shared instance is registered under.
+     */
+    public static final String OBJECT_NAME = "com.github.podd:type=QueryMetrics";
+    
+    /**
+     * The JMX object name that the shared HTTP request timing instance is registered under.
+     */
+    public static final String REQUEST_OBJECT_NAME = "com.github.podd:type=RequestMetrics";
+    
+    /**
+     * The JMX object name that the shared operation phase timing instance is registered under.
+     */
+    public static final String PHASE_OBJECT_NAME = "com.github.podd:type=PhaseMetrics";
+    
+    /**
+     * The default time, in milliseconds, at or above which queries are recorded as slow queries.
+     */
+    public static final long DEFAULT_SLOW_QUERY_THRESHOLD = 50;
+    
+    /**
+     * The default number of slow queries to keep.
+     */
+    public static final int DEFAULT_SLOW_QUERY_CAPACITY = 100;
+    
+    private static final QueryMetrics INSTANCE = new QueryMetrics(QueryMetrics.OBJECT_NAME);
+    
+    private static final QueryMetrics REQUEST_INSTANCE = new QueryMetrics(QueryMetrics.REQUEST_OBJECT_NAME);
+    
+    private static final QueryMetrics PHASE_INSTANCE = new QueryMetrics(QueryMetrics.PHASE_OBJECT_NAME);
+    
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+    
+    private final String objectName;
+    
+    private final ConcurrentMap<String, LatencyHistogram> histograms =
+            new ConcurrentHashMap<String, LatencyHistogram>();
+    
+    private final ArrayDeque<SlowQuery> slowQueries = new ArrayDeque<SlowQuery>();
+    
+    private volatile long slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(
+            QueryMetrics.DEFAULT_SLOW_QUERY_THRESHOLD);
+    
+    private volatile int slowQueryCapacity = QueryMetrics.DEFAULT_SLOW_QUERY_CAPACITY;
+    
+    /**
+     * @return The shared instance that all PODD query call sites record to.
+     */
+    public static QueryMetrics getInstance()
+    {
+        return QueryMetrics.INSTANCE;
+    }
+    
+    /**
+     * @return The shared instance that the time taken to handle each HTTP request is recorded to.
+     */
+    public static QueryMetrics getRequestInstance()
+    {
+        return QueryMetrics.REQUEST_INSTANCE;
+    }
+    
+    /**
+     * @return The shared instance that {@link PhaseTimer} records the phases of each operation to.
+     */
+    public static QueryMetrics getPhaseInstance()
+    {
+        return QueryMetrics.PHASE_INSTANCE;
+    }
+    
+    /**
+     * Creates a new, independent, metrics instance. Most code should use {@link #getInstance()}.
+     */
+    public QueryMetrics()
+    {
+        this(QueryMetrics.OBJECT_NAME);
+    }
+    
+    /**
+     * Creates a new, independent, metrics instance that is registered under the given JMX object
+     * name.
+     *
+     * @param objectName
+     *            The JMX object name to use in {@link #registerMBean()}.
+     */
+    public QueryMetrics(final String objectName)
+    {
+        if(objectName == null)
+        {
+            throw new NullPointerException("JMX object name must not be null");
+        }
+        this.objectName = objectName;
+    }
+    
+    /**
+     * Registers this instance with the platform MBean server, if an MBean with the object name
+     * of this instance is not already registered.
+     */
+    public void registerMBean()
+    {
+        try
+        {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName name = new ObjectName(this.objectName);
+            if(!server.isRegistered(name))
+            {
+                server.registerMBean(this, name);
+            }
+        }
+        catch(final JMException e)
+        {
+            this.log.warn("Could not register query metrics MBean", e);
+        }
+    }
+    
+    /**
+     * Records the latency and result count for an operation that is not a single SPARQL query, and
+     * so is not added to the slow query log.
+     *
+     * @param operation
+     *            The name of the operation.
+     * @param nanos
+     *            The time the operation took, in nanoseconds.
+     * @param results
+     *            The number of rows or statements the operation returned.
+     */
+    public void record(final String operation, final long nanos, final long results)
+    {
+        this.getHistogram(operation).record(nanos, results);
+    }
+    
+    /**
+     * Records the latency and result count for a SPARQL query, and adds it to the slow query log if
+     * it took longer than the slow query threshold.
+     *
+     * @param operation
+     *            The name of the operation, which must not be null.
+     * @param query
+     *            The query that was executed.
+     * @param nanos
+     *            The time the query took, in nanoseconds.
+     * @param results
+     *            The number of rows or statements the query returned.
+     * @param contexts
+     *            The contexts that the query was evaluated against.
+     */
+    public void recordQuery(final String operation, final Query query, final long nanos, final long results,
+            final URI... contexts)
+    {
+        if(operation == null)
+        {
+            throw new NullPointerException("Query operation name must not be null");
+        }
+        
+        this.getHistogram(operation).record(nanos, results);
+        
+        if(nanos >= this.slowQueryThresholdNanos)
+        {
+            final String caller = this.findCaller();
+            
+            final List<String> contextStrings = new ArrayList<String>(contexts.length);
+            for(final URI nextContext : contexts)
+            {
+                if(nextContext != null)
+                {
+                    contextStrings.add(nextContext.stringValue());
+                }
+            }
+            
+            final SlowQuery slowQuery =
+                    new SlowQuery(new Date(), operation, QueryMetrics.toMillis(nanos), results,
+                            String.valueOf(query), String.valueOf(query.getBindings()),
+                            contextStrings.toArray(new String[contextStrings.size()]), caller);
+            
+            this.log.debug("Slow query: {}", slowQuery);
+            
+            synchronized(this.slowQueries)
+            {
+                this.slowQueries.addFirst(slowQuery);
+                while(this.slowQueries.size() > this.slowQueryCapacity)
+                {
+                    this.slowQueries.removeLast();
+                }
+            }
+        }
+    }
+    
+    @Override
+    public List<QueryStatistics> getStatistics()
+    {
+        final List<String> operations = new ArrayList<String>(this.histograms.keySet());
+        Collections.sort(operations);
+        
+        final List<QueryStatistics> results = new ArrayList<QueryStatistics>(operations.size());
+        for(final String nextOperation : operations)
+        {
+            final LatencyHistogram histogram = this.histograms.get(nextOperation);
+            if(histogram != null)
+            {
+                results.add(histogram.getStatistics(nextOperation));
+            }
+        }
+        return results;
+    }
+    
+    @Override
+    public List<SlowQuery> getSlowQueries()
+    {
+        synchronized(this.slowQueries)
+        {
+            return new ArrayList<SlowQuery>(this.slowQueries);
+        }
+    }
+    
+    @Override
+    public long getSlowQueryThreshold()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(this.slowQueryThresholdNanos);
+    }
+    
+    @Override
+    public void setSlowQueryThreshold(final long slowQueryThreshold)
+    {
+        if(slowQueryThreshold < 0)
+        {
+            throw new IllegalArgumentException("Slow query threshold must not be negative");
+        }
+        this.slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryThreshold);
+    }
+    
+    @Override
+    public int getSlowQueryCapacity()
+    {
+        return this.slowQueryCapacity;
+    }
+    
+    @Override
+    public void setSlowQueryCapacity(final int slowQueryCapacity)
+    {
+        if(slowQueryCapacity < 0)
+        {
+            throw new IllegalArgumentException("Slow query capacity must not be negative");
+        }
+        synchronized(this.slowQueries)
+        {
+            this.slowQueryCapacity = slowQueryCapacity;
+            while(this.slowQueries.size() > slowQueryCapacity)
+            {
+                this.slowQueries.removeLast();
+            }
+        }
+    }
+    
+    @Override
+    public void reset()
+    {
+        this.histograms.clear();
+        synchronized(this.slowQueries)
+        {
+            this.slowQueries.clear();
+        }
+    }
+    
+    private LatencyHistogram getHistogram(final String operation)
+    {
+        LatencyHistogram result = this.histograms.get(operation);
+        if(result == null)
+        {
+            final LatencyHistogram newHistogram = new LatencyHistogram();
+            result = this.histograms.putIfAbsent(operation, newHistogram);
+            if(result == null)
+            {
+                result = newHistogram;
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Finds the first method on the current stack outside of this class and {@link RdfUtility}.
+     * This is only called for slow queries, as creating a stack trace is not cheap.
+     */
+    private String findCaller()
+    {
+        for(final StackTraceElement nextElement : new Throwable().getStackTrace())
+        {
+            final String className = nextElement.getClassName();
+            if(!className.equals(QueryMetrics.class.getName()) && !className.equals(RdfUtility.class.getName()))
+            {
+                final String simpleName = className.substring(className.lastIndexOf('.') + 1);
+                return simpleName + "." + nextElement.getMethodName() + ":" + nextElement.getLineNumber();
+            }
+        }
+        return "unknown";
+    }
+    
+    private static double toMillis(final long nanos)
+    {
+        return nanos / 1000000.0d;
+    }
+    
+    /**
+     * A lock-free log-linear histogram of latencies in microseconds, with 8 linear sub-buckets for
+     * each power of two, giving percentiles that are accurate to within 12.5%.
+     */
+    private static final class LatencyHistogram
+    {
+        private static final int SUB_BUCKET_BITS = 3;
+        
+        private static final int SUB_BUCKETS = 1 << LatencyHistogram.SUB_BUCKET_BITS;
+        
+        private static final int BUCKETS = (64 - LatencyHistogram.SUB_BUCKET_BITS + 1) * LatencyHistogram.SUB_BUCKETS;
+        
+        private final AtomicLongArray buckets = new AtomicLongArray(LatencyHistogram.BUCKETS);
+        
+        private final AtomicLong count = new AtomicLong();
+        
+        private final AtomicLong totalNanos = new AtomicLong();
+        
+        private final AtomicLong maxNanos = new AtomicLong();
+        
+        private final AtomicLong results = new AtomicLong();
+        
+        static int bucketIndex(final long micros)
+        {
+            if(micros < LatencyHistogram.SUB_BUCKETS)
+            {
+                return (int)Math.max(0, micros);
+            }
+            final int exponent = 63 - Long.numberOfLeadingZeros(micros);
+            final long shifted = micros >>> (exponent - LatencyHistogram.SUB_BUCKET_BITS);
+            final int subBucket = (int)(shifted & (LatencyHistogram.SUB_BUCKETS - 1));
+            return (exponent - LatencyHistogram.SUB_BUCKET_BITS + 1) * LatencyHistogram.SUB_BUCKETS + subBucket;
+        }
+        
+        static long bucketUpperBound(final int index)
+        {
+            if(index < LatencyHistogram.SUB_BUCKETS)
+            {
+                return index;
+            }
+            final int exponent = index / LatencyHistogram.SUB_BUCKETS + LatencyHistogram.SUB_BUCKET_BITS - 1;
+            final int subBucket = index % LatencyHistogram.SUB_BUCKETS;
+            final long base = LatencyHistogram.SUB_BUCKETS + subBucket + 1;
+            return (base << (exponent - LatencyHistogram.SUB_BUCKET_BITS)) - 1;
+        }
+        
+        void record(final long nanos, final long resultCount)
+        {
+            final long safeNanos = Math.max(0, nanos);
+            this.buckets.incrementAndGet(LatencyHistogram.bucketIndex(TimeUnit.NANOSECONDS.toMicros(safeNanos)));
+            this.count.incrementAndGet();
+            this.totalNanos.addAndGet(safeNanos);
+            this.results.addAndGet(resultCount);
+            
+            long currentMax = this.maxNanos.get();
+            while(safeNanos > currentMax && !this.maxNanos.compareAndSet(currentMax, safeNanos))
+            {
+                currentMax = this.maxNanos.get();
+            }
+        }
+        
+        QueryStatistics getStatistics(final String operation)
+        {
+            final long[] snapshot = new long[LatencyHistogram.BUCKETS];
+            long total = 0;
+            for(int i = 0; i < snapshot.length; i++)
+            {
+                snapshot[i] = this.buckets.get(i);
+                total += snapshot[i];
+            }
+            
+            final long totalCount = this.count.get();
+            final double mean = totalCount == 0 ? 0 : QueryMetrics.toMillis(this.totalNanos.get()) / totalCount;
+            final double max = QueryMetrics.toMillis(this.maxNanos.get());
+            
+            return new QueryStatistics(operation, totalCount, this.results.get(), mean, Math.min(max,
+                    this.percentile(snapshot, total, 0.50d)), Math.min(max, this.percentile(snapshot, total, 0.95d)),
+                    Math.min(max, this.percentile(snapshot, total, 0.99d)), max);
+        }
+        
+        private double percentile(final long[] snapshot, final long total, final double percentile)
+        {
+            if(total == 0)
+            {
+                return 0;
+            }
+            final long rank = (long)Math.ceil(percentile * total);
+            long seen = 0;
+            for(int i = 0; i < snapshot.length; i++)
+            {
+                seen += snapshot[i];
+                if(seen >= rank)
+                {
+                    return LatencyHistogram.bucketUpperBound(i) / 1000.0d;
+                }
+            }
+            return LatencyHistogram.bucketUpperBound(snapshot.length - 1) / 1000.0d;
+        }
+    }
+}
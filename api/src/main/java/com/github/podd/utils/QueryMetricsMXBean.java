@@ -0,0 +1,65 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ *
+ * Copyright (C) 2009-2013 The University Of Queensland
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.utils;
+
+import java.util.List;
+
+/**
+ * JMX management interface for {@link QueryMetrics}.
+ *
+ * @author Peter Ansell p_ansell@yahoo.com
+ */
+public interface QueryMetricsMXBean
+{
+    /**
+     * @return The latency and result count statistics for each operation that has been recorded,
+     *         sorted by operation name.
+     */
+    List<QueryStatistics> getStatistics();
+    
+    /**
+     * @return The most recent slow queries, with the most recent first.
+     */
+    List<SlowQuery> getSlowQueries();
+    
+    /**
+     * @return The time, in milliseconds, at or above which a query is recorded as a slow query.
+     */
+    long getSlowQueryThreshold();
+    
+    /**
+     * @param slowQueryThreshold
+     *            The time, in milliseconds, at or above which a query is recorded as a slow query.
+     */
+    void setSlowQueryThreshold(long slowQueryThreshold);
+    
+    /**
+     * @return The maximum number of slow queries that are kept.
+     */
+    int getSlowQueryCapacity();
+    
+    /**
+     * @param slowQueryCapacity
+     *            The maximum number of slow queries that are kept.
+     */
+    void setSlowQueryCapacity(int slowQueryCapacity);
+    
+    /**
+     * Discards all of the statistics and slow queries that have been recorded.
+     */
+    void reset();
+}
@@ -0,0 +1,109 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ *
+ * Copyright (C) 2009-2013 The University Of Queensland
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.utils;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * A snapshot of the latency and result count statistics for a single operation recorded by
+ * {@link QueryMetrics}. Latency percentiles are approximate, and are accurate to within 12.5%.
+ *
+ * @author Peter Ansell p_ansell@yahoo.com
+ */
+public class QueryStatistics
+{
+    private final String operation;
+    private final long count;
+    private final long results;
+    private final double meanMillis;
+    private final double p50Millis;
+    private final double p95Millis;
+    private final double p99Millis;
+    private final double maxMillis;
+    
+    @ConstructorProperties({ "operation", "count", "results", "meanMillis", "p50Millis", "p95Millis", "p99Millis",
+            "maxMillis" })
+    public QueryStatistics(final String operation, final long count, final long results, final double meanMillis,
+            final double p50Millis, final double p95Millis, final double p99Millis, final double maxMillis)
+    {
+        this.operation = operation;
+        this.count = count;
+        this.results = results;
+        this.meanMillis = meanMillis;
+        this.p50Millis = p50Millis;
+        this.p95Millis = p95Millis;
+        this.p99Millis = p99Millis;
+        this.maxMillis = maxMillis;
+    }
+    
+    /**
+     * @return The name of the operation.
+     */
+    public String getOperation()
+    {
+        return this.operation;
+    }
+    
+    /**
+     * @return The number of times the operation was executed.
+     */
+    public long getCount()
+    {
+        return this.count;
+    }
+    
+    /**
+     * @return The total number of rows or statements returned by the operation.
+     */
+    public long getResults()
+    {
+        return this.results;
+    }
+    
+    public double getMeanMillis()
+    {
+        return this.meanMillis;
+    }
+    
+    public double getP50Millis()
+    {
+        return this.p50Millis;
+    }
+    
+    public double getP95Millis()
+    {
+        return this.p95Millis;
+    }
+    
+    public double getP99Millis()
+    {
+        return this.p99Millis;
+    }
+    
+    public double getMaxMillis()
+    {
+        return this.maxMillis;
+    }
+    
+    @Override
+    public String toString()
+    {
+        return this.operation + ": count=" + this.count + " results=" + this.results + " mean=" + this.meanMillis
+                + "ms p50=" + this.p50Millis + "ms p95=" + this.p95Millis + "ms p99=" + this.p99Millis + "ms max="
+                + this.maxMillis + "ms";
+    }
+}
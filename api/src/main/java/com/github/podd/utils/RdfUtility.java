@@ -66,8 +66,28 @@ public class RdfUtility
      * @param contexts
      * @return
      * @throws OpenRDFException
+     * @deprecated Use {@link #executeGraphQuery(String, GraphQuery, URI...)} so that the query is
+     *             recorded under a name that identifies it.
      */
+    @Deprecated
     public static Model executeGraphQuery(final GraphQuery graphQuery, final URI... contexts) throws OpenRDFException
+    {
+        return RdfUtility.executeGraphQuery("RdfUtility.executeGraphQuery", graphQuery, contexts);
+    }
+    
+    /**
+     * Helper method to execute a given SPARQL Graph query, recording its latency and statement
+     * count in {@link QueryMetrics} under the given operation name.
+     *
+     * @param operation
+     *            The name to record the query under, which must not be null.
+     * @param graphQuery
+     * @param contexts
+     * @return
+     * @throws OpenRDFException
+     */
+    public static Model executeGraphQuery(final String operation, final GraphQuery graphQuery,
+            final URI... contexts) throws OpenRDFException
     {
         final DatasetImpl dataset = new DatasetImpl();
         for(final URI uri : contexts)
@@ -76,18 +96,10 @@ public class RdfUtility
         }
         graphQuery.setDataset(dataset);
         final Model results = new LinkedHashModel();
-        final long before = System.currentTimeMillis();
+        final long before = System.nanoTime();
         graphQuery.evaluate(new StatementCollector(results));
-        final long total = System.currentTimeMillis() - before;
-        RdfUtility.log.debug("graph query took {}", Long.toString(total));
-        if(total > 50 && RdfUtility.log.isDebugEnabled())
-        {
-            new Throwable().printStackTrace();
-        }
-        else if(total > 30 && RdfUtility.log.isTraceEnabled())
-        {
-            new Throwable().printStackTrace();
-        }
+        final long total = System.nanoTime() - before;
+        QueryMetrics.getInstance().recordQuery(operation, graphQuery, total, results.size(), contexts);
         
         return results;
     }
@@ -99,9 +111,29 @@ public class RdfUtility
      * @param contexts
      * @return
      * @throws OpenRDFException
+     * @deprecated Use {@link #executeTupleQuery(String, TupleQuery, URI...)} so that the query is
+     *             recorded under a name that identifies it.
      */
+    @Deprecated
     public static QueryResultCollector executeTupleQuery(final TupleQuery tupleQuery, final URI... contexts)
         throws OpenRDFException
+    {
+        return RdfUtility.executeTupleQuery("RdfUtility.executeTupleQuery", tupleQuery, contexts);
+    }
+    
+    /**
+     * Helper method to execute a given SPARQL Tuple query, which may have had bindings attached,
+     * recording its latency and row count in {@link QueryMetrics} under the given operation name.
+     *
+     * @param operation
+     *            The name to record the query under, which must not be null.
+     * @param tupleQuery
+     * @param contexts
+     * @return
+     * @throws OpenRDFException
+     */
+    public static QueryResultCollector executeTupleQuery(final String operation, final TupleQuery tupleQuery,
+            final URI... contexts) throws OpenRDFException
     {
         final DatasetImpl dataset = new DatasetImpl();
         for(final URI uri : contexts)
@@ -111,18 +143,11 @@ public class RdfUtility
         tupleQuery.setDataset(dataset);
         
         final QueryResultCollector results = new QueryResultCollector();
-        final long before = System.currentTimeMillis();
+        final long before = System.nanoTime();
         QueryResults.report(tupleQuery.evaluate(), results);
-        final long total = System.currentTimeMillis() - before;
-        RdfUtility.log.debug("tuple query took {}", Long.toString(total));
-        if(total > 50 && RdfUtility.log.isDebugEnabled())
-        {
-            new Throwable().printStackTrace();
-        }
-        else if(total > 30 && RdfUtility.log.isTraceEnabled())
-        {
-            new Throwable().printStackTrace();
-        }
+        final long total = System.nanoTime() - before;
+        QueryMetrics.getInstance().recordQuery(operation, tupleQuery, total, results.getBindingSets().size(),
+                contexts);
         
         return results;
     }
@@ -0,0 +1,594 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ *
+ * Copyright (C) 2009-2013 The University Of Queensland
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.utils;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openrdf.rio.RDFFormat;
+import org.semanticweb.owlapi.model.IRI;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A size bounded cache of serialised artifact versions, keyed on the version IRI, the RDF format
+ * and whether inferred statements were included. Artifact versions are never modified after they
+ * are stored, so entries only need to be invalidated when an artifact is deleted, replaced by a
+ * new version, or its publication status changes. Each entry also holds the modification date of
+ * the version, so that conditional requests can be answered from the cache.
+ * <p>
+ * The least recently used entries are evicted when the in-memory size is exceeded. If a spill
+ * directory is configured, evicted entries are written to files in that directory until the spill
+ * size is also exceeded. Spill files are written without holding the lock on the cache. Spill
+ * files left by a previous instance are deleted when the cache is created, and all spill files are
+ * deleted by {@link #shutDown()}.
+ * <p>
+ * To avoid caching a version that is invalidated while it is being serialised, callers must fetch
+ * the {@link #getGeneration()} before resolving the artifact version, and pass it to
+ * {@link #put(InferredOWLOntologyID, RDFFormat, boolean, byte[], Date, long)}.
+ *
+ * @author Peter Ansell p_ansell@yahoo.com
+ */
+public final class RenderedArtifactCache
+{
+    /**
+     * The default maximum number of bytes to keep in memory.
+     */
+    public static final long DEFAULT_MAXIMUM_MEMORY_SIZE = 64L * 1024 * 1024;
+    
+    private static final String SPILL_FILE_PREFIX = "artifact-";
+    
+    private static final String SPILL_FILE_SUFFIX = ".cache";
+    
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+    
+    private final long maximumMemorySize;
+    
+    private final Path spillDirectory;
+    
+    private final long maximumSpillSize;
+    
+    private final AtomicLong generation = new AtomicLong();
+    
+    private final LinkedHashMap<RenderedArtifactKey, CachedArtifact> memoryEntries =
+            new LinkedHashMap<RenderedArtifactKey, CachedArtifact>(16, 0.75f, true);
+    
+    private final LinkedHashMap<RenderedArtifactKey, CachedArtifact> spilledEntries =
+            new LinkedHashMap<RenderedArtifactKey, CachedArtifact>(16, 0.75f, true);
+    
+    private long memorySize;
+    
+    private long spillSize;
+    
+    /**
+     * Creates a cache that only keeps entries in memory.
+     *
+     * @param maximumMemorySize
+     *            The maximum number of bytes to keep in memory, or 0 to disable the cache.
+     */
+    public RenderedArtifactCache(final long maximumMemorySize)
+    {
+        this(maximumMemorySize, null, 0);
+    }
+    
+    /**
+     * @param maximumMemorySize
+     *            The maximum number of bytes to keep in memory.
+     * @param spillDirectory
+     *            The directory to write entries to after they are evicted from memory, or null to
+     *            discard evicted entries.
+     * @param maximumSpillSize
+     *            The maximum number of bytes to keep in the spill directory.
+     */
+    public RenderedArtifactCache(final long maximumMemorySize, final Path spillDirectory, final long maximumSpillSize)
+    {
+        this.maximumMemorySize = Math.max(0, maximumMemorySize);
+        this.spillDirectory = spillDirectory;
+        this.maximumSpillSize = spillDirectory != null ? Math.max(0, maximumSpillSize) : 0;
+        this.deleteSpillDirectory();
+    }
+    
+    /**
+     * Removes all entries from the cache, including any spilled entries.
+     */
+    public void clear()
+    {
+        final List<CachedArtifact> removed;
+        synchronized(this)
+        {
+            this.generation.incrementAndGet();
+            this.memoryEntries.clear();
+            this.memorySize = 0;
+            removed = new ArrayList<CachedArtifact>(this.spilledEntries.values());
+            this.spilledEntries.clear();
+            this.spillSize = 0;
+        }
+        this.deleteSpillFiles(removed);
+    }
+    
+    /**
+     * Returns the serialised artifact version if it is in the cache.
+     *
+     * @param artifactIRI
+     *            The artifact IRI, which must match the artifact that the version was stored for.
+     * @param versionIRI
+     *            The version IRI of the artifact.
+     * @param format
+     *            The format that the artifact was serialised to.
+     * @param includeInferred
+     *            True if inferred statements were included.
+     * @return The serialised artifact, or null if it was not found.
+     */
+    public byte[] get(final IRI artifactIRI, final IRI versionIRI, final RDFFormat format,
+            final boolean includeInferred)
+    {
+        final RenderedArtifact rendered = this.getRenderedArtifact(artifactIRI, versionIRI, format, includeInferred);
+        return rendered != null ? rendered.getContent() : null;
+    }
+    
+    /**
+     * Returns the serialised artifact version, and the modification date that was stored with it,
+     * if it is in the cache.
+     *
+     * @param artifactIRI
+     *            The artifact IRI, which must match the artifact that the version was stored for.
+     * @param versionIRI
+     *            The version IRI of the artifact.
+     * @param format
+     *            The format that the artifact was serialised to.
+     * @param includeInferred
+     *            True if inferred statements were included.
+     * @return The serialised artifact, or null if it was not found.
+     */
+    public RenderedArtifact getRenderedArtifact(final IRI artifactIRI, final IRI versionIRI,
+            final RDFFormat format, final boolean includeInferred)
+    {
+        final RenderedArtifactKey key = new RenderedArtifactKey(versionIRI, format, includeInferred);
+        final CachedArtifact spilled;
+        synchronized(this)
+        {
+            final CachedArtifact inMemory = this.memoryEntries.get(key);
+            if(inMemory != null)
+            {
+                return inMemory.artifactIRI.equals(artifactIRI) ? new RenderedArtifact(inMemory.content,
+                        inMemory.modificationDate) : null;
+            }
+            spilled = this.spilledEntries.get(key);
+        }
+        
+        if(spilled == null || !spilled.artifactIRI.equals(artifactIRI))
+        {
+            return null;
+        }
+        
+        try
+        {
+            return new RenderedArtifact(Files.readAllBytes(spilled.file), spilled.modificationDate);
+        }
+        catch(final IOException e)
+        {
+            // The file may have been evicted concurrently
+            this.log.debug("Could not read spilled artifact: {}", spilled.file);
+            return null;
+        }
+    }
+    
+    /**
+     * @return The generation of the cache, which changes each time an entry is invalidated.
+     */
+    public long getGeneration()
+    {
+        return this.generation.get();
+    }
+    
+    /**
+     * @return The number of bytes that are currently cached in memory.
+     */
+    public synchronized long getMemorySize()
+    {
+        return this.memorySize;
+    }
+    
+    /**
+     * @return The number of bytes that are currently cached in the spill directory.
+     */
+    public synchronized long getSpillSize()
+    {
+        return this.spillSize;
+    }
+    
+    /**
+     * Removes all cached versions of the given artifact.
+     *
+     * @param artifactIRI
+     *            The artifact IRI.
+     */
+    public void invalidate(final IRI artifactIRI)
+    {
+        final List<CachedArtifact> removed = new ArrayList<CachedArtifact>();
+        synchronized(this)
+        {
+            this.generation.incrementAndGet();
+            
+            final Iterator<CachedArtifact> memoryIterator = this.memoryEntries.values().iterator();
+            while(memoryIterator.hasNext())
+            {
+                final CachedArtifact next = memoryIterator.next();
+                if(next.artifactIRI.equals(artifactIRI))
+                {
+                    memoryIterator.remove();
+                    this.memorySize -= next.size;
+                }
+            }
+            
+            final Iterator<CachedArtifact> spilledIterator = this.spilledEntries.values().iterator();
+            while(spilledIterator.hasNext())
+            {
+                final CachedArtifact next = spilledIterator.next();
+                if(next.artifactIRI.equals(artifactIRI))
+                {
+                    spilledIterator.remove();
+                    this.spillSize -= next.size;
+                    removed.add(next);
+                }
+            }
+        }
+        this.deleteSpillFiles(removed);
+    }
+    
+    /**
+     * @return True if the cache will store any entries.
+     */
+    public boolean isEnabled()
+    {
+        return this.maximumMemorySize > 0 || this.maximumSpillSize > 0;
+    }
+    
+    /**
+     * Adds a serialised artifact version to the cache, without a modification date, unless an
+     * entry was invalidated after the given generation was fetched.
+     *
+     * @param artifactID
+     *            The artifact, including the version IRI, that was serialised.
+     * @param format
+     *            The format that the artifact was serialised to.
+     * @param includeInferred
+     *            True if inferred statements were included.
+     * @param content
+     *            The serialised artifact.
+     * @param expectedGeneration
+     *            The result of {@link #getGeneration()} before the artifact version was resolved.
+     */
+    public void put(final InferredOWLOntologyID artifactID, final RDFFormat format, final boolean includeInferred,
+            final byte[] content, final long expectedGeneration)
+    {
+        this.put(artifactID, format, includeInferred, content, null, expectedGeneration);
+    }
+    
+    /**
+     * Adds a serialised artifact version to the cache, unless an entry was invalidated after the
+     * given generation was fetched.
+     *
+     * @param artifactID
+     *            The artifact, including the version IRI, that was serialised.
+     * @param format
+     *            The format that the artifact was serialised to.
+     * @param includeInferred
+     *            True if inferred statements were included.
+     * @param content
+     *            The serialised artifact.
+     * @param modificationDate
+     *            The modification date of the artifact version, or null if it is not known.
+     * @param expectedGeneration
+     *            The result of {@link #getGeneration()} before the artifact version was resolved.
+     */
+    public void put(final InferredOWLOntologyID artifactID, final RDFFormat format, final boolean includeInferred,
+            final byte[] content, final Date modificationDate, final long expectedGeneration)
+    {
+        if(!this.isEnabled() || artifactID.getVersionIRI() == null)
+        {
+            return;
+        }
+        
+        final RenderedArtifactKey key = new RenderedArtifactKey(artifactID.getVersionIRI(), format, includeInferred);
+        final CachedArtifact cachedArtifact =
+                new CachedArtifact(artifactID.getOntologyIRI(), content, modificationDate);
+        final List<Map.Entry<RenderedArtifactKey, CachedArtifact>> evicted =
+                new ArrayList<Map.Entry<RenderedArtifactKey, CachedArtifact>>();
+        
+        synchronized(this)
+        {
+            if(this.generation.get() != expectedGeneration || this.memoryEntries.containsKey(key)
+                    || this.spilledEntries.containsKey(key))
+            {
+                return;
+            }
+            
+            if(cachedArtifact.size > this.maximumMemorySize)
+            {
+                evicted.add(new AbstractMap.SimpleImmutableEntry<RenderedArtifactKey, CachedArtifact>(key,
+                        cachedArtifact));
+            }
+            else
+            {
+                this.memoryEntries.put(key, cachedArtifact);
+                this.memorySize += cachedArtifact.size;
+                
+                final Iterator<Map.Entry<RenderedArtifactKey, CachedArtifact>> iterator =
+                        this.memoryEntries.entrySet().iterator();
+                while(this.memorySize > this.maximumMemorySize && iterator.hasNext())
+                {
+                    final Map.Entry<RenderedArtifactKey, CachedArtifact> eldest = iterator.next();
+                    iterator.remove();
+                    this.memorySize -= eldest.getValue().size;
+                    evicted.add(new AbstractMap.SimpleImmutableEntry<RenderedArtifactKey, CachedArtifact>(eldest
+                            .getKey(), eldest.getValue()));
+                }
+            }
+        }
+        
+        for(final Map.Entry<RenderedArtifactKey, CachedArtifact> nextEvicted : evicted)
+        {
+            this.spill(nextEvicted.getKey(), nextEvicted.getValue(), expectedGeneration);
+        }
+    }
+    
+    /**
+     * Removes all entries from the cache and deletes the spill files. The cache can still be used
+     * after it is shut down, but entries will only be spilled to disk again after the spill
+     * directory is recreated.
+     */
+    public void shutDown()
+    {
+        this.clear();
+        this.deleteSpillDirectory();
+    }
+    
+    /**
+     * @return The number of entries in the cache, both in memory and spilled.
+     */
+    public synchronized int size()
+    {
+        return this.memoryEntries.size() + this.spilledEntries.size();
+    }
+    
+    private void deleteSpillFile(final Path file)
+    {
+        try
+        {
+            Files.deleteIfExists(file);
+        }
+        catch(final IOException e)
+        {
+            this.log.warn("Could not delete spilled artifact: {}", file);
+        }
+    }
+    
+    private void deleteSpillFiles(final List<CachedArtifact> spilled)
+    {
+        for(final CachedArtifact nextSpilled : spilled)
+        {
+            this.deleteSpillFile(nextSpilled.file);
+        }
+    }
+    
+    /**
+     * Deletes all spill files in the spill directory, including any left by a previous instance,
+     * and then the directory itself if it is empty.
+     */
+    private void deleteSpillDirectory()
+    {
+        if(this.spillDirectory == null || !Files.isDirectory(this.spillDirectory))
+        {
+            return;
+        }
+        
+        try (final DirectoryStream<Path> spillFiles =
+                Files.newDirectoryStream(this.spillDirectory, RenderedArtifactCache.SPILL_FILE_PREFIX + "*"
+                        + RenderedArtifactCache.SPILL_FILE_SUFFIX);)
+        {
+            for(final Path nextFile : spillFiles)
+            {
+                this.deleteSpillFile(nextFile);
+            }
+        }
+        catch(final IOException e)
+        {
+            this.log.warn("Could not list spill directory: {}", this.spillDirectory);
+        }
+        
+        try
+        {
+            Files.deleteIfExists(this.spillDirectory);
+        }
+        catch(final IOException e)
+        {
+            // The directory contains other files, so it is left in place
+            this.log.debug("Could not delete spill directory: {}", this.spillDirectory);
+        }
+    }
+    
+    /**
+     * Writes an entry evicted from memory to the spill directory, evicting the least recently used
+     * spilled entries as necessary. Must be called without holding the lock on this cache. The
+     * entry is discarded if any entry was invalidated after the given generation was fetched.
+     */
+    private void spill(final RenderedArtifactKey key, final CachedArtifact evicted, final long expectedGeneration)
+    {
+        if(evicted.size > this.maximumSpillSize)
+        {
+            return;
+        }
+        
+        final Path file;
+        try
+        {
+            Files.createDirectories(this.spillDirectory);
+            file =
+                    Files.createTempFile(this.spillDirectory, RenderedArtifactCache.SPILL_FILE_PREFIX,
+                            RenderedArtifactCache.SPILL_FILE_SUFFIX);
+            Files.write(file, evicted.content);
+        }
+        catch(final IOException e)
+        {
+            this.log.warn("Could not spill artifact to disk: {}", e.getMessage());
+            return;
+        }
+        
+        final List<CachedArtifact> removed = new ArrayList<CachedArtifact>();
+        boolean added = false;
+        synchronized(this)
+        {
+            if(this.generation.get() == expectedGeneration && !this.memoryEntries.containsKey(key)
+                    && !this.spilledEntries.containsKey(key))
+            {
+                final Iterator<Map.Entry<RenderedArtifactKey, CachedArtifact>> iterator =
+                        this.spilledEntries.entrySet().iterator();
+                while(this.spillSize + evicted.size > this.maximumSpillSize && iterator.hasNext())
+                {
+                    final CachedArtifact eldest = iterator.next().getValue();
+                    iterator.remove();
+                    this.spillSize -= eldest.size;
+                    removed.add(eldest);
+                }
+                
+                this.spilledEntries.put(key, new CachedArtifact(evicted.artifactIRI, evicted.size,
+                        evicted.modificationDate, file));
+                this.spillSize += evicted.size;
+                added = true;
+            }
+        }
+        
+        if(!added)
+        {
+            this.deleteSpillFile(file);
+        }
+        this.deleteSpillFiles(removed);
+    }
+    
+    /**
+     * A serialised artifact version returned from the cache, with the modification date that was
+     * stored with it.
+     */
+    public static final class RenderedArtifact
+    {
+        private final byte[] content;
+        private final Date modificationDate;
+        
+        RenderedArtifact(final byte[] content, final Date modificationDate)
+        {
+            this.content = content;
+            this.modificationDate = modificationDate;
+        }
+        
+        /**
+         * @return The serialised artifact.
+         */
+        public byte[] getContent()
+        {
+            return this.content;
+        }
+        
+        /**
+         * @return The modification date of the artifact version, or null if it is not known.
+         */
+        public Date getModificationDate()
+        {
+            return this.modificationDate;
+        }
+    }
+    
+    /**
+     * A serialised artifact version, held either in memory or in a spill file.
+     */
+    private static final class CachedArtifact
+    {
+        private final IRI artifactIRI;
+        private final long size;
+        private final byte[] content;
+        private final Date modificationDate;
+        private final Path file;
+        
+        CachedArtifact(final IRI artifactIRI, final byte[] content, final Date modificationDate)
+        {
+            this.artifactIRI = artifactIRI;
+            this.size = content.length;
+            this.content = content;
+            this.modificationDate = modificationDate;
+            this.file = null;
+        }
+        
+        CachedArtifact(final IRI artifactIRI, final long size, final Date modificationDate, final Path file)
+        {
+            this.artifactIRI = artifactIRI;
+            this.size = size;
+            this.content = null;
+            this.modificationDate = modificationDate;
+            this.file = file;
+        }
+    }
+    
+    /**
+     * Identifies a serialised artifact version.
+     */
+    private static final class RenderedArtifactKey
+    {
+        private final IRI versionIRI;
+        private final RDFFormat format;
+        private final boolean includeInferred;
+        
+        RenderedArtifactKey(final IRI versionIRI, final RDFFormat format, final boolean includeInferred)
+        {
+            this.versionIRI = versionIRI;
+            this.format = format;
+            this.includeInferred = includeInferred;
+        }
+        
+        @Override
+        public boolean equals(final Object obj)
+        {
+            if(this == obj)
+            {
+                return true;
+            }
+            if(!(obj instanceof RenderedArtifactKey))
+            {
+                return false;
+            }
+            final RenderedArtifactKey other = (RenderedArtifactKey)obj;
+            return this.includeInferred == other.includeInferred && Objects.equals(this.versionIRI, other.versionIRI)
+                    && Objects.equals(this.format, other.format);
+        }
+        
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(this.versionIRI, this.format, this.includeInferred);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ *
+ * Copyright (C) 2009-2013 The University Of Queensland
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.utils;
+
+import java.beans.ConstructorProperties;
+import java.util.Date;
+
+/**
+ * A query that took longer than the slow query threshold in {@link QueryMetrics}.
+ *
+ * @author Peter Ansell p_ansell@yahoo.com
+ */
+public class SlowQuery
+{
+    private final Date timestamp;
+    private final String operation;
+    private final double durationMillis;
+    private final long results;
+    private final String query;
+    private final String bindings;
+    private final String[] contexts;
+    private final String caller;
+    
+    @ConstructorProperties({ "timestamp", "operation", "durationMillis", "results", "query", "bindings", "contexts",
+            "caller" })
+    public SlowQuery(final Date timestamp, final String operation, final double durationMillis, final long results,
+            final String query, final String bindings, final String[] contexts, final String caller)
+    {
+        this.timestamp = new Date(timestamp.getTime());
+        this.operation = operation;
+        this.durationMillis = durationMillis;
+        this.results = results;
+        this.query = query;
+        this.bindings = bindings;
+        this.contexts = contexts.clone();
+        this.caller = caller;
+    }
+    
+    /**
+     * @return The time that the query finished.
+     */
+    public Date getTimestamp()
+    {
+        return new Date(this.timestamp.getTime());
+    }
+    
+    public String getOperation()
+    {
+        return this.operation;
+    }
+    
+    public double getDurationMillis()
+    {
+        return this.durationMillis;
+    }
+    
+    /**
+     * @return The number of rows or statements returned by the query.
+     */
+    public long getResults()
+    {
+        return this.results;
+    }
+    
+    /**
+     * @return The text of the query.
+     */
+    public String getQuery()
+    {
+        return this.query;
+    }
+    
+    /**
+     * @return The variable bindings that were set on the query.
+     */
+    public String getBindings()
+    {
+        return this.bindings;
+    }
+    
+    /**
+     * @return The contexts that the query was evaluated against.
+     */
+    public String[] getContexts()
+    {
+        return this.contexts.clone();
+    }
+    
+    /**
+     * @return The method that executed the query.
+     */
+    public String getCaller()
+    {
+        return this.caller;
+    }
+    
+    @Override
+    public String toString()
+    {
+        return this.operation + " took " + this.durationMillis + "ms from " + this.caller + ": " + this.query;
+    }
+}
@@ -14,12 +14,15 @@
  * You should have received a copy of the GNU Affero General Public License along with this program.
  * If not, see <http://www.gnu.org/licenses/>.
  */
-package com.github.podd.performance.test;
+package com.github.podd.api.test;
 
 import java.io.FileOutputStream;
+import java.io.OutputStream;
 import java.util.UUID;
 
 import org.openrdf.model.Model;
+import org.openrdf.model.Namespace;
+import org.openrdf.model.Statement;
 import org.openrdf.model.URI;
 import org.openrdf.model.ValueFactory;
 import org.openrdf.model.impl.LinkedHashModel;
@@ -28,6 +31,8 @@ import org.openrdf.model.vocabulary.OWL;
 import org.openrdf.model.vocabulary.RDF;
 import org.openrdf.model.vocabulary.RDFS;
 import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.RDFHandlerException;
+import org.openrdf.rio.RDFWriter;
 import org.openrdf.rio.Rio;
 
 import com.github.podd.utils.PODD;
@@ -51,6 +56,9 @@ import com.github.podd.utils.PODD;
  * Platforms, a Genotype and an Analysis object. Successive Investigations are created as children
  * of parent Investigations. All other objects are created as direct children of the Project object.
  *
+ * Tests and benchmarks can use {@link #writeArtifact(OutputStream, RDFFormat, int, String)} to
+ * generate artifacts with sizes that are not available as test resources.
+ *
  * @author kutila
  */
 public class ArtifactGenerator
@@ -77,34 +85,64 @@ public class ArtifactGenerator
         final String filePath = "/home/user/path/";
         String fileName = "project-00100";
         final RDFFormat format = RDFFormat.RDFXML;
-        int objectCount = 100;
+        final int objectCount = 100;
         final String seed = "cent";
         
+        // - persist to file
+        fileName = filePath + fileName + '.' + format.getDefaultFileExtension();
+        try (final FileOutputStream out = new FileOutputStream(fileName);)
+        {
+            new ArtifactGenerator().writeArtifact(out, format, objectCount, seed);
+        }
+        System.out.println("Wrote to " + fileName);
+    }
+    
+    /**
+     * Returns the number of runs that are generated for the given number of internal PODD objects.
+     * Each run contains one Investigation, two Platforms, a Genotype and an Analysis object.
+     */
+    public static int getRunCount(final int objectCount)
+    {
+        return (Math.max(0, objectCount) + 4) / 5;
+    }
+    
+    /**
+     * Writes an artifact with the given number of internal PODD objects, which may be exceeded by
+     * 4. Each run of objects is written as soon as it is generated, so that very large artifacts
+     * can be written to a file without being held in memory.
+     */
+    public void writeArtifact(final OutputStream out, final RDFFormat format, final int objectCount,
+            final String seed) throws RDFHandlerException
+    {
+        final RDFWriter writer = Rio.createWriter(format, out);
+        final Model model = this.createNewModel();
+        
+        writer.startRDF();
+        for(final Namespace nextNamespace : model.getNamespaces())
+        {
+            writer.handleNamespace(nextNamespace.getPrefix(), nextNamespace.getName());
+        }
+        
         // - generate top object
-        final ArtifactGenerator generator = new ArtifactGenerator();
-        final Model model = generator.createNewModel();
-        final URI topObject = generator.addProject(model, seed);
+        final URI topObject = this.addProject(model, seed);
+        this.writeStatements(model, writer);
         
         URI parentOfInvestigation = topObject;
         
         // - add internal objects
-        while(objectCount > 0)
+        for(int remaining = objectCount; remaining > 0; remaining = remaining - 5)
         {
-            parentOfInvestigation = generator.addInvestigation(model, parentOfInvestigation, seed + objectCount);
+            parentOfInvestigation = this.addInvestigation(model, parentOfInvestigation, seed + remaining);
             
-            final URI platform1 = generator.addPlatform(model, topObject, seed + objectCount);
-            final URI platform2 = generator.addPlatform(model, topObject, seed + objectCount);
-            generator.addAnalysis(model, topObject, seed + objectCount, platform1, platform2);
+            final URI platform1 = this.addPlatform(model, topObject, seed + remaining);
+            final URI platform2 = this.addPlatform(model, topObject, seed + remaining);
+            this.addAnalysis(model, topObject, seed + remaining, platform1, platform2);
             
-            generator.addGenotype(model, topObject, seed + objectCount);
-            objectCount = objectCount - 5;
+            this.addGenotype(model, topObject, seed + remaining);
+            this.writeStatements(model, writer);
         }
         
-        // - persist to file
-        fileName = filePath + fileName + '.' + format.getDefaultFileExtension();
-        final FileOutputStream out = new FileOutputStream(fileName);
-        Rio.write(model, out, format);
-        System.out.println("Wrote to " + fileName);
+        writer.endRDF();
     }
     
     /**
@@ -266,4 +304,16 @@ public class ArtifactGenerator
         return objectUri;
     }
     
+    /**
+     * Writes the statements generated so far and removes them from the model.
+     */
+    private void writeStatements(final Model model, final RDFWriter writer) throws RDFHandlerException
+    {
+        for(final Statement nextStatement : model)
+        {
+            writer.handleStatement(nextStatement);
+        }
+        model.clear();
+    }
+    
 }
@@ -0,0 +1,114 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ *
+ * Copyright (C) 2009-2013 The University Of Queensland
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.utils.test;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openrdf.model.Model;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.LinkedHashModel;
+import org.openrdf.model.vocabulary.OWL;
+import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.model.vocabulary.RDFS;
+
+import com.github.podd.utils.ClassTaxonomy;
+import com.github.podd.utils.PODD;
+
+/**
+ * Test for the in-memory index of a named class hierarchy.
+ *
+ * @author Peter Ansell p_ansell@yahoo.com
+ */
+public class ClassTaxonomyTest
+{
+    private final URI event = PODD.VF.createURI("urn:test:Event");
+    
+    private final URI growth = PODD.VF.createURI("urn:test:Growth");
+    
+    private final URI watering = PODD.VF.createURI("urn:test:Watering");
+    
+    private final URI leafGrowth = PODD.VF.createURI("urn:test:LeafGrowth");
+    
+    private ClassTaxonomy taxonomy;
+    
+    @Before
+    public void setUp() throws Exception
+    {
+        final Model model = new LinkedHashModel();
+        model.add(this.growth, RDFS.SUBCLASSOF, this.event);
+        model.add(this.watering, RDFS.SUBCLASSOF, this.event);
+        model.add(this.leafGrowth, RDFS.SUBCLASSOF, this.growth);
+        // Reflexive statements, restrictions and other predicates are not indexed
+        model.add(this.event, RDFS.SUBCLASSOF, this.event);
+        model.add(this.leafGrowth, RDFS.SUBCLASSOF, PODD.VF.createBNode());
+        model.add(this.event, RDF.TYPE, OWL.CLASS);
+        
+        this.taxonomy = new ClassTaxonomy(model);
+    }
+    
+    @Test
+    public void testSize() throws Exception
+    {
+        Assert.assertEquals(4, this.taxonomy.size());
+    }
+    
+    @Test
+    public void testGetDirectSubClasses() throws Exception
+    {
+        Assert.assertEquals(new LinkedHashSet<URI>(Arrays.asList(this.growth, this.watering)),
+                this.taxonomy.getDirectSubClasses(this.event));
+        Assert.assertTrue(this.taxonomy.getDirectSubClasses(this.watering).isEmpty());
+        Assert.assertTrue(this.taxonomy.getDirectSubClasses(PODD.VF.createURI("urn:test:Unknown")).isEmpty());
+    }
+    
+    @Test
+    public void testGetSuperClasses() throws Exception
+    {
+        Assert.assertEquals(new LinkedHashSet<URI>(Arrays.asList(this.growth)),
+                this.taxonomy.getDirectSuperClasses(this.leafGrowth));
+        Assert.assertEquals(new LinkedHashSet<URI>(Arrays.asList(this.growth, this.event)),
+                this.taxonomy.getSuperClasses(this.leafGrowth));
+    }
+    
+    @Test
+    public void testGetSubClasses() throws Exception
+    {
+        Assert.assertEquals(new LinkedHashSet<URI>(Arrays.asList(this.growth, this.watering, this.leafGrowth)),
+                this.taxonomy.getSubClasses(this.event));
+    }
+    
+    @Test
+    public void testIsSubClassOf() throws Exception
+    {
+        Assert.assertTrue(this.taxonomy.isSubClassOf(this.leafGrowth, this.event));
+        Assert.assertTrue(this.taxonomy.isSubClassOf(this.watering, this.watering));
+        Assert.assertFalse(this.taxonomy.isSubClassOf(this.event, this.leafGrowth));
+        Assert.assertFalse(this.taxonomy.isSubClassOf(this.watering, this.growth));
+    }
+    
+    @Test
+    public void testGetDirectSubClassStatements() throws Exception
+    {
+        final Model statements = this.taxonomy.getDirectSubClassStatements(Arrays.asList(this.event, this.growth));
+        Assert.assertEquals(3, statements.size());
+        Assert.assertTrue(statements.contains(this.leafGrowth, RDFS.SUBCLASSOF, this.growth));
+    }
+}
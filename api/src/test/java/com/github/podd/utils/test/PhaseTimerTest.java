@@ -0,0 +1,132 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ *
+ * Copyright (C) 2009-2013 The University Of Queensland
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.utils.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.podd.utils.PhaseTimer;
+import com.github.podd.utils.QueryMetrics;
+import com.github.podd.utils.QueryStatistics;
+
+/**
+ * Test for PhaseTimer per-thread phase timing.
+ *
+ * @author Peter Ansell p_ansell@yahoo.com
+ */
+public class PhaseTimerTest
+{
+    @After
+    public void tearDown() throws Exception
+    {
+        PhaseTimer.setEnabled(true);
+    }
+    
+    @Test
+    public void testLapsInOrder() throws Exception
+    {
+        final PhaseTimer timer = PhaseTimer.start("test-laps");
+        Assert.assertNotNull(timer);
+        
+        PhaseTimer.lap("parse");
+        Thread.sleep(5);
+        PhaseTimer.lap("infer");
+        PhaseTimer.lap("parse");
+        timer.stop();
+        
+        final Map<String, Long> phases = timer.getPhases();
+        Assert.assertEquals(Arrays.asList("parse", "infer"), new ArrayList<String>(phases.keySet()));
+        Assert.assertTrue(phases.get("infer") >= 5000000L);
+        Assert.assertTrue(timer.getTotalNanos() >= phases.get("infer") + phases.get("parse"));
+        
+        final String serverTiming = timer.toServerTiming();
+        Assert.assertTrue(serverTiming, serverTiming.startsWith("parse;dur="));
+        Assert.assertTrue(serverTiming, serverTiming.contains(", infer;dur="));
+        Assert.assertTrue(serverTiming, serverTiming.contains(", total;dur="));
+    }
+    
+    @Test
+    public void testNestedStartUsesOuterTimer() throws Exception
+    {
+        final PhaseTimer outer = PhaseTimer.start("test-outer");
+        Assert.assertNotNull(outer);
+        
+        final PhaseTimer inner = PhaseTimer.start("test-inner");
+        Assert.assertNull(inner);
+        
+        PhaseTimer.lap("nested");
+        outer.stop();
+        
+        Assert.assertTrue(outer.getPhases().containsKey("nested"));
+        
+        // After stopping, the thread is free to start a new timer
+        final PhaseTimer next = PhaseTimer.start("test-next");
+        Assert.assertNotNull(next);
+        next.stop();
+    }
+    
+    @Test
+    public void testLapWithoutTimer() throws Exception
+    {
+        // Must not fail when no timer is active
+        PhaseTimer.lap("orphan");
+    }
+    
+    @Test
+    public void testDisabled() throws Exception
+    {
+        PhaseTimer.setEnabled(false);
+        Assert.assertNull(PhaseTimer.start("test-disabled"));
+    }
+    
+    @Test
+    public void testStopRecordsMetrics() throws Exception
+    {
+        final PhaseTimer timer = PhaseTimer.start("test-metrics");
+        PhaseTimer.lap("phase");
+        timer.stop();
+        // Stopping twice must not record twice
+        timer.stop();
+        
+        long phaseCount = 0;
+        long totalCount = 0;
+        for(final QueryStatistics nextStatistics : QueryMetrics.getPhaseInstance().getStatistics())
+        {
+            if(nextStatistics.getOperation().equals("test-metrics.phase"))
+            {
+                phaseCount = nextStatistics.getCount();
+            }
+            else if(nextStatistics.getOperation().equals("test-metrics"))
+            {
+                totalCount = nextStatistics.getCount();
+            }
+        }
+        Assert.assertEquals(1, phaseCount);
+        Assert.assertEquals(1, totalCount);
+        
+        // Phases are not mixed into the query latency histograms
+        for(final QueryStatistics nextStatistics : QueryMetrics.getInstance().getStatistics())
+        {
+            Assert.assertFalse(nextStatistics.getOperation().startsWith("test-metrics"));
+        }
+    }
+}
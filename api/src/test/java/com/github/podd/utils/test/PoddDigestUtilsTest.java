@@ -20,7 +20,11 @@ import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
 
 import org.junit.After;
@@ -30,6 +34,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import com.github.podd.utils.PoddDigestCache;
 import com.github.podd.utils.PoddDigestUtils;
 import com.github.podd.utils.PoddDigestUtils.Algorithm;
 
@@ -110,4 +115,56 @@ public class PoddDigestUtilsTest
                 shortFileDifests.get(PoddDigestUtils.Algorithm.SHA1));
     }
     
+    @Test
+    public final void testGetDigestsConcurrent() throws Exception
+    {
+        final List<Path> files = new ArrayList<>();
+        for(int i = 0; i < 10; i++)
+        {
+            final Path nextFile = this.testDir.resolve("file" + i + ".txt");
+            Files.write(nextFile, ("The quick brown fox jumps over the lazy dog" + i).getBytes(StandardCharsets.UTF_8));
+            files.add(nextFile);
+        }
+        // Larger than the read buffer
+        final Path largeFile = this.testDir.resolve("largefile.bin");
+        Files.write(largeFile, new byte[3 * 1024 * 1024 + 7]);
+        files.add(largeFile);
+        
+        final ConcurrentMap<Path, ConcurrentMap<Algorithm, String>> sequential = PoddDigestUtils.getDigests(files);
+        final ConcurrentMap<Path, ConcurrentMap<Algorithm, String>> concurrent = PoddDigestUtils.getDigests(files, 4);
+        
+        Assert.assertEquals(11, sequential.size());
+        Assert.assertEquals(sequential, concurrent);
+    }
+    
+    @Test
+    public final void testGetDigestsCached() throws Exception
+    {
+        final Path shortFile = this.testDir.resolve("shortfile.txt");
+        Files.write(shortFile, "The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.UTF_8));
+        final Path cacheFile = this.testDir.resolve("cache").resolve("digests.properties");
+        
+        final PoddDigestCache cache = new PoddDigestCache(cacheFile);
+        PoddDigestUtils.getDigests(Arrays.asList(shortFile), 0, cache);
+        Assert.assertEquals(1, cache.size());
+        cache.save();
+        Assert.assertTrue(Files.exists(cacheFile));
+        
+        // Unchanged files are not read again, so a cached digest is returned as is
+        final PoddDigestCache reloaded = new PoddDigestCache(cacheFile);
+        Assert.assertEquals(1, reloaded.size());
+        final long lastModified = Files.getLastModifiedTime(shortFile).toMillis();
+        final Map<Algorithm, String> fakeDigests = new EnumMap<>(Algorithm.class);
+        fakeDigests.put(Algorithm.MD5, "cached-md5");
+        fakeDigests.put(Algorithm.SHA1, "cached-sha1");
+        reloaded.put(shortFile, 43, lastModified, fakeDigests);
+        Assert.assertEquals("cached-md5",
+                PoddDigestUtils.getDigests(Arrays.asList(shortFile), 0, reloaded).get(shortFile).get(Algorithm.MD5));
+        
+        // Changed files are read again
+        Files.write(shortFile, "The quick brown fox jumps over the lazy dog.".getBytes(StandardCharsets.UTF_8));
+        Assert.assertEquals("e4d909c290d0fb1ca068ffaddf22cbd0",
+                PoddDigestUtils.getDigests(Arrays.asList(shortFile), 0, reloaded).get(shortFile).get(Algorithm.MD5));
+    }
+    
 }
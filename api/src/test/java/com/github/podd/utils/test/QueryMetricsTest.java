@@ -0,0 +1,173 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ *
+ * Copyright (C) 2009-2013 The University Of Queensland
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.utils.test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.openrdf.model.URI;
+import org.openrdf.query.TupleQuery;
+
+import com.github.podd.utils.PODD;
+import com.github.podd.utils.QueryMetrics;
+import com.github.podd.utils.QueryStatistics;
+import com.github.podd.utils.SlowQuery;
+
+/**
+ * Test for QueryMetrics latency histograms and the slow query log.
+ *
+ * @author Peter Ansell p_ansell@yahoo.com
+ */
+public class QueryMetricsTest
+{
+    private QueryMetrics testMetrics;
+    
+    private TupleQuery testQuery;
+    
+    @Before
+    public void setUp() throws Exception
+    {
+        this.testMetrics = new QueryMetrics();
+        this.testQuery = Mockito.mock(TupleQuery.class);
+        Mockito.when(this.testQuery.toString()).thenReturn("SELECT * WHERE { ?s ?p ?o }");
+    }
+    
+    @Test
+    public void testRecordPercentiles() throws Exception
+    {
+        for(int i = 1; i <= 100; i++)
+        {
+            this.testMetrics.record("test", TimeUnit.MILLISECONDS.toNanos(i), 2);
+        }
+        
+        final List<QueryStatistics> statistics = this.testMetrics.getStatistics();
+        Assert.assertEquals(1, statistics.size());
+        
+        final QueryStatistics testStatistics = statistics.get(0);
+        Assert.assertEquals("test", testStatistics.getOperation());
+        Assert.assertEquals(100, testStatistics.getCount());
+        Assert.assertEquals(200, testStatistics.getResults());
+        Assert.assertEquals(50.5, testStatistics.getMeanMillis(), 0.001);
+        Assert.assertEquals(100.0, testStatistics.getMaxMillis(), 0.001);
+        
+        // Percentiles are accurate to within 12.5%
+        Assert.assertEquals(50.0, testStatistics.getP50Millis(), 50.0 * 0.125);
+        Assert.assertEquals(95.0, testStatistics.getP95Millis(), 95.0 * 0.125);
+        Assert.assertEquals(99.0, testStatistics.getP99Millis(), 99.0 * 0.125);
+        Assert.assertTrue(testStatistics.getP50Millis() <= testStatistics.getP95Millis());
+        Assert.assertTrue(testStatistics.getP95Millis() <= testStatistics.getP99Millis());
+        Assert.assertTrue(testStatistics.getP99Millis() <= testStatistics.getMaxMillis());
+    }
+    
+    @Test
+    public void testRecordQueryFastNotLogged() throws Exception
+    {
+        this.testMetrics.setSlowQueryThreshold(50);
+        
+        this.testMetrics.recordQuery("fast", this.testQuery, TimeUnit.MILLISECONDS.toNanos(1), 5);
+        
+        Assert.assertTrue(this.testMetrics.getSlowQueries().isEmpty());
+        Assert.assertEquals(1, this.testMetrics.getStatistics().size());
+    }
+    
+    @Test
+    public void testRecordQuerySlowLogged() throws Exception
+    {
+        this.testMetrics.setSlowQueryThreshold(50);
+        final URI testContext = PODD.VF.createURI("urn:test:context");
+        
+        this.testMetrics.recordQuery("slow", this.testQuery, TimeUnit.MILLISECONDS.toNanos(75), 5, testContext);
+        
+        final List<SlowQuery> slowQueries = this.testMetrics.getSlowQueries();
+        Assert.assertEquals(1, slowQueries.size());
+        Assert.assertEquals("slow", slowQueries.get(0).getOperation());
+        Assert.assertEquals(75.0, slowQueries.get(0).getDurationMillis(), 0.001);
+        Assert.assertEquals(5, slowQueries.get(0).getResults());
+        Assert.assertEquals("SELECT * WHERE { ?s ?p ?o }", slowQueries.get(0).getQuery());
+        Assert.assertArrayEquals(new String[] { "urn:test:context" }, slowQueries.get(0).getContexts());
+        Assert.assertTrue(slowQueries.get(0).getCaller().startsWith("QueryMetricsTest.testRecordQuerySlowLogged"));
+    }
+    
+    @Test
+    public void testSlowQueryCapacity() throws Exception
+    {
+        this.testMetrics.setSlowQueryThreshold(0);
+        this.testMetrics.setSlowQueryCapacity(3);
+        
+        for(int i = 0; i < 10; i++)
+        {
+            this.testMetrics.recordQuery("query" + i, this.testQuery, TimeUnit.MILLISECONDS.toNanos(i), 0);
+        }
+        
+        final List<SlowQuery> slowQueries = this.testMetrics.getSlowQueries();
+        Assert.assertEquals(3, slowQueries.size());
+        // Most recent first
+        Assert.assertEquals("query9", slowQueries.get(0).getOperation());
+        Assert.assertEquals("query7", slowQueries.get(2).getOperation());
+        Assert.assertEquals(10, this.testMetrics.getStatistics().size());
+    }
+    
+    @Test
+    public void testRecordQueryUnnamed() throws Exception
+    {
+        try
+        {
+            this.testMetrics.recordQuery(null, this.testQuery, 1000, 0);
+            Assert.fail("Did not find expected exception");
+        }
+        catch(final NullPointerException e)
+        {
+            Assert.assertTrue(this.testMetrics.getStatistics().isEmpty());
+        }
+    }
+    
+    @Test
+    public void testRequestInstanceSeparate() throws Exception
+    {
+        Assert.assertNotSame(QueryMetrics.getInstance(), QueryMetrics.getRequestInstance());
+        
+        final String operation = "QueryMetricsTest " + System.nanoTime();
+        QueryMetrics.getRequestInstance().record(operation, 1000, 0);
+        
+        for(final QueryStatistics nextStatistics : QueryMetrics.getInstance().getStatistics())
+        {
+            Assert.assertNotEquals(operation, nextStatistics.getOperation());
+        }
+        boolean found = false;
+        for(final QueryStatistics nextStatistics : QueryMetrics.getRequestInstance().getStatistics())
+        {
+            found |= operation.equals(nextStatistics.getOperation());
+        }
+        Assert.assertTrue(found);
+    }
+    
+    @Test
+    public void testReset() throws Exception
+    {
+        this.testMetrics.setSlowQueryThreshold(0);
+        this.testMetrics.recordQuery("query", this.testQuery, 1000, 0);
+        
+        this.testMetrics.reset();
+        
+        Assert.assertTrue(this.testMetrics.getStatistics().isEmpty());
+        Assert.assertTrue(this.testMetrics.getSlowQueries().isEmpty());
+    }
+}
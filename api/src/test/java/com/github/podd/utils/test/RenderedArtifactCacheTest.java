@@ -0,0 +1,172 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ *
+ * Copyright (C) 2009-2013 The University Of Queensland
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.utils.test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openrdf.rio.RDFFormat;
+import org.semanticweb.owlapi.model.IRI;
+
+import com.github.podd.utils.InferredOWLOntologyID;
+import com.github.podd.utils.RenderedArtifactCache;
+import com.github.podd.utils.RenderedArtifactCache.RenderedArtifact;
+
+/**
+ * Test for the size bounded cache of serialised artifact versions.
+ *
+ * @author Peter Ansell p_ansell@yahoo.com
+ */
+public class RenderedArtifactCacheTest
+{
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+    
+    private final IRI artifactIRI = IRI.create("urn:test:artifact:1");
+    
+    private InferredOWLOntologyID version(final int version)
+    {
+        return new InferredOWLOntologyID(this.artifactIRI, IRI.create("urn:test:artifact:1:version:" + version),
+                IRI.create("urn:test:artifact:1:inferred:" + version));
+    }
+    
+    @Test
+    public void testGetKeyedOnFormatAndInferred() throws Exception
+    {
+        final RenderedArtifactCache cache = new RenderedArtifactCache(1024);
+        final InferredOWLOntologyID version = this.version(1);
+        
+        cache.put(version, RDFFormat.TURTLE, false, new byte[] { 1, 2, 3 }, cache.getGeneration());
+        
+        Assert.assertArrayEquals(new byte[] { 1, 2, 3 },
+                cache.get(this.artifactIRI, version.getVersionIRI(), RDFFormat.TURTLE, false));
+        Assert.assertNull(cache.get(this.artifactIRI, version.getVersionIRI(), RDFFormat.TURTLE, true));
+        Assert.assertNull(cache.get(this.artifactIRI, version.getVersionIRI(), RDFFormat.RDFXML, false));
+        Assert.assertNull(cache.get(this.artifactIRI, this.version(2).getVersionIRI(), RDFFormat.TURTLE, false));
+        // The version must belong to the requested artifact
+        Assert.assertNull(cache.get(IRI.create("urn:test:artifact:2"), version.getVersionIRI(), RDFFormat.TURTLE,
+                false));
+    }
+    
+    @Test
+    public void testModificationDateStoredWithEntry() throws Exception
+    {
+        final Path spillDirectory = this.tempDir.newFolder("spill").toPath();
+        final RenderedArtifactCache cache = new RenderedArtifactCache(15, spillDirectory, 25);
+        final Date modificationDate = new Date(1380000000000L);
+        cache.put(this.version(1), RDFFormat.TURTLE, false, new byte[10], modificationDate, cache.getGeneration());
+        cache.put(this.version(2), RDFFormat.TURTLE, false, new byte[10], cache.getGeneration());
+        
+        // The first entry has been spilled to disk, and keeps its modification date
+        Assert.assertEquals(10, cache.getSpillSize());
+        final RenderedArtifact spilled =
+                cache.getRenderedArtifact(this.artifactIRI, this.version(1).getVersionIRI(), RDFFormat.TURTLE, false);
+        Assert.assertNotNull(spilled);
+        Assert.assertEquals(10, spilled.getContent().length);
+        Assert.assertEquals(modificationDate, spilled.getModificationDate());
+        
+        final RenderedArtifact inMemory =
+                cache.getRenderedArtifact(this.artifactIRI, this.version(2).getVersionIRI(), RDFFormat.TURTLE, false);
+        Assert.assertNotNull(inMemory);
+        Assert.assertNull(inMemory.getModificationDate());
+    }
+    
+    @Test
+    public void testInvalidate() throws Exception
+    {
+        final RenderedArtifactCache cache = new RenderedArtifactCache(1024);
+        final long generation = cache.getGeneration();
+        cache.put(this.version(1), RDFFormat.TURTLE, false, new byte[10], generation);
+        cache.put(this.version(1), RDFFormat.TURTLE, true, new byte[10], generation);
+        Assert.assertEquals(2, cache.size());
+        
+        cache.invalidate(this.artifactIRI);
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.getMemorySize());
+        
+        // An artifact serialised before the invalidation must not be added
+        cache.put(this.version(1), RDFFormat.TURTLE, false, new byte[10], generation);
+        Assert.assertEquals(0, cache.size());
+    }
+    
+    @Test
+    public void testEvictsLeastRecentlyUsed() throws Exception
+    {
+        final RenderedArtifactCache cache = new RenderedArtifactCache(25);
+        cache.put(this.version(1), RDFFormat.TURTLE, false, new byte[10], cache.getGeneration());
+        cache.put(this.version(2), RDFFormat.TURTLE, false, new byte[10], cache.getGeneration());
+        Assert.assertNotNull(cache.get(this.artifactIRI, this.version(1).getVersionIRI(), RDFFormat.TURTLE, false));
+        
+        cache.put(this.version(3), RDFFormat.TURTLE, false, new byte[10], cache.getGeneration());
+        
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(20, cache.getMemorySize());
+        Assert.assertNotNull(cache.get(this.artifactIRI, this.version(1).getVersionIRI(), RDFFormat.TURTLE, false));
+        Assert.assertNull(cache.get(this.artifactIRI, this.version(2).getVersionIRI(), RDFFormat.TURTLE, false));
+        Assert.assertNotNull(cache.get(this.artifactIRI, this.version(3).getVersionIRI(), RDFFormat.TURTLE, false));
+    }
+    
+    @Test
+    public void testSpillToDisk() throws Exception
+    {
+        final Path spillDirectory = this.tempDir.newFolder("spill").toPath();
+        final RenderedArtifactCache cache = new RenderedArtifactCache(15, spillDirectory, 25);
+        cache.put(this.version(1), RDFFormat.TURTLE, false, new byte[] { 1, 1, 1, 1, 1, 1, 1, 1, 1, 1 },
+                cache.getGeneration());
+        cache.put(this.version(2), RDFFormat.TURTLE, false, new byte[10], cache.getGeneration());
+        
+        Assert.assertEquals(10, cache.getMemorySize());
+        Assert.assertEquals(10, cache.getSpillSize());
+        Assert.assertArrayEquals(new byte[] { 1, 1, 1, 1, 1, 1, 1, 1, 1, 1 },
+                cache.get(this.artifactIRI, this.version(1).getVersionIRI(), RDFFormat.TURTLE, false));
+        
+        // Entries larger than the memory size go directly to disk
+        cache.put(this.version(3), RDFFormat.TURTLE, false, new byte[20], cache.getGeneration());
+        Assert.assertEquals(20, cache.getSpillSize());
+        Assert.assertNull(cache.get(this.artifactIRI, this.version(1).getVersionIRI(), RDFFormat.TURTLE, false));
+        Assert.assertEquals(20,
+                cache.get(this.artifactIRI, this.version(3).getVersionIRI(), RDFFormat.TURTLE, false).length);
+        
+        cache.invalidate(this.artifactIRI);
+        Assert.assertEquals(0, cache.getSpillSize());
+        Assert.assertEquals(0, spillDirectory.toFile().list().length);
+    }
+    
+    @Test
+    public void testSpillDirectoryDeletedAtStartupAndShutdown() throws Exception
+    {
+        final Path spillDirectory = this.tempDir.newFolder("spill").toPath();
+        // A spill file left by a previous instance
+        Files.write(spillDirectory.resolve("artifact-previous.cache"), new byte[10]);
+        
+        final RenderedArtifactCache cache = new RenderedArtifactCache(15, spillDirectory, 25);
+        Assert.assertFalse(Files.exists(spillDirectory));
+        
+        cache.put(this.version(1), RDFFormat.TURTLE, false, new byte[20], cache.getGeneration());
+        Assert.assertEquals(20, cache.getSpillSize());
+        Assert.assertEquals(1, spillDirectory.toFile().list().length);
+        
+        cache.shutDown();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertFalse(Files.exists(spillDirectory));
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ *
+ * Copyright (C) 2009-2013 The University Of Queensland
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+
+import org.apache.commons.io.IOUtils;
+import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.RDFHandlerException;
+import org.openrdf.rio.Rio;
+
+import com.github.podd.api.test.ArtifactGenerator;
+
+/**
+ * Loads the artifacts used by the benchmarks, either from the PODD test resources, or generated
+ * with a given number of objects to test sizes that are not available as test resources.
+ *
+ * @author Peter Ansell p_ansell@yahoo.com
+ */
+public final class ArtifactFixtures
+{
+    /**
+     * Prefix for fixture names that are generated instead of loaded from the classpath. The rest of
+     * the name is the number of objects to generate, for example "generated:5000".
+     */
+    public static final String GENERATED_PREFIX = "generated:";
+    
+    /**
+     * Returns the serialised artifact for the given fixture name.
+     *
+     * @param fixture
+     *            Either a classpath resource path, or {@link #GENERATED_PREFIX} followed by a number
+     *            of objects.
+     */
+    public static byte[] getArtifact(final String fixture) throws IOException
+    {
+        if(fixture.startsWith(ArtifactFixtures.GENERATED_PREFIX))
+        {
+            final int objectCount = Integer.parseInt(fixture.substring(ArtifactFixtures.GENERATED_PREFIX.length()));
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            try
+            {
+                new ArtifactGenerator().writeArtifact(output, RDFFormat.TURTLE, objectCount, "generated" + objectCount);
+            }
+            catch(final RDFHandlerException e)
+            {
+                throw new IOException("Could not generate benchmark fixture: " + fixture, e);
+            }
+            return output.toByteArray();
+        }
+        
+        try (final InputStream input = ArtifactFixtures.class.getResourceAsStream(fixture);)
+        {
+            if(input == null)
+            {
+                throw new IllegalArgumentException("Could not find benchmark fixture: " + fixture);
+            }
+            return IOUtils.toByteArray(input);
+        }
+    }
+    
+    /**
+     * Returns the format for the given fixture name.
+     */
+    public static RDFFormat getFormat(final String fixture)
+    {
+        if(fixture.startsWith(ArtifactFixtures.GENERATED_PREFIX))
+        {
+            return RDFFormat.TURTLE;
+        }
+        return Rio.getParserFormatForFileName(fixture, RDFFormat.RDFXML);
+    }
+    
+    /**
+     * Generates a Turtle fragment adding a new investigation to the given top object.
+     */
+    public static String generateNewInvestigationFragment(final String topObjectUri)
+    {
+        final String objectUri = "urn:temp:uuid:object:fragment:" + UUID.randomUUID();
+        final StringBuilder result = new StringBuilder(512);
+        result.append("@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .\n");
+        result.append("@prefix owl: <http://www.w3.org/2002/07/owl#> .\n");
+        result.append("@prefix xsd: <http://www.w3.org/2001/XMLSchema#> .\n");
+        result.append("@prefix poddBase: <http://purl.org/podd/ns/poddBase#> .\n");
+        result.append("@prefix poddScience: <http://purl.org/podd/ns/poddScience#> .\n\n");
+        result.append("<").append(objectUri).append("> a poddScience:Investigation , owl:NamedIndividual ;\n");
+        result.append("\trdfs:label \"Benchmark Investigation\" ;\n");
+        result.append("\tpoddBase:hasStartDateTime \"2013-01-01T09:00:00\"^^xsd:dateTime .\n");
+        result.append("<").append(topObjectUri).append("> poddScience:hasInvestigation <").append(objectUri)
+                .append("> .\n");
+        return result.toString();
+    }
+    
+    private ArtifactFixtures()
+    {
+    }
+}
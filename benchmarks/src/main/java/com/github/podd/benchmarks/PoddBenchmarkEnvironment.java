@@ -0,0 +1,230 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ *
+ * Copyright (C) 2009-2013 The University Of Queensland
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+import org.openrdf.model.URI;
+import org.openrdf.model.util.GraphUtil;
+import org.openrdf.repository.Repository;
+import org.openrdf.repository.config.RepositoryConfigSchema;
+import org.openrdf.repository.config.RepositoryImplConfig;
+import org.openrdf.repository.config.RepositoryImplConfigBase;
+import org.openrdf.repository.sail.SailRepository;
+import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.Rio;
+import org.openrdf.sail.memory.MemoryStore;
+import org.openrdf.sail.nativerdf.NativeStore;
+import org.semanticweb.owlapi.model.OWLOntologyManagerFactory;
+import org.semanticweb.owlapi.model.OWLOntologyManagerFactoryRegistry;
+import org.semanticweb.owlapi.reasoner.OWLReasonerFactoryRegistry;
+
+import com.github.ansell.propertyutil.PropertyUtil;
+import com.github.podd.api.PoddArtifactManager;
+import com.github.podd.api.PoddOWLManager;
+import com.github.podd.api.PoddRepositoryManager;
+import com.github.podd.api.PoddSchemaManager;
+import com.github.podd.api.PoddSesameManager;
+import com.github.podd.api.data.DataReferenceManager;
+import com.github.podd.api.data.DataReferenceProcessorRegistry;
+import com.github.podd.api.purl.PoddPurlManager;
+import com.github.podd.api.purl.PoddPurlProcessorFactoryRegistry;
+import com.github.podd.impl.PoddArtifactManagerImpl;
+import com.github.podd.impl.PoddOWLManagerImpl;
+import com.github.podd.impl.PoddRepositoryManagerImpl;
+import com.github.podd.impl.PoddSchemaManagerImpl;
+import com.github.podd.impl.PoddSesameManagerImpl;
+import com.github.podd.impl.data.DataReferenceManagerImpl;
+import com.github.podd.impl.purl.PoddPurlManagerImpl;
+import com.github.podd.impl.purl.UUIDPurlProcessorFactoryImpl;
+import com.github.podd.utils.PODD;
+import com.github.podd.utils.PoddWebConstants;
+
+/**
+ * Shared JMH state containing a complete set of PODD managers, with the default schema ontologies
+ * loaded, backed by either in-memory or native Sesame stores.
+ *
+ * @author Peter Ansell p_ansell@yahoo.com
+ */
+@State(Scope.Benchmark)
+public class PoddBenchmarkEnvironment
+{
+    public static final String STORE_MEMORY = "memory";
+    
+    public static final String STORE_NATIVE = "native";
+    
+    @Param({ PoddBenchmarkEnvironment.STORE_MEMORY, PoddBenchmarkEnvironment.STORE_NATIVE })
+    public String storeType;
+    
+    /**
+     * Whether artifacts are reasoned over using a shared reasoner holding the classified schema
+     * ontologies, or using a new reasoner for each artifact, so that the speed-up from sharing the
+     * reasoner can be measured.
+     */
+    @Param({ "true", "false" })
+    public String reuseSchemaReasoner;
+    
+    private Path tempDirectory;
+    
+    private Repository managementRepository;
+    
+    private PoddRepositoryManager repositoryManager;
+    
+    private PoddSesameManager sesameManager;
+    
+    private PoddSchemaManager schemaManager;
+    
+    private PoddPurlManager purlManager;
+    
+    private PoddArtifactManager artifactManager;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        this.tempDirectory = Files.createTempDirectory("podd-benchmark-");
+        System.setProperty(PoddWebConstants.PROPERTY_REASONER_SCHEMA_REUSE, this.reuseSchemaReasoner);
+        
+        this.managementRepository = this.createRepository("management");
+        this.managementRepository.initialize();
+        
+        final String permanentRepositoryConfig =
+                PoddBenchmarkEnvironment.STORE_NATIVE.equals(this.storeType) ? "/nativestoreconfig.ttl"
+                        : "/memorystoreconfig.ttl";
+        Model graph;
+        try (final InputStream input = this.getClass().getResourceAsStream(permanentRepositoryConfig);)
+        {
+            graph = Rio.parse(input, "", RDFFormat.TURTLE);
+        }
+        final Resource repositoryNode = GraphUtil.getUniqueSubject(graph, RepositoryConfigSchema.REPOSITORYTYPE, null);
+        final RepositoryImplConfig repositoryImplConfig = RepositoryImplConfigBase.create(graph, repositoryNode);
+        
+        this.repositoryManager =
+                new PoddRepositoryManagerImpl(this.managementRepository, repositoryImplConfig, "",
+                        this.tempDirectory.resolve("permanent"), new PropertyUtil("podd"));
+        
+        final DataReferenceProcessorRegistry dataReferenceRegistry = new DataReferenceProcessorRegistry();
+        dataReferenceRegistry.clear();
+        final DataReferenceManager dataReferenceManager = new DataReferenceManagerImpl();
+        dataReferenceManager.setDataProcessorRegistry(dataReferenceRegistry);
+        
+        final PoddPurlProcessorFactoryRegistry purlRegistry = new PoddPurlProcessorFactoryRegistry();
+        purlRegistry.clear();
+        purlRegistry.add(new UUIDPurlProcessorFactoryImpl());
+        this.purlManager = new PoddPurlManagerImpl();
+        this.purlManager.setPurlProcessorRegistry(purlRegistry);
+        
+        final Collection<OWLOntologyManagerFactory> ontologyManagers =
+                OWLOntologyManagerFactoryRegistry.getInstance().get(PoddWebConstants.DEFAULT_OWLAPI_MANAGER);
+        final PoddOWLManager owlManager =
+                new PoddOWLManagerImpl(ontologyManagers.iterator().next(), OWLReasonerFactoryRegistry
+                        .getInstance().getReasonerFactory("Pellet"), new PropertyUtil("podd"));
+        
+        this.sesameManager = new PoddSesameManagerImpl();
+        
+        this.schemaManager = new PoddSchemaManagerImpl();
+        this.schemaManager.setOwlManager(owlManager);
+        this.schemaManager.setRepositoryManager(this.repositoryManager);
+        this.schemaManager.setSesameManager(this.sesameManager);
+        
+        this.artifactManager = new PoddArtifactManagerImpl();
+        this.artifactManager.setRepositoryManager(this.repositoryManager);
+        this.artifactManager.setDataReferenceManager(dataReferenceManager);
+        this.artifactManager.setPurlManager(this.purlManager);
+        this.artifactManager.setOwlManager(owlManager);
+        this.artifactManager.setSchemaManager(this.schemaManager);
+        this.artifactManager.setSesameManager(this.sesameManager);
+        
+        try (final InputStream input = this.getClass().getResourceAsStream(PODD.PATH_DEFAULT_SCHEMAS);)
+        {
+            this.schemaManager.uploadSchemaOntologies(Rio.parse(input, "", RDFFormat.TURTLE));
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        try
+        {
+            this.repositoryManager.shutDown();
+        }
+        finally
+        {
+            System.clearProperty(PoddWebConstants.PROPERTY_REASONER_SCHEMA_REUSE);
+            FileUtils.deleteQuietly(this.tempDirectory.toFile());
+        }
+    }
+    
+    /**
+     * Creates an uninitialised repository of the configured store type.
+     *
+     * @param name
+     *            The name of the directory for native stores, inside the temporary directory for
+     *            this benchmark.
+     */
+    public Repository createRepository(final String name) throws IOException
+    {
+        if(PoddBenchmarkEnvironment.STORE_NATIVE.equals(this.storeType))
+        {
+            return new SailRepository(new NativeStore(Files.createDirectories(this.tempDirectory.resolve(name))
+                    .toFile()));
+        }
+        return new SailRepository(new MemoryStore());
+    }
+    
+    public PoddArtifactManager getArtifactManager()
+    {
+        return this.artifactManager;
+    }
+    
+    public PoddPurlManager getPurlManager()
+    {
+        return this.purlManager;
+    }
+    
+    public PoddRepositoryManager getRepositoryManager()
+    {
+        return this.repositoryManager;
+    }
+    
+    public PoddSchemaManager getSchemaManager()
+    {
+        return this.schemaManager;
+    }
+    
+    public URI getSchemaManagementGraph()
+    {
+        return this.repositoryManager.getSchemaManagementGraph();
+    }
+    
+    public PoddSesameManager getSesameManager()
+    {
+        return this.sesameManager;
+    }
+}
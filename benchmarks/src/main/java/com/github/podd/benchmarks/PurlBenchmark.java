@@ -0,0 +1,118 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ *
+ * Copyright (C) 2009-2013 The University Of Queensland
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openrdf.model.Model;
+import org.openrdf.model.URI;
+import org.openrdf.repository.Repository;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.rio.Rio;
+
+import com.github.podd.api.purl.PoddPurlReference;
+import com.github.podd.utils.PODD;
+
+/**
+ * Benchmarks the extraction and conversion of temporary URIs to PURLs, which is carried out for
+ * every uploaded artifact and every edit.
+ *
+ * @author Peter Ansell p_ansell@yahoo.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PurlBenchmark
+{
+    @Param({ "/test/artifacts/project-temp-00100.rdf", "/test/artifacts/project-temp-01000.rdf",
+            "generated:5000" })
+    public String fixture;
+    
+    private Model artifact;
+    
+    private final URI context = PODD.VF.createURI("urn:podd:benchmark:purl");
+    
+    private Repository repository;
+    
+    private RepositoryConnection connection;
+    
+    @Setup(Level.Trial)
+    public void setUp(final PoddBenchmarkEnvironment environment) throws Exception
+    {
+        this.artifact =
+                Rio.parse(new ByteArrayInputStream(ArtifactFixtures.getArtifact(this.fixture)), "",
+                        ArtifactFixtures.getFormat(this.fixture));
+        this.repository = environment.createRepository("purl-" + this.fixture.hashCode());
+        this.repository.initialize();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        this.repository.shutDown();
+    }
+    
+    /**
+     * Reloads the artifact before each iteration, as converting temporary URIs modifies the
+     * repository.
+     */
+    @Setup(Level.Iteration)
+    public void loadArtifact() throws Exception
+    {
+        this.connection = this.repository.getConnection();
+        this.connection.begin();
+        this.connection.clear(this.context);
+        this.connection.add(this.artifact, this.context);
+        this.connection.commit();
+    }
+    
+    @TearDown(Level.Iteration)
+    public void closeConnection() throws Exception
+    {
+        this.connection.close();
+    }
+    
+    @Benchmark
+    public Set<PoddPurlReference> extractAndConvertPurls(final PoddBenchmarkEnvironment environment)
+        throws Exception
+    {
+        this.connection.begin();
+        final Set<PoddPurlReference> purls =
+                environment.getPurlManager().extractPurlReferences(this.connection, this.context);
+        environment.getPurlManager().convertTemporaryUris(purls, this.connection, this.context);
+        this.connection.commit();
+        return purls;
+    }
+}
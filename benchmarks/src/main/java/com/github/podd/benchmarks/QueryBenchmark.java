@@ -0,0 +1,142 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ *
+ * Copyright (C) 2009-2013 The University Of Queensland
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openrdf.model.Model;
+import org.openrdf.model.URI;
+import org.openrdf.repository.RepositoryConnection;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+
+import com.github.podd.utils.InferredOWLOntologyID;
+import com.github.podd.utils.RdfUtility;
+
+/**
+ * Benchmarks the read-only queries that are executed for most artifact requests, against a single
+ * loaded artifact.
+ *
+ * @author Peter Ansell p_ansell@yahoo.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class QueryBenchmark
+{
+    @Param({ "/test/artifacts/project-temp-00100.rdf", "generated:5000" })
+    public String fixture;
+    
+    private InferredOWLOntologyID artifactId;
+    
+    private RepositoryConnection managementConnection;
+    
+    private RepositoryConnection permanentConnection;
+    
+    private URI[] versionAndSchemaContexts;
+    
+    @Setup(Level.Trial)
+    public void setUp(final PoddBenchmarkEnvironment environment) throws Exception
+    {
+        this.artifactId =
+                environment.getArtifactManager().loadArtifact(
+                        new ByteArrayInputStream(ArtifactFixtures.getArtifact(this.fixture)),
+                        ArtifactFixtures.getFormat(this.fixture));
+        
+        final Set<? extends OWLOntologyID> schemaImports =
+                environment.getArtifactManager().getSchemaImports(this.artifactId);
+        this.managementConnection = environment.getRepositoryManager().getManagementRepositoryConnection();
+        this.permanentConnection =
+                environment.getRepositoryManager().getPermanentRepositoryConnection(schemaImports, this.artifactId);
+        this.versionAndSchemaContexts =
+                environment.getSesameManager().versionAndSchemaContexts(this.artifactId, this.managementConnection,
+                        environment.getSchemaManagementGraph(),
+                        environment.getRepositoryManager().getArtifactManagementGraph());
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown(final PoddBenchmarkEnvironment environment) throws Exception
+    {
+        try
+        {
+            if(this.permanentConnection != null)
+            {
+                this.permanentConnection.close();
+            }
+        }
+        finally
+        {
+            try
+            {
+                if(this.managementConnection != null)
+                {
+                    this.managementConnection.close();
+                }
+            }
+            finally
+            {
+                environment.getArtifactManager().deleteArtifact(this.artifactId);
+            }
+        }
+    }
+    
+    @Benchmark
+    public Set<? extends OWLOntologyID> getSchemaImports(final PoddBenchmarkEnvironment environment)
+        throws Exception
+    {
+        return environment.getArtifactManager().getSchemaImports(this.artifactId);
+    }
+    
+    @Benchmark
+    public URI[] schemaContexts(final PoddBenchmarkEnvironment environment) throws Exception
+    {
+        return environment.getSesameManager().schemaContexts(this.artifactId, this.managementConnection,
+                environment.getSchemaManagementGraph(),
+                environment.getRepositoryManager().getArtifactManagementGraph());
+    }
+    
+    @Benchmark
+    public Set<URI> findDisconnectedNodes(final PoddBenchmarkEnvironment environment) throws Exception
+    {
+        return RdfUtility.findDisconnectedNodes(this.artifactId.getOntologyIRI().toOpenRDFURI(),
+                this.permanentConnection, environment.getSesameManager().versionContexts(this.artifactId));
+    }
+    
+    @Benchmark
+    public Model searchOntologyLabels(final PoddBenchmarkEnvironment environment) throws Exception
+    {
+        return environment.getSesameManager().searchOntologyLabels("Platform", null, 1000, 0,
+                this.permanentConnection, this.versionAndSchemaContexts);
+    }
+}
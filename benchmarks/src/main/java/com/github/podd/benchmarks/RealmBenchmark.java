@@ -0,0 +1,108 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ *
+ * Copyright (C) 2009-2013 The University Of Queensland
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openrdf.repository.Repository;
+import org.restlet.security.LocalVerifier;
+
+import com.github.podd.restlet.PoddSesameRealm;
+import com.github.podd.utils.PODD;
+import com.github.podd.utils.PoddUser;
+import com.github.podd.utils.PoddUserStatus;
+
+/**
+ * Benchmarks password verification and user lookup in {@link PoddSesameRealm}, which is carried
+ * out for every authenticated request.
+ *
+ * @author Peter Ansell p_ansell@yahoo.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RealmBenchmark
+{
+    private static final String SECRET = "benchmarkSecret";
+    
+    @Param({ "10", "1000" })
+    public int userCount;
+    
+    private Repository repository;
+    
+    private PoddSesameRealm realm;
+    
+    private LocalVerifier verifier;
+    
+    private String identifier;
+    
+    @Setup(Level.Trial)
+    public void setUp(final PoddBenchmarkEnvironment environment) throws Exception
+    {
+        this.repository = environment.createRepository("realm-" + this.userCount);
+        this.repository.initialize();
+        this.realm = new PoddSesameRealm(this.repository, PODD.VF.createURI("urn:podd:benchmark:users"));
+        for(int i = 0; i < this.userCount; i++)
+        {
+            final String nextIdentifier = "user" + i + "@example.com";
+            this.realm.addUser(new PoddUser(nextIdentifier, RealmBenchmark.SECRET.toCharArray(), "First" + i,
+                    "Last" + i, nextIdentifier, PoddUserStatus.ACTIVE));
+        }
+        this.identifier = "user" + (this.userCount / 2) + "@example.com";
+        this.verifier = (LocalVerifier)this.realm.getVerifier();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        this.repository.shutDown();
+    }
+    
+    @Benchmark
+    public PoddUser findUser()
+    {
+        return this.realm.findUser(this.identifier);
+    }
+    
+    @Benchmark
+    public int verifyValidSecret()
+    {
+        return this.verifier.verify(this.identifier, RealmBenchmark.SECRET.toCharArray());
+    }
+    
+    @Benchmark
+    public int verifyInvalidSecret()
+    {
+        return this.verifier.verify(this.identifier, "wrongSecret".toCharArray());
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ *
+ * Copyright (C) 2009-2013 The University Of Queensland
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openrdf.model.Model;
+import org.openrdf.model.URI;
+import org.openrdf.rio.RDFFormat;
+
+import com.github.podd.api.DanglingObjectPolicy;
+import com.github.podd.api.DataReferenceVerificationPolicy;
+import com.github.podd.api.UpdatePolicy;
+import com.github.podd.utils.InferredOWLOntologyID;
+import com.github.podd.utils.OntologyUtils;
+
+/**
+ * Benchmarks {@link com.github.podd.api.PoddArtifactManager#updateArtifact} adding a new object to
+ * the test artifacts and generated larger artifacts.
+ *
+ * @author Peter Ansell p_ansell@yahoo.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class UpdateArtifactBenchmark
+{
+    @Param({ "/test/artifacts/project-temp-00010.rdf", "/test/artifacts/project-temp-00100.rdf",
+            "/test/artifacts/project-temp-01000.rdf", "generated:5000" })
+    public String fixture;
+    
+    private byte[] artifact;
+    
+    private RDFFormat format;
+    
+    private InferredOWLOntologyID currentArtifact;
+    
+    private byte[] fragment;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        this.artifact = ArtifactFixtures.getArtifact(this.fixture);
+        this.format = ArtifactFixtures.getFormat(this.fixture);
+    }
+    
+    /**
+     * Loads a fresh copy of the artifact for each update, so that the measured time does not
+     * include the load.
+     */
+    @Setup(Level.Iteration)
+    public void loadArtifact(final PoddBenchmarkEnvironment environment) throws Exception
+    {
+        this.currentArtifact =
+                environment.getArtifactManager().loadArtifact(new ByteArrayInputStream(this.artifact), this.format);
+        final URI topObject =
+                environment.getArtifactManager().getObjectView(this.currentArtifact, null).getObject()
+                        .getObjectURI();
+        this.fragment =
+                ArtifactFixtures.generateNewInvestigationFragment(topObject.stringValue()).getBytes(
+                        StandardCharsets.UTF_8);
+    }
+    
+    @TearDown(Level.Iteration)
+    public void deleteArtifact(final PoddBenchmarkEnvironment environment) throws Exception
+    {
+        if(this.currentArtifact != null)
+        {
+            environment.getArtifactManager().deleteArtifact(this.currentArtifact);
+            this.currentArtifact = null;
+        }
+    }
+    
+    @Benchmark
+    public Model updateArtifact(final PoddBenchmarkEnvironment environment) throws Exception
+    {
+        final Model result =
+                environment.getArtifactManager().updateArtifact(
+                        this.currentArtifact.getOntologyIRI().toOpenRDFURI(),
+                        this.currentArtifact.getVersionIRI().toOpenRDFURI(), Collections.<URI> emptyList(),
+                        new ByteArrayInputStream(this.fragment), RDFFormat.TURTLE, UpdatePolicy.MERGE_WITH_EXISTING,
+                        DanglingObjectPolicy.REPORT, DataReferenceVerificationPolicy.DO_NOT_VERIFY);
+        this.currentArtifact = OntologyUtils.modelToOntologyIDs(result).get(0);
+        return result;
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ *
+ * Copyright (C) 2009-2013 The University Of Queensland
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.bulkloader;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the files that have been loaded by the {@link PoddBulkLoader}, so that an interrupted
+ * load can be resumed without loading any file twice.
+ * <p>
+ * Each line contains the path of a loaded file, relative to the directory being loaded, followed by
+ * a tab and the IRI of the artifact that it was loaded as. Lines are flushed as soon as they are
+ * written, and an incomplete last line, left by an interrupted write, is ignored when the journal
+ * is read.
+ *
+ * @author Peter Ansell p_ansell@yahoo.com
+ */
+public class BulkLoadJournal implements Closeable
+{
+    private final Map<String, String> completed = new ConcurrentHashMap<>();
+    
+    private final BufferedWriter writer;
+    
+    /**
+     * Opens the journal at the given path, creating it if it does not exist.
+     *
+     * @param journalFile
+     *            The path to the journal file.
+     * @throws IOException
+     *             If the journal could not be read or opened for writing.
+     */
+    public BulkLoadJournal(final Path journalFile) throws IOException
+    {
+        if(Files.exists(journalFile))
+        {
+            try (final BufferedReader reader = Files.newBufferedReader(journalFile, StandardCharsets.UTF_8);)
+            {
+                String nextLine;
+                while((nextLine = reader.readLine()) != null)
+                {
+                    final String[] fields = nextLine.split("\t");
+                    if(fields.length == 2 && !fields[0].isEmpty() && !fields[1].isEmpty())
+                    {
+                        this.completed.put(fields[0], fields[1]);
+                    }
+                }
+            }
+        }
+        
+        this.writer =
+                Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND);
+        // Start on a new line in case the last line was not completed
+        this.writer.newLine();
+        this.writer.flush();
+    }
+    
+    /**
+     * @param relativePath
+     *            The path of a file relative to the directory being loaded.
+     * @return True if the file was loaded by this or a previous run.
+     */
+    public boolean isCompleted(final String relativePath)
+    {
+        return this.completed.containsKey(relativePath);
+    }
+    
+    /**
+     * @return An unmodifiable view of the loaded files, mapped to the IRIs of their artifacts.
+     */
+    public Map<String, String> getCompleted()
+    {
+        return Collections.unmodifiableMap(this.completed);
+    }
+    
+    /**
+     * Records that the given file has been loaded.
+     *
+     * @param relativePath
+     *            The path of the file relative to the directory being loaded.
+     * @param artifactIri
+     *            The IRI of the artifact that the file was loaded as.
+     * @throws IOException
+     *             If the record could not be written to the journal file.
+     */
+    public synchronized void markCompleted(final String relativePath, final String artifactIri) throws IOException
+    {
+        this.writer.write(relativePath);
+        this.writer.write('\t');
+        this.writer.write(artifactIri);
+        this.writer.newLine();
+        this.writer.flush();
+        this.completed.put(relativePath, artifactIri);
+    }
+    
+    @Override
+    public synchronized void close() throws IOException
+    {
+        this.writer.close();
+    }
+}
@@ -0,0 +1,691 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ *
+ * Copyright (C) 2009-2013 The University Of Queensland
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.bulkloader;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import joptsimple.OptionException;
+import joptsimple.OptionParser;
+import joptsimple.OptionSet;
+import joptsimple.OptionSpec;
+
+import org.openrdf.OpenRDFException;
+import org.openrdf.model.Model;
+import org.openrdf.model.URI;
+import org.openrdf.repository.Repository;
+import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.Rio;
+import org.restlet.security.Role;
+import org.semanticweb.owlapi.model.OWLException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.ansell.propertyutil.PropertyUtil;
+import com.github.podd.api.DanglingObjectPolicy;
+import com.github.podd.api.DataReferenceVerificationPolicy;
+import com.github.podd.api.PoddArtifactManager;
+import com.github.podd.api.PoddOWLManager;
+import com.github.podd.api.PoddRepositoryManager;
+import com.github.podd.api.PoddSchemaManager;
+import com.github.podd.api.PoddSesameManager;
+import com.github.podd.exception.DuplicateArtifactIRIException;
+import com.github.podd.exception.PoddException;
+import com.github.podd.impl.PoddArtifactManagerImpl;
+import com.github.podd.impl.PoddSchemaManagerImpl;
+import com.github.podd.impl.PoddSesameManagerImpl;
+import com.github.podd.impl.data.DataReferenceManagerImpl;
+import com.github.podd.restlet.ApplicationUtils;
+import com.github.podd.restlet.PoddSesameRealm;
+import com.github.podd.utils.InferredOWLOntologyID;
+import com.github.podd.utils.PODD;
+import com.github.podd.utils.PoddRoles;
+import com.github.podd.utils.PoddUser;
+import com.github.podd.utils.PoddWebConstants;
+import com.github.podd.utils.RepositoryUnitOfWork;
+
+/**
+ * Loads a directory of artifacts directly into the repositories configured for a PODD instance,
+ * without going through the HTTP upload resource.
+ * <p>
+ * Artifacts are loaded in batches on a pool of worker threads, using
+ * {@link PoddArtifactManager#loadArtifacts(List, List, DanglingObjectPolicy, DataReferenceVerificationPolicy)}
+ * so that the artifacts in a batch that are stored in the same permanent repository are committed in
+ * a single transaction. The parse, PURL and store stages for different batches run in parallel, but
+ * inference for artifacts that import the same schema ontologies is serialised, as they share the
+ * OWL ontology manager that caches those schema ontologies. If any artifact in a batch cannot be
+ * loaded then none of the batch is committed, and its artifacts are loaded again one at a time so
+ * that only the artifacts that fail are left out. Each worker loads its batch inside a
+ * {@link RepositoryUnitOfWork}, so that its repository connections are reused for the whole batch.
+ * <p>
+ * The {@link BulkLoadJournal} records each file once its artifact has been committed, so an
+ * interrupted load can be resumed by running the loader again with the same journal. Files whose
+ * artifacts are found to be loaded already are checked once all of the batches have finished. If
+ * another file was loaded as the same artifact, the two files conflict and the file is reported as
+ * failed. Otherwise the artifact was loaded by an interrupted run that did not record it, so the
+ * file is recorded, after mapping the owner to the artifact if the interrupted run did not.
+ * Throughput is logged periodically while the load is running and again when it completes.
+ *
+ * @author Peter Ansell p_ansell@yahoo.com
+ */
+public class PoddBulkLoader
+{
+    public static final String DEFAULT_JOURNAL_FILE = "bulkload.journal";
+    
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+    
+    private final PoddArtifactManager artifactManager;
+    
+    private final int threads;
+    
+    private final int batchSize;
+    
+    private DanglingObjectPolicy danglingObjectPolicy = DanglingObjectPolicy.REPORT;
+    
+    private PoddSesameRealm realm;
+    
+    private PoddUser owner;
+    
+    private long reportInterval = 30;
+    
+    private final AtomicInteger loadedCount = new AtomicInteger();
+    
+    private final AtomicInteger skippedCount = new AtomicInteger();
+    
+    private final AtomicInteger failedCount = new AtomicInteger();
+    
+    private final AtomicLong loadedBytes = new AtomicLong();
+    
+    /**
+     * The files whose artifacts were found to be loaded already, mapped to the IRIs of the
+     * artifacts.
+     */
+    private final ConcurrentMap<String, String> duplicates = new ConcurrentHashMap<>();
+    
+    private volatile int pendingCount;
+    
+    private volatile long startTime;
+    
+    /**
+     * @param artifactManager
+     *            The artifact manager to load the artifacts with.
+     * @param threads
+     *            The number of artifacts to load in parallel.
+     * @param batchSize
+     *            The number of artifacts that each worker loads and commits together.
+     */
+    public PoddBulkLoader(final PoddArtifactManager artifactManager, final int threads, final int batchSize)
+    {
+        if(threads < 1)
+        {
+            throw new IllegalArgumentException("Number of threads must be at least 1");
+        }
+        if(batchSize < 1)
+        {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        this.artifactManager = artifactManager;
+        this.threads = threads;
+        this.batchSize = batchSize;
+    }
+    
+    /**
+     * Sets the policy for objects that are not connected to the top object of an artifact.
+     */
+    public void setDanglingObjectPolicy(final DanglingObjectPolicy danglingObjectPolicy)
+    {
+        this.danglingObjectPolicy = danglingObjectPolicy;
+    }
+    
+    /**
+     * Sets the user that is mapped as the project administrator and principal investigator for each
+     * loaded artifact, as the HTTP upload resource does for the uploading user.
+     */
+    public void setOwner(final PoddSesameRealm realm, final PoddUser owner)
+    {
+        this.realm = realm;
+        this.owner = owner;
+    }
+    
+    /**
+     * Sets the time, in seconds, between throughput reports. Set to 0 to only report when the load
+     * completes.
+     */
+    public void setReportInterval(final long reportInterval)
+    {
+        this.reportInterval = reportInterval;
+    }
+    
+    public int getLoadedCount()
+    {
+        return this.loadedCount.get();
+    }
+    
+    public int getSkippedCount()
+    {
+        return this.skippedCount.get();
+    }
+    
+    public int getFailedCount()
+    {
+        return this.failedCount.get();
+    }
+    
+    /**
+     * Loads every artifact file in the given directory, and its subdirectories, that has not
+     * already been recorded in the journal.
+     *
+     * @param directory
+     *            The directory containing the artifacts, in any RDF format that can be identified
+     *            from the file extension.
+     * @param journal
+     *            The journal recording the files that have been loaded.
+     * @throws IOException
+     *             If the directory could not be read, or the journal could not be written.
+     * @throws InterruptedException
+     *             If the thread was interrupted while waiting for the load to complete.
+     */
+    public void load(final Path directory, final BulkLoadJournal journal) throws IOException, InterruptedException
+    {
+        final List<Path> pending = new ArrayList<>();
+        for(final Path nextFile : PoddBulkLoader.findArtifactFiles(directory))
+        {
+            if(journal.isCompleted(PoddBulkLoader.getRelativePath(directory, nextFile)))
+            {
+                this.skippedCount.incrementAndGet();
+            }
+            else
+            {
+                pending.add(nextFile);
+            }
+        }
+        this.pendingCount = pending.size();
+        this.log.info("Found {} artifacts to load, skipping {} artifacts that were already loaded", pending.size(),
+                this.skippedCount.get());
+        
+        this.startTime = System.nanoTime();
+        final ExecutorService executor = Executors.newFixedThreadPool(this.threads);
+        final ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        try
+        {
+            if(this.reportInterval > 0)
+            {
+                reporter.scheduleAtFixedRate(new Runnable()
+                    {
+                        @Override
+                        public void run()
+                        {
+                            PoddBulkLoader.this.reportThroughput();
+                        }
+                    }, this.reportInterval, this.reportInterval, TimeUnit.SECONDS);
+            }
+            
+            final List<Future<Void>> batches = new ArrayList<>();
+            for(int i = 0; i < pending.size(); i += this.batchSize)
+            {
+                final List<Path> nextBatch = pending.subList(i, Math.min(i + this.batchSize, pending.size()));
+                batches.add(executor.submit(new Callable<Void>()
+                    {
+                        @Override
+                        public Void call() throws IOException
+                        {
+                            PoddBulkLoader.this.loadBatch(directory, nextBatch, journal);
+                            return null;
+                        }
+                    }));
+            }
+            
+            for(final Future<Void> nextBatch : batches)
+            {
+                try
+                {
+                    nextBatch.get();
+                }
+                catch(final ExecutionException e)
+                {
+                    // The journal could not be written, so stop rather than load artifacts that
+                    // would be loaded again when the load is resumed
+                    executor.shutdownNow();
+                    if(e.getCause() instanceof IOException)
+                    {
+                        throw (IOException)e.getCause();
+                    }
+                    throw new IOException("Bulk load failed", e.getCause());
+                }
+            }
+            
+            this.resolveDuplicates(journal);
+        }
+        finally
+        {
+            reporter.shutdownNow();
+            executor.shutdownNow();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+            this.reportThroughput();
+        }
+    }
+    
+    private void loadBatch(final Path directory, final List<Path> batch, final BulkLoadJournal journal)
+        throws IOException
+    {
+        final RepositoryUnitOfWork unitOfWork = RepositoryUnitOfWork.begin();
+        try
+        {
+            if(batch.size() > 1 && this.loadTogether(directory, batch, journal))
+            {
+                return;
+            }
+            
+            for(final Path nextFile : batch)
+            {
+                if(Thread.currentThread().isInterrupted())
+                {
+                    return;
+                }
+                this.loadFile(directory, nextFile, journal);
+            }
+        }
+        finally
+        {
+            if(unitOfWork != null)
+            {
+                unitOfWork.close();
+            }
+        }
+    }
+    
+    /**
+     * Loads the given files as a single batch, committing their artifacts together.
+     *
+     * @return False if the batch could not be loaded, in which case none of its artifacts were
+     *         committed.
+     */
+    private boolean loadTogether(final Path directory, final List<Path> batch, final BulkLoadJournal journal)
+        throws IOException
+    {
+        final List<InputStream> inputs = new ArrayList<>();
+        final List<RDFFormat> formats = new ArrayList<>();
+        List<InferredOWLOntologyID> artifactIds = null;
+        try
+        {
+            for(final Path nextFile : batch)
+            {
+                inputs.add(new BufferedInputStream(Files.newInputStream(nextFile)));
+                formats.add(PoddBulkLoader.getFormat(nextFile));
+            }
+            artifactIds =
+                    this.artifactManager.loadArtifacts(inputs, formats, this.danglingObjectPolicy,
+                            DataReferenceVerificationPolicy.DO_NOT_VERIFY);
+        }
+        catch(final Exception e)
+        {
+            this.log.info("Could not load a batch of {} artifacts together, loading them one at a time: {}",
+                    batch.size(), e.getMessage());
+            return false;
+        }
+        finally
+        {
+            for(final InputStream nextInput : inputs)
+            {
+                try
+                {
+                    nextInput.close();
+                }
+                catch(final IOException e)
+                {
+                    this.log.error("Found exception closing artifact file", e);
+                }
+            }
+        }
+        
+        for(int i = 0; i < batch.size(); i++)
+        {
+            this.artifactLoaded(directory, batch.get(i), artifactIds.get(i).getOntologyIRI().toOpenRDFURI(),
+                    journal);
+        }
+        return true;
+    }
+    
+    private void loadFile(final Path directory, final Path file, final BulkLoadJournal journal) throws IOException
+    {
+        final String relativePath = PoddBulkLoader.getRelativePath(directory, file);
+        
+        URI artifactUri = null;
+        try (final InputStream input = new BufferedInputStream(Files.newInputStream(file));)
+        {
+            final InferredOWLOntologyID artifactId =
+                    this.artifactManager.loadArtifact(input, PoddBulkLoader.getFormat(file),
+                            this.danglingObjectPolicy, DataReferenceVerificationPolicy.DO_NOT_VERIFY);
+            artifactUri = artifactId.getOntologyIRI().toOpenRDFURI();
+        }
+        catch(final DuplicateArtifactIRIException e)
+        {
+            // Resolved once all of the batches have finished, as the file that the artifact was
+            // loaded from may still be in another batch
+            this.duplicates.put(relativePath, e.getDuplicateOntologyIRI().toString());
+        }
+        catch(final Exception e)
+        {
+            this.failedCount.incrementAndGet();
+            this.log.error("Could not load artifact from " + relativePath, e);
+        }
+        
+        if(artifactUri != null)
+        {
+            this.artifactLoaded(directory, file, artifactUri, journal);
+        }
+    }
+    
+    /**
+     * Maps the owner to the artifact that was loaded from the given file, and records the file in
+     * the journal.
+     */
+    private void artifactLoaded(final Path directory, final Path file, final URI artifactUri,
+            final BulkLoadJournal journal) throws IOException
+    {
+        final String relativePath = PoddBulkLoader.getRelativePath(directory, file);
+        if(this.mapOwner(relativePath, artifactUri))
+        {
+            journal.markCompleted(relativePath, artifactUri.stringValue());
+            this.loadedCount.incrementAndGet();
+            this.loadedBytes.addAndGet(Files.size(file));
+            this.log.debug("Loaded {} as {}", relativePath, artifactUri);
+        }
+    }
+    
+    /**
+     * Checks the files whose artifacts were found to be loaded already, against the files that
+     * have been recorded in the journal.
+     */
+    private void resolveDuplicates(final BulkLoadJournal journal) throws IOException
+    {
+        final Map<String, String> loadedFiles = new HashMap<>();
+        for(final Entry<String, String> nextCompleted : journal.getCompleted().entrySet())
+        {
+            loadedFiles.put(nextCompleted.getValue(), nextCompleted.getKey());
+        }
+        
+        for(final Entry<String, String> nextDuplicate : new TreeMap<>(this.duplicates).entrySet())
+        {
+            final String relativePath = nextDuplicate.getKey();
+            final String artifactIri = nextDuplicate.getValue();
+            final String otherFile = loadedFiles.get(artifactIri);
+            if(otherFile != null)
+            {
+                this.failedCount.incrementAndGet();
+                this.log.error("Could not load {} as artifact {} was already loaded from {}", relativePath,
+                        artifactIri, otherFile);
+            }
+            else if(this.mapOwner(relativePath, PODD.VF.createURI(artifactIri)))
+            {
+                // The artifact was loaded by a previous run that stopped before recording it
+                journal.markCompleted(relativePath, artifactIri);
+                loadedFiles.put(artifactIri, relativePath);
+                this.skippedCount.incrementAndGet();
+                this.log.warn("Skipping {} as the artifact is already loaded: {}", relativePath, artifactIri);
+            }
+        }
+        this.duplicates.clear();
+    }
+    
+    /**
+     * Maps the owner as the project administrator and principal investigator of the given
+     * artifact, unless they are already mapped.
+     *
+     * @return False if the mappings could not be added, in which case the file is counted as
+     *         failed so that the mappings are added when the load is resumed.
+     */
+    private boolean mapOwner(final String relativePath, final URI artifactUri)
+    {
+        if(this.owner == null)
+        {
+            return true;
+        }
+        
+        try
+        {
+            final Collection<Role> existingRoles = this.realm.getRolesForObject(this.owner, artifactUri);
+            for(final Role nextRole : Arrays.asList(PoddRoles.PROJECT_ADMIN.getRole(),
+                    PoddRoles.PROJECT_PRINCIPAL_INVESTIGATOR.getRole()))
+            {
+                if(!existingRoles.contains(nextRole))
+                {
+                    this.realm.map(this.owner, nextRole, artifactUri);
+                }
+            }
+            return true;
+        }
+        catch(final RuntimeException e)
+        {
+            this.failedCount.incrementAndGet();
+            this.log.error("Could not map the owner to the artifact loaded from " + relativePath, e);
+            return false;
+        }
+    }
+    
+    private void reportThroughput()
+    {
+        final double seconds = Math.max(System.nanoTime() - this.startTime, 1) / 1000000000.0;
+        final int loaded = this.loadedCount.get();
+        this.log.info(String.format(
+                "Loaded %d of %d artifacts (%d failed) in %.1f seconds: %.2f artifacts/second, %.1f KB/second",
+                loaded, this.pendingCount, this.failedCount.get(), seconds, loaded / seconds, this.loadedBytes.get()
+                        / 1024.0 / seconds));
+    }
+    
+    /**
+     * Finds the files in the given directory, and its subdirectories, whose RDF format can be
+     * identified from their file extension, in a consistent order.
+     */
+    public static List<Path> findArtifactFiles(final Path directory) throws IOException
+    {
+        final List<Path> results = new ArrayList<>();
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>()
+            {
+                @Override
+                public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs)
+                {
+                    if(attrs.isRegularFile() && Rio.getParserFormatForFileName(file.getFileName().toString()) != null)
+                    {
+                        results.add(file);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        Collections.sort(results);
+        return results;
+    }
+    
+    private static String getRelativePath(final Path directory, final Path file)
+    {
+        return directory.relativize(file).toString().replace(File.separatorChar, '/');
+    }
+    
+    private static RDFFormat getFormat(final Path file)
+    {
+        return Rio.getParserFormatForFileName(file.getFileName().toString(), RDFFormat.RDFXML);
+    }
+    
+    /**
+     * Creates an artifact manager for the given repositories, in the same way as the web
+     * application, and uploads the configured schema ontologies if they have not been uploaded
+     * already.
+     */
+    public static PoddArtifactManager getNewArtifactManager(final PoddRepositoryManager repositoryManager,
+            final PropertyUtil props) throws OpenRDFException, IOException, OWLException, PoddException
+    {
+        final PoddOWLManager owlManager = ApplicationUtils.getNewOWLManager(props);
+        final PoddSesameManager sesameManager = new PoddSesameManagerImpl();
+        
+        final PoddSchemaManager schemaManager =
+                new PoddSchemaManagerImpl(Integer.parseInt(props.get(PoddWebConstants.PROPERTY_SCHEMA_UPLOAD_THREADS,
+                        PoddWebConstants.DEFAULT_SCHEMA_UPLOAD_THREADS)));
+        schemaManager.setOwlManager(owlManager);
+        schemaManager.setRepositoryManager(repositoryManager);
+        schemaManager.setSesameManager(sesameManager);
+        
+        final PoddArtifactManager artifactManager = new PoddArtifactManagerImpl();
+        artifactManager.setRepositoryManager(repositoryManager);
+        artifactManager.setDataReferenceManager(new DataReferenceManagerImpl());
+        artifactManager.setPurlManager(ApplicationUtils.getNewPurlManager(props));
+        artifactManager.setOwlManager(owlManager);
+        artifactManager.setSchemaManager(schemaManager);
+        artifactManager.setSesameManager(sesameManager);
+        
+        // Upload the schema ontologies if this is a new instance, as the web application would at
+        // start up
+        final String schemaManifest = props.get(PODD.KEY_SCHEMAS, PODD.PATH_DEFAULT_SCHEMAS);
+        try (final InputStream input = PoddBulkLoader.class.getResourceAsStream(schemaManifest);)
+        {
+            if(input == null)
+            {
+                throw new RuntimeException("Could not find the schema ontology manifest: " + schemaManifest);
+            }
+            final Model model = Rio.parse(input, "", Rio.getParserFormatForFileName(schemaManifest, RDFFormat.RDFXML));
+            schemaManager.uploadSchemaOntologies(model);
+        }
+        return artifactManager;
+    }
+    
+    public static void main(final String... args) throws Exception
+    {
+        final OptionParser parser = new OptionParser();
+        
+        final OptionSpec<Void> help = parser.accepts("help").forHelp();
+        final OptionSpec<File> directory =
+                parser.accepts("directory").withRequiredArg().ofType(File.class).required()
+                        .describedAs("The directory containing the artifacts to load, including subdirectories.");
+        final OptionSpec<File> journal =
+                parser.accepts("journal").withRequiredArg().ofType(File.class)
+                        .describedAs("The file recording the loaded artifacts, used to resume an interrupted load. "
+                                + "Defaults to " + PoddBulkLoader.DEFAULT_JOURNAL_FILE + " in the directory.");
+        final OptionSpec<Integer> threads =
+                parser.accepts("threads").withRequiredArg().ofType(Integer.class)
+                        .defaultsTo(Runtime.getRuntime().availableProcessors())
+                        .describedAs("The number of artifacts to load in parallel.");
+        final OptionSpec<Integer> batchSize =
+                parser.accepts("batch-size").withRequiredArg().ofType(Integer.class).defaultsTo(20)
+                        .describedAs("The number of artifacts each worker loads and commits together.");
+        final OptionSpec<String> owner =
+                parser.accepts("owner").withRequiredArg().ofType(String.class)
+                        .describedAs("The user to map as the administrator of each loaded artifact.");
+        final OptionSpec<Void> force =
+                parser.accepts("force").describedAs("Remove objects that are not connected to the top object.");
+        final OptionSpec<Long> reportInterval =
+                parser.accepts("report-interval").withRequiredArg().ofType(Long.class).defaultsTo(30L)
+                        .describedAs("The number of seconds between throughput reports.");
+        
+        OptionSet options = null;
+        
+        try
+        {
+            options = parser.parse(args);
+        }
+        catch(final OptionException e)
+        {
+            System.out.println(e.getMessage());
+            parser.printHelpOn(System.out);
+            throw e;
+        }
+        if(options.has(help))
+        {
+            parser.printHelpOn(System.out);
+            return;
+        }
+        
+        final Path directoryPath = directory.value(options).toPath();
+        final Path journalPath =
+                options.has(journal) ? journal.value(options).toPath() : directoryPath
+                        .resolve(PoddBulkLoader.DEFAULT_JOURNAL_FILE);
+        
+        // Uses the same configuration as the web application, which can be overridden using
+        // system properties
+        final PropertyUtil props = new PropertyUtil("podd");
+        final Repository managementRepository = ApplicationUtils.getNewManagementRepository(props);
+        final PoddRepositoryManager repositoryManager =
+                ApplicationUtils.getNewPoddRepositoryManager(managementRepository, props);
+        boolean failed = false;
+        try
+        {
+            final PoddArtifactManager artifactManager = PoddBulkLoader.getNewArtifactManager(repositoryManager, props);
+            
+            final PoddBulkLoader loader =
+                    new PoddBulkLoader(artifactManager, threads.value(options), batchSize.value(options));
+            loader.setReportInterval(reportInterval.value(options));
+            if(options.has(force))
+            {
+                loader.setDanglingObjectPolicy(DanglingObjectPolicy.FORCE_CLEAN);
+            }
+            if(options.has(owner))
+            {
+                final URI userManagementGraph =
+                        PODD.VF.createURI(props.get(PODD.PROPERTY_USER_MANAGEMENT_GRAPH,
+                                PODD.DEFAULT_USER_MANAGEMENT_GRAPH.stringValue()));
+                final PoddSesameRealm realm = new PoddSesameRealm(managementRepository, userManagementGraph);
+                final PoddUser ownerUser = realm.findUser(owner.value(options));
+                if(ownerUser == null)
+                {
+                    throw new IllegalArgumentException("Could not find owner: " + owner.value(options));
+                }
+                loader.setOwner(realm, ownerUser);
+            }
+            
+            try (final BulkLoadJournal bulkLoadJournal = new BulkLoadJournal(journalPath);)
+            {
+                loader.load(directoryPath, bulkLoadJournal);
+            }
+            failed = loader.getFailedCount() > 0;
+        }
+        finally
+        {
+            // Also shuts down the management repository
+            repositoryManager.shutDown();
+        }
+        
+        if(failed)
+        {
+            System.exit(1);
+        }
+    }
+}
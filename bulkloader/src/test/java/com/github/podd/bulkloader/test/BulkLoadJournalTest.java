@@ -0,0 +1,89 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ *
+ * Copyright (C) 2009-2013 The University Of Queensland
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.bulkloader.test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.github.podd.bulkloader.BulkLoadJournal;
+
+/**
+ * @author Peter Ansell p_ansell@yahoo.com
+ */
+public class BulkLoadJournalTest
+{
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+    
+    @Test
+    public final void testNewJournal() throws Exception
+    {
+        final Path journalFile = this.tempDir.getRoot().toPath().resolve("test.journal");
+        try (final BulkLoadJournal journal = new BulkLoadJournal(journalFile);)
+        {
+            Assert.assertTrue(journal.getCompleted().isEmpty());
+            Assert.assertFalse(journal.isCompleted("a.ttl"));
+        }
+        Assert.assertTrue(Files.exists(journalFile));
+    }
+    
+    @Test
+    public final void testReopenJournal() throws Exception
+    {
+        final Path journalFile = this.tempDir.getRoot().toPath().resolve("test.journal");
+        try (final BulkLoadJournal journal = new BulkLoadJournal(journalFile);)
+        {
+            journal.markCompleted("a.ttl", "urn:test:artifact:a");
+            journal.markCompleted("sub/b.rdf", "urn:test:artifact:b");
+            Assert.assertTrue(journal.isCompleted("a.ttl"));
+        }
+        
+        try (final BulkLoadJournal journal = new BulkLoadJournal(journalFile);)
+        {
+            Assert.assertEquals(2, journal.getCompleted().size());
+            Assert.assertEquals("urn:test:artifact:a", journal.getCompleted().get("a.ttl"));
+            Assert.assertEquals("urn:test:artifact:b", journal.getCompleted().get("sub/b.rdf"));
+            Assert.assertFalse(journal.isCompleted("c.ttl"));
+        }
+    }
+    
+    @Test
+    public final void testIncompleteLastLine() throws Exception
+    {
+        final Path journalFile = this.tempDir.getRoot().toPath().resolve("test.journal");
+        Files.write(journalFile, "a.ttl\turn:test:artifact:a\nb.tt".getBytes(StandardCharsets.UTF_8));
+        
+        try (final BulkLoadJournal journal = new BulkLoadJournal(journalFile);)
+        {
+            Assert.assertTrue(journal.isCompleted("a.ttl"));
+            Assert.assertFalse(journal.isCompleted("b.tt"));
+            journal.markCompleted("b.ttl", "urn:test:artifact:b");
+        }
+        
+        try (final BulkLoadJournal journal = new BulkLoadJournal(journalFile);)
+        {
+            Assert.assertEquals(2, journal.getCompleted().size());
+            Assert.assertEquals("urn:test:artifact:b", journal.getCompleted().get("b.ttl"));
+        }
+    }
+}
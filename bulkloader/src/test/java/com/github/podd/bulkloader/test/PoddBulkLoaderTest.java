@@ -0,0 +1,249 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ *
+ * Copyright (C) 2009-2013 The University Of Queensland
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.bulkloader.test;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openrdf.model.URI;
+import org.openrdf.repository.Repository;
+import org.openrdf.rio.RDFFormat;
+import org.restlet.security.Role;
+
+import com.github.ansell.propertyutil.PropertyUtil;
+import com.github.podd.api.PoddArtifactManager;
+import com.github.podd.api.PoddRepositoryManager;
+import com.github.podd.api.test.TestConstants;
+import com.github.podd.bulkloader.BulkLoadJournal;
+import com.github.podd.bulkloader.PoddBulkLoader;
+import com.github.podd.restlet.ApplicationUtils;
+import com.github.podd.restlet.PoddSesameRealm;
+import com.github.podd.utils.InferredOWLOntologyID;
+import com.github.podd.utils.PODD;
+import com.github.podd.utils.PoddRoles;
+import com.github.podd.utils.PoddUser;
+import com.github.podd.utils.PoddUserStatus;
+import com.github.podd.utils.PoddWebConstants;
+
+/**
+ * @author Peter Ansell p_ansell@yahoo.com
+ */
+public class PoddBulkLoaderTest
+{
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+    
+    private Repository managementRepository;
+    
+    private PoddRepositoryManager repositoryManager;
+    
+    private PoddArtifactManager artifactManager;
+    
+    private Path artifactDirectory;
+    
+    @Before
+    public void setUp() throws Exception
+    {
+        // Use the same wiring as the command line loader, with in memory repositories
+        System.setProperty(PoddWebConstants.PROPERTY_PODD_HOME, this.tempDir.newFolder("home").toString());
+        final PropertyUtil props = new PropertyUtil("podd");
+        this.managementRepository = ApplicationUtils.getNewManagementRepository(props);
+        this.repositoryManager = ApplicationUtils.getNewPoddRepositoryManager(this.managementRepository, props);
+        this.artifactManager = PoddBulkLoader.getNewArtifactManager(this.repositoryManager, props);
+        
+        this.artifactDirectory = this.tempDir.newFolder("artifacts").toPath();
+        try (final InputStream input = this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_20130206);)
+        {
+            Files.copy(input, this.artifactDirectory.resolve("basic-20130206.ttl"));
+        }
+        final Path subdirectory = Files.createDirectories(this.artifactDirectory.resolve("projects"));
+        try (final InputStream input =
+                this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_BASIC_PROJECT_1);)
+        {
+            Files.copy(input, subdirectory.resolve("basicProject-1.rdf"));
+        }
+        Files.write(subdirectory.resolve("broken.ttl"), "this is not turtle".getBytes(StandardCharsets.UTF_8));
+        Files.write(subdirectory.resolve("README.txt"), "not an artifact".getBytes(StandardCharsets.UTF_8));
+    }
+    
+    @After
+    public void tearDown() throws Exception
+    {
+        if(this.repositoryManager != null)
+        {
+            this.repositoryManager.shutDown();
+        }
+        System.clearProperty(PoddWebConstants.PROPERTY_PODD_HOME);
+    }
+    
+    private void copyArtifact(final String resource, final String relativePath) throws Exception
+    {
+        try (final InputStream input = this.getClass().getResourceAsStream(resource);)
+        {
+            Files.copy(input, this.artifactDirectory.resolve(relativePath));
+        }
+    }
+    
+    @Test
+    public final void testFindArtifactFiles() throws Exception
+    {
+        Assert.assertEquals(3, PoddBulkLoader.findArtifactFiles(this.artifactDirectory).size());
+    }
+    
+    @Test
+    public final void testLoadAndResume() throws Exception
+    {
+        final Path journalFile = this.artifactDirectory.resolve(PoddBulkLoader.DEFAULT_JOURNAL_FILE);
+        
+        final PoddBulkLoader loader = new PoddBulkLoader(this.artifactManager, 2, 1);
+        loader.setReportInterval(0);
+        try (final BulkLoadJournal journal = new BulkLoadJournal(journalFile);)
+        {
+            loader.load(this.artifactDirectory, journal);
+            Assert.assertEquals(2, journal.getCompleted().size());
+            Assert.assertTrue(journal.isCompleted("basic-20130206.ttl"));
+            Assert.assertTrue(journal.isCompleted("projects/basicProject-1.rdf"));
+        }
+        Assert.assertEquals(2, loader.getLoadedCount());
+        Assert.assertEquals(0, loader.getSkippedCount());
+        Assert.assertEquals(1, loader.getFailedCount());
+        Assert.assertEquals(2, this.artifactManager.listUnpublishedArtifacts().size());
+        
+        // Only the file that failed is attempted again
+        final PoddBulkLoader resumedLoader = new PoddBulkLoader(this.artifactManager, 2, 10);
+        resumedLoader.setReportInterval(0);
+        try (final BulkLoadJournal journal = new BulkLoadJournal(journalFile);)
+        {
+            resumedLoader.load(this.artifactDirectory, journal);
+        }
+        Assert.assertEquals(0, resumedLoader.getLoadedCount());
+        Assert.assertEquals(2, resumedLoader.getSkippedCount());
+        Assert.assertEquals(1, resumedLoader.getFailedCount());
+        Assert.assertEquals(2, this.artifactManager.listUnpublishedArtifacts().size());
+    }
+    
+    @Test
+    public final void testLoadBatchTogether() throws Exception
+    {
+        Files.delete(this.artifactDirectory.resolve("projects/broken.ttl"));
+        
+        final PoddBulkLoader loader = new PoddBulkLoader(this.artifactManager, 1, 10);
+        loader.setReportInterval(0);
+        try (final BulkLoadJournal journal =
+                new BulkLoadJournal(this.artifactDirectory.resolve(PoddBulkLoader.DEFAULT_JOURNAL_FILE));)
+        {
+            loader.load(this.artifactDirectory, journal);
+            Assert.assertEquals(2, journal.getCompleted().size());
+        }
+        Assert.assertEquals(2, loader.getLoadedCount());
+        Assert.assertEquals(0, loader.getSkippedCount());
+        Assert.assertEquals(0, loader.getFailedCount());
+        Assert.assertEquals(2, this.artifactManager.listUnpublishedArtifacts().size());
+    }
+    
+    @Test
+    public final void testLoadBatchWithBrokenFile() throws Exception
+    {
+        // The batch fails as a whole, so its files are loaded one at a time instead
+        final PoddBulkLoader loader = new PoddBulkLoader(this.artifactManager, 1, 10);
+        loader.setReportInterval(0);
+        try (final BulkLoadJournal journal =
+                new BulkLoadJournal(this.artifactDirectory.resolve(PoddBulkLoader.DEFAULT_JOURNAL_FILE));)
+        {
+            loader.load(this.artifactDirectory, journal);
+            Assert.assertEquals(2, journal.getCompleted().size());
+            Assert.assertFalse(journal.isCompleted("projects/broken.ttl"));
+        }
+        Assert.assertEquals(2, loader.getLoadedCount());
+        Assert.assertEquals(0, loader.getSkippedCount());
+        Assert.assertEquals(1, loader.getFailedCount());
+        Assert.assertEquals(2, this.artifactManager.listUnpublishedArtifacts().size());
+    }
+    
+    @Test
+    public final void testLoadTwoFilesWithSameArtifact() throws Exception
+    {
+        Files.delete(this.artifactDirectory.resolve("projects/broken.ttl"));
+        this.copyArtifact(TestConstants.TEST_ARTIFACT_PURLS_v1, "projects/purls-v1.rdf");
+        this.copyArtifact("/test/artifacts/project-with-purls-v2.rdf", "projects/purls-v2.rdf");
+        
+        final PoddBulkLoader loader = new PoddBulkLoader(this.artifactManager, 1, 10);
+        loader.setReportInterval(0);
+        try (final BulkLoadJournal journal =
+                new BulkLoadJournal(this.artifactDirectory.resolve(PoddBulkLoader.DEFAULT_JOURNAL_FILE));)
+        {
+            loader.load(this.artifactDirectory, journal);
+            Assert.assertEquals(3, journal.getCompleted().size());
+            Assert.assertTrue(journal.isCompleted("projects/purls-v1.rdf"));
+            Assert.assertFalse(journal.isCompleted("projects/purls-v2.rdf"));
+        }
+        // The second file is reported rather than being skipped as already loaded
+        Assert.assertEquals(3, loader.getLoadedCount());
+        Assert.assertEquals(0, loader.getSkippedCount());
+        Assert.assertEquals(1, loader.getFailedCount());
+        Assert.assertEquals(3, this.artifactManager.listUnpublishedArtifacts().size());
+    }
+    
+    @Test
+    public final void testResumeArtifactLoadedWithoutJournal() throws Exception
+    {
+        final PoddSesameRealm realm =
+                new PoddSesameRealm(this.managementRepository, PODD.DEFAULT_USER_MANAGEMENT_GRAPH);
+        final PoddUser owner =
+                new PoddUser("owner", "secret".toCharArray(), "First", "Last", "owner", PoddUserStatus.ACTIVE,
+                        PODD.VF.createURI("http://example.org/owner"), "Some Organization", "SOME_ORCID_ID");
+        realm.addUser(owner);
+        
+        // Simulate a previous run that stopped after committing the artifact, but before recording
+        // the file in the journal or mapping the principal investigator
+        this.copyArtifact(TestConstants.TEST_ARTIFACT_PURLS_v1, "projects/purls-v1.rdf");
+        final InferredOWLOntologyID artifactId;
+        try (final InputStream input = this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_PURLS_v1);)
+        {
+            artifactId = this.artifactManager.loadArtifact(input, RDFFormat.RDFXML);
+        }
+        final URI artifactUri = artifactId.getOntologyIRI().toOpenRDFURI();
+        realm.map(owner, PoddRoles.PROJECT_ADMIN.getRole(), artifactUri);
+        
+        final PoddBulkLoader loader = new PoddBulkLoader(this.artifactManager, 1, 1);
+        loader.setReportInterval(0);
+        loader.setOwner(realm, owner);
+        try (final BulkLoadJournal journal =
+                new BulkLoadJournal(this.artifactDirectory.resolve(PoddBulkLoader.DEFAULT_JOURNAL_FILE));)
+        {
+            loader.load(this.artifactDirectory, journal);
+            Assert.assertEquals(artifactUri.stringValue(), journal.getCompleted().get("projects/purls-v1.rdf"));
+        }
+        Assert.assertEquals(2, loader.getLoadedCount());
+        Assert.assertEquals(1, loader.getSkippedCount());
+        Assert.assertEquals(1, loader.getFailedCount());
+        Assert.assertEquals(3, this.artifactManager.listUnpublishedArtifacts().size());
+        
+        final Collection<Role> roles = realm.getRolesForObject(owner, artifactUri);
+        Assert.assertTrue(roles.contains(PoddRoles.PROJECT_ADMIN.getRole()));
+        Assert.assertTrue(roles.contains(PoddRoles.PROJECT_PRINCIPAL_INVESTIGATOR.getRole()));
+    }
+}
@@ -400,6 +400,14 @@ public interface PoddClient
      */
     String getPoddServerUrl();
     
+    /**
+     * Gets the RDF format that this client uses to send artifacts to the server and to receive
+     * artifacts and SPARQL query results from the server.
+     *
+     * @return The RDF format used for bulk transfers. Defaults to {@link RDFFormat#BINARY}.
+     */
+    RDFFormat getTransportFormat();
+    
     /**
      *
      * @param userIdentifier
@@ -553,6 +561,16 @@ public interface PoddClient
      */
     void setPoddServerUrl(String serverUrl);
     
+    /**
+     * Sets the RDF format that this client uses to send artifacts to the server and to receive
+     * artifacts and SPARQL query results from the server.
+     *
+     * @param transportFormat
+     *            The RDF format to use for bulk transfers. Servers that do not support
+     *            {@link RDFFormat#BINARY} can be used by setting this to {@link RDFFormat#RDFJSON}.
+     */
+    void setTransportFormat(RDFFormat transportFormat);
+    
     /**
      * Submits a request to the PODD Unpublish Artifact service to unpublish an artifact that was
      * previously published.
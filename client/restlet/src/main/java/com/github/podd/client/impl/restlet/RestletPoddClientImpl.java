@@ -16,14 +16,13 @@
  */
 package com.github.podd.client.impl.restlet;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.StringReader;
-import java.io.StringWriter;
-import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -55,11 +54,14 @@ import org.openrdf.rio.Rio;
 import org.openrdf.rio.UnsupportedRDFormatException;
 import org.restlet.data.CharacterSet;
 import org.restlet.data.CookieSetting;
+import org.restlet.data.Encoding;
 import org.restlet.data.Form;
 import org.restlet.data.MediaType;
+import org.restlet.data.Preference;
 import org.restlet.data.Status;
+import org.restlet.engine.application.DecodeRepresentation;
+import org.restlet.representation.ByteArrayRepresentation;
 import org.restlet.representation.InputRepresentation;
-import org.restlet.representation.ReaderRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.resource.ClientResource;
 import org.restlet.resource.ResourceException;
@@ -115,6 +117,8 @@ public class RestletPoddClientImpl implements PoddClient
     
     private volatile String serverUrl = null;
     
+    private volatile RDFFormat transportFormat = RDFFormat.BINARY;
+    
     /**
      * Shortcut to {@link PODD#VF}
      */
@@ -238,15 +242,13 @@ public class RestletPoddClientImpl implements PoddClient
         {
             try
             {
-                final StringWriter writer = new StringWriter(4096);
-                Rio.write(nextUpload.getValue(), writer, RDFFormat.RDFJSON);
-                System.out.println("print art");
-                System.out.println(writer.toString());
+                final RDFFormat format = this.getTransportFormat();
+                final ByteArrayOutputStream output = new ByteArrayOutputStream(4096);
+                Rio.write(nextUpload.getValue(), output, format);
                 
                 final InferredOWLOntologyID newID =
-                		this.appendArtifact(nextUpload.getKey(),
-                                new ByteArrayInputStream(writer.toString().getBytes(Charset.forName("UTF-8"))),
-                                RDFFormat.RDFJSON);
+                        this.appendArtifact(nextUpload.getKey(), new ByteArrayInputStream(output.toByteArray()),
+                                format);
                 
                 if(newID == null)
                 {
@@ -398,32 +400,20 @@ public class RestletPoddClientImpl implements PoddClient
         
         final Form form = new Form();
         form.add(PoddWebConstants.KEY_SPARQLQUERY, queryString);
-        System.out.println(queryString);
+        this.log.debug("SPARQL query: {}", queryString);
         // TODO: Parse query to make sure it is syntactically valid before sending query
         // resource.addQueryParameter(PoddWebConstants.KEY_SPARQLQUERY, queryString);
         
         for(final InferredOWLOntologyID artifactId : artifactIds)
         {
             form.add(PoddWebConstants.KEY_ARTIFACT_IDENTIFIER, artifactId.getOntologyIRI().toString());
-            System.out.println("artifactvidya");
-            System.out.println(artifactId.getOntologyIRI().toString());
             // resource.addQueryParameter(PoddWebConstants.KEY_ARTIFACT_IDENTIFIER,
             // artifactId.getOntologyIRI().toString());
         }
         
         try
         {
-            final Representation get =
-                    resource.post(form.getWebRepresentation(CharacterSet.UTF_8),
-                            RestletUtilMediaType.APPLICATION_RDF_JSON);
-            
-            // Pass the desired format to the get method of the ClientResource
-            // final Representation get = resource.get(RestletUtilMediaType.APPLICATION_RDF_JSON);
-            
-            final StringWriter writer = new StringWriter(4096);
-            
-            get.write(writer);
-            return Rio.parse(new StringReader(writer.toString()), "", RDFFormat.RDFJSON);
+            return this.postSparql(resource, form);
         }
         catch(final ResourceException e)
         {
@@ -444,18 +434,7 @@ public class RestletPoddClientImpl implements PoddClient
             // entire process
             try
             {
-                final Representation get =
-                        resource.post(form.getWebRepresentation(CharacterSet.UTF_8),
-                                RestletUtilMediaType.APPLICATION_RDF_JSON);
-                
-                // Pass the desired format to the get method of the ClientResource
-                // final Representation get =
-                // resource.get(RestletUtilMediaType.APPLICATION_RDF_JSON);
-                
-                final StringWriter writer = new StringWriter(4096);
-                
-                get.write(writer);
-                return Rio.parse(new StringReader(writer.toString()), "", RDFFormat.RDFJSON);
+                return this.postSparql(resource, form);
             }
             catch(final ResourceException e1)
             {
@@ -483,14 +462,15 @@ public class RestletPoddClientImpl implements PoddClient
     {
         try
         {
-            final Path tempFile = Files.createTempFile("downloadartifact-", ".rj");
-            try (final OutputStream output = Files.newOutputStream(tempFile);)
+            final RDFFormat format = this.getTransportFormat();
+            final Path tempFile = Files.createTempFile("downloadartifact-", "." + format.getDefaultFileExtension());
+            try (final OutputStream output = new BufferedOutputStream(Files.newOutputStream(tempFile));)
             {
-                this.downloadArtifact(artifactId, output, RDFFormat.RDFJSON);
+                this.downloadArtifact(artifactId, output, format);
             }
-            try (final InputStream input = Files.newInputStream(tempFile);)
+            try (final InputStream input = new BufferedInputStream(Files.newInputStream(tempFile));)
             {
-                return Rio.parse(input, "", RDFFormat.RDFJSON);
+                return Rio.parse(input, "", format);
             }
         }
         catch(RDFParseException | UnsupportedRDFormatException | IOException e)
@@ -523,8 +503,16 @@ public class RestletPoddClientImpl implements PoddClient
                     .toString());
         }
         
+        // Artifacts can be large, so ask for them to be compressed
+        resource.getClientInfo().getAcceptedEncodings().add(new Preference<Encoding>(Encoding.GZIP));
+        
         // Pass the desired format to the get method of the ClientResource
-        final Representation get = resource.get(MediaType.valueOf(format.getDefaultMIMEType()));
+        Representation get = resource.get(MediaType.valueOf(format.getDefaultMIMEType()));
+        
+        if(!get.getEncodings().isEmpty())
+        {
+            get = new DecodeRepresentation(get);
+        }
         
         try
         {
@@ -674,6 +662,17 @@ public class RestletPoddClientImpl implements PoddClient
                 + UUID.randomUUID().toString());
     }
     
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.github.podd.client.api.PoddClient#getTransportFormat()
+     */
+    @Override
+    public RDFFormat getTransportFormat()
+    {
+        return this.transportFormat;
+    }
+    
     /**
      * Creates the URL for a given path using the current {@link #getPoddServerUrl()} result, or
      * throws an IllegalStateException if the server URL has not been set.
@@ -1137,11 +1136,11 @@ public class RestletPoddClientImpl implements PoddClient
     private Representation postRdf(final ClientResource resource, final Model rdf) throws PoddClientException,
         ResourceException
     {
-        final StringWriter writer = new StringWriter();
+        final ByteArrayOutputStream output = new ByteArrayOutputStream(4096);
         
         try
         {
-            Rio.write(rdf, writer, RDFFormat.RDFJSON);
+            Rio.write(rdf, output, RDFFormat.RDFJSON);
         }
         catch(final RDFHandlerException e)
         {
@@ -1149,12 +1148,31 @@ public class RestletPoddClientImpl implements PoddClient
         }
         
         final Representation rep =
-                new ReaderRepresentation(new StringReader(writer.toString()), RestletUtilMediaType.APPLICATION_RDF_JSON);
+                new ByteArrayRepresentation(output.toByteArray(), RestletUtilMediaType.APPLICATION_RDF_JSON);
         
         final Representation post = resource.post(rep, RestletUtilMediaType.APPLICATION_RDF_JSON);
         return post;
     }
     
+    /**
+     * Submits the given SPARQL query form and parses the results directly from the response
+     * stream, requesting them in the current {@link #getTransportFormat()}.
+     */
+    private Model postSparql(final ClientResource resource, final Form form) throws ResourceException,
+        IOException, RDFParseException, UnsupportedRDFormatException
+    {
+        final RDFFormat format = this.getTransportFormat();
+        final Representation post =
+                resource.post(form.getWebRepresentation(CharacterSet.UTF_8),
+                        MediaType.valueOf(format.getDefaultMIMEType()));
+        
+        final RDFFormat resultFormat = Rio.getParserFormatForMIMEType(post.getMediaType().getName(), format);
+        try (final InputStream input = new BufferedInputStream(post.getStream());)
+        {
+            return Rio.parse(input, "", resultFormat);
+        }
+    }
+    
     @Override
     public InferredOWLOntologyID publishArtifact(final InferredOWLOntologyID ontologyIRI) throws PoddClientException
     {
@@ -1213,6 +1231,17 @@ public class RestletPoddClientImpl implements PoddClient
         this.props = props;
     }
     
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.github.podd.client.api.PoddClient#setTransportFormat(org.openrdf.rio.RDFFormat)
+     */
+    @Override
+    public void setTransportFormat(final RDFFormat transportFormat)
+    {
+        this.transportFormat = Objects.requireNonNull(transportFormat);
+    }
+    
     @Override
     public InferredOWLOntologyID unpublishArtifact(final InferredOWLOntologyID ontologyIRI) throws PoddClientException
     {
@@ -1229,17 +1258,18 @@ public class RestletPoddClientImpl implements PoddClient
     @Override
     public InferredOWLOntologyID uploadNewArtifact(final Model model) throws PoddClientException
     {
+        final RDFFormat format = this.getTransportFormat();
         final ByteArrayOutputStream output = new ByteArrayOutputStream();
         try
         {
-            Rio.write(model, output, RDFFormat.RDFJSON);
+            Rio.write(model, output, format);
         }
         catch(final RDFHandlerException e)
         {
             throw new PoddClientException("Could not serialise artifact to RDF", e);
         }
         
-        return this.uploadNewArtifact(new ByteArrayInputStream(output.toByteArray()), RDFFormat.RDFJSON,
+        return this.uploadNewArtifact(new ByteArrayInputStream(output.toByteArray()), format,
                 DanglingObjectPolicy.REPORT, DataReferenceVerificationPolicy.DO_NOT_VERIFY);
     }
     
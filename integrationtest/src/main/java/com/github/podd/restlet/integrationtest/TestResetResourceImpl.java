@@ -34,9 +34,11 @@ import com.github.podd.exception.PoddException;
 import com.github.podd.restlet.ApplicationUtils;
 import com.github.podd.restlet.PoddWebServiceApplication;
 import com.github.podd.test.TestUtils;
+import com.github.podd.utils.RepositorySnapshot;
 
 /**
- * Resets an application using ApplicationUtils.setupApplication.
+ * Resets an application using ApplicationUtils.setupApplication the first time that it is called,
+ * and by restoring a snapshot of the repositories that was taken at that point after that.
  *
  * @author Peter Ansell p_ansell@yahoo.com
  *
@@ -47,6 +49,12 @@ public class TestResetResourceImpl extends Restlet
     private final Logger log = LoggerFactory.getLogger(this.getClass());
     private PoddWebServiceApplication application;
     
+    /**
+     * The state of the repositories after the first reset, which later resets restore instead of
+     * setting up the application again.
+     */
+    private RepositorySnapshot snapshot;
+    
     /**
      */
     public TestResetResourceImpl()
@@ -67,10 +75,23 @@ public class TestResetResourceImpl extends Restlet
         this.log.info("========== Reset called ==========");
         try
         {
-            // Reset the aliases configuration
-            this.application.setDataRepositoryConfig(new LinkedHashModel());
-            ApplicationUtils.setupApplication(this.application, this.application.getContext());
-            TestUtils.setupTestUser(this.application);
+            if(this.snapshot == null)
+            {
+                // Reset the aliases configuration
+                this.application.setDataRepositoryConfig(new LinkedHashModel());
+                ApplicationUtils.setupApplication(this.application, this.application.getContext());
+                TestUtils.setupTestUser(this.application);
+                this.snapshot = this.application.getPoddRepositoryManager().createSnapshot();
+            }
+            else
+            {
+                // The schema ontologies and test users are unchanged, so only the repository
+                // contents and the caches derived from them need to be reset
+                this.application.getPoddRepositoryManager().restoreSnapshot(this.snapshot);
+                this.application.getPoddArtifactManager().clearObjectMetadataCache();
+                this.application.getPoddArtifactManager().getRenderedArtifactCache().clear();
+                this.application.getRealm().invalidateUserDirectory();
+            }
         }
         catch(final OpenRDFException | UnsupportedRDFormatException | IOException | OWLException | PoddException e)
         {
@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Set;
 
@@ -50,8 +51,11 @@ import com.github.podd.exception.UnmanagedArtifactIRIException;
 import com.github.podd.exception.UnmanagedArtifactVersionException;
 import com.github.podd.exception.UnmanagedSchemaException;
 import com.github.podd.exception.UnmanagedSchemaIRIException;
+import com.github.podd.utils.ClassTaxonomy;
 import com.github.podd.utils.InferredOWLOntologyID;
 import com.github.podd.utils.PoddObjectLabel;
+import com.github.podd.utils.PoddObjectView;
+import com.github.podd.utils.RenderedArtifactCache;
 
 /**
  * Manages PODD Artifacts, including loading and retrieving the ontologies representing the
@@ -69,6 +73,16 @@ public interface PoddArtifactManager
             DataReferenceVerificationPolicy dataReferenceVerificationPolicy) throws OpenRDFException, IOException,
         OWLException, PoddException;
     
+    /**
+     * Discards all of the serialised object type metadata and class hierarchies that have been
+     * cached by
+     * {@link #exportObjectMetadata(URI, OutputStream, RDFFormat, boolean, MetadataPolicy, InferredOWLOntologyID)}
+     * and {@link #preloadObjectMetadata()}.
+     * <p>
+     * This must be called whenever the schema ontologies are modified.
+     */
+    void clearObjectMetadataCache();
+    
     /**
      * Deletes the given artifact if and only if it is available and it is not currently published.
      * <p>
@@ -109,6 +123,28 @@ public interface PoddArtifactManager
     InferredOWLOntologyID deleteObject(URI artifactUri, URI versionUri, URI objectUri, boolean cascade)
         throws PoddException, OpenRDFException, IOException, OWLException;
     
+    /**
+     * Deletes the specified PODD objects within an artifact in a single update, producing one new
+     * version of the artifact. The artifact containing the objects should not be currently
+     * published.
+     *
+     * @param artifactUri
+     * @param versionUri
+     * @param objectUris
+     *            The objects to delete. Each object must have a parent.
+     * @param cascade
+     *            If true, objects that are left without a parent are also deleted, otherwise a
+     *            {@link com.github.podd.exception.DisconnectedObjectException} is thrown if any
+     *            objects would be left without a parent.
+     * @return Updated InferredOWLOntologyID of artifact after deletion
+     * @throws PoddException
+     * @throws OWLException
+     * @throws IOException
+     * @throws RepositoryException
+     */
+    InferredOWLOntologyID deleteObjects(URI artifactUri, URI versionUri, Collection<URI> objectUris,
+            boolean cascade) throws PoddException, OpenRDFException, IOException, OWLException;
+    
     /**
      * Exports the given artifact to a @{link Model}.
      *
@@ -157,6 +193,10 @@ public interface PoddArtifactManager
     /**
      * Exports metadata about the given object Type to the given output stream using an RDF Format.
      * This method is only to be used to obtain metadata for display purposes.
+     * <p>
+     * The metadata is derived only from the schema ontologies imported by the artifact, or the
+     * current schema ontologies if no artifact is given. It is cached against the schema ontology
+     * versions, so it is only recomputed after {@link #clearObjectMetadataCache()} is called.
      *
      * @param objectType
      * @param outputStream
@@ -243,6 +283,26 @@ public interface PoddArtifactManager
     InferredOWLOntologyID getArtifact(IRI artifactIRI, IRI versionIRI) throws UnmanagedArtifactIRIException,
         UnmanagedArtifactVersionException, UnmanagedSchemaIRIException;
     
+    /**
+     * Returns the latest <code>PODDBase:lastModified</code> or <code>PODDBase:createdAt</code>
+     * timestamp in the given version of an artifact.
+     *
+     * @param artifactID
+     *            The artifact version to examine.
+     * @return The latest timestamp in the artifact, or null if it does not contain any timestamps.
+     * @throws OpenRDFException
+     * @throws UnmanagedSchemaIRIException
+     * @throws SchemaManifestException
+     * @throws UnsupportedRDFormatException
+     * @throws IOException
+     * @throws UnmanagedArtifactIRIException
+     * @throws UnmanagedArtifactVersionException
+     * @throws RepositoryNotFoundException
+     */
+    Date getArtifactModificationDate(InferredOWLOntologyID artifactID) throws OpenRDFException,
+        UnmanagedSchemaIRIException, SchemaManifestException, UnsupportedRDFormatException, IOException,
+        UnmanagedArtifactIRIException, UnmanagedArtifactVersionException, RepositoryNotFoundException;
+    
     /**
      * Returns a {@link Set} containing the Object URIs of the given object's direct children.
      * Direct children are objects that are linked from the given object by a property which is a
@@ -356,6 +416,29 @@ public interface PoddArtifactManager
         UnmanagedSchemaIRIException, SchemaManifestException, UnsupportedRDFormatException, IOException,
         UnmanagedArtifactIRIException, UnmanagedArtifactVersionException, RepositoryNotFoundException;
     
+    /**
+     * Retrieves all of the details needed to display the given object, using a single pair of
+     * repository connections and computing the relevant contexts once.
+     *
+     * @param artifactId
+     *            The artifact where the given object URI is found.
+     * @param objectUri
+     *            The object to display. If this is null, the top object of the artifact is used.
+     * @return A {@link PoddObjectView} containing the details of the object.
+     * @throws OpenRDFException
+     * @throws UnmanagedSchemaIRIException
+     * @throws IOException
+     * @throws UnsupportedRDFormatException
+     * @throws SchemaManifestException
+     * @throws UnmanagedArtifactVersionException
+     * @throws UnmanagedArtifactIRIException
+     *             If the object URI was null and the artifact did not have a top object.
+     * @throws RepositoryNotFoundException
+     */
+    PoddObjectView getObjectView(InferredOWLOntologyID artifactId, URI objectUri) throws OpenRDFException,
+        UnmanagedSchemaIRIException, SchemaManifestException, UnsupportedRDFormatException, IOException,
+        UnmanagedArtifactIRIException, UnmanagedArtifactVersionException, RepositoryNotFoundException;
+    
     /**
      * Retrieve a list of <b>asserted</b> properties about the given object. The list is ordered
      * based on property weights and secondarily based on property labels.
@@ -426,6 +509,13 @@ public interface PoddArtifactManager
      */
     PoddPurlManager getPurlManager();
     
+    /**
+     *
+     * @return The {@link RenderedArtifactCache} used to serve serialised artifact versions without
+     *         accessing the repository.
+     */
+    RenderedArtifactCache getRenderedArtifactCache();
+    
     /**
      *
      * @return The {@link PoddRepositoryManager} used to manage access to the {@link Repository}.
@@ -531,6 +621,38 @@ public interface PoddArtifactManager
             DanglingObjectPolicy danglingObjectPolicy, DataReferenceVerificationPolicy dataReferenceVerificationPolicy)
         throws OpenRDFException, PoddException, IOException, OWLException;
     
+    /**
+     * Loads a batch of new artifacts into the manager, committing all of the artifacts that are
+     * stored in the same permanent repository in a single transaction. If any of the artifacts
+     * could not be loaded, none of them are committed.
+     *
+     * @param inputStreams
+     *            The input streams containing the RDF documents for the artifacts.
+     * @param formats
+     *            The formats of the RDF documents, in the same order as the input streams.
+     * @return The details of the loaded artifacts, in the same order as the input streams.
+     * @throws com.github.podd.exception.DuplicateArtifactIRIException
+     *             If one of the artifacts is already managed, or appears twice in the batch.
+     * @throws IOException
+     * @throws PoddException
+     * @throws OpenRDFException
+     * @throws OWLException
+     */
+    List<InferredOWLOntologyID> loadArtifacts(List<InputStream> inputStreams, List<RDFFormat> formats,
+            DanglingObjectPolicy danglingObjectPolicy, DataReferenceVerificationPolicy dataReferenceVerificationPolicy)
+        throws OpenRDFException, PoddException, IOException, OWLException;
+    
+    /**
+     * Fills the object type metadata cache for all of the PODD Base, PODD Science and PODD Plant
+     * classes in the current schema ontologies, using the metadata policies and RDF format that are
+     * requested when add and edit forms are rendered.
+     *
+     * @throws OpenRDFException
+     * @throws PoddException
+     * @throws IOException
+     */
+    void preloadObjectMetadata() throws OpenRDFException, PoddException, IOException;
+    
     /**
      * Sets the given OWLOntologyID to be published.
      *
@@ -617,6 +739,16 @@ public interface PoddArtifactManager
      */
     void setPurlManager(PoddPurlManager purlManager);
     
+    /**
+     * Sets the {@link RenderedArtifactCache} to use for caching serialised artifact versions. The
+     * cached versions of an artifact are invalidated by this manager when the artifact is deleted,
+     * updated or published.
+     *
+     * @param renderedArtifactCache
+     *            The cache to use for serialised artifact versions.
+     */
+    void setRenderedArtifactCache(RenderedArtifactCache renderedArtifactCache);
+    
     /**
      * Sets the {@link PoddRepositoryManager} to use for managing OpenRDF Sesame Repositories used
      * to access and update data for PODD.
@@ -730,6 +862,19 @@ public interface PoddArtifactManager
             Set<? extends OWLOntologyID> oldSchemaOntologyIds, Set<? extends OWLOntologyID> newSchemaOntologyIds)
         throws UnmanagedSchemaException, OpenRDFException, PoddException, IOException, OWLException;
     
+    /**
+     * Returns an in-memory index of the named class hierarchy in the schema ontologies imported by
+     * the given artifact. The index is built once for each set of schema ontology versions, and is
+     * discarded by {@link #clearObjectMetadataCache()}.
+     *
+     * @param ontologyID
+     *            The artifact whose schema ontologies are to be indexed.
+     * @return The class hierarchy for the schema ontologies of the artifact.
+     */
+    ClassTaxonomy getClassTaxonomy(InferredOWLOntologyID ontologyID) throws OpenRDFException,
+        UnmanagedSchemaIRIException, SchemaManifestException, UnsupportedRDFormatException, IOException,
+        UnmanagedArtifactIRIException, UnmanagedArtifactVersionException, RepositoryNotFoundException;
+    
     Set<URI> getEventsTopConcepts(InferredOWLOntologyID ontologyID) throws OpenRDFException,
         UnmanagedSchemaIRIException, SchemaManifestException, UnsupportedRDFormatException, IOException,
         UnmanagedArtifactIRIException, UnmanagedArtifactVersionException, RepositoryNotFoundException;
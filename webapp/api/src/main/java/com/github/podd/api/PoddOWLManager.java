@@ -41,6 +41,51 @@ import com.github.podd.utils.InferredOWLOntologyID;
  */
 public interface PoddOWLManager
 {
+    /**
+     * Stores a previously classified class hierarchy for the given set of schema ontologies, so
+     * that it does not need to be recomputed using the reasoner.
+     *
+     * @param schemaOntologies
+     *            The set of schema ontologies that the hierarchy was classified from.
+     * @param classHierarchy
+     *            The direct rdfs:subClassOf statements between named classes in the schema
+     *            ontologies.
+     */
+    void cacheSchemaClassHierarchy(Set<? extends OWLOntologyID> schemaOntologies, Model classHierarchy);
+    
+    /**
+     * Loads the given set of schema ontologies into an in-memory cache and classifies them using
+     * the reasoner that artifacts importing the set are reasoned over with. The class hierarchy is
+     * only extracted from the reasoner if it is not already cached for the set.
+     *
+     * @param schemaOntologies
+     *            The set of schema ontologies to cache and classify.
+     * @param managementConnection
+     *            A connection to the management repository containing the schema ontologies.
+     * @param schemaManagementContext
+     *            The context in the management repository containing the schema management
+     *            triples.
+     * @return The direct rdfs:subClassOf statements between named classes in the schema
+     *         ontologies.
+     * @throws OWLException
+     * @throws PoddException
+     * @throws OpenRDFException
+     * @throws IOException
+     */
+    Model classifySchemaOntologies(Set<? extends OWLOntologyID> schemaOntologies,
+            RepositoryConnection managementConnection, URI schemaManagementContext) throws OWLException,
+        PoddException, OpenRDFException, IOException;
+    
+    /**
+     * Retrieves the cached class hierarchy for the given set of schema ontologies.
+     *
+     * @param schemaOntologies
+     *            The set of schema ontologies.
+     * @return The direct rdfs:subClassOf statements between named classes in the schema
+     *         ontologies, or null if the set has not been classified.
+     */
+    Model getSchemaClassHierarchy(Set<? extends OWLOntologyID> schemaOntologies);
+    
     /**
      * Determing if the ontology is cached in memory.
      *
@@ -20,6 +20,8 @@
 package com.github.podd.api;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 import org.openrdf.OpenRDFException;
@@ -30,6 +32,7 @@ import org.openrdf.repository.RepositoryException;
 import org.semanticweb.owlapi.model.OWLOntologyID;
 
 import com.github.podd.exception.RepositoryNotFoundException;
+import com.github.podd.utils.RepositorySnapshot;
 
 /**
  * Interface to manage the Sesame Repository used by PODD.
@@ -39,6 +42,17 @@ import com.github.podd.exception.RepositoryNotFoundException;
  */
 public interface PoddRepositoryManager
 {
+    /**
+     * Copies all of the statements and namespaces in the management repository and in each of the
+     * permanent repositories that are currently open, so that they can be restored later using
+     * {@link #restoreSnapshot(RepositorySnapshot)}.
+     *
+     * @return An in-memory snapshot of the repositories.
+     * @throws OpenRDFException
+     *             If there are any errors reading the repositories.
+     */
+    RepositorySnapshot createSnapshot() throws OpenRDFException;
+    
     /**
      *
      * @return The artifact management graph URI for this repository manager.
@@ -108,6 +122,89 @@ public interface PoddRepositoryManager
     RepositoryConnection getPermanentRepositoryConnection(Set<? extends OWLOntologyID> schemaOntologies,
             boolean createIfNotExists) throws OpenRDFException, IOException, RepositoryNotFoundException;
     
+    /**
+     * Get a {@link RepositoryConnection} to the permanent repository that contains the given
+     * artifact, when the artifacts for the given set of schema ontologies are spread across more
+     * than one repository. Artifacts that have not been assigned to a repository are found in the
+     * repository returned by {@link #getPermanentRepositoryConnection(Set)}.
+     *
+     * @param schemaOntologies
+     *            A list of schema ontologies that must be supported by the permanent repository.
+     * @param artifactId
+     *            The artifact to find the repository for, or null to use the first repository for
+     *            the given schema ontologies.
+     * @return A link to the initialised repository managed by this manager.
+     * @throws OpenRDFException
+     *             If there are any errors with the repository at this stage.
+     * @throws IOException
+     *             If there are errors finding the repository.
+     * @throws RepositoryNotFoundException
+     *             If the repository was not found due to it not existing for the given set of
+     *             schema ontology versions.
+     */
+    RepositoryConnection getPermanentRepositoryConnection(Set<? extends OWLOntologyID> schemaOntologies,
+            OWLOntologyID artifactId) throws OpenRDFException, IOException, RepositoryNotFoundException;
+    
+    /**
+     *
+     * @param schemaOntologies
+     *            A list of schema ontologies that must be supported by the permanent repository.
+     * @param artifactId
+     *            The artifact to find the repository for, or null to use the first repository for
+     *            the given schema ontologies.
+     * @param createIfNotExists
+     *            True to create the repository for the given list of schema ontologies if it does
+     *            not exist, and to assign the artifact to a repository if it has not been assigned
+     *            to one already.
+     * @return A link to the initialised repository managed by this manager.
+     * @throws OpenRDFException
+     *             If there are any errors with the repository at this stage.
+     * @throws IOException
+     *             If there are errors finding the repository.
+     * @throws RepositoryNotFoundException
+     *             If the repository was not found due to it not existing for the given set of
+     *             schema ontology versions.
+     */
+    RepositoryConnection getPermanentRepositoryConnection(Set<? extends OWLOntologyID> schemaOntologies,
+            OWLOntologyID artifactId, boolean createIfNotExists) throws OpenRDFException, IOException,
+        RepositoryNotFoundException;
+    
+    /**
+     * Get a {@link RepositoryConnection} to each of the permanent repositories that the artifacts
+     * for the given set of schema ontologies are spread across, so that queries across artifacts
+     * can be sent to each repository and the results combined.
+     *
+     * @param schemaOntologies
+     *            A list of schema ontologies that must be supported by the permanent repositories.
+     * @return Links to the initialised repositories, starting with the repository returned by
+     *         {@link #getPermanentRepositoryConnection(Set)}. The caller must close each of them.
+     * @throws OpenRDFException
+     *             If there are any errors with the repositories at this stage.
+     * @throws IOException
+     *             If there are errors finding the repositories.
+     * @throws RepositoryNotFoundException
+     *             If the repository was not found due to it not existing for the given set of
+     *             schema ontology versions.
+     */
+    List<RepositoryConnection> getPermanentRepositoryConnections(Set<? extends OWLOntologyID> schemaOntologies)
+        throws OpenRDFException, IOException, RepositoryNotFoundException;
+    
+    /**
+     * Removes the record of the permanent repositories that the given artifact was assigned to, so
+     * that it is assigned again if an artifact with the same IRI is loaded later. This must be called
+     * when every version of the artifact is deleted.
+     *
+     * @param artifactUri
+     *            The ontology IRI of the artifact.
+     * @param managementConnection
+     *            A connection to the management repository, which may be in a transaction that the
+     *            caller commits.
+     * @throws OpenRDFException
+     *             If there are any errors with the repository at this stage.
+     */
+    void removeArtifactAssignment(URI artifactUri, RepositoryConnection managementConnection)
+        throws OpenRDFException;
+    
     /**
      * Gets a federated repository over the permanent repository for the given schema ontologies,
      * and the management repository.
@@ -117,12 +214,44 @@ public interface PoddRepositoryManager
      * NOTE: This repository may be much slower than a typical repository.
      *
      * @param schemaOntologies
-     * @return
+     * @return A shared, read-only repository. Calls to {@link Repository#shutDown()} on it are
+     *         ignored. It is shut down when it is replaced and the connections that are open on it
+     *         have been closed, and connections requested after it is replaced are taken from the
+     *         repository that replaced it.
      * @throws OpenRDFException
      * @throws IOException
+     * @throws RepositoryNotFoundException
+     *             If the repository was not found due to it not existing for the given set of
+     *             schema ontology versions.
      */
     Repository getReadOnlyFederatedRepository(Set<? extends OWLOntologyID> schemaOntologies) throws OpenRDFException,
-        IOException;
+        IOException, RepositoryNotFoundException;
+    
+    /**
+     * Gets a federated repository over the management repository and the permanent repositories,
+     * including all of their shards, for each of the given sets of schema ontologies, so that a
+     * query across artifacts that import different schema ontologies can be evaluated once.
+     * Repositories for the same combination of sets of schema ontologies are shared between
+     * callers.
+     *
+     * This repository is read-only to prevent changes across the repositories.
+     *
+     * @param schemaOntologySets
+     *            The sets of schema ontologies to include the permanent repositories for.
+     * @return A shared, read-only repository. Calls to {@link Repository#shutDown()} on it are
+     *         ignored. It is shut down when it is replaced and the connections that are open on it
+     *         have been closed, and connections requested after it is replaced are taken from the
+     *         repository that replaced it.
+     * @throws OpenRDFException
+     *             If there are any errors with the repositories at this stage.
+     * @throws IOException
+     *             If there are errors finding the repositories.
+     * @throws RepositoryNotFoundException
+     *             If the repository was not found due to it not existing for one of the given sets
+     *             of schema ontology versions.
+     */
+    Repository getReadOnlyFederatedRepository(Collection<? extends Set<? extends OWLOntologyID>> schemaOntologySets)
+        throws OpenRDFException, IOException, RepositoryNotFoundException;
     
     /**
      *
@@ -130,6 +259,24 @@ public interface PoddRepositoryManager
      */
     URI getSchemaManagementGraph();
     
+    /**
+     * Replaces the contents of the management repository and the permanent repositories with the
+     * statements and namespaces in the given snapshot. Permanent repositories that were created
+     * after the snapshot are closed and deleted, as they are no longer referenced by the
+     * management repository.
+     *
+     * @param snapshot
+     *            A snapshot created by {@link #createSnapshot()} on this repository manager.
+     * @throws OpenRDFException
+     *             If there are any errors replacing the contents of the repositories.
+     * @throws IOException
+     *             If there are errors finding a permanent repository.
+     * @throws RepositoryNotFoundException
+     *             If a permanent repository in the snapshot could not be found.
+     */
+    void restoreSnapshot(RepositorySnapshot snapshot) throws OpenRDFException, IOException,
+        RepositoryNotFoundException;
+    
     /**
      * Verifies that the context is not null, not the default graph (sesame:nil), and is not one of
      * the management graphs.
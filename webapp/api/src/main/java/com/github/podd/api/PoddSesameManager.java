@@ -277,11 +277,47 @@ public interface PoddSesameManager
             URI schemaManagementGraph, URI artifactManagementGraph) throws OpenRDFException, SchemaManifestException,
         UnmanagedSchemaIRIException;
     
+    /**
+     * Retrieves the statements needed to display the given object, using contexts that have
+     * already been computed by the caller.
+     *
+     * @param objectUri
+     *            The object whose details are sought.
+     * @param permanentConnection
+     * @param contexts
+     *            The version, inferred and schema contexts for the artifact containing the object.
+     * @return A {@link Model} containing the details of the object and labels for its properties
+     *         and values.
+     * @throws OpenRDFException
+     */
+    Model getObjectDetailsForDisplay(URI objectUri, RepositoryConnection permanentConnection, URI... contexts)
+        throws OpenRDFException;
+    
     PoddObjectLabel getObjectLabel(InferredOWLOntologyID ontologyID, URI objectUri,
             RepositoryConnection managementConnection, RepositoryConnection permanentConnection,
             URI schemaManagementGraph, URI artifactManagementGraph) throws OpenRDFException, SchemaManifestException,
         UnmanagedSchemaIRIException;
     
+    /**
+     * Retrieves labels, descriptions and barcodes for a number of objects using a single query.
+     * Objects that do not have an English or untagged label are mapped to their URI as the label,
+     * in the same way as
+     * {@link #getObjectLabel(InferredOWLOntologyID, URI, RepositoryConnection, RepositoryConnection, URI, URI)}
+     * .
+     *
+     * @param ontologyID
+     *            The ontology that will be attached to each of the resulting labels.
+     * @param objectUris
+     *            The objects whose labels are sought.
+     * @param permanentConnection
+     * @param contexts
+     *            The contexts to search for labels in.
+     * @return A map from each of the given object URIs to its label.
+     * @throws OpenRDFException
+     */
+    Map<URI, PoddObjectLabel> getObjectLabels(InferredOWLOntologyID ontologyID, Collection<URI> objectUris,
+            RepositoryConnection permanentConnection, URI... contexts) throws OpenRDFException;
+    
     /**
      * For a given PODD Object Type, this method retrieves metadata about possible objects that it
      * can <b>contain</b> and the parent-child relationships with them. Parent-child relationships
@@ -331,6 +367,21 @@ public interface PoddSesameManager
             URI schemaManagementGraph, URI artifactManagementGraph) throws OpenRDFException, SchemaManifestException,
         UnmanagedSchemaIRIException;
     
+    /**
+     * Retrieves the displayable types for a number of objects using a single query.
+     *
+     * @param objectUris
+     *            The objects whose types are sought.
+     * @param permanentConnection
+     * @param contexts
+     *            The version and schema contexts for the artifact containing the objects.
+     * @return A map from each of the given object URIs to a list of its types. Objects without
+     *         displayable types are mapped to an empty list.
+     * @throws OpenRDFException
+     */
+    Map<URI, List<URI>> getObjectTypes(Collection<URI> objectUris, RepositoryConnection permanentConnection,
+            URI... contexts) throws OpenRDFException;
+    
     /**
      * Returns a collection of ontologies managed in the given graph, optionally only returning the
      * current version.
@@ -17,8 +17,10 @@
 package com.github.podd.api.data;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Set;
 
+import org.openrdf.OpenRDFException;
 import org.openrdf.model.Model;
 import org.openrdf.model.URI;
 
@@ -75,4 +77,26 @@ public interface PoddDataRepository<T extends DataReference>
      */
     boolean validate(T reference) throws DataReferenceNotSupportedException, IOException;
     
+    /**
+     * Validates all of the given DataReference instances, which must all be able to be handled by
+     * this repository. Implementations may check the references together, using fewer requests
+     * to the remote repository than validating each reference separately.
+     *
+     * @param references
+     *            The DataReferences to be validated
+     * @return The DataReferences that were not valid, or an empty set if all were valid
+     * @throws DataReferenceNotSupportedException
+     *             If any of the references cannot be handled by this repository
+     * @throws IOException
+     */
+    Set<T> validateAll(Collection<T> references) throws DataReferenceNotSupportedException, IOException;
+    
+    /**
+     * Releases any connections that this repository holds to the remote repository.
+     *
+     * @throws OpenRDFException
+     *             If there were issues releasing the connections.
+     */
+    void shutDown() throws OpenRDFException;
+    
 }
@@ -153,6 +153,14 @@ public interface PoddDataRepositoryManager
     
     void setRepositoryManager(PoddRepositoryManager repositoryManager);
     
+    /**
+     * Shuts down the {@link PoddDataRepository} instances that this manager has created.
+     *
+     * @throws OpenRDFException
+     *             If there were issues shutting down the data repositories.
+     */
+    void shutDown() throws OpenRDFException;
+    
     /**
      * Verifies that a given set of {@link DataReference} objects are valid by checking they can be
      * accessed from the remote Data Repository.
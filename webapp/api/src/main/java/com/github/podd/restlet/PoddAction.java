@@ -188,6 +188,11 @@ public enum PoddAction
             PoddRoles.PROJECT_OBSERVER.getRole(), PoddRoles.PROJECT_ADMIN.getRole(),
             PoddRoles.PROJECT_MEMBER.getRole(), PoddRoles.ADMIN.getRole())), false),
     
+    /**
+     * An action by an administrator to read the query latency metrics and slow query log.
+     */
+    METRICS_READ(true, "Could not read query metrics", Collections.singleton(PoddRoles.ADMIN.getRole()), false),
+    
     ;
     
     private final boolean authRequired;
@@ -20,7 +20,6 @@ import info.aduna.iteration.Iterations;
 
 import java.security.NoSuchAlgorithmException;
 import java.security.spec.InvalidKeySpecException;
-import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -33,6 +32,8 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.openrdf.OpenRDFException;
 import org.openrdf.OpenRDFUtil;
@@ -46,7 +47,6 @@ import org.openrdf.model.ValueFactory;
 import org.openrdf.model.impl.LinkedHashModel;
 import org.openrdf.model.impl.ValueFactoryImpl;
 import org.openrdf.model.vocabulary.RDF;
-import org.openrdf.query.Binding;
 import org.openrdf.query.BindingSet;
 import org.openrdf.query.Dataset;
 import org.openrdf.query.QueryLanguage;
@@ -79,6 +79,7 @@ import com.github.ansell.restletutils.RestletUtilRole;
 import com.github.ansell.restletutils.SesameRealmConstants;
 import com.github.podd.exception.PoddRuntimeException;
 import com.github.podd.utils.PODD;
+import com.github.podd.utils.PoddWebConstants;
 import com.github.podd.utils.PasswordHash;
 import com.github.podd.utils.PoddRoles;
 import com.github.podd.utils.PoddUser;
@@ -234,6 +235,21 @@ public class PoddSesameRealm extends Realm
     
     /** The currently cached list of root groups. */
     private volatile List<Group> cachedRootGroups;
+    
+    /** The current index of users and role mappings, or null if it needs to be loaded again. */
+    private volatile PoddUserDirectory userDirectory;
+    
+    /** The value of {@link System#nanoTime()} when the current index was loaded. */
+    private volatile long userDirectoryLoadedAt;
+    
+    /**
+     * The number of milliseconds that an index is used for before it is loaded again, so that
+     * changes made to the user management graphs without using this realm are eventually seen.
+     */
+    private volatile long userDirectoryTimeout = Long.parseLong(PoddWebConstants.DEFAULT_USER_DIRECTORY_TIMEOUT);
+    
+    /** Incremented whenever users or role mappings change, so that stale indexes are not kept. */
+    private final AtomicLong userDirectoryGeneration = new AtomicLong();
     protected final Logger log = LoggerFactory.getLogger(this.getClass());
     
     /**
@@ -259,23 +275,22 @@ public class PoddSesameRealm extends Realm
         try
         {
             conn = this.repository.getConnection();
-            final PoddUser findUser = this.findUser(identifier, conn);
+            final PoddUserDirectory directory = this.getUserDirectory(conn);
+            final PoddUser findUser = directory.findUser(identifier);
             
             if(findUser == null)
             {
                 throw new PoddRuntimeException("No user found for the given identifier: " + identifier);
             }
             
-            final List<Statement> hashList =
-                    Iterations.asList(conn.getStatements(findUser.getUri(), PODD.PODD_USER_SECRET_HASH, null, false,
-                            this.userManagerContexts));
+            final String hash = directory.getSecretHash(identifier);
             
-            if(hashList.isEmpty() || hashList.size() > 1)
+            if(hash == null)
             {
                 throw new PoddRuntimeException("Could not verify user identity: " + identifier);
             }
             
-            return new PoddUserSecretHash(((Literal)hashList.get(0).getObject()).getLabel(), findUser);
+            return new PoddUserSecretHash(hash, findUser);
         }
         finally
         {
@@ -369,6 +384,7 @@ public class PoddSesameRealm extends Realm
             }
             
             conn.commit();
+            this.invalidateUserDirectory();
         }
         catch(final RepositoryException e)
         {
@@ -466,9 +482,9 @@ public class PoddSesameRealm extends Realm
         try
         {
             conn = this.repository.getConnection();
+            final PoddUser oldUser = this.findUser(nextUser.getIdentifier(), conn);
             conn.begin();
             
-            final PoddUser oldUser = this.findUser(nextUser.getIdentifier(), conn);
             if(isNew && oldUser != null)
             {
                 throw new IllegalStateException("User already exists");
@@ -627,6 +643,7 @@ public class PoddSesameRealm extends Realm
             conn.add(nextUserUUID, PODD.PODD_USER_STATUS, status.getURI(), this.getContexts());
             
             conn.commit();
+            this.invalidateUserDirectory();
             
             return nextUserUUID;
         }
@@ -662,88 +679,6 @@ public class PoddSesameRealm extends Realm
         
     }
     
-    protected PoddUser buildRestletUserFromSparqlResult(final String userIdentifier, final BindingSet bindingSet)
-    {
-        this.log.debug("Building PoddUser from SPARQL results");
-        
-        final PoddUser result =
-                new PoddUser(userIdentifier, null, bindingSet.getValue(PoddSesameRealm.PARAM_USER_FIRSTNAME)
-                        .stringValue(), bindingSet.getValue(PoddSesameRealm.PARAM_USER_LASTNAME).stringValue(),
-                        bindingSet.getValue(PoddSesameRealm.PARAM_USER_EMAIL).stringValue(), PoddUserStatus.INACTIVE);
-        
-        PoddUserStatus userStatus = PoddUserStatus.INACTIVE;
-        final Value statusVal = bindingSet.getValue(PoddSesameRealm.PARAM_USER_STATUS);
-        if(statusVal != null && statusVal instanceof URI)
-        {
-            userStatus = PoddUserStatus.getUserStatusByUri((URI)statusVal);
-        }
-        
-        char[] secret = null;
-        
-        if(bindingSet.hasBinding(PoddSesameRealm.PARAM_USER_SECRET))
-        {
-            secret = bindingSet.getValue(PoddSesameRealm.PARAM_USER_SECRET).stringValue().trim().toCharArray();
-        }
-        
-        // Do not allow users without secrets to perform actions
-        if(secret == null || secret.length == 0)
-        {
-            userStatus = PoddUserStatus.INACTIVE;
-        }
-        
-        result.setUserStatus(userStatus);
-        
-        final Value organizationVal = bindingSet.getValue(PoddSesameRealm.PARAM_USER_ORGANIZATION);
-        if(organizationVal != null)
-        {
-            result.setOrganization(organizationVal.stringValue());
-        }
-        
-        final Value orcidVal = bindingSet.getValue(PoddSesameRealm.PARAM_USER_ORCID);
-        if(orcidVal != null)
-        {
-            result.setOrcid(orcidVal.stringValue());
-        }
-        
-        final Value homePageVal = bindingSet.getValue(PoddSesameRealm.PARAM_USER_HOMEPAGE);
-        if(homePageVal != null)
-        {
-            result.setHomePage((URI)homePageVal);
-        }
-        
-        final Value uriVal = bindingSet.getValue(PoddSesameRealm.PARAM_USER_URI);
-        if(uriVal != null)
-        {
-            result.setUri((URI)uriVal);
-        }
-        
-        final Value titleVal = bindingSet.getValue(PoddSesameRealm.PARAM_USER_TITLE);
-        if(titleVal != null)
-        {
-            result.setTitle(titleVal.stringValue());
-        }
-        
-        final Value phoneVal = bindingSet.getValue(PoddSesameRealm.PARAM_USER_PHONE);
-        if(phoneVal != null)
-        {
-            result.setPhone(phoneVal.stringValue());
-        }
-        
-        final Value addressVal = bindingSet.getValue(PoddSesameRealm.PARAM_USER_ADDRESS);
-        if(addressVal != null)
-        {
-            result.setAddress(addressVal.stringValue());
-        }
-        
-        final Value positionVal = bindingSet.getValue(PoddSesameRealm.PARAM_USER_POSITION);
-        if(positionVal != null)
-        {
-            result.setPosition(positionVal.stringValue());
-        }
-        
-        return result;
-    }
-    
     protected Role buildRoleFromSparqlResult(final BindingSet bindingSet)
     {
         final URI roleUri = (URI)bindingSet.getValue(PoddSesameRealm.PARAM_ROLE);
@@ -800,466 +735,6 @@ public class PoddSesameRealm extends Realm
         return query.toString();
     }
     
-    protected String buildSparqlQueryForRolesWithObjects(final String userIdentifier)
-    {
-        this.log.debug("Building SPARQL query for Roles and object URIs of a User");
-        
-        final StringBuilder query = new StringBuilder();
-        
-        query.append(" SELECT ?");
-        query.append(PoddSesameRealm.PARAM_ROLE);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_OBJECT_URI);
-        query.append(" WHERE ");
-        query.append(" { ");
-        
-        final String roleMappingVar = " ?mapping ";
-        
-        query.append(roleMappingVar);
-        query.append(" <" + SesameRealmConstants.OAS_ROLEMAPPEDUSER + "> ");
-        query.append(" \"");
-        query.append(RenderUtils.escape(userIdentifier));
-        query.append("\" . ");
-        
-        query.append(roleMappingVar);
-        query.append(" <" + SesameRealmConstants.OAS_ROLEMAPPEDROLE + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_ROLE);
-        query.append(" . ");
-        
-        query.append(" OPTIONAL{ ");
-        query.append(roleMappingVar);
-        query.append(" <" + PODD.PODD_ROLEMAPPEDOBJECT + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_OBJECT_URI);
-        query.append(" . } ");
-        
-        query.append(" } ");
-        
-        this.log.debug("roles query: {}", query);
-        
-        return query.toString();
-    }
-    
-    protected String buildSparqlQueryToFindUser(final String userIdentifier, final boolean findAllUsers)
-    {
-        this.log.debug("Building SPARQL query");
-        
-        final StringBuilder query = new StringBuilder();
-        
-        query.append(" SELECT ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_IDENTIFIER);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_SECRET);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_FIRSTNAME);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_LASTNAME);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_EMAIL);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_STATUS);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_ORGANIZATION);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_ORCID);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_HOMEPAGE);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_TITLE);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_PHONE);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_ADDRESS);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_POSITION);
-        
-        query.append(" WHERE ");
-        query.append(" { ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" a <" + SesameRealmConstants.OAS_USER + "> . ");
-        
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + SesameRealmConstants.OAS_USERIDENTIFIER + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_IDENTIFIER);
-        query.append(" . ");
-        
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + PODD.PODD_USER_STATUS + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_STATUS);
-        query.append(" . ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + PODD.PODD_USER_SECRET_HASH + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_SECRET);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + PODD.PODD_USER_ORCID + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_ORCID);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + PODD.PODD_USER_HOMEPAGE + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_HOMEPAGE);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + PODD.PODD_USER_ORGANIZATION + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_ORGANIZATION);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + SesameRealmConstants.OAS_USERFIRSTNAME + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_FIRSTNAME);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + SesameRealmConstants.OAS_USERLASTNAME + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_LASTNAME);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + SesameRealmConstants.OAS_USEREMAIL + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_EMAIL);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + PODD.PODD_USER_TITLE + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_TITLE);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + PODD.PODD_USER_PHONE + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_PHONE);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + PODD.PODD_USER_ADDRESS + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_ADDRESS);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + PODD.PODD_USER_POSITION + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_POSITION);
-        query.append(" . } ");
-        
-        if(!findAllUsers)
-        {
-            query.append("   FILTER(str(?userIdentifier) = \"" + RenderUtils.escape(userIdentifier) + "\") ");
-        }
-        
-        query.append(" } ");
-        
-        final String queryString = query.toString();
-        
-        this.log.debug("buildSparqlQueryToFindUser: query={}", queryString);
-        
-        return queryString;
-    }
-    
-    protected String buildSparqlQueryToGetUserByStatus(final PoddUserStatus status, final String orderByField,
-            final boolean isDescending, final int limit, final int offset)
-    {
-        this.log.debug("Building SPARQL query");
-        
-        final StringBuilder query = new StringBuilder();
-        
-        query.append(" SELECT ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_IDENTIFIER);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_SECRET);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_FIRSTNAME);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_LASTNAME);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_EMAIL);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_STATUS);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_ORGANIZATION);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_ORCID);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_HOMEPAGE);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_TITLE);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_PHONE);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_ADDRESS);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_POSITION);
-        
-        query.append(" WHERE ");
-        query.append(" { ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" a <" + SesameRealmConstants.OAS_USER + "> . ");
-        
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + SesameRealmConstants.OAS_USERIDENTIFIER + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_IDENTIFIER);
-        query.append(" . ");
-        
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + PODD.PODD_USER_SECRET_HASH + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_SECRET);
-        query.append(" . ");
-        
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + PODD.PODD_USER_STATUS + "> ");
-        query.append(" <" + status.getURI() + "> ");
-        query.append(" . ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + PODD.PODD_USER_HOMEPAGE + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_HOMEPAGE);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + PODD.PODD_USER_ORGANIZATION + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_ORGANIZATION);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + SesameRealmConstants.OAS_USERFIRSTNAME + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_FIRSTNAME);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + SesameRealmConstants.OAS_USERLASTNAME + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_LASTNAME);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + SesameRealmConstants.OAS_USEREMAIL + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_EMAIL);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + PODD.PODD_USER_TITLE + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_TITLE);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + PODD.PODD_USER_PHONE + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_PHONE);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + PODD.PODD_USER_ADDRESS + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_ADDRESS);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + PODD.PODD_USER_POSITION + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_POSITION);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + PODD.PODD_USER_ORCID + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_ORCID);
-        query.append(" . } ");
-        
-        query.append(" } ");
-        
-        if(isDescending)
-        {
-            query.append(" ORDER BY DESC(" + orderByField + ") ");
-        }
-        else
-        {
-            query.append(" ORDER BY " + orderByField);
-        }
-        query.append(" LIMIT " + limit);
-        query.append(" OFFSET " + offset);
-        
-        return query.toString();
-    }
-    
-    protected String buildSparqlQueryToSearchUsers(final PoddUserStatus status, final String orderByField,
-            final boolean isDescending, final int limit, final int offset)
-    {
-        this.log.debug("Building SPARQL query");
-        
-        final StringBuilder query = new StringBuilder();
-        
-        query.append(" SELECT ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_IDENTIFIER);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_SECRET);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_FIRSTNAME);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_LASTNAME);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_EMAIL);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_STATUS);
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_ORGANIZATION);
-        
-        query.append(" WHERE ");
-        query.append(" { ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" a <" + SesameRealmConstants.OAS_USER + "> . ");
-        
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + SesameRealmConstants.OAS_USERIDENTIFIER + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_IDENTIFIER);
-        query.append(" . ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + PODD.PODD_USER_ORGANIZATION + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_ORGANIZATION);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + SesameRealmConstants.OAS_USERFIRSTNAME + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_FIRSTNAME);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + SesameRealmConstants.OAS_USERLASTNAME + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_LASTNAME);
-        query.append(" . } ");
-        
-        query.append(" OPTIONAL{ ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + SesameRealmConstants.OAS_USEREMAIL + "> ");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_EMAIL);
-        query.append(" . } ");
-        
-        // return a dummy password
-        query.append(" VALUES ?" + PoddSesameRealm.PARAM_USER_SECRET + " { \"not_available\" } . ");
-        
-        // filter by Status if provided
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_URI);
-        query.append(" <" + PODD.PODD_USER_STATUS + "> ");
-        if(status == null)
-        {
-            query.append(" ?");
-            query.append(PoddSesameRealm.PARAM_USER_STATUS);
-        }
-        else
-        {
-            query.append(" <" + status.getURI() + "> ");
-        }
-        query.append(" . ");
-        
-        // concatenate identifier, first and last names for searching
-        query.append(" BIND(CONCAT(");
-        query.append(" ?");
-        query.append(PoddSesameRealm.PARAM_USER_FIRSTNAME);
-        query.append(" , \" \" , ?");
-        query.append(PoddSesameRealm.PARAM_USER_LASTNAME);
-        query.append(" , \" \" , ?");
-        query.append(PoddSesameRealm.PARAM_USER_IDENTIFIER);
-        query.append(" ) AS ?name)");
-        
-        // filter for "searchTerm" in ?name
-        query.append(" FILTER( ");
-        query.append(" CONTAINS( LCASE(?name) , LCASE(?" + PoddSesameRealm.PARAM_SEARCH_TERM + ") ) ");
-        query.append(") ");
-        
-        query.append(" } ");
-        
-        if(isDescending)
-        {
-            query.append(" ORDER BY DESC(" + orderByField + ") ");
-        }
-        else
-        {
-            query.append(" ORDER BY " + orderByField);
-        }
-        
-        if(limit > -1)
-        {
-            query.append(" LIMIT " + limit);
-        }
-        
-        if(offset > 0)
-        {
-            query.append(" OFFSET " + offset);
-        }
-        
-        return query.toString();
-    }
-    
     private Group createGroupForStatements(final Iterable<Statement> nextGroupStatements)
     {
         final Group nextGroup = new Group();
@@ -1355,12 +830,11 @@ public class PoddSesameRealm extends Realm
         try
         {
             conn = this.repository.getConnection();
+            final PoddUser findUser = this.findUser(nextUser.getIdentifier(), conn);
             conn.begin();
             
             URI nextUserUUID = null;
             
-            final PoddUser findUser = this.findUser(nextUser.getIdentifier(), conn);
-            
             if(findUser == null)
             {
                 throw new ResourceException(Status.CLIENT_ERROR_BAD_REQUEST, "No such user found");
@@ -1392,6 +866,7 @@ public class PoddSesameRealm extends Realm
             }
             
             conn.commit();
+            this.invalidateUserDirectory();
             
             return nextUserUUID;
         }
@@ -1597,16 +1072,7 @@ public class PoddSesameRealm extends Realm
     
     protected Set<Role> findRoles(final User user, final RepositoryConnection conn) throws OpenRDFException
     {
-        final Set<Role> result = new HashSet<Role>();
-        
-        final Collection<Entry<Role, URI>> mappings = this.getRolesWithObjectMappings(user);
-        
-        for(final Entry<Role, URI> nextMapping : mappings)
-        {
-            result.add(nextMapping.getKey());
-        }
-        
-        return result;
+        return this.getUserDirectory(conn).getRoles(user.getIdentifier());
     }
     
     /**
@@ -1651,29 +1117,12 @@ public class PoddSesameRealm extends Realm
     
     protected PoddUser findUser(final String userIdentifier, final RepositoryConnection conn) throws OpenRDFException
     {
-        PoddUser result = null;
-        
-        final String query = this.buildSparqlQueryToFindUser(userIdentifier, false);
+        final PoddUser result = this.getUserDirectory(conn).findUser(userIdentifier);
         
-        this.log.debug("findUser: query={}", query);
-        
-        final TupleQuery tupleQuery = conn.prepareTupleQuery(QueryLanguage.SPARQL, query);
-        
-        final QueryResultCollector resultCollector = RdfUtility.executeTupleQuery(tupleQuery, this.getContexts());
-        
-        if(!resultCollector.getHandledTuple() || resultCollector.getBindingSets().isEmpty())
+        if(result == null)
         {
             this.log.info("Could not find user with identifier, returning null: {}", userIdentifier);
         }
-        else
-        {
-            if(resultCollector.getBindingSets().size() > 1)
-            {
-                this.log.warn("Found multiple users with the same identifier: {}", resultCollector.getBindingSets());
-            }
-            
-            result = this.buildRestletUserFromSparqlResult(userIdentifier, resultCollector.getBindingSets().get(0));
-        }
         
         return result;
     }
@@ -1944,7 +1393,9 @@ public class PoddSesameRealm extends Realm
         
         final TupleQuery tupleQuery = conn.prepareTupleQuery(QueryLanguage.SPARQL, query);
         
-        final QueryResultCollector resultCollector = RdfUtility.executeTupleQuery(tupleQuery, this.getContexts());
+        final QueryResultCollector resultCollector =
+                RdfUtility.executeTupleQuery("PoddSesameRealm.getRolesForObjectAlternate", tupleQuery,
+                        this.getContexts());
         
         if(!resultCollector.getHandledTuple() || resultCollector.getBindingSets().isEmpty())
         {
@@ -1981,66 +1432,12 @@ public class PoddSesameRealm extends Realm
             throw new NullPointerException("User was null");
         }
         
-        // final Map<Role, URI> roleMap = new HashMap<Role, URI>();
-        final Collection<Entry<Role, URI>> roleCollection = new HashSet<Entry<Role, URI>>();
+        final Collection<Entry<Role, URI>> roleCollection =
+                this.getUserDirectory().getRoleMappings(user.getIdentifier());
         
-        RepositoryConnection conn = null;
-        try
+        if(roleCollection.isEmpty())
         {
-            conn = this.getRepository().getConnection();
-            
-            final String query = this.buildSparqlQueryForRolesWithObjects(user.getIdentifier());
-            
-            if(this.log.isDebugEnabled())
-            {
-                this.log.debug("getRolesAndObjectsForUser: query={}", query);
-            }
-            
-            final TupleQuery tupleQuery = conn.prepareTupleQuery(QueryLanguage.SPARQL, query);
-            
-            final QueryResultCollector resultCollector = RdfUtility.executeTupleQuery(tupleQuery, this.getContexts());
-            
-            if(!resultCollector.getHandledTuple() || resultCollector.getBindingSets().isEmpty())
-            {
-                this.log.warn("Could not find role with mappings for user: {}", user);
-            }
-            
-            for(final BindingSet bindingSet : resultCollector.getBindingSets())
-            {
-                final URI roleUri = (URI)bindingSet.getValue(PoddSesameRealm.PARAM_ROLE);
-                final Role role = PoddRoles.getRoleByUri(roleUri).getRole();
-                
-                URI objectUri = null;
-                if(bindingSet.getValue(PoddSesameRealm.PARAM_OBJECT_URI) != null)
-                {
-                    objectUri = (URI)bindingSet.getValue(PoddSesameRealm.PARAM_OBJECT_URI);
-                }
-                
-                this.log.debug("Building map entry: {}, <{}>", role.getName(), objectUri);
-                
-                final Entry<Role, URI> roleEntry = new AbstractMap.SimpleEntry<Role, URI>(role, objectUri);
-                // roleMap.put(roleEntry.getKey(), roleEntry.getValue());
-                roleCollection.add(roleEntry);
-            }
-            
-        }
-        catch(final OpenRDFException e)
-        {
-            throw new RuntimeException("Failure finding user in repository", e);
-        }
-        finally
-        {
-            if(conn != null)
-            {
-                try
-                {
-                    conn.close();
-                }
-                catch(final RepositoryException e)
-                {
-                    this.log.error("Failure to close connection", e);
-                }
-            }
+            this.log.warn("Could not find role with mappings for user: {}", user);
         }
         
         return roleCollection;
@@ -2149,32 +1546,27 @@ public class PoddSesameRealm extends Realm
     public List<PoddUser> getUserByStatus(final PoddUserStatus status, final boolean isDescending, final int limit,
             final int offset)
     {
-        final List<PoddUser> result = new ArrayList<PoddUser>();
-        
+        return this.getUserDirectory().getUsersByStatus(status, isDescending, limit, offset);
+    }
+    
+    /**
+     * Returns the index of users and role mappings, loading it from the repository if users or role
+     * mappings have changed since it was last loaded, or if it was loaded more than the user
+     * directory timeout ago.
+     *
+     * @return The current index of users and role mappings.
+     */
+    public PoddUserDirectory getUserDirectory()
+    {
         RepositoryConnection conn = null;
         try
         {
-            conn = this.getRepository().getConnection();
-            
-            final String orderBy = "?" + PoddSesameRealm.PARAM_USER_IDENTIFIER;
-            final String query = this.buildSparqlQueryToGetUserByStatus(status, orderBy, isDescending, limit, offset);
-            
-            this.log.debug("getUserByStatus: query={}", query);
-            
-            final TupleQuery tupleQuery = conn.prepareTupleQuery(QueryLanguage.SPARQL, query);
-            
-            final QueryResultCollector resultCollector = RdfUtility.executeTupleQuery(tupleQuery, this.getContexts());
-            
-            for(final BindingSet bindingSet : resultCollector.getBindingSets())
-            {
-                final Binding binding = bindingSet.getBinding("userIdentifier");
-                result.add(this.buildRestletUserFromSparqlResult(binding.getValue().stringValue(), bindingSet));
-            }
-            
+            conn = this.repository.getConnection();
+            return this.getUserDirectory(conn);
         }
         catch(final OpenRDFException e)
         {
-            throw new RuntimeException("Failure finding user in repository", e);
+            throw new RuntimeException("Failure loading users from repository", e);
         }
         finally
         {
@@ -2190,64 +1582,69 @@ public class PoddSesameRealm extends Realm
                 }
             }
         }
-        
-        return result;
     }
     
-    public String getUsername(final URI userURI) throws RepositoryException
+    protected PoddUserDirectory getUserDirectory(final RepositoryConnection conn) throws OpenRDFException
     {
-        RepositoryConnection conn = null;
-        try
+        PoddUserDirectory result = this.userDirectory;
+        if(result != null
+                && System.nanoTime() - this.userDirectoryLoadedAt >= TimeUnit.MILLISECONDS
+                        .toNanos(this.userDirectoryTimeout))
         {
-            conn = this.repository.getConnection();
-            
-            final Model result =
-                    new LinkedHashModel(Iterations.asList(conn.getStatements(userURI,
-                            SesameRealmConstants.OAS_USERIDENTIFIER, null, true, this.getContexts())));
-            
-            for(final Value nextUsername : result.objects())
-            {
-                if(nextUsername instanceof Literal)
-                {
-                    return ((Literal)nextUsername).getLabel();
-                }
-            }
-            
-            return null;
+            result = null;
         }
-        catch(final RepositoryException e)
+        if(result == null)
         {
-            this.log.error("Found repository exception while adding user", e);
-            if(conn != null)
+            final long generation = this.userDirectoryGeneration.get();
+            final long loadedAt = System.nanoTime();
+            result = PoddUserDirectory.load(conn, this.getContexts());
+            // Do not keep an index that may include uncommitted changes, or that was loaded while
+            // users or role mappings were being changed
+            if(!conn.isActive())
             {
-                try
+                synchronized(this.userDirectoryGeneration)
                 {
-                    conn.rollback();
-                }
-                catch(final RepositoryException e1)
-                {
-                    this.log.error("Found unexpected exception while rolling back repository connection after exception");
+                    if(this.userDirectoryGeneration.get() == generation)
+                    {
+                        this.userDirectoryLoadedAt = loadedAt;
+                        this.userDirectory = result;
+                    }
                 }
             }
-            
-            throw new RuntimeException(e);
         }
-        finally
+        return result;
+    }
+    
+    /**
+     * Sets the number of milliseconds that the index of users and role mappings is used for before
+     * it is loaded again from the repository.
+     *
+     * @param userDirectoryTimeout
+     *            The timeout in milliseconds, or 0 to load the index again for every lookup.
+     */
+    public void setUserDirectoryTimeout(final long userDirectoryTimeout)
+    {
+        this.userDirectoryTimeout = userDirectoryTimeout;
+    }
+    
+    /**
+     * Discards the index of users and role mappings, so that it is loaded again from the repository
+     * the next time it is needed. This should be called if the user management graphs are modified
+     * without using this realm, as otherwise the changes are only seen once the user directory
+     * timeout has passed.
+     */
+    public void invalidateUserDirectory()
+    {
+        synchronized(this.userDirectoryGeneration)
         {
-            if(conn != null)
-            {
-                try
-                {
-                    conn.close();
-                }
-                catch(final RepositoryException e)
-                {
-                    this.log.error("Found unexpected repository exception", e);
-                    throw new RuntimeException(e);
-                }
-            }
+            this.userDirectoryGeneration.incrementAndGet();
+            this.userDirectory = null;
         }
-        
+    }
+    
+    public String getUsername(final URI userURI) throws RepositoryException
+    {
+        return this.getUserDirectory().getUsername(userURI);
     }
     
     /**
@@ -2287,24 +1684,7 @@ public class PoddSesameRealm extends Realm
     
     protected List<PoddUser> getUsers(final RepositoryConnection conn) throws OpenRDFException
     {
-        final List<PoddUser> result = new ArrayList<PoddUser>();
-        
-        final String query = this.buildSparqlQueryToFindUser(null, true);
-        
-        this.log.debug("findUser: query={}", query);
-        
-        final TupleQuery tupleQuery = conn.prepareTupleQuery(QueryLanguage.SPARQL, query);
-        
-        final QueryResultCollector resultCollector = RdfUtility.executeTupleQuery(tupleQuery, this.getContexts());
-        
-        for(final BindingSet bindingSet : resultCollector.getBindingSets())
-        {
-            final Binding binding = bindingSet.getBinding("userIdentifier");
-            
-            result.add(this.buildRestletUserFromSparqlResult(binding.getValue().stringValue(), bindingSet));
-        }
-        
-        return Collections.unmodifiableList(result);
+        return Collections.unmodifiableList(this.getUserDirectory(conn).getUsers());
     }
     
     /**
@@ -2423,58 +1803,7 @@ public class PoddSesameRealm extends Realm
     
     public URI getUserUri(final String userIdentifier) throws RepositoryException
     {
-        RepositoryConnection conn = null;
-        try
-        {
-            conn = this.repository.getConnection();
-            
-            final Model result =
-                    new LinkedHashModel(Iterations.asList(conn.getStatements(null,
-                            SesameRealmConstants.OAS_USERIDENTIFIER, this.vf.createLiteral(userIdentifier), true,
-                            this.getContexts())));
-            
-            for(final Resource nextUri : result.subjects())
-            {
-                if(nextUri instanceof URI)
-                {
-                    return (URI)nextUri;
-                }
-            }
-            
-            return null;
-        }
-        catch(final RepositoryException e)
-        {
-            this.log.error("Found repository exception while adding user", e);
-            if(conn != null)
-            {
-                try
-                {
-                    conn.rollback();
-                }
-                catch(final RepositoryException e1)
-                {
-                    this.log.error("Found unexpected exception while rolling back repository connection after exception");
-                }
-            }
-            throw new RuntimeException(e);
-        }
-        finally
-        {
-            if(conn != null)
-            {
-                try
-                {
-                    conn.close();
-                }
-                catch(final RepositoryException e)
-                {
-                    this.log.error("Found unexpected repository exception", e);
-                    throw new RuntimeException(e);
-                }
-            }
-        }
-        
+        return this.getUserDirectory().getUserUri(userIdentifier);
     }
     
     /**
@@ -2544,6 +1873,7 @@ public class PoddSesameRealm extends Realm
             }
             
             conn.commit();
+            this.invalidateUserDirectory();
         }
         catch(final RepositoryException e)
         {
@@ -2578,58 +1908,10 @@ public class PoddSesameRealm extends Realm
         }
     }
     
-    public List<PoddUser> searchUser(String searchTerm, final PoddUserStatus status, final boolean isDescending,
+    public List<PoddUser> searchUser(final String searchTerm, final PoddUserStatus status, final boolean isDescending,
             final int limit, final int offset)
     {
-        final List<PoddUser> result = new ArrayList<PoddUser>();
-        
-        RepositoryConnection conn = null;
-        try
-        {
-            conn = this.getRepository().getConnection();
-            
-            final String orderBy = "?" + PoddSesameRealm.PARAM_USER_IDENTIFIER;
-            final String query = this.buildSparqlQueryToSearchUsers(status, orderBy, isDescending, limit, offset);
-            
-            this.log.debug("searchUser: query={}", query);
-            
-            final TupleQuery tupleQuery = conn.prepareTupleQuery(QueryLanguage.SPARQL, query);
-            
-            if(searchTerm == null)
-            {
-                // could this lead to an inefficient sparql query?
-                searchTerm = "";
-            }
-            tupleQuery.setBinding(PoddSesameRealm.PARAM_SEARCH_TERM, PODD.VF.createLiteral(searchTerm));
-            
-            final QueryResultCollector resultCollector = RdfUtility.executeTupleQuery(tupleQuery, this.getContexts());
-            
-            for(final BindingSet bindingSet : resultCollector.getBindingSets())
-            {
-                final Binding binding = bindingSet.getBinding("userIdentifier");
-                
-                result.add(this.buildRestletUserFromSparqlResult(binding.getValue().stringValue(), bindingSet));
-            }
-        }
-        catch(final OpenRDFException e)
-        {
-            throw new RuntimeException("Failure searching users in repository", e);
-        }
-        finally
-        {
-            if(conn != null)
-            {
-                try
-                {
-                    conn.close();
-                }
-                catch(final RepositoryException e)
-                {
-                    this.log.error("Failure to close connection", e);
-                }
-            }
-        }
-        return result;
+        return this.getUserDirectory().searchUsers(searchTerm, status, isDescending, limit, offset);
     }
     
     public void setContexts(final URI... contexts)
@@ -2799,7 +2081,8 @@ public class PoddSesameRealm extends Realm
             final TupleQuery tupleQuery = conn.prepareTupleQuery(QueryLanguage.SPARQL, query.toString());
             tupleQuery.setBinding("roleUri", oasRole.getURI());
             
-            final QueryResultCollector resultCollector = RdfUtility.executeTupleQuery(tupleQuery, this.getContexts());
+            final QueryResultCollector resultCollector =
+                    RdfUtility.executeTupleQuery("PoddSesameRealm.unmap.role", tupleQuery, this.getContexts());
             
             if(!resultCollector.getHandledTuple() || resultCollector.getBindingSets().isEmpty())
             {
@@ -2827,6 +2110,7 @@ public class PoddSesameRealm extends Realm
                 }
             }
             conn.commit();
+            this.invalidateUserDirectory();
         }
         catch(final OpenRDFException e)
         {
@@ -2903,7 +2187,8 @@ public class PoddSesameRealm extends Realm
                 tupleQuery.setBinding("role", oasRole.getURI());
                 tupleQuery.setBinding("object", optionalObjectUri);
                 final QueryResultCollector resultCollector =
-                        RdfUtility.executeTupleQuery(tupleQuery, this.getContexts());
+                        RdfUtility.executeTupleQuery("PoddSesameRealm.unmap.objectRole", tupleQuery,
+                                this.getContexts());
                 
                 if(!resultCollector.getHandledTuple() || resultCollector.getBindingSets().isEmpty())
                 {
@@ -2933,6 +2218,7 @@ public class PoddSesameRealm extends Realm
                     }
                 }
                 conn.commit();
+                this.invalidateUserDirectory();
             }
             catch(final OpenRDFException e)
             {
@@ -0,0 +1,511 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ *
+ * Copyright (C) 2009-2013 The University Of Queensland
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.restlet;
+
+import info.aduna.iteration.Iterations;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.openrdf.OpenRDFException;
+import org.openrdf.model.Literal;
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.Value;
+import org.openrdf.model.impl.LinkedHashModel;
+import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.repository.RepositoryConnection;
+import org.restlet.security.Role;
+
+import com.github.ansell.restletutils.RestletUtilRole;
+import com.github.ansell.restletutils.SesameRealmConstants;
+import com.github.podd.utils.PODD;
+import com.github.podd.utils.PoddRoles;
+import com.github.podd.utils.PoddUser;
+import com.github.podd.utils.PoddUserStatus;
+
+/**
+ * An immutable, in-memory index of the users and user role mappings stored in the user management
+ * graphs, so that user lookups, listings, searches and role checks do not need to query the
+ * repository.
+ * <p>
+ * Users are indexed by identifier and URI, and are kept sorted by identifier, both overall and for
+ * each status, so that pages of users can be returned directly. The roles for each user are
+ * precomputed from the role mappings. Each method returns new {@link PoddUser} objects, so callers
+ * may modify the results without affecting the index.
+ *
+ * @author Peter Ansell p_ansell@yahoo.com
+ */
+public final class PoddUserDirectory
+{
+    private static final Comparator<UserRecord> IDENTIFIER_ORDER = new Comparator<UserRecord>()
+    {
+        @Override
+        public int compare(final UserRecord o1, final UserRecord o2)
+        {
+            return o1.identifier.compareTo(o2.identifier);
+        }
+    };
+    
+    private final Map<String, UserRecord> usersByIdentifier = new HashMap<String, UserRecord>();
+    
+    private final Map<URI, UserRecord> usersByUri = new HashMap<URI, UserRecord>();
+    
+    private final Map<String, URI> urisByIdentifier = new HashMap<String, URI>();
+    
+    private final Map<URI, String> identifiersByUri = new HashMap<URI, String>();
+    
+    private final List<UserRecord> sortedUsers = new ArrayList<UserRecord>();
+    
+    private final Map<PoddUserStatus, List<UserRecord>> sortedUsersByStatus =
+            new EnumMap<PoddUserStatus, List<UserRecord>>(PoddUserStatus.class);
+    
+    private final Map<String, Set<Entry<Role, URI>>> roleMappingsByIdentifier =
+            new HashMap<String, Set<Entry<Role, URI>>>();
+    
+    private final Map<String, Set<Role>> rolesByIdentifier = new HashMap<String, Set<Role>>();
+    
+    /**
+     * Loads the statements in the given contexts and creates an index from them.
+     *
+     * @param conn
+     *            The connection to load the statements from.
+     * @param contexts
+     *            The user management contexts.
+     * @return A new index of the users and role mappings in the given contexts.
+     * @throws OpenRDFException
+     *             If the statements could not be loaded.
+     */
+    public static PoddUserDirectory load(final RepositoryConnection conn, final URI... contexts)
+        throws OpenRDFException
+    {
+        return new PoddUserDirectory(new LinkedHashModel(Iterations.asList(conn.getStatements(null, null, null, true,
+                contexts))));
+    }
+    
+    /**
+     * Creates an index from the users and role mappings in the given statements.
+     *
+     * @param statements
+     *            The statements from the user management contexts.
+     */
+    public PoddUserDirectory(final Model statements)
+    {
+        for(final Statement nextStatement : statements.filter(null, SesameRealmConstants.OAS_USERIDENTIFIER, null))
+        {
+            if(nextStatement.getSubject() instanceof URI && nextStatement.getObject() instanceof Literal)
+            {
+                final URI nextUri = (URI)nextStatement.getSubject();
+                final String nextIdentifier = nextStatement.getObject().stringValue();
+                if(!this.urisByIdentifier.containsKey(nextIdentifier))
+                {
+                    this.urisByIdentifier.put(nextIdentifier, nextUri);
+                }
+                if(!this.identifiersByUri.containsKey(nextUri))
+                {
+                    this.identifiersByUri.put(nextUri, nextIdentifier);
+                }
+            }
+        }
+        
+        for(final Resource nextSubject : statements.filter(null, RDF.TYPE, SesameRealmConstants.OAS_USER).subjects())
+        {
+            if(!(nextSubject instanceof URI))
+            {
+                continue;
+            }
+            final String nextIdentifier = this.identifiersByUri.get(nextSubject);
+            final Value nextStatus = PoddUserDirectory.firstObject(statements, nextSubject, PODD.PODD_USER_STATUS);
+            // Users must have an identifier and a status to be visible
+            if(nextIdentifier == null || nextStatus == null)
+            {
+                continue;
+            }
+            final UserRecord nextRecord = new UserRecord((URI)nextSubject, nextIdentifier, nextStatus, statements);
+            this.sortedUsers.add(nextRecord);
+            if(!this.usersByIdentifier.containsKey(nextIdentifier))
+            {
+                this.usersByIdentifier.put(nextIdentifier, nextRecord);
+            }
+            this.usersByUri.put(nextRecord.uri, nextRecord);
+        }
+        Collections.sort(this.sortedUsers, PoddUserDirectory.IDENTIFIER_ORDER);
+        
+        for(final PoddUserStatus nextStatus : PoddUserStatus.values())
+        {
+            this.sortedUsersByStatus.put(nextStatus, new ArrayList<UserRecord>());
+        }
+        for(final UserRecord nextRecord : this.sortedUsers)
+        {
+            // Users without a password are only listed by searches
+            if(nextRecord.storedStatus != null && nextRecord.secretHashes.size() > 0)
+            {
+                this.sortedUsersByStatus.get(nextRecord.storedStatus).add(nextRecord);
+            }
+        }
+        
+        for(final Statement nextStatement : statements.filter(null, SesameRealmConstants.OAS_ROLEMAPPEDUSER, null))
+        {
+            final Resource nextMapping = nextStatement.getSubject();
+            final String nextIdentifier = nextStatement.getObject().stringValue();
+            for(final Value nextRoleUri : statements.filter(nextMapping, SesameRealmConstants.OAS_ROLEMAPPEDROLE, null)
+                    .objects())
+            {
+                final RestletUtilRole nextRole =
+                        nextRoleUri instanceof URI ? PoddRoles.getRoleByUri((URI)nextRoleUri) : null;
+                if(nextRole == null)
+                {
+                    continue;
+                }
+                final Set<Value> nextObjects =
+                        statements.filter(nextMapping, PODD.PODD_ROLEMAPPEDOBJECT, null).objects();
+                if(nextObjects.isEmpty())
+                {
+                    this.addRoleMapping(nextIdentifier, nextRole.getRole(), null);
+                }
+                for(final Value nextObject : nextObjects)
+                {
+                    if(nextObject instanceof URI)
+                    {
+                        this.addRoleMapping(nextIdentifier, nextRole.getRole(), (URI)nextObject);
+                    }
+                }
+            }
+        }
+    }
+    
+    private void addRoleMapping(final String identifier, final Role role, final URI objectUri)
+    {
+        Set<Entry<Role, URI>> mappings = this.roleMappingsByIdentifier.get(identifier);
+        if(mappings == null)
+        {
+            mappings = new HashSet<Entry<Role, URI>>();
+            this.roleMappingsByIdentifier.put(identifier, mappings);
+            this.rolesByIdentifier.put(identifier, new HashSet<Role>());
+        }
+        mappings.add(new AbstractMap.SimpleImmutableEntry<Role, URI>(role, objectUri));
+        this.rolesByIdentifier.get(identifier).add(role);
+    }
+    
+    private static Value firstObject(final Model statements, final Resource subject, final URI predicate)
+    {
+        for(final Value nextObject : statements.filter(subject, predicate, null).objects())
+        {
+            return nextObject;
+        }
+        return null;
+    }
+    
+    private static String firstString(final Model statements, final Resource subject, final URI predicate)
+    {
+        final Value result = PoddUserDirectory.firstObject(statements, subject, predicate);
+        return result == null ? null : result.stringValue();
+    }
+    
+    /**
+     * @param userIdentifier
+     *            The identifier of the user.
+     * @return The user with the given identifier, or null if there is no such user.
+     */
+    public PoddUser findUser(final String userIdentifier)
+    {
+        final UserRecord result = this.usersByIdentifier.get(userIdentifier);
+        return result == null ? null : result.toUser();
+    }
+    
+    /**
+     * @param userUri
+     *            The URI of the user.
+     * @return The user with the given URI, or null if there is no such user.
+     */
+    public PoddUser findUser(final URI userUri)
+    {
+        final UserRecord result = this.usersByUri.get(userUri);
+        return result == null ? null : result.toUser();
+    }
+    
+    /**
+     * @return All of the users, sorted by identifier.
+     */
+    public List<PoddUser> getUsers()
+    {
+        final List<PoddUser> result = new ArrayList<PoddUser>(this.sortedUsers.size());
+        for(final UserRecord nextRecord : this.sortedUsers)
+        {
+            result.add(nextRecord.toUser());
+        }
+        return result;
+    }
+    
+    /**
+     * @param status
+     *            The status to find users for.
+     * @param isDescending
+     *            True to sort the users by descending identifier, and false to sort them by
+     *            ascending identifier.
+     * @param limit
+     *            The maximum number of users to return, or a negative number to return all users
+     *            after the offset.
+     * @param offset
+     *            The number of users to skip.
+     * @return A page of the users with the given status that have a password.
+     */
+    public List<PoddUser> getUsersByStatus(final PoddUserStatus status, final boolean isDescending,
+            final int limit, final int offset)
+    {
+        final List<UserRecord> matches = this.sortedUsersByStatus.get(status);
+        final List<PoddUser> result = new ArrayList<PoddUser>();
+        final int size = matches.size();
+        for(int i = Math.max(0, offset); i < size && (limit < 0 || result.size() < limit); i++)
+        {
+            result.add(matches.get(isDescending ? size - 1 - i : i).toUser());
+        }
+        return result;
+    }
+    
+    /**
+     * Finds users whose first name, last name and identifier, separated by spaces, contain the
+     * given search term, ignoring case. Users without both a first name and a last name are not
+     * matched.
+     * <p>
+     * For privacy, the users only include their URI, identifier, names, email, status and
+     * organization.
+     *
+     * @param searchTerm
+     *            The term to search for, or null to match all users.
+     * @param status
+     *            The status of the users to return, or null to return users with any status.
+     * @param isDescending
+     *            True to sort the users by descending identifier, and false to sort them by
+     *            ascending identifier.
+     * @param limit
+     *            The maximum number of users to return, or a negative number to return all users
+     *            after the offset.
+     * @param offset
+     *            The number of users to skip.
+     * @return A page of the matching users.
+     */
+    public List<PoddUser> searchUsers(final String searchTerm, final PoddUserStatus status,
+            final boolean isDescending, final int limit, final int offset)
+    {
+        final String lowerCaseTerm = searchTerm == null ? "" : searchTerm.toLowerCase(Locale.ROOT);
+        final List<PoddUser> result = new ArrayList<PoddUser>();
+        final int size = this.sortedUsers.size();
+        int skipped = 0;
+        for(int i = 0; i < size && (limit < 0 || result.size() < limit); i++)
+        {
+            final UserRecord nextRecord = this.sortedUsers.get(isDescending ? size - 1 - i : i);
+            if(nextRecord.searchName == null || !nextRecord.searchName.contains(lowerCaseTerm)
+                    || (status != null && status != nextRecord.storedStatus))
+            {
+                continue;
+            }
+            if(skipped < offset)
+            {
+                skipped++;
+                continue;
+            }
+            result.add(nextRecord.toSearchResult());
+        }
+        return result;
+    }
+    
+    /**
+     * @param userIdentifier
+     *            The identifier of the user.
+     * @return The URI that the given identifier is attached to, or null if it is not attached to
+     *         any URI.
+     */
+    public URI getUserUri(final String userIdentifier)
+    {
+        return this.urisByIdentifier.get(userIdentifier);
+    }
+    
+    /**
+     * @param userUri
+     *            The URI of the user.
+     * @return The identifier attached to the given URI, or null if it does not have an
+     *         identifier.
+     */
+    public String getUsername(final URI userUri)
+    {
+        return this.identifiersByUri.get(userUri);
+    }
+    
+    /**
+     * @param userIdentifier
+     *            The identifier of the user.
+     * @return The password hash for the user, or null if the user does not exist, or if they do
+     *         not have exactly one password hash.
+     */
+    String getSecretHash(final String userIdentifier)
+    {
+        final UserRecord result = this.usersByIdentifier.get(userIdentifier);
+        if(result == null || result.secretHashes.size() != 1)
+        {
+            return null;
+        }
+        return result.secretHashes.get(0);
+    }
+    
+    /**
+     * @param userIdentifier
+     *            The identifier of the user.
+     * @return All of the roles mapped to the user, either globally or for specific objects.
+     */
+    public Set<Role> getRoles(final String userIdentifier)
+    {
+        final Set<Role> result = this.rolesByIdentifier.get(userIdentifier);
+        return result == null ? new HashSet<Role>() : new HashSet<Role>(result);
+    }
+    
+    /**
+     * @param userIdentifier
+     *            The identifier of the user.
+     * @return The roles mapped to the user, each with the object that the role applies to, or with
+     *         a null object if the role applies globally.
+     */
+    public Collection<Entry<Role, URI>> getRoleMappings(final String userIdentifier)
+    {
+        final Set<Entry<Role, URI>> result = this.roleMappingsByIdentifier.get(userIdentifier);
+        return result == null ? new HashSet<Entry<Role, URI>>() : new HashSet<Entry<Role, URI>>(result);
+    }
+    
+    /**
+     * @return The number of users in the index.
+     */
+    public int size()
+    {
+        return this.sortedUsers.size();
+    }
+    
+    /**
+     * The stored details for a single user.
+     */
+    private static final class UserRecord
+    {
+        private final URI uri;
+        
+        private final String identifier;
+        
+        private final PoddUserStatus storedStatus;
+        
+        private final List<String> secretHashes = new ArrayList<String>(1);
+        
+        private final String firstName;
+        
+        private final String lastName;
+        
+        private final String email;
+        
+        private final String organization;
+        
+        private final String orcid;
+        
+        private final URI homePage;
+        
+        private final String title;
+        
+        private final String phone;
+        
+        private final String address;
+        
+        private final String position;
+        
+        /**
+         * The lower case first name, last name and identifier, or null if the user does not have
+         * both a first name and a last name.
+         */
+        private final String searchName;
+        
+        UserRecord(final URI uri, final String identifier, final Value status, final Model statements)
+        {
+            this.uri = uri;
+            this.identifier = identifier;
+            this.storedStatus = status instanceof URI ? PoddUserStatus.getUserStatusByUri((URI)status) : null;
+            for(final Value nextHash : statements.filter(uri, PODD.PODD_USER_SECRET_HASH, null).objects())
+            {
+                this.secretHashes.add(nextHash.stringValue());
+            }
+            this.firstName = PoddUserDirectory.firstString(statements, uri, SesameRealmConstants.OAS_USERFIRSTNAME);
+            this.lastName = PoddUserDirectory.firstString(statements, uri, SesameRealmConstants.OAS_USERLASTNAME);
+            this.email = PoddUserDirectory.firstString(statements, uri, SesameRealmConstants.OAS_USEREMAIL);
+            this.organization = PoddUserDirectory.firstString(statements, uri, PODD.PODD_USER_ORGANIZATION);
+            this.orcid = PoddUserDirectory.firstString(statements, uri, PODD.PODD_USER_ORCID);
+            final Value homePageValue = PoddUserDirectory.firstObject(statements, uri, PODD.PODD_USER_HOMEPAGE);
+            this.homePage = homePageValue instanceof URI ? (URI)homePageValue : null;
+            this.title = PoddUserDirectory.firstString(statements, uri, PODD.PODD_USER_TITLE);
+            this.phone = PoddUserDirectory.firstString(statements, uri, PODD.PODD_USER_PHONE);
+            this.address = PoddUserDirectory.firstString(statements, uri, PODD.PODD_USER_ADDRESS);
+            this.position = PoddUserDirectory.firstString(statements, uri, PODD.PODD_USER_POSITION);
+            if(this.firstName != null && this.lastName != null)
+            {
+                this.searchName = (this.firstName + " " + this.lastName + " " + identifier).toLowerCase(Locale.ROOT);
+            }
+            else
+            {
+                this.searchName = null;
+            }
+        }
+        
+        /**
+         * Users without a password are always inactive, so they cannot perform any actions.
+         */
+        private PoddUserStatus getUserStatus()
+        {
+            if(this.storedStatus == null || this.secretHashes.isEmpty()
+                    || this.secretHashes.get(0).trim().isEmpty())
+            {
+                return PoddUserStatus.INACTIVE;
+            }
+            return this.storedStatus;
+        }
+        
+        PoddUser toUser()
+        {
+            final PoddUser result =
+                    new PoddUser(this.identifier, null, this.firstName, this.lastName, this.email,
+                            this.getUserStatus(), this.homePage, this.organization, this.orcid, this.title,
+                            this.phone, this.address, this.position);
+            result.setUri(this.uri);
+            return result;
+        }
+        
+        PoddUser toSearchResult()
+        {
+            final PoddUser result =
+                    new PoddUser(this.identifier, null, this.firstName, this.lastName, this.email,
+                            this.storedStatus == null ? PoddUserStatus.INACTIVE : this.storedStatus);
+            result.setOrganization(this.organization);
+            result.setUri(this.uri);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ *
+ * Copyright (C) 2009-2013 The University Of Queensland
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.utils;
+
+import java.util.List;
+import java.util.Map;
+
+import org.openrdf.model.Model;
+import org.openrdf.model.URI;
+
+/**
+ * An immutable object containing all of the details that are needed to display a single object
+ * inside of an artifact, so that they can be fetched together and handed directly to templates.
+ *
+ * @author Peter Ansell p_ansell@yahoo.com
+ */
+public interface PoddObjectView
+{
+    /**
+     * @return The number of objects that are directly contained by the object.
+     */
+    int getChildCount();
+    
+    /**
+     * @return The "uri", "label" and "type" of each object that is directly contained by the
+     *         object, ordered by label.
+     */
+    List<Map<String, String>> getChildDetails();
+    
+    /**
+     * @return The statements about the object, along with labels for its properties and values.
+     */
+    Model getDisplayModel();
+    
+    /**
+     * @return The label and description of the object.
+     */
+    PoddObjectLabel getObject();
+    
+    /**
+     * @return The displayable types of the object, with their labels.
+     */
+    List<PoddObjectLabel> getObjectTypes();
+    
+    /**
+     * @return The properties of the object, in the order that they should be displayed.
+     */
+    List<URI> getOrderedProperties();
+    
+    /**
+     * @return The "uri", "label", "type" and "relationship" of the parent of the object, or an
+     *         empty map if the object does not have a parent.
+     */
+    Map<String, String> getParentDetails();
+}
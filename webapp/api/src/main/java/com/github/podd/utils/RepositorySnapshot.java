@@ -0,0 +1,141 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ *
+ * Copyright (C) 2009-2013 The University Of Queensland
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.utils;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.openrdf.model.Model;
+import org.openrdf.model.Namespace;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.LinkedHashModel;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+
+/**
+ * An immutable, in-memory copy of the statements and namespaces in the management repository and
+ * in each of the permanent repositories and their shards at a point in time, such as directly
+ * after the schema ontologies have been loaded, so that the repositories can later be restored to
+ * that state without repeating the setup.
+ *
+ * @author Peter Ansell p_ansell@yahoo.com
+ */
+public final class RepositorySnapshot
+{
+    private final Model managementStatements;
+    
+    private final Map<Set<? extends OWLOntologyID>, Model> permanentStatements;
+    
+    private final Map<URI, Model> shardStatements;
+    
+    /**
+     * @param managementStatements
+     *            The statements in the management repository, including their contexts.
+     * @param permanentStatements
+     *            The statements in each permanent repository, keyed on the set of schema ontologies
+     *            for the repository.
+     */
+    public RepositorySnapshot(final Model managementStatements,
+            final Map<Set<? extends OWLOntologyID>, Model> permanentStatements)
+    {
+        this(managementStatements, permanentStatements, Collections.<URI, Model> emptyMap());
+    }
+    
+    /**
+     * @param managementStatements
+     *            The statements in the management repository, including their contexts.
+     * @param permanentStatements
+     *            The statements in each permanent repository, keyed on the set of schema ontologies
+     *            for the repository.
+     * @param shardStatements
+     *            The statements in each additional shard of the permanent repositories, keyed on the
+     *            URI of the shard in the management repository.
+     */
+    public RepositorySnapshot(final Model managementStatements,
+            final Map<Set<? extends OWLOntologyID>, Model> permanentStatements, final Map<URI, Model> shardStatements)
+    {
+        this.managementStatements = RepositorySnapshot.copy(managementStatements);
+        final Map<Set<? extends OWLOntologyID>, Model> copy =
+                new LinkedHashMap<Set<? extends OWLOntologyID>, Model>(permanentStatements.size() * 2);
+        for(final Entry<Set<? extends OWLOntologyID>, Model> nextEntry : permanentStatements.entrySet())
+        {
+            copy.put(nextEntry.getKey(), RepositorySnapshot.copy(nextEntry.getValue()));
+        }
+        this.permanentStatements = Collections.unmodifiableMap(copy);
+        final Map<URI, Model> shardCopy = new LinkedHashMap<URI, Model>(shardStatements.size() * 2);
+        for(final Entry<URI, Model> nextEntry : shardStatements.entrySet())
+        {
+            shardCopy.put(nextEntry.getKey(), RepositorySnapshot.copy(nextEntry.getValue()));
+        }
+        this.shardStatements = Collections.unmodifiableMap(shardCopy);
+    }
+    
+    private static Model copy(final Model statements)
+    {
+        final Model result = new LinkedHashModel(statements);
+        for(final Namespace nextNamespace : statements.getNamespaces())
+        {
+            result.setNamespace(nextNamespace);
+        }
+        return result.unmodifiable();
+    }
+    
+    /**
+     * @return The statements in the management repository when the snapshot was created.
+     */
+    public Model getManagementStatements()
+    {
+        return this.managementStatements;
+    }
+    
+    /**
+     * @return The statements in each permanent repository when the snapshot was created, keyed on
+     *         the set of schema ontologies for the repository.
+     */
+    public Map<Set<? extends OWLOntologyID>, Model> getPermanentStatements()
+    {
+        return this.permanentStatements;
+    }
+    
+    /**
+     * @return The statements in each additional shard of the permanent repositories when the
+     *         snapshot was created, keyed on the URI of the shard.
+     */
+    public Map<URI, Model> getShardStatements()
+    {
+        return this.shardStatements;
+    }
+    
+    /**
+     * @return The total number of statements in the snapshot.
+     */
+    public int size()
+    {
+        int result = this.managementStatements.size();
+        for(final Model nextModel : this.permanentStatements.values())
+        {
+            result += nextModel.size();
+        }
+        for(final Model nextModel : this.shardStatements.values())
+        {
+            result += nextModel.size();
+        }
+        return result;
+    }
+}
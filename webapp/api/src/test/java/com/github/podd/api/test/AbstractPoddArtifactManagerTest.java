@@ -31,6 +31,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -51,6 +52,7 @@ import org.openrdf.model.Statement;
 import org.openrdf.model.URI;
 import org.openrdf.model.impl.LinkedHashModel;
 import org.openrdf.model.impl.ValueFactoryImpl;
+import org.openrdf.model.util.ModelUtil;
 import org.openrdf.model.vocabulary.OWL;
 import org.openrdf.model.vocabulary.RDF;
 import org.openrdf.model.vocabulary.RDFS;
@@ -112,6 +114,7 @@ import com.github.podd.utils.InferredOWLOntologyID;
 import com.github.podd.utils.OntologyUtils;
 import com.github.podd.utils.PODD;
 import com.github.podd.utils.PoddObjectLabel;
+import com.github.podd.utils.PoddObjectView;
 
 /**
  * @author Peter Ansell p_ansell@yahoo.com
@@ -707,6 +710,64 @@ public abstract class AbstractPoddArtifactManagerTest
         }
     }
     
+    /**
+     * Test method for
+     * {@link com.github.podd.api.PoddArtifactManager#loadArtifact(java.io.InputStream, org.openrdf.rio.RDFFormat)}
+     * .
+     *
+     * Loads several artifacts in sequence, including an inconsistent artifact, and verifies that
+     * the inferred statements for each artifact do not depend on the artifacts that were reasoned
+     * over before it.
+     */
+    @Test
+    public final void testLoadArtifactSequenceInferredStatements() throws Exception
+    {
+        this.loadVersion1SchemaOntologies();
+        
+        final InferredOWLOntologyID internalObjectId1 =
+                this.testArtifactManager.loadArtifact(
+                        this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_BASIC_1_INTERNAL_OBJECT),
+                        RDFFormat.RDFXML);
+        final Model internalObjectInferred1 = this.getInferredStatements(internalObjectId1);
+        Assert.assertEquals("Incorrect number of inferred statements for first artifact",
+                TestConstants.TEST_ARTIFACT_BASIC_1_INTERNAL_OBJECT_INFERRED_TRIPLES, internalObjectInferred1.size());
+        
+        final InferredOWLOntologyID basicId1 =
+                this.testArtifactManager.loadArtifact(
+                        this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_20130206), RDFFormat.TURTLE);
+        final Model basicInferred1 = this.getInferredStatements(basicId1);
+        Assert.assertEquals("Incorrect number of inferred statements for second artifact",
+                TestConstants.TEST_ARTIFACT_BASIC_1_20130206_INFERRED_TRIPLES, basicInferred1.size());
+        
+        try
+        {
+            this.testArtifactManager.loadArtifact(
+                    this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_BAD_2_LEAD_INSTITUTES),
+                    RDFFormat.RDFXML);
+            Assert.fail("Should have thrown an InconsistentOntologyException");
+        }
+        catch(final InconsistentOntologyException e)
+        {
+            Assert.assertTrue("Not the expected error message", e.getMessage().startsWith("Ontology is inconsistent"));
+        }
+        
+        // Artifacts loaded after the inconsistent artifact have the same inferred statements
+        final InferredOWLOntologyID internalObjectId2 =
+                this.testArtifactManager.loadArtifact(
+                        this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_BASIC_1_INTERNAL_OBJECT),
+                        RDFFormat.RDFXML);
+        Assert.assertEquals("Incorrect number of inferred statements after inconsistent artifact",
+                TestConstants.TEST_ARTIFACT_BASIC_1_INTERNAL_OBJECT_INFERRED_TRIPLES,
+                this.getInferredStatements(internalObjectId2).size());
+        
+        Assert.assertTrue("Could not delete artifact", this.testArtifactManager.deleteArtifact(basicId1));
+        final InferredOWLOntologyID basicId2 =
+                this.testArtifactManager.loadArtifact(
+                        this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_20130206), RDFFormat.TURTLE);
+        Assert.assertTrue("Inferred statements changed when the artifact was loaded again",
+                ModelUtil.equals(basicInferred1, this.getInferredStatements(basicId2)));
+    }
+    
     /**
      * Test method for
      * {@link com.github.podd.api.PoddArtifactManager#deleteArtifact(org.semanticweb.owlapi.model.OWLOntologyID)}
@@ -918,6 +979,45 @@ public abstract class AbstractPoddArtifactManagerTest
         }
     }
     
+    /**
+     * Test method for
+     * {@link com.github.podd.api.PoddArtifactManager#deleteObjects(URI, URI, java.util.Collection, boolean)}
+     * .
+     *
+     * Tests that the artifact manager can delete several PODD Objects in a single new version.
+     */
+    @Test
+    public final void testDeleteObjectsSuccess() throws Exception
+    {
+        // prepare: load schema ontologies and test artifact
+        this.loadVersion1SchemaOntologies();
+        final InputStream inputStream = this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_20130206);
+        final InferredOWLOntologyID artifactID = this.testArtifactManager.loadArtifact(inputStream, RDFFormat.TURTLE);
+        this.verifyLoadedArtifact(artifactID, 12, TestConstants.TEST_ARTIFACT_BASIC_1_20130206_CONCRETE_TRIPLES,
+                TestConstants.TEST_ARTIFACT_BASIC_1_20130206_INFERRED_TRIPLES, false);
+        
+        final List<URI> objectsToDelete =
+                Arrays.asList(PODD.VF.createURI("http://purl.org/podd/basic-2-20130206/artifact:1#My_Treatment1"),
+                        PODD.VF.createURI("http://purl.org/podd/basic-2-20130206/artifact:1#publication45"));
+        
+        // perform test action: delete objects
+        final InferredOWLOntologyID modifiedArtifactId =
+                this.testArtifactManager.deleteObjects(artifactID.getOntologyIRI().toOpenRDFURI(), artifactID
+                        .getVersionIRI().toOpenRDFURI(), objectsToDelete, false);
+        
+        // verify:
+        final Model artifactModel = this.testArtifactManager.exportArtifact(modifiedArtifactId, false);
+        Assert.assertEquals("Reduction in artifact size incorrect", 77, artifactModel.size());
+        for(final URI objectToDelete : objectsToDelete)
+        {
+            Assert.assertTrue("Object was not deleted", artifactModel.filter(objectToDelete, null, null).isEmpty());
+            Assert.assertTrue("Object was not deleted", artifactModel.filter(null, null, objectToDelete).isEmpty());
+        }
+        
+        this.verifyArtifactManagementGraphContents(12, artifactID.getOntologyIRI(), modifiedArtifactId.getVersionIRI(),
+                modifiedArtifactId.getInferredOntologyIRI());
+    }
+    
     /**
      * Test method for
      * {@link com.github.podd.api.PoddArtifactManager#deleteObject(String, String, String, boolean)}
@@ -1161,6 +1261,49 @@ public abstract class AbstractPoddArtifactManagerTest
         Assert.assertTrue("No label for rdfs:comment", model.contains(RDFS.COMMENT, RDFS.LABEL, null));
     }
     
+    /**
+     * Test method for
+     * {@link com.github.podd.api.PoddArtifactManager#exportObjectMetadata(URI, java.io.OutputStream, RDFFormat, boolean, MetadataPolicy, InferredOWLOntologyID)}
+     * after {@link com.github.podd.api.PoddArtifactManager#preloadObjectMetadata()}.
+     */
+    @Test
+    public final void testExportObjectMetadataPreloaded() throws Exception
+    {
+        this.loadVersion1SchemaOntologies();
+        
+        final URI objectType = PODD.VF.createURI(PODD.PODD_SCIENCE, "Investigation");
+        
+        final ByteArrayOutputStream uncached = new ByteArrayOutputStream();
+        this.testArtifactManager.exportObjectMetadata(objectType, uncached, RDFFormat.RDFJSON, false,
+                MetadataPolicy.EXCLUDE_CONTAINS, null);
+        
+        this.testArtifactManager.clearObjectMetadataCache();
+        this.testArtifactManager.preloadObjectMetadata();
+        
+        final ByteArrayOutputStream preloaded = new ByteArrayOutputStream();
+        this.testArtifactManager.exportObjectMetadata(objectType, preloaded, RDFFormat.RDFJSON, false,
+                MetadataPolicy.EXCLUDE_CONTAINS, null);
+        
+        final Model uncachedModel =
+                Rio.parse(new ByteArrayInputStream(uncached.toByteArray()), "", RDFFormat.RDFJSON);
+        final Model preloadedModel =
+                Rio.parse(new ByteArrayInputStream(preloaded.toByteArray()), "", RDFFormat.RDFJSON);
+        
+        Assert.assertFalse("Metadata was empty", uncachedModel.isEmpty());
+        Assert.assertEquals("Preloaded metadata was different", uncachedModel.size(), preloadedModel.size());
+        Assert.assertTrue("Missing statement: 'Investigation a OWL:Class'",
+                preloadedModel.contains(objectType, RDF.TYPE, OWL.CLASS));
+        
+        // The include do not display flag must not share cached results with the default
+        final ByteArrayOutputStream includeDoNotDisplay = new ByteArrayOutputStream();
+        this.testArtifactManager.exportObjectMetadata(objectType, includeDoNotDisplay, RDFFormat.RDFJSON, true,
+                MetadataPolicy.EXCLUDE_CONTAINS, null);
+        final Model includeDoNotDisplayModel =
+                Rio.parse(new ByteArrayInputStream(includeDoNotDisplay.toByteArray()), "", RDFFormat.RDFJSON);
+        Assert.assertTrue("Do not display properties were missing",
+                includeDoNotDisplayModel.size() >= preloadedModel.size());
+    }
+    
     /**
      * Test method for
      * {@link com.github.podd.api.PoddArtifactManager#exportObjectMetadata(URI, java.io.OutputStream, RDFFormat, boolean, MetadataPolicy, InferredOWLOntologyID)}
@@ -1480,6 +1623,140 @@ public abstract class AbstractPoddArtifactManagerTest
         }
     }
     
+    /**
+     * Test method for
+     * {@link com.github.podd.api.PoddArtifactManager#getObjectView(InferredOWLOntologyID, URI)}
+     * comparing the batched results with the individual methods.
+     */
+    @Test
+    public final void testGetObjectView() throws Exception
+    {
+        this.loadVersion1SchemaOntologies();
+        
+        // prepare: upload a test artifact
+        final InputStream inputStream1 = this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_20130206);
+        final InferredOWLOntologyID artifactIDv1 =
+                this.testArtifactManager.loadArtifact(inputStream1, RDFFormat.TURTLE);
+        this.verifyLoadedArtifact(artifactIDv1, 12, TestConstants.TEST_ARTIFACT_BASIC_1_20130206_CONCRETE_TRIPLES,
+                TestConstants.TEST_ARTIFACT_BASIC_1_20130206_INFERRED_TRIPLES, false);
+        
+        // Top object
+        final PoddObjectView topView = this.testArtifactManager.getObjectView(artifactIDv1, null);
+        final URI topObjectUri = PODD.VF.createURI("http://purl.org/podd/basic-1-20130206/object:2966");
+        Assert.assertEquals("Not the top object", topObjectUri, topView.getObject().getObjectURI());
+        Assert.assertEquals("Not the expected label",
+                this.testArtifactManager.getObjectLabel(artifactIDv1, topObjectUri).getLabel(), topView.getObject()
+                        .getLabel());
+        Assert.assertTrue("Top object should not have a parent", topView.getParentDetails().isEmpty());
+        Assert.assertEquals("Not the expected type", PODD.PODD_SCIENCE_PROJECT, topView.getObjectTypes().get(0)
+                .getObjectURI());
+        Assert.assertEquals("Not the expected child count",
+                this.testArtifactManager.getChildObjects(artifactIDv1, topObjectUri).size(), topView.getChildCount());
+        Assert.assertEquals("Not the expected properties",
+                this.testArtifactManager.getOrderedProperties(artifactIDv1, topObjectUri, false),
+                topView.getOrderedProperties());
+        Assert.assertEquals("Not the expected display model",
+                this.testArtifactManager.getObjectDetailsForDisplay(artifactIDv1, topObjectUri).size(), topView
+                        .getDisplayModel().size());
+        
+        // Internal object
+        final URI internalObjectUri =
+                PODD.VF.createURI("http://purl.org/podd/basic-2-20130206/artifact:1#publication45");
+        final PoddObjectView internalView = this.testArtifactManager.getObjectView(artifactIDv1, internalObjectUri);
+        Assert.assertEquals("Not the expected object", internalObjectUri, internalView.getObject().getObjectURI());
+        Assert.assertEquals("Not the expected type",
+                PODD.VF.createURI("http://purl.org/podd/ns/poddScience#Publication"), internalView.getObjectTypes()
+                        .get(0).getObjectURI());
+        Assert.assertEquals("Not the expected parent", topObjectUri.stringValue(),
+                internalView.getParentDetails().get("uri"));
+        Assert.assertEquals("Not the expected parent label", topView.getObject().getLabel(), internalView
+                .getParentDetails().get("label"));
+        Assert.assertEquals("Not the expected parent type", topView.getObjectTypes().get(0).getLabel(), internalView
+                .getParentDetails().get("type"));
+        Assert.assertNotNull("Missing parent relationship", internalView.getParentDetails().get("relationship"));
+        
+        // Child details of the top object
+        boolean foundPublication = false;
+        for(final Map<String, String> nextChild : topView.getChildDetails())
+        {
+            if(internalObjectUri.stringValue().equals(nextChild.get("uri")))
+            {
+                foundPublication = true;
+                Assert.assertEquals("Not the expected child label", internalView.getObject().getLabel(),
+                        nextChild.get("label"));
+                Assert.assertEquals("Not the expected child type", internalView.getObjectTypes().get(0).getLabel(),
+                        nextChild.get("type"));
+            }
+        }
+        Assert.assertTrue("Did not find the publication in the child details", foundPublication);
+        Assert.assertEquals("Child details did not match the child count", topView.getChildCount(), topView
+                .getChildDetails().size());
+    }
+    
+    /**
+     * Test method for
+     * {@link com.github.podd.api.PoddArtifactManager#getObjectView(InferredOWLOntologyID, URI)} with
+     * objects that do not have labels.
+     */
+    @Test
+    public final void testGetObjectViewWithoutLabels() throws Exception
+    {
+        this.loadVersion1SchemaOntologies();
+        
+        final InputStream inputStream1 = this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_20130206);
+        final InferredOWLOntologyID artifactIDv1 =
+                this.testArtifactManager.loadArtifact(inputStream1, RDFFormat.TURTLE);
+        
+        final URI investigationUri =
+                PODD.VF.createURI("http://purl.org/podd/basic-2-20130206/artifact:1#Demo_Investigation");
+        final URI materialUri = PODD.VF.createURI("http://purl.org/podd/basic-2-20130206/artifact:1#Demo_Material");
+        
+        // Remove the labels from the investigation and one of its children
+        RepositoryConnection permanentConnection = null;
+        try
+        {
+            permanentConnection =
+                    this.testRepositoryManager.getPermanentRepositoryConnection(this.testArtifactManager
+                            .getSchemaImports(artifactIDv1));
+            permanentConnection.begin();
+            permanentConnection.remove(investigationUri, RDFS.LABEL, null);
+            permanentConnection.remove(materialUri, RDFS.LABEL, null);
+            permanentConnection.commit();
+        }
+        finally
+        {
+            if(permanentConnection != null)
+            {
+                permanentConnection.close();
+            }
+        }
+        
+        final PoddObjectView investigationView =
+                this.testArtifactManager.getObjectView(artifactIDv1, investigationUri);
+        Assert.assertEquals("Label did not fall back to the URI", investigationUri.stringValue(), investigationView
+                .getObject().getLabel());
+        Assert.assertEquals("Not the expected parent label", "Project#2012-0006_ Cotton Leaf Morphology",
+                investigationView.getParentDetails().get("label"));
+        
+        Assert.assertEquals("Not the expected number of children", 3, investigationView.getChildDetails().size());
+        boolean foundMaterial = false;
+        for(final Map<String, String> nextChild : investigationView.getChildDetails())
+        {
+            Assert.assertNotNull("Child label was null", nextChild.get("label"));
+            if(materialUri.stringValue().equals(nextChild.get("uri")))
+            {
+                foundMaterial = true;
+                Assert.assertEquals("Child label did not fall back to the URI", materialUri.stringValue(),
+                        nextChild.get("label"));
+            }
+        }
+        Assert.assertTrue("Did not find the unlabelled child", foundMaterial);
+        
+        final PoddObjectView materialView = this.testArtifactManager.getObjectView(artifactIDv1, materialUri);
+        Assert.assertEquals("Parent label did not fall back to the URI", investigationUri.stringValue(), materialView
+                .getParentDetails().get("label"));
+    }
+    
     @Test
     public final void testGetOWLManager() throws Exception
     {
@@ -2168,6 +2445,64 @@ public abstract class AbstractPoddArtifactManagerTest
                 TestConstants.TEST_ARTIFACT_BASIC_PROJECT_2_INFERRED_TRIPLES, true);
     }
     
+    /**
+     * Test method for
+     * {@link com.github.podd.api.PoddArtifactManager#loadArtifacts(List, List, DanglingObjectPolicy, DataReferenceVerificationPolicy)}
+     * .
+     *
+     * Tests loading two artifacts in the same batch.
+     */
+    @Test
+    public final void testLoadArtifactsWithTwoDistinctArtifacts() throws Exception
+    {
+        this.loadVersion1SchemaOntologies();
+        
+        final List<InferredOWLOntologyID> artifactIds =
+                this.testArtifactManager.loadArtifacts(Arrays.asList(
+                        this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_BASIC_1_INTERNAL_OBJECT),
+                        this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_BASIC_PROJECT_2)), Arrays
+                        .asList(RDFFormat.RDFXML, RDFFormat.RDFXML), DanglingObjectPolicy.REPORT,
+                        DataReferenceVerificationPolicy.DO_NOT_VERIFY);
+        
+        Assert.assertEquals(2, artifactIds.size());
+        this.verifyLoadedArtifact(artifactIds.get(0), 22,
+                TestConstants.TEST_ARTIFACT_BASIC_1_INTERNAL_OBJECT_CONCRETE_TRIPLES,
+                TestConstants.TEST_ARTIFACT_BASIC_1_INTERNAL_OBJECT_INFERRED_TRIPLES, false);
+        this.verifyLoadedArtifact(artifactIds.get(1), 22,
+                TestConstants.TEST_ARTIFACT_BASIC_PROJECT_2_CONCRETE_TRIPLES,
+                TestConstants.TEST_ARTIFACT_BASIC_PROJECT_2_INFERRED_TRIPLES, true);
+    }
+    
+    /**
+     * Test method for
+     * {@link com.github.podd.api.PoddArtifactManager#loadArtifacts(List, List, DanglingObjectPolicy, DataReferenceVerificationPolicy)}
+     * .
+     *
+     * Tests that none of the artifacts in a batch are loaded if the same artifact appears twice.
+     */
+    @Test
+    public final void testLoadArtifactsWithSameArtifactTwiceFails() throws Exception
+    {
+        this.loadVersion1SchemaOntologies();
+        
+        try
+        {
+            this.testArtifactManager.loadArtifacts(Arrays.asList(
+                    this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_BASIC_1_INTERNAL_OBJECT),
+                    this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_PURLS_v1), this.getClass()
+                            .getResourceAsStream("/test/artifacts/project-with-purls-v2.rdf")), Arrays.asList(
+                    RDFFormat.RDFXML, RDFFormat.RDFXML, RDFFormat.RDFXML), DanglingObjectPolicy.REPORT,
+                    DataReferenceVerificationPolicy.DO_NOT_VERIFY);
+            Assert.fail("Should not allow a duplicate artifact to be loaded");
+        }
+        catch(final DuplicateArtifactIRIException e)
+        {
+            Assert.assertNotNull(e.getDuplicateOntologyIRI());
+        }
+        
+        Assert.assertTrue(this.testArtifactManager.listUnpublishedArtifacts().isEmpty());
+    }
+    
     /**
      * Test method for
      * {@link com.github.podd.api.PoddArtifactManager#loadArtifact(java.io.InputStream, org.openrdf.rio.RDFFormat)}
@@ -3511,6 +3846,34 @@ public abstract class AbstractPoddArtifactManagerTest
      * @throws IOException
      * @throws UnsupportedRDFormatException
      */
+    /**
+     * Retrieves the inferred statements for the given artifact, without their contexts.
+     */
+    private Model getInferredStatements(final InferredOWLOntologyID artifactId) throws Exception
+    {
+        RepositoryConnection permanentConnection = null;
+        try
+        {
+            permanentConnection =
+                    this.testRepositoryManager.getPermanentRepositoryConnection(this.testArtifactManager
+                            .getSchemaImports(artifactId));
+            final Model results = new LinkedHashModel();
+            for(final Statement nextStatement : Iterations.asList(permanentConnection.getStatements(null, null, null,
+                    false, artifactId.getInferredOntologyIRI().toOpenRDFURI())))
+            {
+                results.add(nextStatement.getSubject(), nextStatement.getPredicate(), nextStatement.getObject());
+            }
+            return results;
+        }
+        finally
+        {
+            if(permanentConnection != null)
+            {
+                permanentConnection.close();
+            }
+        }
+    }
+    
     private void verifyLoadedArtifact(final InferredOWLOntologyID inferredOntologyId, final int mgtGraphSize,
             final long assertedStatementCount, final long inferredStatementCount, final boolean isPublished)
         throws RepositoryException, OpenRDFException, UnmanagedArtifactIRIException, UnmanagedArtifactVersionException,
@@ -17,6 +17,8 @@
 package com.github.podd.api.test;
 
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -30,9 +32,11 @@ import org.openrdf.model.Model;
 import org.openrdf.model.URI;
 import org.openrdf.model.impl.LinkedHashModel;
 import org.openrdf.model.util.ModelUtil;
+import org.openrdf.model.vocabulary.RDFS;
 import org.openrdf.repository.RepositoryConnection;
 import org.openrdf.rio.RDFFormat;
 import org.openrdf.rio.helpers.StatementCollector;
+import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLOntologyID;
 import org.semanticweb.owlapi.model.OWLOntologyManagerFactory;
 import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
@@ -238,4 +242,59 @@ public abstract class AbstractPoddOWLManagerTest
             managementConnection.close();
         }
     }
+    
+    @Test
+    public void testClassifySchemaOntologies() throws Exception
+    {
+        final Set<InferredOWLOntologyID> schemaOntologies =
+                new LinkedHashSet<>(this.loadDcFoafAndPoddUserSchemaOntologies());
+        
+        Assert.assertNull(this.testOwlManager.getSchemaClassHierarchy(schemaOntologies));
+        
+        final RepositoryConnection managementConnection =
+                this.testRepositoryManager.getManagementRepositoryConnection();
+        try
+        {
+            final Model classHierarchy =
+                    this.testOwlManager.classifySchemaOntologies(schemaOntologies, managementConnection,
+                            this.testRepositoryManager.getSchemaManagementGraph());
+            
+            Assert.assertNotNull(classHierarchy);
+            Assert.assertFalse(classHierarchy.isEmpty());
+            Assert.assertEquals(classHierarchy.size(), classHierarchy.filter(null, RDFS.SUBCLASSOF, null).size());
+            
+            for(final InferredOWLOntologyID nextSchemaOntology : schemaOntologies)
+            {
+                Assert.assertTrue(this.testOwlManager.isCached(nextSchemaOntology, schemaOntologies));
+            }
+            
+            // The hierarchy must be cached for equivalent sets of schema ontologies
+            final Model cachedHierarchy =
+                    this.testOwlManager.getSchemaClassHierarchy(new HashSet<OWLOntologyID>(schemaOntologies));
+            Assert.assertNotNull(cachedHierarchy);
+            Assert.assertTrue(ModelUtil.equals(classHierarchy, cachedHierarchy));
+        }
+        finally
+        {
+            managementConnection.close();
+        }
+    }
+    
+    @Test
+    public void testCacheSchemaClassHierarchy() throws Exception
+    {
+        final Set<OWLOntologyID> schemaOntologies =
+                Collections.singleton(new OWLOntologyID(IRI.create("urn:test:schema"), IRI
+                        .create("urn:test:schema:1")));
+        
+        final Model classHierarchy = new LinkedHashModel();
+        classHierarchy.add(PODD.VF.createURI("urn:test:schema:Child"), RDFS.SUBCLASSOF,
+                PODD.VF.createURI("urn:test:schema:Parent"));
+        
+        this.testOwlManager.cacheSchemaClassHierarchy(schemaOntologies, classHierarchy);
+        
+        final Model cachedHierarchy = this.testOwlManager.getSchemaClassHierarchy(schemaOntologies);
+        Assert.assertNotNull(cachedHierarchy);
+        Assert.assertTrue(ModelUtil.equals(classHierarchy, cachedHierarchy));
+    }
 }
@@ -49,6 +49,7 @@ import com.github.podd.api.PoddRepositoryManager;
 import com.github.podd.exception.RepositoryNotFoundException;
 import com.github.podd.utils.InferredOWLOntologyID;
 import com.github.podd.utils.PODD;
+import com.github.podd.utils.RepositorySnapshot;
 
 /**
  * @author kutila
@@ -729,6 +730,189 @@ public abstract class AbstractPoddRepositoryManagerTest
         Assert.assertNotNull("Schema management graph was null", this.testRepositoryManager.getSchemaManagementGraph());
     }
     
+    /**
+     * Test method for
+     * {@link com.github.podd.api.PoddRepositoryManager#restoreSnapshot(com.github.podd.utils.RepositorySnapshot)}
+     * .
+     */
+    @Test
+    public final void testRestoreSnapshot() throws Exception
+    {
+        final RepositoryConnection managementConnection =
+                this.testRepositoryManager.getManagementRepositoryConnection();
+        try
+        {
+            managementConnection.add(this.testOntologyUri1, RDF.TYPE, OWL.ONTOLOGY, this.testVersionUri1);
+            managementConnection.add(this.testOntologyUri1, OWL.VERSIONIRI, this.testVersionUri1, this.testVersionUri1);
+            managementConnection.add(this.testImportOntologyUri1, RDF.TYPE, OWL.ONTOLOGY, this.testImportVersionUri1);
+        }
+        finally
+        {
+            managementConnection.close();
+        }
+        
+        final RepositoryConnection permanentConnection =
+                this.testRepositoryManager.getPermanentRepositoryConnection(
+                        Collections.<OWLOntologyID> singleton(this.testOntologyID), true);
+        final long managementSize;
+        final long permanentSize;
+        try
+        {
+            permanentSize = permanentConnection.size();
+            Assert.assertEquals(2, permanentSize);
+        }
+        finally
+        {
+            permanentConnection.close();
+        }
+        final RepositoryConnection managementConnection2 =
+                this.testRepositoryManager.getManagementRepositoryConnection();
+        try
+        {
+            managementSize = managementConnection2.size();
+        }
+        finally
+        {
+            managementConnection2.close();
+        }
+        
+        final RepositorySnapshot snapshot = this.testRepositoryManager.createSnapshot();
+        Assert.assertEquals(managementSize + permanentSize, snapshot.size());
+        
+        // Modify both repositories and create another permanent repository after the snapshot
+        final RepositoryConnection permanentConnection2 =
+                this.testRepositoryManager.getPermanentRepositoryConnection(
+                        Collections.<OWLOntologyID> singleton(this.testOntologyID), false);
+        try
+        {
+            permanentConnection2.add(this.testOntologyUri1, RDF.TYPE, OWL.THING, this.testInferredUri1);
+        }
+        finally
+        {
+            permanentConnection2.close();
+        }
+        this.testRepositoryManager.getPermanentRepositoryConnection(
+                Collections.<OWLOntologyID> singleton(this.testImportOntologyID1), true).close();
+        
+        this.testRepositoryManager.restoreSnapshot(snapshot);
+        
+        final RepositoryConnection managementConnection3 =
+                this.testRepositoryManager.getManagementRepositoryConnection();
+        try
+        {
+            Assert.assertEquals(managementSize, managementConnection3.size());
+        }
+        finally
+        {
+            managementConnection3.close();
+        }
+        final RepositoryConnection permanentConnection3 =
+                this.testRepositoryManager.getPermanentRepositoryConnection(
+                        Collections.<OWLOntologyID> singleton(this.testOntologyID), false);
+        try
+        {
+            Assert.assertEquals(permanentSize, permanentConnection3.size());
+        }
+        finally
+        {
+            permanentConnection3.close();
+        }
+        try
+        {
+            this.testRepositoryManager.getPermanentRepositoryConnection(
+                    Collections.<OWLOntologyID> singleton(this.testImportOntologyID1), false);
+            Assert.fail("Did not receive expected exception");
+        }
+        catch(final RepositoryNotFoundException e)
+        {
+            // Expected, as the repository was created after the snapshot
+        }
+    }
+    
+    /**
+     * Test that
+     * {@link com.github.podd.api.PoddRepositoryManager#restoreSnapshot(com.github.podd.utils.RepositorySnapshot)}
+     * restores the namespaces in the management and permanent repositories.
+     */
+    @Test
+    public final void testRestoreSnapshotNamespaces() throws Exception
+    {
+        final RepositoryConnection managementConnection =
+                this.testRepositoryManager.getManagementRepositoryConnection();
+        try
+        {
+            managementConnection.add(this.testOntologyUri1, RDF.TYPE, OWL.ONTOLOGY, this.testVersionUri1);
+            managementConnection.add(this.testOntologyUri1, OWL.VERSIONIRI, this.testVersionUri1, this.testVersionUri1);
+            managementConnection.setNamespace("test", "urn:test:snapshot:");
+        }
+        finally
+        {
+            managementConnection.close();
+        }
+        
+        final RepositoryConnection permanentConnection =
+                this.testRepositoryManager.getPermanentRepositoryConnection(
+                        Collections.<OWLOntologyID> singleton(this.testOntologyID), true);
+        try
+        {
+            permanentConnection.setNamespace("permanent", "urn:test:snapshot:permanent:");
+        }
+        finally
+        {
+            permanentConnection.close();
+        }
+        
+        final RepositorySnapshot snapshot = this.testRepositoryManager.createSnapshot();
+        
+        final RepositoryConnection managementConnection2 =
+                this.testRepositoryManager.getManagementRepositoryConnection();
+        try
+        {
+            managementConnection2.removeNamespace("test");
+            managementConnection2.setNamespace("other", "urn:test:snapshot:other:");
+        }
+        finally
+        {
+            managementConnection2.close();
+        }
+        final RepositoryConnection permanentConnection2 =
+                this.testRepositoryManager.getPermanentRepositoryConnection(
+                        Collections.<OWLOntologyID> singleton(this.testOntologyID), false);
+        try
+        {
+            permanentConnection2.setNamespace("permanent", "urn:test:snapshot:changed:");
+        }
+        finally
+        {
+            permanentConnection2.close();
+        }
+        
+        this.testRepositoryManager.restoreSnapshot(snapshot);
+        
+        final RepositoryConnection managementConnection3 =
+                this.testRepositoryManager.getManagementRepositoryConnection();
+        try
+        {
+            Assert.assertEquals("urn:test:snapshot:", managementConnection3.getNamespace("test"));
+            Assert.assertNull(managementConnection3.getNamespace("other"));
+        }
+        finally
+        {
+            managementConnection3.close();
+        }
+        final RepositoryConnection permanentConnection3 =
+                this.testRepositoryManager.getPermanentRepositoryConnection(
+                        Collections.<OWLOntologyID> singleton(this.testOntologyID), false);
+        try
+        {
+            Assert.assertEquals("urn:test:snapshot:permanent:", permanentConnection3.getNamespace("permanent"));
+        }
+        finally
+        {
+            permanentConnection3.close();
+        }
+    }
+    
     /**
      * Test method for
      * {@link com.github.podd.impl.PoddRepositoryManagerImpl#setArtifactManagementGraph(org.openrdf.model.URI)}
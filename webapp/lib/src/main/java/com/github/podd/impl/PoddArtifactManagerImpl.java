@@ -18,6 +18,7 @@ package com.github.podd.impl;
 
 import info.aduna.iteration.Iterations;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -25,9 +26,15 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
@@ -45,11 +52,15 @@ import org.openrdf.model.impl.LinkedHashModel;
 import org.openrdf.model.util.Namespaces;
 import org.openrdf.model.vocabulary.OWL;
 import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.model.vocabulary.RDFS;
 import org.openrdf.repository.Repository;
 import org.openrdf.repository.RepositoryConnection;
 import org.openrdf.repository.RepositoryException;
 import org.openrdf.repository.RepositoryResult;
+import org.openrdf.repository.util.RDFInserter;
 import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.RDFHandlerException;
+import org.openrdf.rio.RDFParser;
 import org.openrdf.rio.Rio;
 import org.openrdf.rio.UnsupportedRDFormatException;
 import org.openrdf.rio.helpers.StatementCollector;
@@ -93,12 +104,17 @@ import com.github.podd.exception.SchemaManifestException;
 import com.github.podd.exception.UnmanagedArtifactIRIException;
 import com.github.podd.exception.UnmanagedArtifactVersionException;
 import com.github.podd.exception.UnmanagedSchemaIRIException;
+import com.github.podd.utils.ClassTaxonomy;
 import com.github.podd.utils.DebugUtils;
 import com.github.podd.utils.InferredOWLOntologyID;
 import com.github.podd.utils.OntologyUtils;
 import com.github.podd.utils.PODD;
+import com.github.podd.utils.PhaseTimer;
 import com.github.podd.utils.PoddObjectLabel;
+import com.github.podd.utils.PoddObjectView;
+import com.github.podd.utils.PoddObjectViewImpl;
 import com.github.podd.utils.RdfUtility;
+import com.github.podd.utils.RenderedArtifactCache;
 
 /**
  * Implementation of the PODD Artifact Manager API, to manage the lifecycle for PODD Artifacts.
@@ -113,6 +129,12 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         GlassBoxExplanation.setup();
     }
     
+    /**
+     * The number of statements committed together when an uploaded artifact is streamed into the
+     * temporary repository.
+     */
+    private static final int TEMPORARY_BATCH_SIZE = 10000;
+    
     private final Logger log = LoggerFactory.getLogger(this.getClass());
     
     private DataReferenceManager dataReferenceManager;
@@ -124,6 +146,33 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
     
     private PoddSesameManager sesameManager;
     
+    /**
+     * Held while a batch of artifacts loaded using
+     * {@link #loadArtifacts(List, List, DanglingObjectPolicy, DataReferenceVerificationPolicy)} is
+     * committed.
+     */
+    private final Object batchCommitLock = new Object();
+    
+    /**
+     * Serialised object type metadata, keyed on the request parameters and the schema ontology
+     * versions that the metadata was derived from.
+     */
+    private final ConcurrentMap<ObjectMetadataKey, byte[]> objectMetadataCache = new ConcurrentHashMap<>();
+    
+    /**
+     * Named class hierarchies, keyed on the set of schema ontology versions that they were built
+     * from.
+     */
+    private final ConcurrentMap<Set<? extends OWLOntologyID>, ClassTaxonomy> classTaxonomies =
+            new ConcurrentHashMap<>();
+    
+    /**
+     * Serialised artifact versions, which are invalidated whenever an artifact is deleted, updated
+     * or published.
+     */
+    private volatile RenderedArtifactCache renderedArtifactCache = new RenderedArtifactCache(
+            RenderedArtifactCache.DEFAULT_MAXIMUM_MEMORY_SIZE);
+    
     /**
      *
      */
@@ -172,6 +221,21 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         return OntologyUtils.modelToOntologyIDs(resultModel, true, false).get(0);
     }
     
+    @Override
+    public void clearObjectMetadataCache()
+    {
+        this.objectMetadataCache.clear();
+        this.classTaxonomies.clear();
+    }
+    
+    /**
+     * @return The number of serialised object type metadata results that are currently cached.
+     */
+    public int getObjectMetadataCacheSize()
+    {
+        return this.objectMetadataCache.size();
+    }
+    
     @Override
     public boolean deleteArtifact(final InferredOWLOntologyID artifactId) throws PoddException,
         UnsupportedRDFormatException, OpenRDFException, IOException
@@ -189,7 +253,8 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         
         try
         {
-            permanentConnection = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
+            permanentConnection =
+                    this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports, artifactId);
             permanentConnection.begin();
             managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
             managementConnection.begin();
@@ -200,9 +265,10 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
                 throw new DeleteArtifactException("Published Artifacts cannot be deleted", artifactId);
             }
             
-            requestedArtifactIds =
+            final List<InferredOWLOntologyID> allArtifactIds =
                     this.getSesameManager().getAllOntologyVersions(artifactId.getOntologyIRI(), managementConnection,
                             this.getRepositoryManager().getArtifactManagementGraph());
+            requestedArtifactIds = allArtifactIds;
             
             if(artifactId.getVersionIRI() != null)
             {
@@ -219,8 +285,14 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
             
             this.getSesameManager().deleteOntologies(requestedArtifactIds, permanentConnection, managementConnection,
                     this.getRepositoryManager().getArtifactManagementGraph());
+            if(requestedArtifactIds.size() == allArtifactIds.size())
+            {
+                this.getRepositoryManager().removeArtifactAssignment(artifactId.getOntologyIRI().toOpenRDFURI(),
+                        managementConnection);
+            }
             permanentConnection.commit();
             managementConnection.commit();
+            this.invalidateRenderedArtifact(artifactId.getOntologyIRI());
             
             return !requestedArtifactIds.isEmpty();
         }
@@ -320,6 +392,14 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
     @Override
     public InferredOWLOntologyID deleteObject(final URI artifactUri, final URI versionUri, final URI objectUri,
             final boolean cascade) throws PoddException, OpenRDFException, IOException, OWLException
+    {
+        return this.deleteObjects(artifactUri, versionUri, Collections.singleton(objectUri), cascade);
+    }
+    
+    @Override
+    public InferredOWLOntologyID deleteObjects(final URI artifactUri, final URI versionUri,
+            final Collection<URI> objectUris, final boolean cascade) throws PoddException, OpenRDFException,
+        IOException, OWLException
     {
         // check if the specified artifact URI refers to a managed artifact
         InferredOWLOntologyID artifactID = null;
@@ -338,37 +418,87 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
             throw new PublishedArtifactModifyException("Attempting to modify a Published Artifact", artifactID);
         }
         
-        this.log.debug("deleteObject ({}) from artifact {} with cascade={}", objectUri, artifactUri, cascade);
-        
-        final URI objectToDelete = objectUri;
+        this.log.debug("deleteObjects ({}) from artifact {} with cascade={}", objectUris, artifactUri, cascade);
         
-        final Collection<URI> objectsToUpdate = new ArrayList<URI>();
-        objectsToUpdate.add(objectToDelete);
+        final Set<URI> objectsToDelete = new LinkedHashSet<URI>(objectUris);
+        final Set<URI> objectsToUpdate = new LinkedHashSet<URI>(objectsToDelete);
         final Model fragments = new LinkedHashModel();
-        final Model artifactModel = this.exportArtifact(artifactID, false);
         
-        // - find the objectToDelete's parent and remove parent-child link
-        final Model parentDetails = this.getParentDetails(artifactID, objectToDelete);
-        if(parentDetails.subjects().size() != 1)
+        RepositoryConnection permanentConnection = null;
+        RepositoryConnection managementConnection = null;
+        try
         {
-            this.log.error("Object {} cannot be deleted. (No parent) {} {}", objectUri, artifactUri, parentDetails);
-            throw new ArtifactModifyException("Object cannot be deleted. (No parent)", artifactID, objectToDelete);
+            final Set<? extends OWLOntologyID> schemaImports = this.getSchemaImports(artifactID);
+            managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
+            permanentConnection =
+                    this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports, artifactID);
+            
+            final URI versionContext = artifactID.getVersionIRI().toOpenRDFURI();
+            final URI[] parentContexts =
+                    this.getSesameManager().versionAndInferredAndSchemaContexts(artifactID, managementConnection,
+                            this.getRepositoryManager().getSchemaManagementGraph(),
+                            this.getRepositoryManager().getArtifactManagementGraph());
+            final URI[] referenceContexts =
+                    this.getSesameManager().versionAndSchemaContexts(artifactID, managementConnection,
+                            this.getRepositoryManager().getSchemaManagementGraph(),
+                            this.getRepositoryManager().getArtifactManagementGraph());
+            
+            // - find the parent and referrers of each object, which need to be rewritten without
+            // their links to the deleted objects
+            final Set<Resource> linkedObjects = new LinkedHashSet<Resource>();
+            for(final URI objectToDelete : objectsToDelete)
+            {
+                final Model parentDetails =
+                        this.getSesameManager().getParentDetails(objectToDelete, permanentConnection, parentContexts);
+                if(parentDetails.subjects().size() != 1)
+                {
+                    this.log.error("Object {} cannot be deleted. (No parent) {} {}", objectToDelete, artifactUri,
+                            parentDetails);
+                    throw new ArtifactModifyException("Object cannot be deleted. (No parent)", artifactID,
+                            objectToDelete);
+                }
+                linkedObjects.addAll(parentDetails.subjects());
+                
+                linkedObjects.addAll(this.getSesameManager()
+                        .getReferringObjectDetails(objectToDelete, permanentConnection, referenceContexts)
+                        .subjects());
+            }
+            
+            for(final Resource linkedObject : linkedObjects)
+            {
+                // Objects that are also being deleted are removed with all of their statements
+                if(objectsToDelete.contains(linkedObject))
+                {
+                    continue;
+                }
+                
+                final Model linkedStatements = new LinkedHashModel();
+                permanentConnection.exportStatements(linkedObject, null, null, false, new StatementCollector(
+                        linkedStatements), versionContext);
+                for(final URI objectToDelete : objectsToDelete)
+                {
+                    linkedStatements.remove(linkedObject, null, objectToDelete);
+                }
+                fragments.addAll(linkedStatements);
+                objectsToUpdate.add((URI)linkedObject);
+            }
         }
-        final Resource parent = parentDetails.subjects().iterator().next();
-        fragments.addAll(artifactModel.filter(parent, null, null));
-        fragments.remove(parent, null, objectToDelete);
-        objectsToUpdate.add((URI)parent);
-        
-        // - remove any refersToLinks
-        final Model referenceLinks = this.getReferenceLinks(artifactID, objectToDelete);
-        final Set<Resource> referrers = referenceLinks.subjects();
-        for(final Resource referrer : referrers)
+        finally
         {
-            final Model referrerStatements = artifactModel.filter(referrer, null, null);
-            referrerStatements.remove(referrer, null, objectToDelete);
-            
-            fragments.addAll(referrerStatements);
-            objectsToUpdate.add((URI)referrer);
+            try
+            {
+                if(permanentConnection != null)
+                {
+                    permanentConnection.close();
+                }
+            }
+            finally
+            {
+                if(managementConnection != null)
+                {
+                    managementConnection.close();
+                }
+            }
         }
         
         DanglingObjectPolicy danglingObjectPolicy = DanglingObjectPolicy.REPORT;
@@ -377,6 +507,7 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
             danglingObjectPolicy = DanglingObjectPolicy.FORCE_CLEAN;
         }
         
+        // - all of the objects are removed, and any cascade computed, in a single new version
         this.updateArtifact(artifactID.getOntologyIRI().toOpenRDFURI(), artifactID.getVersionIRI().toOpenRDFURI(),
                 objectsToUpdate, fragments, UpdatePolicy.REPLACE_EXISTING, danglingObjectPolicy,
                 DataReferenceVerificationPolicy.DO_NOT_VERIFY);
@@ -416,7 +547,7 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         try
         {
             final Set<? extends OWLOntologyID> schemaImports = this.getSchemaImports(ontologyId);
-            conn = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
+            conn = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports, ontologyId);
             
             return this.exportArtifactInternal(includeInferred, conn, contexts.toArray(new Resource[] {}));
         }
@@ -451,74 +582,103 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
             final boolean includeDoNotDisplayProperties, final MetadataPolicy containsPropertyPolicy,
             final InferredOWLOntologyID artifactID) throws OpenRDFException, PoddException, IOException
     {
+        Set<? extends OWLOntologyID> schemaImports;
+        if(artifactID != null)
+        {
+            schemaImports = this.getSchemaImports(artifactID);
+        }
+        else
+        {
+            // If they don't have an artifact yet, we return the set of current schema
+            // ontologies
+            schemaImports = this.getSchemaManager().getCurrentSchemaOntologies();
+        }
         
-        RepositoryConnection permanentConnection = null;
-        RepositoryConnection managementConnection = null;
+        final ObjectMetadataKey cacheKey =
+                new ObjectMetadataKey(objectType, format, includeDoNotDisplayProperties, containsPropertyPolicy,
+                        schemaImports);
         
-        try
+        byte[] serialisedMetadata = this.objectMetadataCache.get(cacheKey);
+        
+        if(serialisedMetadata == null)
         {
-            Set<? extends OWLOntologyID> schemaImports;
-            
-            managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
-            final URI[] contexts =
-                    this.sesameManager.versionAndInferredAndSchemaContexts(artifactID, managementConnection,
-                            this.repositoryManager.getSchemaManagementGraph(),
-                            this.repositoryManager.getArtifactManagementGraph());
-            if(artifactID != null)
-            {
-                schemaImports = this.getSchemaImports(artifactID);
-                permanentConnection = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
-            }
-            else
-            {
-                // If they don't have an artifact yet, we return the set of current schema
-                // ontologies
-                schemaImports = this.getSchemaManager().getCurrentSchemaOntologies();
-                permanentConnection = managementConnection;
-            }
-            
-            Model model;
-            if(containsPropertyPolicy == MetadataPolicy.ONLY_CONTAINS)
-            {
-                model = this.sesameManager.getObjectTypeContainsMetadata(objectType, permanentConnection, contexts);
-            }
-            else if(containsPropertyPolicy == MetadataPolicy.EXCLUDE_CONTAINS)
-            {
-                model =
-                        this.sesameManager.getObjectTypeMetadata(objectType, includeDoNotDisplayProperties,
-                                containsPropertyPolicy, permanentConnection, contexts);
-            }
-            else if(containsPropertyPolicy == MetadataPolicy.INCLUDE_ALL)
-            {
-                model =
-                        this.sesameManager.getObjectTypeMetadata(objectType, includeDoNotDisplayProperties,
-                                containsPropertyPolicy, permanentConnection, contexts);
-            }
-            else
-            {
-                // Will need to implement the policy separately
-                throw new PoddRuntimeException("Did not recognise metadata policy: " + containsPropertyPolicy);
-            }
+            RepositoryConnection managementConnection = null;
             
-            Rio.write(model, outputStream, format);
-        }
-        finally
-        {
             try
             {
-                if(managementConnection != null && managementConnection.isOpen())
-                {
-                    managementConnection.close();
-                }
+                managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
+                // Only the schema ontologies are queried, so that the result is the same for every
+                // artifact that imports the same schema ontology versions
+                final URI[] contexts =
+                        this.sesameManager.schemaContexts(artifactID, managementConnection,
+                                this.repositoryManager.getSchemaManagementGraph(),
+                                this.repositoryManager.getArtifactManagementGraph());
+                
+                serialisedMetadata =
+                        this.cacheObjectMetadata(cacheKey, this.getObjectMetadataInternal(objectType,
+                                includeDoNotDisplayProperties, containsPropertyPolicy, managementConnection, contexts));
             }
             finally
             {
-                if(permanentConnection != null && permanentConnection.isOpen())
+                if(managementConnection != null && managementConnection.isOpen())
                 {
-                    permanentConnection.close();
+                    managementConnection.close();
                 }
             }
         }
+        
+        outputStream.write(serialisedMetadata);
+    }
+    
+    /**
+     * Serialises the given metadata and adds it to the object metadata cache. Empty results are not
+     * cached, so that requests for unknown object types do not fill up the cache.
+     *
+     * @return The serialised metadata, which may have been added to the cache concurrently by
+     *         another thread.
+     */
+    private byte[] cacheObjectMetadata(final ObjectMetadataKey cacheKey, final Model model)
+    {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream(8192);
+        Rio.write(model, output, cacheKey.format);
+        final byte[] serialisedMetadata = output.toByteArray();
+        
+        if(model.isEmpty())
+        {
+            return serialisedMetadata;
+        }
+        
+        final byte[] putIfAbsent = this.objectMetadataCache.putIfAbsent(cacheKey, serialisedMetadata);
+        if(putIfAbsent != null)
+        {
+            return putIfAbsent;
+        }
+        return serialisedMetadata;
+    }
+    
+    private Model getObjectMetadataInternal(final URI objectType, final boolean includeDoNotDisplayProperties,
+            final MetadataPolicy containsPropertyPolicy, final RepositoryConnection repositoryConnection,
+            final URI... contexts) throws OpenRDFException
+    {
+        if(containsPropertyPolicy == MetadataPolicy.ONLY_CONTAINS)
+        {
+            return this.sesameManager.getObjectTypeContainsMetadata(objectType, repositoryConnection, contexts);
+        }
+        else if(containsPropertyPolicy == MetadataPolicy.EXCLUDE_CONTAINS)
+        {
+            return this.sesameManager.getObjectTypeMetadata(objectType, includeDoNotDisplayProperties,
+                    containsPropertyPolicy, repositoryConnection, contexts);
+        }
+        else if(containsPropertyPolicy == MetadataPolicy.INCLUDE_ALL)
+        {
+            return this.sesameManager.getObjectTypeMetadata(objectType, includeDoNotDisplayProperties,
+                    containsPropertyPolicy, repositoryConnection, contexts);
+        }
+        else
+        {
+            // Will need to implement the policy separately
+            throw new PoddRuntimeException("Did not recognise metadata policy: " + containsPropertyPolicy);
+        }
     }
     
     @Override
@@ -537,7 +697,8 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
             }
             else
             {
-                permanentConnection = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
+                permanentConnection =
+                        this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports, ontologyID);
             }
             managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
             final URI[] contexts =
@@ -611,6 +772,56 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         }
     }
     
+    @Override
+    public Date getArtifactModificationDate(final InferredOWLOntologyID artifactID) throws OpenRDFException,
+        UnmanagedSchemaIRIException, SchemaManifestException, UnsupportedRDFormatException, IOException,
+        UnmanagedArtifactIRIException, UnmanagedArtifactVersionException, RepositoryNotFoundException
+    {
+        RepositoryConnection permanentConnection = null;
+        try
+        {
+            final Set<? extends OWLOntologyID> schemaImports = this.getSchemaImports(artifactID);
+            permanentConnection =
+                    this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports, artifactID);
+            
+            Date result = null;
+            for(final URI nextProperty : Arrays.asList(PODD.PODD_BASE_LAST_MODIFIED, PODD.PODD_BASE_CREATED_AT))
+            {
+                final List<Statement> statements =
+                        Iterations.asList(permanentConnection.getStatements(null, nextProperty, null, false,
+                                artifactID.getVersionIRI().toOpenRDFURI()));
+                for(final Statement nextStatement : statements)
+                {
+                    if(nextStatement.getObject() instanceof Literal)
+                    {
+                        try
+                        {
+                            final Date nextDate =
+                                    ((Literal)nextStatement.getObject()).calendarValue().toGregorianCalendar()
+                                            .getTime();
+                            if(result == null || nextDate.after(result))
+                            {
+                                result = nextDate;
+                            }
+                        }
+                        catch(final IllegalArgumentException e)
+                        {
+                            this.log.warn("Found invalid timestamp in artifact: {}", nextStatement);
+                        }
+                    }
+                }
+            }
+            return result;
+        }
+        finally
+        {
+            if(permanentConnection != null)
+            {
+                permanentConnection.close();
+            }
+        }
+    }
+    
     private InferredOWLOntologyID getArtifactInternal(final IRI artifactIRI, final IRI versionIRI,
             final RepositoryConnection managementConnection) throws UnmanagedArtifactIRIException,
         UnmanagedArtifactVersionException
@@ -670,7 +881,8 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         try
         {
             final Set<? extends OWLOntologyID> schemaImports = this.getSchemaImports(ontologyID);
-            permanentConnection = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
+            permanentConnection =
+                    this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports, ontologyID);
             managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
             
             final URI[] contexts =
@@ -700,24 +912,50 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
     }
     
     @Override
-    public Set<URI> getDirectSubClassOf(final URI concept, final InferredOWLOntologyID ontologyID)
-        throws OpenRDFException, UnmanagedSchemaIRIException, SchemaManifestException, UnsupportedRDFormatException,
-        IOException, UnmanagedArtifactIRIException, UnmanagedArtifactVersionException, RepositoryNotFoundException
+    public ClassTaxonomy getClassTaxonomy(final InferredOWLOntologyID ontologyID) throws OpenRDFException,
+        UnmanagedSchemaIRIException, SchemaManifestException, UnsupportedRDFormatException, IOException,
+        UnmanagedArtifactIRIException, UnmanagedArtifactVersionException, RepositoryNotFoundException
     {
+        final Set<? extends OWLOntologyID> schemaImports = this.getSchemaImports(ontologyID);
+        final ClassTaxonomy existing = this.classTaxonomies.get(schemaImports);
+        if(existing != null)
+        {
+            return existing;
+        }
+        
         RepositoryConnection permanentConnection = null;
         RepositoryConnection managementConnection = null;
         try
         {
-            final Set<? extends OWLOntologyID> schemaImports = this.getSchemaImports(ontologyID);
-            permanentConnection = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
+            permanentConnection =
+                    this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports, ontologyID);
             managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
             
-            final URI[] contexts =
-                    this.getSesameManager().versionAndInferredAndSchemaContexts(ontologyID, managementConnection,
-                            this.getRepositoryManager().getSchemaManagementGraph(),
-                            this.getRepositoryManager().getArtifactManagementGraph());
+            // The classified hierarchy is in the inferred ontologies for the schemas
+            final Set<URI> contexts = new LinkedHashSet<URI>();
+            for(final OWLOntologyID nextSchemaImport : schemaImports)
+            {
+                final URI nextVersion = nextSchemaImport.getVersionIRI().toOpenRDFURI();
+                contexts.add(nextVersion);
+                for(final Statement nextInferredVersion : Iterations.asList(managementConnection.getStatements(
+                        nextVersion, PODD.PODD_BASE_INFERRED_VERSION, null, false, this.getRepositoryManager()
+                                .getSchemaManagementGraph())))
+                {
+                    if(nextInferredVersion.getObject() instanceof URI)
+                    {
+                        contexts.add((URI)nextInferredVersion.getObject());
+                    }
+                }
+            }
             
-            return this.getSesameManager().getDirectSubClassOf(concept, permanentConnection, contexts);
+            final Model subClassStatements = new LinkedHashModel();
+            permanentConnection.exportStatements(null, RDFS.SUBCLASSOF, null, false, new StatementCollector(
+                    subClassStatements), contexts.toArray(new Resource[contexts.size()]));
+            final ClassTaxonomy taxonomy = new ClassTaxonomy(subClassStatements);
+            this.log.debug("Built class taxonomy with {} classes for {}", taxonomy.size(), schemaImports);
+            
+            final ClassTaxonomy putIfAbsent = this.classTaxonomies.putIfAbsent(schemaImports, taxonomy);
+            return putIfAbsent != null ? putIfAbsent : taxonomy;
         }
         finally
         {
@@ -738,48 +976,25 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         }
     }
     
+    @Override
+    public Set<URI> getDirectSubClassOf(final URI concept, final InferredOWLOntologyID ontologyID)
+        throws OpenRDFException, UnmanagedSchemaIRIException, SchemaManifestException, UnsupportedRDFormatException,
+        IOException, UnmanagedArtifactIRIException, UnmanagedArtifactVersionException, RepositoryNotFoundException
+    {
+        return new LinkedHashSet<URI>(this.getClassTaxonomy(ontologyID).getDirectSubClasses(concept));
+    }
+    
     /*
      * (non-Javadoc)
      * 
-     * Wraps PoddSesameManager.getEventsTopConcepts()
+     * Answered from the class taxonomy for the schema ontologies of the artifact.
      */
     @Override
     public Set<URI> getEventsTopConcepts(final InferredOWLOntologyID ontologyID) throws OpenRDFException,
         UnmanagedSchemaIRIException, SchemaManifestException, UnsupportedRDFormatException, IOException,
         UnmanagedArtifactIRIException, UnmanagedArtifactVersionException, RepositoryNotFoundException
     {
-        RepositoryConnection permanentConnection = null;
-        RepositoryConnection managementConnection = null;
-        try
-        {
-            final Set<? extends OWLOntologyID> schemaImports = this.getSchemaImports(ontologyID);
-            permanentConnection = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
-            managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
-            
-            final URI[] contexts =
-                    this.getSesameManager().versionAndInferredAndSchemaContexts(ontologyID, managementConnection,
-                            this.getRepositoryManager().getSchemaManagementGraph(),
-                            this.getRepositoryManager().getArtifactManagementGraph());
-            
-            return this.getSesameManager().getEventsTopConcepts(permanentConnection, contexts);
-        }
-        finally
-        {
-            try
-            {
-                if(managementConnection != null)
-                {
-                    managementConnection.close();
-                }
-            }
-            finally
-            {
-                if(permanentConnection != null)
-                {
-                    permanentConnection.close();
-                }
-            }
-        }
+        return new LinkedHashSet<URI>(this.getClassTaxonomy(ontologyID).getDirectSubClasses(PODD.INRA_EVENT_EVENT));
     }
     
     /*
@@ -842,7 +1057,8 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         try
         {
             final Set<? extends OWLOntologyID> schemaImports = this.getSchemaImports(ontologyID);
-            permanentConnection = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
+            permanentConnection =
+                    this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports, ontologyID);
             managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
             return this.getSesameManager().getObjectDetailsForDisplay(ontologyID, objectUri, managementConnection,
                     permanentConnection, this.getRepositoryManager().getSchemaManagementGraph(),
@@ -878,7 +1094,8 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         {
             final Set<? extends OWLOntologyID> schemaImports = this.getSchemaImports(ontologyID);
             managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
-            permanentConnection = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
+            permanentConnection =
+                    this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports, ontologyID);
             
             return this.getSesameManager().getObjectLabel(ontologyID, objectUri, managementConnection,
                     permanentConnection, this.getRepositoryManager().getSchemaManagementGraph(),
@@ -922,7 +1139,8 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         {
             final Set<? extends OWLOntologyID> schemaImports = this.getSchemaImports(artifactId);
             managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
-            permanentConnection = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
+            permanentConnection =
+                    this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports, artifactId);
             
             final List<URI> typesList =
                     this.getSesameManager().getObjectTypes(artifactId, objectUri, managementConnection,
@@ -956,40 +1174,141 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         return results;
     }
     
-    /*
-     * (non-Javadoc)
-     * 
-     * Wraps PoddSesameManager.getOrderedProperties()
-     * 
-     * @see com.github.podd.api.PoddArtifactManager#getOrderedProperties()
-     */
     @Override
-    public List<URI> getOrderedProperties(final InferredOWLOntologyID ontologyID, final URI objectUri,
-            final boolean excludeContainsProperties) throws OpenRDFException, UnmanagedSchemaIRIException,
-        SchemaManifestException, UnsupportedRDFormatException, IOException, UnmanagedArtifactIRIException,
-        UnmanagedArtifactVersionException, RepositoryNotFoundException
+    public PoddObjectView getObjectView(final InferredOWLOntologyID artifactId, final URI objectUri)
+        throws OpenRDFException, UnmanagedSchemaIRIException, SchemaManifestException, UnsupportedRDFormatException,
+        IOException, UnmanagedArtifactIRIException, UnmanagedArtifactVersionException, RepositoryNotFoundException
     {
         RepositoryConnection permanentConnection = null;
         RepositoryConnection managementConnection = null;
+        
         try
         {
-            final Set<? extends OWLOntologyID> schemaImports = this.getSchemaImports(ontologyID);
+            final Set<? extends OWLOntologyID> schemaImports = this.getSchemaImports(artifactId);
             managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
-            permanentConnection = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
+            permanentConnection =
+                    this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports, artifactId);
             
-            final URI[] contexts =
-                    this.getSesameManager().versionAndSchemaContexts(ontologyID, managementConnection,
+            // Compute the schema contexts once and derive the other context sets from them
+            final List<URI> schemaContexts =
+                    Arrays.asList(this.getSesameManager().schemaContexts(artifactId, managementConnection,
                             this.getRepositoryManager().getSchemaManagementGraph(),
-                            this.getRepositoryManager().getArtifactManagementGraph());
-            
-            return this.getSesameManager().getWeightedProperties(objectUri, excludeContainsProperties,
-                    permanentConnection, contexts);
-        }
-        finally
-        {
-            try
-            {
-                if(permanentConnection != null)
+                            this.getRepositoryManager().getArtifactManagementGraph()));
+            final Set<URI> versionAndSchema = new LinkedHashSet<>();
+            versionAndSchema.addAll(Arrays.asList(this.getSesameManager().versionContexts(artifactId)));
+            versionAndSchema.addAll(schemaContexts);
+            final Set<URI> versionAndInferredAndSchema = new LinkedHashSet<>();
+            versionAndInferredAndSchema.addAll(Arrays.asList(this.getSesameManager().versionAndInferredContexts(
+                    artifactId)));
+            versionAndInferredAndSchema.addAll(schemaContexts);
+            final URI[] versionAndSchemaContexts = versionAndSchema.toArray(new URI[0]);
+            final URI[] versionAndInferredAndSchemaContexts = versionAndInferredAndSchema.toArray(new URI[0]);
+            
+            URI nextObjectUri = objectUri;
+            if(nextObjectUri == null)
+            {
+                nextObjectUri = this.getSesameManager().getTopObjectIRI(artifactId, permanentConnection);
+                if(nextObjectUri == null)
+                {
+                    throw new UnmanagedArtifactIRIException(artifactId.getOntologyIRI(),
+                            "Could not find the top object for an artifact");
+                }
+            }
+            
+            URI parentUri = null;
+            URI parentPredicateUri = null;
+            final Model parentDetails =
+                    this.getSesameManager().getParentDetails(nextObjectUri, permanentConnection,
+                            versionAndInferredAndSchemaContexts);
+            if(parentDetails.size() == 1)
+            {
+                final Statement statement = parentDetails.iterator().next();
+                parentUri = (URI)statement.getSubject();
+                parentPredicateUri = statement.getPredicate();
+            }
+            
+            final Set<URI> childUris =
+                    this.getSesameManager().getChildObjects(nextObjectUri, permanentConnection,
+                            versionAndInferredAndSchemaContexts);
+            
+            // Fetch the types for the object, its parent and its children together
+            final Set<URI> typedObjects = new LinkedHashSet<>();
+            typedObjects.add(nextObjectUri);
+            if(parentUri != null)
+            {
+                typedObjects.add(parentUri);
+            }
+            typedObjects.addAll(childUris);
+            final Map<URI, List<URI>> types =
+                    this.getSesameManager().getObjectTypes(typedObjects, permanentConnection, versionAndSchemaContexts);
+            
+            // Fetch all of the labels that are needed together
+            final Set<URI> labelledObjects = new LinkedHashSet<>();
+            labelledObjects.addAll(typedObjects);
+            labelledObjects.addAll(types.get(nextObjectUri));
+            if(parentUri != null)
+            {
+                labelledObjects.add(parentPredicateUri);
+            }
+            for(final URI nextTypedObject : typedObjects)
+            {
+                if(!nextTypedObject.equals(nextObjectUri) && !types.get(nextTypedObject).isEmpty())
+                {
+                    labelledObjects.add(types.get(nextTypedObject).get(0));
+                }
+            }
+            final Map<URI, PoddObjectLabel> labels =
+                    this.getSesameManager().getObjectLabels(artifactId, labelledObjects, permanentConnection,
+                            versionAndSchemaContexts);
+            
+            final List<PoddObjectLabel> objectTypes = new ArrayList<>();
+            for(final URI nextType : types.get(nextObjectUri))
+            {
+                objectTypes.add(labels.get(nextType));
+            }
+            
+            final Map<String, String> parentMap = new HashMap<>();
+            if(parentUri != null)
+            {
+                parentMap.putAll(this.getObjectViewSummary(parentUri, types, labels));
+                parentMap.put("relationship", labels.get(parentPredicateUri).getLabel());
+            }
+            
+            final List<Map<String, String>> childList = new ArrayList<>();
+            for(final URI nextChildUri : childUris)
+            {
+                childList.add(this.getObjectViewSummary(nextChildUri, types, labels));
+            }
+            Collections.sort(childList, new Comparator<Map<String, String>>()
+                {
+                    @Override
+                    public int compare(final Map<String, String> o1, final Map<String, String> o2)
+                    {
+                        final int labelCompare = o1.get("label").compareTo(o2.get("label"));
+                        if(labelCompare != 0)
+                        {
+                            return labelCompare;
+                        }
+                        return o1.get("uri").compareTo(o2.get("uri"));
+                    }
+                });
+            
+            final List<URI> orderedProperties =
+                    this.getSesameManager().getWeightedProperties(nextObjectUri, false, permanentConnection,
+                            versionAndSchemaContexts);
+            
+            final Model displayModel =
+                    this.getSesameManager().getObjectDetailsForDisplay(nextObjectUri, permanentConnection,
+                            versionAndInferredAndSchemaContexts);
+            
+            return new PoddObjectViewImpl(labels.get(nextObjectUri), objectTypes, orderedProperties, displayModel,
+                    parentMap, childList);
+        }
+        finally
+        {
+            try
+            {
+                if(permanentConnection != null)
                 {
                     permanentConnection.close();
                 }
@@ -1004,43 +1323,53 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         }
     }
     
-    /*
-     * (non-Javadoc)
-     * 
-     * @see com.github.podd.api.PoddArtifactManager#getOWLManager()
+    /**
+     * Builds the "uri", "label" and "type" summary of an object for a {@link PoddObjectView}.
      */
-    @Override
-    public PoddOWLManager getOWLManager()
+    private Map<String, String> getObjectViewSummary(final URI objectUri, final Map<URI, List<URI>> types,
+            final Map<URI, PoddObjectLabel> labels)
     {
-        return this.owlManager;
+        final Map<String, String> result = new HashMap<>();
+        result.put("uri", objectUri.stringValue());
+        result.put("label", labels.get(objectUri).getLabel());
+        String type = "Unknown Type";
+        if(!types.get(objectUri).isEmpty())
+        {
+            type = labels.get(types.get(objectUri).get(0)).getLabel();
+        }
+        result.put("type", type);
+        return result;
     }
     
     /*
      * (non-Javadoc)
      * 
-     * @see com.github.podd.api.PoddArtifactManager#getParentDetails(com.github.podd .utils.
-     * InferredOWLOntologyID, org.openrdf.model.URI)
+     * Wraps PoddSesameManager.getOrderedProperties()
+     * 
+     * @see com.github.podd.api.PoddArtifactManager#getOrderedProperties()
      */
     @Override
-    public Model getParentDetails(final InferredOWLOntologyID ontologyID, final URI objectUri) throws OpenRDFException,
-        UnmanagedSchemaIRIException, SchemaManifestException, UnsupportedRDFormatException, IOException,
-        UnmanagedArtifactIRIException, UnmanagedArtifactVersionException, RepositoryNotFoundException
+    public List<URI> getOrderedProperties(final InferredOWLOntologyID ontologyID, final URI objectUri,
+            final boolean excludeContainsProperties) throws OpenRDFException, UnmanagedSchemaIRIException,
+        SchemaManifestException, UnsupportedRDFormatException, IOException, UnmanagedArtifactIRIException,
+        UnmanagedArtifactVersionException, RepositoryNotFoundException
     {
-        final Repository permanentRepository = null;
         RepositoryConnection permanentConnection = null;
         RepositoryConnection managementConnection = null;
         try
         {
             final Set<? extends OWLOntologyID> schemaImports = this.getSchemaImports(ontologyID);
             managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
+            permanentConnection =
+                    this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports, ontologyID);
+            
             final URI[] contexts =
-                    this.getSesameManager().versionAndInferredAndSchemaContexts(ontologyID, managementConnection,
+                    this.getSesameManager().versionAndSchemaContexts(ontologyID, managementConnection,
                             this.getRepositoryManager().getSchemaManagementGraph(),
                             this.getRepositoryManager().getArtifactManagementGraph());
             
-            permanentConnection = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
-            
-            return this.getSesameManager().getParentDetails(objectUri, permanentConnection, contexts);
+            return this.getSesameManager().getWeightedProperties(objectUri, excludeContainsProperties,
+                    permanentConnection, contexts);
         }
         finally
         {
@@ -1064,31 +1393,41 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
     /*
      * (non-Javadoc)
      * 
-     * @see com.github.podd.api.PoddArtifactManager#getPurlManager()
+     * @see com.github.podd.api.PoddArtifactManager#getOWLManager()
      */
     @Override
-    public PoddPurlManager getPurlManager()
+    public PoddOWLManager getOWLManager()
     {
-        return this.purlManager;
+        return this.owlManager;
     }
     
-    private Model getReferenceLinks(final InferredOWLOntologyID ontologyID, final URI objectUri)
-        throws OpenRDFException, UnmanagedSchemaIRIException, SchemaManifestException, UnsupportedRDFormatException,
-        IOException, UnmanagedArtifactIRIException, UnmanagedArtifactVersionException, RepositoryNotFoundException
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.github.podd.api.PoddArtifactManager#getParentDetails(com.github.podd .utils.
+     * InferredOWLOntologyID, org.openrdf.model.URI)
+     */
+    @Override
+    public Model getParentDetails(final InferredOWLOntologyID ontologyID, final URI objectUri) throws OpenRDFException,
+        UnmanagedSchemaIRIException, SchemaManifestException, UnsupportedRDFormatException, IOException,
+        UnmanagedArtifactIRIException, UnmanagedArtifactVersionException, RepositoryNotFoundException
     {
+        final Repository permanentRepository = null;
         RepositoryConnection permanentConnection = null;
         RepositoryConnection managementConnection = null;
         try
         {
             final Set<? extends OWLOntologyID> schemaImports = this.getSchemaImports(ontologyID);
             managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
-            permanentConnection = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
             final URI[] contexts =
-                    this.getSesameManager().versionAndSchemaContexts(ontologyID, managementConnection,
+                    this.getSesameManager().versionAndInferredAndSchemaContexts(ontologyID, managementConnection,
                             this.getRepositoryManager().getSchemaManagementGraph(),
                             this.getRepositoryManager().getArtifactManagementGraph());
             
-            return this.getSesameManager().getReferringObjectDetails(objectUri, permanentConnection, contexts);
+            permanentConnection =
+                    this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports, ontologyID);
+            
+            return this.getSesameManager().getParentDetails(objectUri, permanentConnection, contexts);
         }
         finally
         {
@@ -1109,6 +1448,17 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         }
     }
     
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.github.podd.api.PoddArtifactManager#getPurlManager()
+     */
+    @Override
+    public PoddPurlManager getPurlManager()
+    {
+        return this.purlManager;
+    }
+    
     @Override
     public PoddRepositoryManager getRepositoryManager()
     {
@@ -1158,6 +1508,12 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         }
     }
     
+    @Override
+    public RenderedArtifactCache getRenderedArtifactCache()
+    {
+        return this.renderedArtifactCache;
+    }
+    
     @Override
     public PoddSchemaManager getSchemaManager()
     {
@@ -1176,8 +1532,10 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         IOException, UnmanagedArtifactIRIException, UnmanagedArtifactVersionException, RepositoryNotFoundException
     {
         final List<PoddObjectLabel> results = new ArrayList<PoddObjectLabel>();
-        final ConcurrentMap<Set<? extends OWLOntologyID>, RepositoryConnection> cache =
-                new ConcurrentHashMap<Set<? extends OWLOntologyID>, RepositoryConnection>();
+        // The artifacts for a set of schema ontologies may be spread across several shards, so the
+        // top object is looked up in each shard until it is found
+        final ConcurrentMap<Set<? extends OWLOntologyID>, List<RepositoryConnection>> cache =
+                new ConcurrentHashMap<Set<? extends OWLOntologyID>, List<RepositoryConnection>>();
         
         RepositoryConnection managementConnection = null;
         
@@ -1187,20 +1545,23 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
             for(final InferredOWLOntologyID artifactId : artifacts)
             {
                 final Set<? extends OWLOntologyID> schemaImports = this.getSchemaImports(artifactId);
-                RepositoryConnection permanentConnection = cache.get(schemaImports);
-                if(permanentConnection == null)
+                List<RepositoryConnection> permanentConnections = cache.get(schemaImports);
+                if(permanentConnections == null)
                 {
-                    RepositoryConnection nextConnection =
-                            this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
-                    final RepositoryConnection putIfAbsent = cache.putIfAbsent(schemaImports, nextConnection);
-                    if(putIfAbsent != null)
+                    permanentConnections = this.getRepositoryManager().getPermanentRepositoryConnections(schemaImports);
+                    cache.put(schemaImports, permanentConnections);
+                }
+                URI objectIRI = null;
+                RepositoryConnection permanentConnection = null;
+                for(final RepositoryConnection nextConnection : permanentConnections)
+                {
+                    objectIRI = this.getSesameManager().getTopObjectIRI(artifactId, nextConnection);
+                    if(objectIRI != null)
                     {
-                        nextConnection.close();
-                        nextConnection = putIfAbsent;
+                        permanentConnection = nextConnection;
+                        break;
                     }
-                    permanentConnection = nextConnection;
                 }
-                final URI objectIRI = this.getSesameManager().getTopObjectIRI(artifactId, permanentConnection);
                 if(objectIRI == null)
                 {
                     throw new UnmanagedArtifactIRIException(artifactId.getOntologyIRI(),
@@ -1222,18 +1583,18 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
             }
             finally
             {
-                for(final RepositoryConnection nextPermanentConnection : cache.values())
+                for(final List<RepositoryConnection> nextPermanentConnections : cache.values())
                 {
-                    try
+                    for(final RepositoryConnection nextPermanentConnection : nextPermanentConnections)
                     {
-                        if(nextPermanentConnection != null)
+                        try
                         {
                             nextPermanentConnection.close();
                         }
-                    }
-                    catch(final Throwable e)
-                    {
-                        this.log.error("Found exception closing connection", e);
+                        catch(final Throwable e)
+                        {
+                            this.log.error("Found exception closing connection", e);
+                        }
                     }
                 }
             }
@@ -1451,6 +1812,19 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         return oldVersion.concat("1");
     }
     
+    /**
+     * Removes the serialised versions of the given artifact from the rendered artifact cache. This
+     * must be called after the change to the artifact has been committed.
+     */
+    private void invalidateRenderedArtifact(final IRI artifactIRI)
+    {
+        final RenderedArtifactCache cache = this.renderedArtifactCache;
+        if(cache != null)
+        {
+            cache.invalidate(artifactIRI);
+        }
+    }
+    
     @Override
     public boolean isPublished(final InferredOWLOntologyID ontologyId) throws OpenRDFException
     {
@@ -1572,277 +1946,691 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         RepositoryConnection permanentConnection = null;
         RepositoryConnection managementConnection = null;
         InferredOWLOntologyID inferredOWLOntologyID = null;
-        Set<OWLOntologyID> schemaImports = null;
+        IRI assignedArtifactIRI = null;
+        final Set<OWLOntologyID> schemaImports = new LinkedHashSet<>();
+        final PhaseTimer phaseTimer = PhaseTimer.start("loadArtifact");
         try
         {
             final URI randomContext = PODD.VF.createURI("urn:uuid:" + UUID.randomUUID().toString());
-            Model rawModel = Rio.parse(inputStream, "", format, randomContext);
-            
-            final List<InferredOWLOntologyID> ontologyIDs = OntologyUtils.modelToOntologyIDs(rawModel, true, false);
-            if(ontologyIDs.isEmpty())
-            {
-                throw new EmptyOntologyException(null, "Loaded ontology is empty");
-            }
-            else if(ontologyIDs.size() > 1)
-            {
-                this.log.warn("Found multiple ontologies when we were only expecting a single ontology: {}",
-                        ontologyIDs);
-            }
-            else
-            {
-                this.log.debug("ontologyIDS : {}", ontologyIDs);
-            }
-            
-            managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
-            managementConnection.begin();
             
             tempRepository = this.repositoryManager.getNewTemporaryRepository();
             temporaryConnection = tempRepository.getConnection();
             
-            // Load the artifact RDF triples into a random context in the temp
-            // repository, which may be shared between different uploads
-            temporaryConnection.add(rawModel, randomContext);
-            
-            rawModel.clear();
-            rawModel = null;
+            managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
+            managementConnection.begin();
             
-            // check and ensure schema ontology imports are for version IRIs
-            this.useVersionsForSchemaImports(ontologyIDs.get(0).getOntologyIRI().toOpenRDFURI(), managementConnection,
-                    temporaryConnection, randomContext);
+            final IRI ontologyIRI =
+                    this.prepareArtifact(inputStream, format, danglingObjectPolicy, temporaryConnection,
+                            managementConnection, randomContext, schemaImports);
             
-            final Model importsModel = new LinkedHashModel();
+            assignedArtifactIRI = ontologyIRI;
+            permanentConnection =
+                    this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports,
+                            new OWLOntologyID(ontologyIRI), true);
+            permanentConnection.begin();
+            PhaseTimer.lap("permanentRepository");
             
-            // Repopulate model so it can be used by OntologyUtils in getSchemaImportsInternal
-            temporaryConnection.exportStatements(null, OWL.IMPORTS, null, true, new StatementCollector(importsModel),
-                    randomContext);
-            temporaryConnection.exportStatements(null, RDF.TYPE, OWL.ONTOLOGY, true, new StatementCollector(
-                    importsModel), randomContext);
-            temporaryConnection.exportStatements(null, OWL.VERSIONIRI, null, true,
-                    new StatementCollector(importsModel), randomContext);
-            managementConnection.export(new StatementCollector(importsModel), this.getRepositoryManager()
-                    .getSchemaManagementGraph());
+            inferredOWLOntologyID =
+                    this.loadInferStoreArtifact(temporaryConnection, permanentConnection, managementConnection,
+                            randomContext, dataReferenceVerificationPolicy, false, schemaImports);
             
-            // Rio.write(model, Rio.createWriter(RDFFormat.NQUADS, System.out));
+            this.updateArtifactManagement(inferredOWLOntologyID, schemaImports, permanentConnection,
+                    managementConnection);
+            PhaseTimer.lap("updateManagement");
             
-            schemaImports = new LinkedHashSet<>(OntologyUtils.artifactImports(ontologyIDs.get(0), importsModel));
+            permanentConnection.commit();
+            managementConnection.commit();
+            this.invalidateRenderedArtifact(inferredOWLOntologyID.getOntologyIRI());
+            PhaseTimer.lap("commit");
             
-            // Add in all of the imports that are actually imported, but the user did not include in
-            // their original list
-            // This is necessary to ensure that the repository ontology lists match the artifacts,
-            // so the artifact can be discovered accurately given the artifact ontology imports
-            for(final OWLOntologyID nextArtifactSchemaImport : schemaImports)
+            return inferredOWLOntologyID;
+        }
+        catch(final Throwable e)
+        {
+            try
+            {
+                if(managementConnection != null)
+                {
+                    managementConnection.rollback();
+                }
+            }
+            finally
             {
-                temporaryConnection.add(ontologyIDs.get(0).getOntologyIRI().toOpenRDFURI(), OWL.IMPORTS,
-                        nextArtifactSchemaImport.getVersionIRI().toOpenRDFURI(), randomContext);
+                try
+                {
+                    if(permanentConnection != null)
+                    {
+                        permanentConnection.rollback();
+                    }
+                }
+                finally
+                {
+                    try
+                    {
+                        if(temporaryConnection != null)
+                        {
+                            temporaryConnection.rollback();
+                        }
+                    }
+                    finally
+                    {
+                        if(assignedArtifactIRI != null)
+                        {
+                            this.removeUncommittedArtifactAssignments(Arrays.asList(assignedArtifactIRI));
+                        }
+                    }
+                }
+            }
+            throw e;
+        }
+        finally
+        {
+            if(phaseTimer != null)
+            {
+                phaseTimer.stop();
             }
             
-            // Remove any assertions that the user has made about publication status, as this
-            // information is a privileged operation that must be done through the designated API
-            // method
-            this.cleanPrivilegedAssertions(randomContext, temporaryConnection);
+            try
+            {
+                // release resources
+                if(inferredOWLOntologyID != null)
+                {
+                    try
+                    {
+                        this.getOWLManager().removeCache(inferredOWLOntologyID.getBaseOWLOntologyID(), schemaImports);
+                    }
+                    finally
+                    {
+                        this.getOWLManager().removeCache(inferredOWLOntologyID.getInferredOWLOntologyID(),
+                                schemaImports);
+                    }
+                }
+            }
+            finally
+            {
+                try
+                {
+                    if(managementConnection != null)
+                    {
+                        managementConnection.close();
+                    }
+                }
+                catch(final RepositoryException e)
+                {
+                    this.log.error("Found exception closing management repository connection", e);
+                }
+                finally
+                {
+                    try
+                    {
+                        if(permanentConnection != null)
+                        {
+                            permanentConnection.close();
+                        }
+                    }
+                    catch(final RepositoryException e)
+                    {
+                        this.log.error("Found exception closing permanent repository connection", e);
+                    }
+                    finally
+                    {
+                        try
+                        {
+                            if(temporaryConnection != null)
+                            {
+                                temporaryConnection.close();
+                            }
+                        }
+                        catch(final RepositoryException e)
+                        {
+                            this.log.error("Found exception closing temporary repository connection", e);
+                        }
+                        finally
+                        {
+                            try
+                            {
+                                if(tempRepository != null)
+                                {
+                                    tempRepository.shutDown();
+                                }
+                            }
+                            catch(final RepositoryException e)
+                            {
+                                this.log.error("Found exception shutting down temporary repository", e);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    @Override
+    public List<InferredOWLOntologyID> loadArtifacts(final List<InputStream> inputStreams,
+            final List<RDFFormat> formats, final DanglingObjectPolicy danglingObjectPolicy,
+            final DataReferenceVerificationPolicy dataReferenceVerificationPolicy) throws OpenRDFException,
+        PoddException, IOException, OWLException
+    {
+        if(inputStreams.size() != formats.size())
+        {
+            throw new IllegalArgumentException("Each input stream must have a format");
+        }
+        
+        final List<InferredOWLOntologyID> results = new ArrayList<>();
+        final List<Set<OWLOntologyID>> resultSchemaImports = new ArrayList<>();
+        final List<Repository> stagingRepositories = new ArrayList<>();
+        final List<RepositoryConnection> resultPermanentConnections = new ArrayList<>();
+        // One connection to each permanent repository, shared by all of the artifacts in the batch
+        // that are stored in that repository
+        final Map<Repository, RepositoryConnection> permanentConnections = new IdentityHashMap<>();
+        final List<IRI> assignedArtifactIRIs = new ArrayList<>();
+        RepositoryConnection managementConnection = null;
+        final PhaseTimer phaseTimer = PhaseTimer.start("loadArtifacts");
+        try
+        {
+            managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
             
-            // Replace temporary URIs with PURLs
-            this.handlePurls(temporaryConnection, randomContext);
+            // Reason over each artifact into a staging repository without holding a transaction
+            // open, so that other batches can be committed in the meantime
+            for(int i = 0; i < inputStreams.size(); i++)
+            {
+                final Repository stagingRepository = this.getRepositoryManager().getNewTemporaryRepository();
+                stagingRepositories.add(stagingRepository);
+                
+                final Set<OWLOntologyID> schemaImports = new LinkedHashSet<>();
+                final InferredOWLOntologyID inferredOWLOntologyID =
+                        this.stageArtifact(inputStreams.get(i), formats.get(i) == null ? RDFFormat.RDFXML : formats
+                                .get(i), danglingObjectPolicy, dataReferenceVerificationPolicy, managementConnection,
+                                stagingRepository, schemaImports);
+                
+                for(final InferredOWLOntologyID nextResult : results)
+                {
+                    if(nextResult.getOntologyIRI().equals(inferredOWLOntologyID.getOntologyIRI()))
+                    {
+                        throw new DuplicateArtifactIRIException(inferredOWLOntologyID.getOntologyIRI(),
+                                "This artifact is already being loaded in the same batch");
+                    }
+                }
+                
+                assignedArtifactIRIs.add(inferredOWLOntologyID.getOntologyIRI());
+                final RepositoryConnection nextConnection =
+                        this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports,
+                                new OWLOntologyID(inferredOWLOntologyID.getOntologyIRI()), true);
+                RepositoryConnection permanentConnection = permanentConnections.get(nextConnection.getRepository());
+                if(permanentConnection == null)
+                {
+                    permanentConnection = nextConnection;
+                    permanentConnections.put(nextConnection.getRepository(), nextConnection);
+                }
+                else
+                {
+                    nextConnection.close();
+                }
+                
+                results.add(inferredOWLOntologyID);
+                resultSchemaImports.add(schemaImports);
+                resultPermanentConnections.add(permanentConnection);
+            }
+            PhaseTimer.lap("stageArtifacts");
             
-            // Set a Version IRI for this artifact based on the PURL
-            /*
-             * Version information need not be available in uploaded artifacts (any existing values
-             * are ignored).
-             * 
-             * For a new artifact, a Version IRI is created based on the Ontology IRI while for a
-             * new version of a managed artifact, the most recent version is incremented.
-             */
-            final IRI ontologyIRI = this.getSesameManager().getOntologyIRI(temporaryConnection, randomContext);
-            if(ontologyIRI == null)
+            // Batches hold transactions on several permanent repositories at once, so they are
+            // committed one at a time to avoid two batches each waiting for the other's repository
+            synchronized(this.batchCommitLock)
             {
-                throw new EmptyOntologyException(null, "Loaded ontology is empty");
+                for(final RepositoryConnection nextConnection : permanentConnections.values())
+                {
+                    nextConnection.begin();
+                }
+                
+                for(int i = 0; i < results.size(); i++)
+                {
+                    final RepositoryConnection stagingConnection = stagingRepositories.get(i).getConnection();
+                    try
+                    {
+                        resultPermanentConnections.get(i).add(
+                                stagingConnection.getStatements(null, null, null, true));
+                    }
+                    finally
+                    {
+                        stagingConnection.close();
+                    }
+                }
+                
+                managementConnection.begin();
+                for(int i = 0; i < results.size(); i++)
+                {
+                    // Check again, as another thread may have loaded the same artifact while this
+                    // batch was being reasoned over
+                    this.checkArtifactUnmanaged(results.get(i).getOntologyIRI(), managementConnection);
+                    this.updateArtifactManagement(results.get(i), resultSchemaImports.get(i),
+                            resultPermanentConnections.get(i), managementConnection);
+                }
+                
+                for(final RepositoryConnection nextConnection : permanentConnections.values())
+                {
+                    nextConnection.commit();
+                }
+                managementConnection.commit();
             }
             
-            // check for managed version from artifact graph
-            OWLOntologyID currentManagedArtifactID = null;
+            for(final InferredOWLOntologyID nextResult : results)
+            {
+                this.invalidateRenderedArtifact(nextResult.getOntologyIRI());
+            }
+            PhaseTimer.lap("commit");
             
+            return results;
+        }
+        catch(final Throwable e)
+        {
             try
             {
-                currentManagedArtifactID =
-                        this.getSesameManager().getCurrentArtifactVersion(ontologyIRI, managementConnection,
-                                this.getRepositoryManager().getArtifactManagementGraph());
-                if(currentManagedArtifactID != null)
+                if(managementConnection != null && managementConnection.isActive())
                 {
-                    throw new DuplicateArtifactIRIException(ontologyIRI, "This artifact is already managed");
+                    managementConnection.rollback();
                 }
             }
-            catch(final UnmanagedArtifactIRIException e)
+            finally
             {
-                // ignore. indicates a new artifact is being uploaded
-                this.log.info("This is an unmanaged artifact IRI {}", ontologyIRI);
+                try
+                {
+                    for(final RepositoryConnection nextConnection : permanentConnections.values())
+                    {
+                        if(nextConnection.isActive())
+                        {
+                            nextConnection.rollback();
+                        }
+                    }
+                }
+                finally
+                {
+                    this.removeUncommittedArtifactAssignments(assignedArtifactIRIs);
+                }
             }
-            
-            IRI newVersionIRI = null;
-            if(currentManagedArtifactID == null || currentManagedArtifactID.getVersionIRI() == null)
+            throw e;
+        }
+        finally
+        {
+            if(phaseTimer != null)
             {
-                newVersionIRI = IRI.create(ontologyIRI.toString() + ":version:1");
+                phaseTimer.stop();
             }
             
-            if(newVersionIRI != null)
+            try
             {
-                // set version IRI in temporary repository
-                this.log.info("Setting version IRI to <{}>", newVersionIRI);
+                if(managementConnection != null)
+                {
+                    managementConnection.close();
+                }
+            }
+            catch(final RepositoryException e)
+            {
+                this.log.error("Found exception closing management repository connection", e);
             }
             
-            temporaryConnection.remove(ontologyIRI.toOpenRDFURI(), OWL.VERSIONIRI, null, randomContext);
-            temporaryConnection.add(ontologyIRI.toOpenRDFURI(), OWL.VERSIONIRI, newVersionIRI.toOpenRDFURI(),
-                    randomContext);
-            
-            // check and update statements with default timestamp values
-            final Value now = PODD.VF.createLiteral(new Date());
-            this.handleTimestamps(temporaryConnection, PODD.PODD_BASE_CREATED_AT, now, randomContext);
-            this.handleTimestamps(temporaryConnection, PODD.PODD_BASE_LAST_MODIFIED, now, randomContext);
+            for(final RepositoryConnection nextConnection : permanentConnections.values())
+            {
+                try
+                {
+                    nextConnection.close();
+                }
+                catch(final RepositoryException e)
+                {
+                    this.log.error("Found exception closing permanent repository connection", e);
+                }
+            }
             
-            this.handleDanglingObjects(ontologyIRI, temporaryConnection, randomContext, danglingObjectPolicy);
+            for(final Repository nextRepository : stagingRepositories)
+            {
+                try
+                {
+                    nextRepository.shutDown();
+                }
+                catch(final RepositoryException e)
+                {
+                    this.log.error("Found exception shutting down staging repository", e);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Parses the given artifact, reasons over it, and stores the results in the given staging
+     * repository, so that they can be committed to the permanent repository together with the
+     * rest of a batch.
+     *
+     * @param schemaImports
+     *            A set that the schema ontologies imported by the artifact are added to.
+     */
+    private InferredOWLOntologyID stageArtifact(final InputStream inputStream, final RDFFormat format,
+            final DanglingObjectPolicy danglingObjectPolicy,
+            final DataReferenceVerificationPolicy dataReferenceVerificationPolicy,
+            final RepositoryConnection managementConnection, final Repository stagingRepository,
+            final Set<OWLOntologyID> schemaImports) throws OpenRDFException, PoddException, IOException,
+        OWLException
+    {
+        Repository tempRepository = null;
+        RepositoryConnection temporaryConnection = null;
+        RepositoryConnection stagingConnection = null;
+        InferredOWLOntologyID inferredOWLOntologyID = null;
+        try
+        {
+            final URI randomContext = PODD.VF.createURI("urn:uuid:" + UUID.randomUUID().toString());
             
-            // ensure schema ontologies are cached in memory before loading
-            // statements into OWLAPI
-            // this.getDirectImports(managementConnection, temporaryRepositoryConnection,
-            // randomContext);
+            tempRepository = this.repositoryManager.getNewTemporaryRepository();
+            temporaryConnection = tempRepository.getConnection();
             
-            permanentConnection = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports, true);
-            permanentConnection.begin();
+            this.prepareArtifact(inputStream, format, danglingObjectPolicy, temporaryConnection,
+                    managementConnection, randomContext, schemaImports);
             
+            stagingConnection = stagingRepository.getConnection();
+            stagingConnection.begin();
             inferredOWLOntologyID =
-                    this.loadInferStoreArtifact(temporaryConnection, permanentConnection, managementConnection,
+                    this.loadInferStoreArtifact(temporaryConnection, stagingConnection, managementConnection,
                             randomContext, dataReferenceVerificationPolicy, false, schemaImports);
+            stagingConnection.commit();
             
-            this.getSesameManager().updateManagedPoddArtifactVersion(inferredOWLOntologyID, true, managementConnection,
-                    this.getRepositoryManager().getArtifactManagementGraph());
-            
-            managementConnection.remove(inferredOWLOntologyID.getOntologyIRI().toOpenRDFURI(), OWL.IMPORTS, null, this
-                    .getRepositoryManager().getArtifactManagementGraph());
-            
-            for(final Statement nextImport : Iterations.asList(permanentConnection.getStatements(inferredOWLOntologyID
-                    .getOntologyIRI().toOpenRDFURI(), OWL.IMPORTS, null, true, inferredOWLOntologyID.getVersionIRI()
-                    .toOpenRDFURI())))
+            return inferredOWLOntologyID;
+        }
+        finally
+        {
+            try
             {
-                managementConnection.add(inferredOWLOntologyID.getOntologyIRI().toOpenRDFURI(), OWL.IMPORTS,
-                        nextImport.getObject(), this.getRepositoryManager().getArtifactManagementGraph());
+                if(inferredOWLOntologyID != null)
+                {
+                    try
+                    {
+                        this.getOWLManager().removeCache(inferredOWLOntologyID.getBaseOWLOntologyID(), schemaImports);
+                    }
+                    finally
+                    {
+                        this.getOWLManager().removeCache(inferredOWLOntologyID.getInferredOWLOntologyID(),
+                                schemaImports);
+                    }
+                }
             }
-            
-            for(final OWLOntologyID nextSchemaImport : schemaImports)
+            finally
             {
-                managementConnection.add(inferredOWLOntologyID.getOntologyIRI().toOpenRDFURI(), OWL.IMPORTS,
-                        nextSchemaImport.getVersionIRI().toOpenRDFURI(), this.getRepositoryManager()
-                                .getArtifactManagementGraph());
+                try
+                {
+                    if(stagingConnection != null)
+                    {
+                        if(stagingConnection.isActive())
+                        {
+                            stagingConnection.rollback();
+                        }
+                        stagingConnection.close();
+                    }
+                }
+                finally
+                {
+                    try
+                    {
+                        if(temporaryConnection != null)
+                        {
+                            temporaryConnection.close();
+                        }
+                    }
+                    finally
+                    {
+                        if(tempRepository != null)
+                        {
+                            tempRepository.shutDown();
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Parses the given artifact into the temporary repository and prepares it to be reasoned over,
+     * replacing temporary URIs with PURLs and setting its version IRI.
+     *
+     * @param schemaImports
+     *            A set that the schema ontologies imported by the artifact are added to.
+     * @return The ontology IRI of the artifact.
+     * @throws DuplicateArtifactIRIException
+     *             If the artifact is already managed.
+     */
+    private IRI prepareArtifact(final InputStream inputStream, final RDFFormat format,
+            final DanglingObjectPolicy danglingObjectPolicy, final RepositoryConnection temporaryConnection,
+            final RepositoryConnection managementConnection, final URI randomContext,
+            final Set<OWLOntologyID> schemaImports) throws OpenRDFException, PoddException, IOException,
+        OWLException
+    {
+        // Load the artifact RDF triples into a random context in the temp
+        // repository, which may be shared between different uploads. The triples are streamed
+        // directly into the repository, and committed in batches, so that large artifacts are
+        // not also held in memory by the parser or an uncommitted transaction.
+        final RDFParser parser = Rio.createParser(format);
+        final BatchedRDFInserter inserter =
+                new BatchedRDFInserter(temporaryConnection, PoddArtifactManagerImpl.TEMPORARY_BATCH_SIZE);
+        inserter.enforceContext(randomContext);
+        parser.setRDFHandler(inserter);
+        temporaryConnection.begin();
+        parser.parse(inputStream, "");
+        temporaryConnection.commit();
+        PhaseTimer.lap("parse");
+        
+        final Model ontologyHeaders = new LinkedHashModel();
+        temporaryConnection.exportStatements(null, RDF.TYPE, OWL.ONTOLOGY, true, new StatementCollector(
+                ontologyHeaders), randomContext);
+        temporaryConnection.exportStatements(null, OWL.VERSIONIRI, null, true, new StatementCollector(
+                ontologyHeaders), randomContext);
+        
+        final List<InferredOWLOntologyID> ontologyIDs =
+                OntologyUtils.modelToOntologyIDs(ontologyHeaders, true, false);
+        if(ontologyIDs.isEmpty())
+        {
+            throw new EmptyOntologyException(null, "Loaded ontology is empty");
+        }
+        else if(ontologyIDs.size() > 1)
+        {
+            this.log.warn("Found multiple ontologies when we were only expecting a single ontology: {}",
+                    ontologyIDs);
+        }
+        else
+        {
+            this.log.debug("ontologyIDS : {}", ontologyIDs);
+        }
+        
+        // check and ensure schema ontology imports are for version IRIs
+        this.useVersionsForSchemaImports(ontologyIDs.get(0).getOntologyIRI().toOpenRDFURI(), managementConnection,
+                temporaryConnection, randomContext);
+        
+        final Model importsModel = new LinkedHashModel();
+        
+        // Repopulate model so it can be used by OntologyUtils in getSchemaImportsInternal
+        temporaryConnection.exportStatements(null, OWL.IMPORTS, null, true, new StatementCollector(importsModel),
+                randomContext);
+        temporaryConnection.exportStatements(null, RDF.TYPE, OWL.ONTOLOGY, true, new StatementCollector(
+                importsModel), randomContext);
+        temporaryConnection.exportStatements(null, OWL.VERSIONIRI, null, true,
+                new StatementCollector(importsModel), randomContext);
+        managementConnection.export(new StatementCollector(importsModel), this.getRepositoryManager()
+                .getSchemaManagementGraph());
+        
+        // Rio.write(model, Rio.createWriter(RDFFormat.NQUADS, System.out));
+        
+        schemaImports.addAll(OntologyUtils.artifactImports(ontologyIDs.get(0), importsModel));
+        
+        // Add in all of the imports that are actually imported, but the user did not include in
+        // their original list
+        // This is necessary to ensure that the repository ontology lists match the artifacts,
+        // so the artifact can be discovered accurately given the artifact ontology imports
+        for(final OWLOntologyID nextArtifactSchemaImport : schemaImports)
+        {
+            temporaryConnection.add(ontologyIDs.get(0).getOntologyIRI().toOpenRDFURI(), OWL.IMPORTS,
+                    nextArtifactSchemaImport.getVersionIRI().toOpenRDFURI(), randomContext);
+        }
+        PhaseTimer.lap("schemaImports");
+        
+        // Remove any assertions that the user has made about publication status, as this
+        // information is a privileged operation that must be done through the designated API
+        // method
+        this.cleanPrivilegedAssertions(randomContext, temporaryConnection);
+        
+        // Replace temporary URIs with PURLs
+        this.handlePurls(temporaryConnection, randomContext);
+        PhaseTimer.lap("handlePurls");
+        
+        // Set a Version IRI for this artifact based on the PURL
+        /*
+         * Version information need not be available in uploaded artifacts (any existing values
+         * are ignored).
+         * 
+         * For a new artifact, a Version IRI is created based on the Ontology IRI while for a
+         * new version of a managed artifact, the most recent version is incremented.
+         */
+        final IRI ontologyIRI = this.getSesameManager().getOntologyIRI(temporaryConnection, randomContext);
+        if(ontologyIRI == null)
+        {
+            throw new EmptyOntologyException(null, "Loaded ontology is empty");
+        }
+        
+        this.checkArtifactUnmanaged(ontologyIRI, managementConnection);
+        
+        final IRI newVersionIRI = IRI.create(ontologyIRI.toString() + ":version:1");
+        this.log.info("Setting version IRI to <{}>", newVersionIRI);
+        
+        temporaryConnection.remove(ontologyIRI.toOpenRDFURI(), OWL.VERSIONIRI, null, randomContext);
+        temporaryConnection.add(ontologyIRI.toOpenRDFURI(), OWL.VERSIONIRI, newVersionIRI.toOpenRDFURI(),
+                randomContext);
+        
+        // check and update statements with default timestamp values
+        final Value now = PODD.VF.createLiteral(new Date());
+        this.handleTimestamps(temporaryConnection, PODD.PODD_BASE_CREATED_AT, now, randomContext);
+        this.handleTimestamps(temporaryConnection, PODD.PODD_BASE_LAST_MODIFIED, now, randomContext);
+        
+        this.handleDanglingObjects(ontologyIRI, temporaryConnection, randomContext, danglingObjectPolicy);
+        PhaseTimer.lap("handleDanglingObjects");
+        
+        return ontologyIRI;
+    }
+    
+    /**
+     * @throws DuplicateArtifactIRIException
+     *             If the given artifact is already managed.
+     */
+    private void checkArtifactUnmanaged(final IRI ontologyIRI, final RepositoryConnection managementConnection)
+        throws OpenRDFException, DuplicateArtifactIRIException
+    {
+        try
+        {
+            final InferredOWLOntologyID currentManagedArtifactID =
+                    this.getSesameManager().getCurrentArtifactVersion(ontologyIRI, managementConnection,
+                            this.getRepositoryManager().getArtifactManagementGraph());
+            if(currentManagedArtifactID != null)
+            {
+                throw new DuplicateArtifactIRIException(ontologyIRI, "This artifact is already managed");
+            }
+        }
+        catch(final UnmanagedArtifactIRIException e)
+        {
+            // ignore. indicates a new artifact is being uploaded
+            this.log.info("This is an unmanaged artifact IRI {}", ontologyIRI);
+        }
+    }
+    
+    /**
+     * Removes the permanent repository shard assignments for artifacts whose load was rolled back,
+     * as the assignments are committed before the artifacts are stored. Assignments for artifacts
+     * that are managed, having been loaded by another request, are kept. Failures are logged so
+     * that they do not hide the reason that the load failed.
+     */
+    private void removeUncommittedArtifactAssignments(final List<IRI> artifactIRIs)
+    {
+        if(artifactIRIs.isEmpty())
+        {
+            return;
+        }
+        
+        RepositoryConnection managementConnection = null;
+        try
+        {
+            managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
+            managementConnection.begin();
+            for(final IRI nextArtifactIRI : artifactIRIs)
+            {
+                try
+                {
+                    this.checkArtifactUnmanaged(nextArtifactIRI, managementConnection);
+                    this.getRepositoryManager().removeArtifactAssignment(nextArtifactIRI.toOpenRDFURI(),
+                            managementConnection);
+                }
+                catch(final DuplicateArtifactIRIException e)
+                {
+                    // The assignment belongs to the managed artifact
+                }
             }
-            
-            permanentConnection.commit();
             managementConnection.commit();
-            
-            return inferredOWLOntologyID;
         }
-        catch(final Throwable e)
+        catch(final OpenRDFException | RuntimeException e)
         {
+            this.log.error("Could not remove shard assignments for artifacts that were not loaded: " + artifactIRIs,
+                    e);
             try
             {
-                if(managementConnection != null)
+                if(managementConnection != null && managementConnection.isActive())
                 {
                     managementConnection.rollback();
                 }
             }
-            finally
+            catch(final RepositoryException e1)
             {
-                try
-                {
-                    if(permanentConnection != null)
-                    {
-                        permanentConnection.rollback();
-                    }
-                }
-                finally
-                {
-                    if(temporaryConnection != null)
-                    {
-                        temporaryConnection.rollback();
-                    }
-                }
+                this.log.error("Found error rolling back repository connection", e1);
             }
-            throw e;
         }
         finally
         {
             try
             {
-                // release resources
-                if(inferredOWLOntologyID != null && schemaImports != null)
+                if(managementConnection != null)
                 {
-                    try
-                    {
-                        this.getOWLManager().removeCache(inferredOWLOntologyID.getBaseOWLOntologyID(), schemaImports);
-                    }
-                    finally
-                    {
-                        this.getOWLManager().removeCache(inferredOWLOntologyID.getInferredOWLOntologyID(),
-                                schemaImports);
-                    }
+                    managementConnection.close();
                 }
             }
-            finally
+            catch(final RepositoryException e)
             {
-                try
-                {
-                    if(managementConnection != null)
-                    {
-                        managementConnection.close();
-                    }
-                }
-                catch(final RepositoryException e)
-                {
-                    this.log.error("Found exception closing management repository connection", e);
-                }
-                finally
-                {
-                    try
-                    {
-                        if(permanentConnection != null)
-                        {
-                            permanentConnection.close();
-                        }
-                    }
-                    catch(final RepositoryException e)
-                    {
-                        this.log.error("Found exception closing permanent repository connection", e);
-                    }
-                    finally
-                    {
-                        try
-                        {
-                            if(temporaryConnection != null)
-                            {
-                                temporaryConnection.close();
-                            }
-                        }
-                        catch(final RepositoryException e)
-                        {
-                            this.log.error("Found exception closing temporary repository connection", e);
-                        }
-                        finally
-                        {
-                            try
-                            {
-                                if(tempRepository != null)
-                                {
-                                    tempRepository.shutDown();
-                                }
-                            }
-                            catch(final RepositoryException e)
-                            {
-                                this.log.error("Found exception shutting down temporary repository", e);
-                            }
-                        }
-                    }
-                }
+                this.log.error("Found exception closing management repository connection", e);
             }
         }
     }
     
+    /**
+     * Records the given artifact version, and the ontologies that it imports, in the artifact
+     * management graph.
+     *
+     * @param artifactConnection
+     *            A connection to a repository containing the artifact.
+     */
+    private void updateArtifactManagement(final InferredOWLOntologyID inferredOWLOntologyID,
+            final Set<OWLOntologyID> schemaImports, final RepositoryConnection artifactConnection,
+            final RepositoryConnection managementConnection) throws OpenRDFException
+    {
+        this.getSesameManager().updateManagedPoddArtifactVersion(inferredOWLOntologyID, true, managementConnection,
+                this.getRepositoryManager().getArtifactManagementGraph());
+        
+        managementConnection.remove(inferredOWLOntologyID.getOntologyIRI().toOpenRDFURI(), OWL.IMPORTS, null, this
+                .getRepositoryManager().getArtifactManagementGraph());
+        
+        for(final Statement nextImport : Iterations.asList(artifactConnection.getStatements(inferredOWLOntologyID
+                .getOntologyIRI().toOpenRDFURI(), OWL.IMPORTS, null, true, inferredOWLOntologyID.getVersionIRI()
+                .toOpenRDFURI())))
+        {
+            managementConnection.add(inferredOWLOntologyID.getOntologyIRI().toOpenRDFURI(), OWL.IMPORTS,
+                    nextImport.getObject(), this.getRepositoryManager().getArtifactManagementGraph());
+        }
+        
+        for(final OWLOntologyID nextSchemaImport : schemaImports)
+        {
+            managementConnection.add(inferredOWLOntologyID.getOntologyIRI().toOpenRDFURI(), OWL.IMPORTS,
+                    nextSchemaImport.getVersionIRI().toOpenRDFURI(), this.getRepositoryManager()
+                            .getArtifactManagementGraph());
+        }
+    }
+    
     /**
      * @param randomContext
      * @param temporaryRepositoryConnection
@@ -1871,25 +2659,95 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
     {
         // load into OWLAPI
         this.log.debug("Loading podd artifact from temp repository: {}", tempContext);
-        final List<Statement> statements =
-                Iterations.asList(tempRepositoryConnection.getStatements(null, null, null, true, tempContext));
-        
-        final RioMemoryTripleSource owlSource =
-                new RioMemoryTripleSource(statements.iterator(), Namespaces.asMap(Iterations
-                        .asSet(tempRepositoryConnection.getNamespaces())));
-        
-        final InferredOWLOntologyID inferredOWLOntologyID =
-                this.getOWLManager().loadAndInfer(owlSource, permanentConnection, null, dependentSchemaOntologies,
-                        managementConnection, this.getRepositoryManager().getSchemaManagementGraph());
+        // Stream the statements to OWLAPI instead of copying them into a list first, as the
+        // temporary repository may be stored on disk for large artifacts
+        final RepositoryResult<Statement> statements =
+                tempRepositoryConnection.getStatements(null, null, null, true, tempContext);
+        final InferredOWLOntologyID inferredOWLOntologyID;
+        try
+        {
+            final RioMemoryTripleSource owlSource =
+                    new RioMemoryTripleSource(new RepositoryResultIterator(statements), Namespaces.asMap(Iterations
+                            .asSet(tempRepositoryConnection.getNamespaces())));
+            
+            inferredOWLOntologyID =
+                    this.getOWLManager().loadAndInfer(owlSource, permanentConnection, null,
+                            dependentSchemaOntologies, managementConnection,
+                            this.getRepositoryManager().getSchemaManagementGraph());
+        }
+        finally
+        {
+            statements.close();
+        }
         
         // Check file references after inferencing to accurately identify
         // the parent object
         this.handleFileReferences(permanentConnection, fileReferencePolicy, inferredOWLOntologyID.getVersionIRI()
                 .toOpenRDFURI(), inferredOWLOntologyID.getInferredOntologyIRI().toOpenRDFURI());
+        PhaseTimer.lap("handleFileReferences");
         
         return inferredOWLOntologyID;
     }
     
+    @Override
+    public void preloadObjectMetadata() throws OpenRDFException, PoddException, IOException
+    {
+        final Set<InferredOWLOntologyID> schemaImports = this.getSchemaManager().getCurrentSchemaOntologies();
+        if(schemaImports.isEmpty())
+        {
+            return;
+        }
+        
+        final List<String> namespaces = Arrays.asList(PODD.PODD_BASE, PODD.PODD_SCIENCE, PODD.PODD_PLANT);
+        
+        RepositoryConnection managementConnection = null;
+        try
+        {
+            managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
+            final URI[] contexts =
+                    this.sesameManager.versionAndInferredAndSchemaContexts(null, managementConnection,
+                            this.repositoryManager.getSchemaManagementGraph(),
+                            this.repositoryManager.getArtifactManagementGraph());
+            
+            final Set<URI> objectTypes = new LinkedHashSet<>();
+            for(final Statement nextClass : Iterations.asList(managementConnection.getStatements(null, RDF.TYPE,
+                    OWL.CLASS, false, contexts)))
+            {
+                if(nextClass.getSubject() instanceof URI
+                        && namespaces.contains(((URI)nextClass.getSubject()).getNamespace()))
+                {
+                    objectTypes.add((URI)nextClass.getSubject());
+                }
+            }
+            
+            final long start = System.currentTimeMillis();
+            for(final URI nextObjectType : objectTypes)
+            {
+                // These are the combinations that are requested by the add and edit forms
+                for(final MetadataPolicy nextPolicy : Arrays.asList(MetadataPolicy.ONLY_CONTAINS,
+                        MetadataPolicy.EXCLUDE_CONTAINS))
+                {
+                    final ObjectMetadataKey cacheKey =
+                            new ObjectMetadataKey(nextObjectType, RDFFormat.RDFJSON, false, nextPolicy, schemaImports);
+                    if(!this.objectMetadataCache.containsKey(cacheKey))
+                    {
+                        this.cacheObjectMetadata(cacheKey, this.getObjectMetadataInternal(nextObjectType, false,
+                                nextPolicy, managementConnection, contexts));
+                    }
+                }
+            }
+            this.log.info("Preloaded object metadata for {} object types in {} ms", objectTypes.size(),
+                    (System.currentTimeMillis() - start));
+        }
+        finally
+        {
+            if(managementConnection != null && managementConnection.isOpen())
+            {
+                managementConnection.close();
+            }
+        }
+    }
+    
     /*
      * (non-Javadoc)
      * 
@@ -1941,6 +2799,7 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
                             this.getRepositoryManager().getArtifactManagementGraph());
             
             managementConnection.commit();
+            this.invalidateRenderedArtifact(ontologyIRI);
             
             return published;
         }
@@ -1998,7 +2857,8 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
             if(ontologyID != null)
             {
                 schemaImports = this.getSchemaImports(ontologyID);
-                permanentConnection = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
+                permanentConnection =
+                        this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports, ontologyID);
                 return this.getSesameManager().searchOntologyLabels(searchTerm, searchTypes, 1000, 0,
                         permanentConnection, contexts);
             }
@@ -2131,6 +2991,12 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         this.schemaManager = schemaManager;
     }
     
+    @Override
+    public void setRenderedArtifactCache(final RenderedArtifactCache renderedArtifactCache)
+    {
+        this.renderedArtifactCache = renderedArtifactCache;
+    }
+    
     @Override
     public void setSesameManager(final PoddSesameManager sesameManager)
     {
@@ -2159,10 +3025,22 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
             format = RDFFormat.RDFXML;
         }
         
-        final Model model = Rio.parse(inputStream, "", format);
-        
-        return this.updateArtifact(artifactUri, versionUri, objectUris, model, updatePolicy, danglingObjectAction,
-                fileReferenceAction);
+        final PhaseTimer phaseTimer = PhaseTimer.start("updateArtifact");
+        try
+        {
+            final Model model = Rio.parse(inputStream, "", format);
+            PhaseTimer.lap("parse");
+            
+            return this.updateArtifact(artifactUri, versionUri, objectUris, model, updatePolicy,
+                    danglingObjectAction, fileReferenceAction);
+        }
+        finally
+        {
+            if(phaseTimer != null)
+            {
+                phaseTimer.stop();
+            }
+        }
     }
     
     /**
@@ -2217,6 +3095,7 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         RepositoryConnection managementConnection = null;
         InferredOWLOntologyID inferredOWLOntologyID = null;
         Set<? extends OWLOntologyID> currentSchemaImports = null;
+        final PhaseTimer phaseTimer = PhaseTimer.start("updateArtifact");
         
         try
         {
@@ -2228,7 +3107,8 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
             
             currentSchemaImports = this.getSchemaImports(artifactID);
             
-            permanentConnection = this.getRepositoryManager().getPermanentRepositoryConnection(currentSchemaImports);
+            permanentConnection =
+                    this.getRepositoryManager().getPermanentRepositoryConnection(currentSchemaImports, artifactID);
             permanentConnection.begin();
             
             // load and copy the artifact's concrete statements to the temporary
@@ -2238,6 +3118,7 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
                             .toOpenRDFURI());
             final URI tempContext = artifactID.getVersionIRI().toOpenRDFURI();
             tempRepositoryConnection.add(repoResult, tempContext);
+            PhaseTimer.lap("copyExisting");
             
             // update the artifact statements
             if(UpdatePolicy.REPLACE_ALL == updatePolicy)
@@ -2299,6 +3180,7 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
             {
                 throw new PoddRuntimeException("Did not recognise the UpdatePolicy: " + updatePolicy);
             }
+            PhaseTimer.lap("applyChanges");
             
             // check and update statements with default timestamp values
             final Value now = PODD.VF.createLiteral(new Date());
@@ -2307,10 +3189,12 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
             
             this.handleDanglingObjects(artifactID.getOntologyIRI(), tempRepositoryConnection, tempContext,
                     danglingObjectAction);
+            PhaseTimer.lap("handleDanglingObjects");
             
             this.cleanPrivilegedAssertions(tempContext, tempRepositoryConnection);
             
             final Set<PoddPurlReference> purls = this.handlePurls(tempRepositoryConnection, tempContext);
+            PhaseTimer.lap("handlePurls");
             
             final Model resultsModel = new LinkedHashModel();
             
@@ -2378,6 +3262,7 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
                 tempRepositoryConnection.add(artifactID.getOntologyIRI().toOpenRDFURI(), OWL.IMPORTS,
                         nextArtifactSchemaImport.getVersionIRI().toOpenRDFURI(), tempContext);
             }
+            PhaseTimer.lap("schemaImports");
             
             // ensure schema ontologies are cached in memory before loading
             // statements into OWLAPI
@@ -2390,10 +3275,13 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
             
             this.getSesameManager().updateManagedPoddArtifactVersion(inferredOWLOntologyID, true, managementConnection,
                     this.getRepositoryManager().getArtifactManagementGraph());
+            PhaseTimer.lap("updateManagement");
             
             permanentConnection.commit();
             managementConnection.commit();
             tempRepositoryConnection.rollback();
+            this.invalidateRenderedArtifact(inferredOWLOntologyID.getOntologyIRI());
+            PhaseTimer.lap("commit");
             
             return OntologyUtils.ontologyIDsToModel(Arrays.asList(inferredOWLOntologyID), resultsModel);
         }
@@ -2427,6 +3315,11 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         }
         finally
         {
+            if(phaseTimer != null)
+            {
+                phaseTimer.stop();
+            }
+            
             try
             {
                 if(managementConnection != null)
@@ -2530,7 +3423,8 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
             
             this.log.info("Starting exporting artifact to RDF: {}", artifactVersion);
             
-            oldPermanentConnection = this.repositoryManager.getPermanentRepositoryConnection(oldSchemaOntologyIds);
+            oldPermanentConnection =
+                    this.repositoryManager.getPermanentRepositoryConnection(oldSchemaOntologyIds, artifactId);
             oldPermanentConnection.begin();
             
             // Export the artifact without including the old inferred triples, and they will be
@@ -2602,7 +3496,7 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
             
             // Get a new connection, creating the new repository if it doesn't already exist
             newPermanentConnection =
-                    this.repositoryManager.getPermanentRepositoryConnection(newSchemaOntologyIds, true);
+                    this.repositoryManager.getPermanentRepositoryConnection(newSchemaOntologyIds, artifactId, true);
             newPermanentConnection.begin();
             
             // If the following does not succeed, then it throws an exception and we rollback
@@ -2631,6 +3525,7 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
             oldPermanentConnection.commit();
             newPermanentConnection.commit();
             managementConnection.commit();
+            this.invalidateRenderedArtifact(inferredOWLOntologyID.getOntologyIRI());
             
             this.log.info("Completed reload of artifact to Repository: {}", artifactVersion);
             
@@ -2747,38 +3642,159 @@ public class PoddArtifactManagerImpl implements PoddArtifactManager
         throws OpenRDFException, UnmanagedSchemaIRIException, SchemaManifestException, UnsupportedRDFormatException,
         IOException, UnmanagedArtifactIRIException, UnmanagedArtifactVersionException, RepositoryNotFoundException
     {
-        RepositoryConnection permanentConnection = null;
-        RepositoryConnection managementConnection = null;
-        try
+        if(topConcepts == null)
         {
-            final Set<? extends OWLOntologyID> schemaImports = this.getSchemaImports(ontologyID);
-            permanentConnection = this.getRepositoryManager().getPermanentRepositoryConnection(schemaImports);
-            managementConnection = this.getRepositoryManager().getManagementRepositoryConnection();
-            
-            final URI[] contexts =
-                    this.getSesameManager().versionAndInferredAndSchemaContexts(ontologyID, managementConnection,
-                            this.getRepositoryManager().getSchemaManagementGraph(),
-                            this.getRepositoryManager().getArtifactManagementGraph());
-            
-            return this.getSesameManager().ChildOfList(topConcepts, permanentConnection, contexts);
+            return new LinkedHashModel();
         }
-        finally
-        {
-            try
+        return this.getClassTaxonomy(ontologyID).getDirectSubClassStatements(topConcepts);
+    }
+    
+    /**
+     * Identifies a serialised object type metadata result. Schema ontologies are compared using
+     * their version IRIs, as versions are never modified after they are stored. Artifacts are not
+     * part of the key, so the cache holds at most one entry per object type and request option for
+     * each set of schema ontology versions.
+     */
+    private static final class ObjectMetadataKey
+    {
+        private final URI objectType;
+        private final RDFFormat format;
+        private final boolean includeDoNotDisplayProperties;
+        private final MetadataPolicy containsPropertyPolicy;
+        private final Set<IRI> schemaVersions;
+        
+        ObjectMetadataKey(final URI objectType, final RDFFormat format, final boolean includeDoNotDisplayProperties,
+                final MetadataPolicy containsPropertyPolicy, final Set<? extends OWLOntologyID> schemaImports)
+        {
+            this.objectType = objectType;
+            this.format = format;
+            // The do not display flag is ignored when only contains properties are requested
+            this.includeDoNotDisplayProperties =
+                    includeDoNotDisplayProperties && containsPropertyPolicy != MetadataPolicy.ONLY_CONTAINS;
+            this.containsPropertyPolicy = containsPropertyPolicy;
+            final Set<IRI> versions = new HashSet<>();
+            for(final OWLOntologyID nextSchemaImport : schemaImports)
             {
-                if(managementConnection != null)
+                if(nextSchemaImport.getVersionIRI() != null)
                 {
-                    managementConnection.close();
+                    versions.add(nextSchemaImport.getVersionIRI());
+                }
+                else
+                {
+                    versions.add(nextSchemaImport.getOntologyIRI());
                 }
             }
-            finally
+            this.schemaVersions = Collections.unmodifiableSet(versions);
+        }
+        
+        @Override
+        public boolean equals(final Object obj)
+        {
+            if(this == obj)
             {
-                if(permanentConnection != null)
+                return true;
+            }
+            if(!(obj instanceof ObjectMetadataKey))
+            {
+                return false;
+            }
+            final ObjectMetadataKey other = (ObjectMetadataKey)obj;
+            return this.includeDoNotDisplayProperties == other.includeDoNotDisplayProperties
+                    && Objects.equals(this.objectType, other.objectType) && Objects.equals(this.format, other.format)
+                    && this.containsPropertyPolicy == other.containsPropertyPolicy
+                    && this.schemaVersions.equals(other.schemaVersions);
+        }
+        
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(this.objectType, this.format, this.includeDoNotDisplayProperties,
+                    this.containsPropertyPolicy, this.schemaVersions);
+        }
+    }
+    
+    /**
+     * Inserts statements into a repository connection that is in a transaction, committing and
+     * starting a new transaction after every batch of statements.
+     */
+    private static final class BatchedRDFInserter extends RDFInserter
+    {
+        private final RepositoryConnection connection;
+        
+        private final int batchSize;
+        
+        private long count = 0;
+        
+        BatchedRDFInserter(final RepositoryConnection connection, final int batchSize)
+        {
+            super(connection);
+            this.connection = connection;
+            this.batchSize = batchSize;
+        }
+        
+        @Override
+        public void handleStatement(final Statement st) throws RDFHandlerException
+        {
+            super.handleStatement(st);
+            this.count++;
+            if(this.count % this.batchSize == 0)
+            {
+                try
                 {
-                    permanentConnection.close();
+                    this.connection.commit();
+                    this.connection.begin();
+                }
+                catch(final RepositoryException e)
+                {
+                    throw new RDFHandlerException(e);
                 }
             }
         }
     }
     
+    /**
+     * Adapts a {@link RepositoryResult} to an {@link Iterator} so that statements can be streamed
+     * to OWLAPI. The result is not closed by this iterator.
+     */
+    private static final class RepositoryResultIterator implements Iterator<Statement>
+    {
+        private final RepositoryResult<Statement> result;
+        
+        RepositoryResultIterator(final RepositoryResult<Statement> result)
+        {
+            this.result = result;
+        }
+        
+        @Override
+        public boolean hasNext()
+        {
+            try
+            {
+                return this.result.hasNext();
+            }
+            catch(final RepositoryException e)
+            {
+                throw new PoddRuntimeException("Could not read statements from temporary repository", e);
+            }
+        }
+        
+        @Override
+        public Statement next()
+        {
+            try
+            {
+                return this.result.next();
+            }
+            catch(final RepositoryException e)
+            {
+                throw new PoddRuntimeException("Could not read statements from temporary repository", e);
+            }
+        }
+        
+        @Override
+        public void remove()
+        {
+            throw new UnsupportedOperationException("Cannot remove statements using this iterator");
+        }
+    }
 }
@@ -16,33 +16,54 @@
  */
 package com.github.podd.impl;
 
+import info.aduna.iteration.Iterations;
+
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.mindswap.pellet.exceptions.PelletRuntimeException;
 import org.openrdf.OpenRDFException;
 import org.openrdf.model.Model;
+import org.openrdf.model.Statement;
 import org.openrdf.model.URI;
 import org.openrdf.model.impl.LinkedHashModel;
 import org.openrdf.model.util.Namespaces;
 import org.openrdf.model.vocabulary.OWL;
+import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.model.vocabulary.RDFS;
 import org.openrdf.query.BindingSet;
 import org.openrdf.query.QueryLanguage;
 import org.openrdf.query.TupleQuery;
 import org.openrdf.query.TupleQueryResult;
 import org.openrdf.query.impl.DatasetImpl;
+import org.openrdf.repository.Repository;
 import org.openrdf.repository.RepositoryConnection;
 import org.openrdf.repository.RepositoryException;
+import org.openrdf.repository.sail.SailRepository;
 import org.openrdf.repository.util.RDFInserter;
 import org.openrdf.rio.RDFFormat;
 import org.openrdf.rio.helpers.StatementCollector;
+import org.openrdf.sail.inferencer.fc.ForwardChainingRDFSInferencer;
+import org.openrdf.sail.memory.MemoryStore;
 import org.semanticweb.owlapi.formats.OWLOntologyFormatFactoryRegistry;
 import org.semanticweb.owlapi.formats.RDFXMLOntologyFormatFactory;
 import org.semanticweb.owlapi.formats.RioRDFOntologyFormatFactory;
@@ -54,8 +75,14 @@ import org.semanticweb.owlapi.io.RDFOntologyFormat;
 import org.semanticweb.owlapi.io.RDFResourceParseError;
 import org.semanticweb.owlapi.model.AddImport;
 import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
 import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDataProperty;
 import org.semanticweb.owlapi.model.OWLException;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
 import org.semanticweb.owlapi.model.OWLOntology;
 import org.semanticweb.owlapi.model.OWLOntologyChangeException;
 import org.semanticweb.owlapi.model.OWLOntologyCreationException;
@@ -99,6 +126,7 @@ import com.clarkparsia.owlapi.explanation.PelletExplanation;
 import com.clarkparsia.owlapi.explanation.io.rdfxml.RDFXMLExplanationRenderer;
 import com.clarkparsia.pellet.owlapiv3.PelletReasoner;
 import com.clarkparsia.pellet.owlapiv3.PelletReasonerFactory;
+import com.github.ansell.propertyutil.PropertyUtil;
 import com.github.podd.api.PoddOWLManager;
 import com.github.podd.exception.DataRepositoryException;
 import com.github.podd.exception.EmptyOntologyException;
@@ -110,6 +138,8 @@ import com.github.podd.utils.DeduplicatingRDFInserter;
 import com.github.podd.utils.InferredOWLOntologyID;
 import com.github.podd.utils.OntologyUtils;
 import com.github.podd.utils.PODD;
+import com.github.podd.utils.PhaseTimer;
+import com.github.podd.utils.PoddWebConstants;
 
 /**
  * Implementation of PoddOWLManager interface.
@@ -130,7 +160,58 @@ public class PoddOWLManagerImpl implements PoddOWLManager
     private final ConcurrentMap<Set<? extends OWLOntologyID>, OWLOntologyManager> managerCache =
             new ConcurrentHashMap<>();
     
+    private final ConcurrentMap<Set<? extends OWLOntologyID>, Model> hierarchyCache = new ConcurrentHashMap<>();
+    
+    private final ConcurrentMap<Set<? extends OWLOntologyID>, OWLReasoner> schemaReasonerCache =
+            new ConcurrentHashMap<>();
+    
+    /**
+     * Runs reasoner operations that have a time limit, so that they can be abandoned without
+     * blocking the calling thread.
+     */
+    private final ExecutorService reasonerExecutor = Executors.newCachedThreadPool(new ThreadFactory()
+        {
+            private final AtomicInteger threadCount = new AtomicInteger(0);
+            
+            @Override
+            public Thread newThread(final Runnable runnable)
+            {
+                final Thread result = new Thread(runnable, "podd-reasoner-" + this.threadCount.incrementAndGet());
+                result.setDaemon(true);
+                return result;
+            }
+        });
+    
+    private final long consistencyTimeout;
+    
+    private final long classificationTimeout;
+    
+    private final long explanationTimeout;
+    
+    private final boolean fallbackReasoning;
+    
+    private final int largeArtifactIndividuals;
+    
+    private final int inferenceChunkSize;
+    
+    private final boolean reuseSchemaReasoner;
+    
     public PoddOWLManagerImpl(final OWLOntologyManagerFactory nextManager, final OWLReasonerFactory nextReasonerFactory)
+    {
+        this(nextManager, nextReasonerFactory, null);
+    }
+    
+    /**
+     * @param nextManager
+     *            The factory used to create the cached OWLOntologyManagers.
+     * @param nextReasonerFactory
+     *            The factory used to create reasoners.
+     * @param props
+     *            (Optional) The properties containing the reasoner time limits and large artifact
+     *            settings. Defaults are used if this is null.
+     */
+    public PoddOWLManagerImpl(final OWLOntologyManagerFactory nextManager,
+            final OWLReasonerFactory nextReasonerFactory, final PropertyUtil props)
     {
         if(nextManager == null)
         {
@@ -145,6 +226,42 @@ public class PoddOWLManagerImpl implements PoddOWLManager
         // this.managerCache.put(Collections.<OWLOntologyID> emptySet(),
         // managerFactory.buildOWLOntologyManager());
         this.reasonerFactory = nextReasonerFactory;
+        
+        if(props == null)
+        {
+            this.consistencyTimeout = Long.parseLong(PoddWebConstants.DEFAULT_REASONER_TIMEOUT_CONSISTENCY);
+            this.classificationTimeout = Long.parseLong(PoddWebConstants.DEFAULT_REASONER_TIMEOUT_CLASSIFICATION);
+            this.explanationTimeout = Long.parseLong(PoddWebConstants.DEFAULT_REASONER_TIMEOUT_EXPLANATION);
+            this.fallbackReasoning = Boolean.parseBoolean(PoddWebConstants.DEFAULT_REASONER_FALLBACK);
+            this.largeArtifactIndividuals =
+                    Integer.parseInt(PoddWebConstants.DEFAULT_INGEST_LARGE_ARTIFACT_INDIVIDUALS);
+            this.inferenceChunkSize = Integer.parseInt(PoddWebConstants.DEFAULT_INGEST_INFERENCE_CHUNK_SIZE);
+            this.reuseSchemaReasoner = Boolean.parseBoolean(PoddWebConstants.DEFAULT_REASONER_SCHEMA_REUSE);
+        }
+        else
+        {
+            this.consistencyTimeout =
+                    Long.parseLong(props.get(PoddWebConstants.PROPERTY_REASONER_TIMEOUT_CONSISTENCY,
+                            PoddWebConstants.DEFAULT_REASONER_TIMEOUT_CONSISTENCY));
+            this.classificationTimeout =
+                    Long.parseLong(props.get(PoddWebConstants.PROPERTY_REASONER_TIMEOUT_CLASSIFICATION,
+                            PoddWebConstants.DEFAULT_REASONER_TIMEOUT_CLASSIFICATION));
+            this.explanationTimeout =
+                    Long.parseLong(props.get(PoddWebConstants.PROPERTY_REASONER_TIMEOUT_EXPLANATION,
+                            PoddWebConstants.DEFAULT_REASONER_TIMEOUT_EXPLANATION));
+            this.fallbackReasoning =
+                    Boolean.parseBoolean(props.get(PoddWebConstants.PROPERTY_REASONER_FALLBACK,
+                            PoddWebConstants.DEFAULT_REASONER_FALLBACK));
+            this.largeArtifactIndividuals =
+                    Integer.parseInt(props.get(PoddWebConstants.PROPERTY_INGEST_LARGE_ARTIFACT_INDIVIDUALS,
+                            PoddWebConstants.DEFAULT_INGEST_LARGE_ARTIFACT_INDIVIDUALS));
+            this.inferenceChunkSize =
+                    Math.max(1, Integer.parseInt(props.get(PoddWebConstants.PROPERTY_INGEST_INFERENCE_CHUNK_SIZE,
+                            PoddWebConstants.DEFAULT_INGEST_INFERENCE_CHUNK_SIZE)));
+            this.reuseSchemaReasoner =
+                    Boolean.parseBoolean(props.get(PoddWebConstants.PROPERTY_REASONER_SCHEMA_REUSE,
+                            PoddWebConstants.DEFAULT_REASONER_SCHEMA_REUSE));
+        }
     }
     
     private List<InferredOWLOntologyID> buildDirectImportsList(final OWLOntologyID ontologyID,
@@ -328,6 +445,62 @@ public class PoddOWLManagerImpl implements PoddOWLManager
         return cachedManager;
     }
     
+    @Override
+    public void cacheSchemaClassHierarchy(final Set<? extends OWLOntologyID> schemaOntologies,
+            final Model classHierarchy)
+    {
+        this.hierarchyCache.put(new HashSet<OWLOntologyID>(schemaOntologies),
+                new LinkedHashModel(classHierarchy).unmodifiable());
+    }
+    
+    @Override
+    public Model classifySchemaOntologies(final Set<? extends OWLOntologyID> schemaOntologies,
+            final RepositoryConnection managementConnection, final URI schemaManagementContext)
+        throws OWLException, PoddException, OpenRDFException, IOException
+    {
+        final OWLOntologyManager cachedManager =
+                this.cacheSchemaOntologies(schemaOntologies, managementConnection, schemaManagementContext);
+        
+        final Model classHierarchy = new LinkedHashModel();
+        synchronized(cachedManager)
+        {
+            // The schema reasoner is classified even if the hierarchy was loaded from a snapshot,
+            // as artifacts are reasoned over using the classified schema reasoner
+            final OWLReasoner schemaReasoner = this.getSchemaReasoner(schemaOntologies, cachedManager);
+            
+            final Model cachedHierarchy = this.getSchemaClassHierarchy(schemaOntologies);
+            if(cachedHierarchy != null)
+            {
+                return cachedHierarchy;
+            }
+            
+            schemaReasoner.flush();
+            
+            for(final OWLClass nextClass : schemaReasoner.getRootOntology().getClassesInSignature(true))
+            {
+                if(nextClass.isOWLThing() || nextClass.isOWLNothing())
+                {
+                    continue;
+                }
+                
+                for(final OWLClass nextSuperClass : schemaReasoner.getSuperClasses(nextClass, true).getFlattened())
+                {
+                    if(!nextSuperClass.isOWLThing())
+                    {
+                        classHierarchy.add(nextClass.getIRI().toOpenRDFURI(), RDFS.SUBCLASSOF, nextSuperClass
+                                .getIRI().toOpenRDFURI());
+                    }
+                }
+            }
+        }
+        
+        this.log.debug("Classified {} direct subclass relationships for schemas: {}", classHierarchy.size(),
+                schemaOntologies);
+        
+        this.cacheSchemaClassHierarchy(schemaOntologies, classHierarchy);
+        return this.getSchemaClassHierarchy(schemaOntologies);
+    }
+    
     /**
      * Internal implementation checking for caching of both ontologies and their inferred ontologies
      *
@@ -453,13 +626,28 @@ public class PoddOWLManagerImpl implements PoddOWLManager
                     OWLReasonerFactoryRegistry.getInstance().getReasonerFactory("Pellet");
             final OWLReasoner reasoner = reasonerFactory.createReasoner(nextOntology);
             
-            if(!reasoner.isConsistent())
+            if(!this.isConsistent(reasoner))
             {
                 final PelletExplanation exp = new PelletExplanation((PelletReasoner)reasoner);
                 // Get 100 inconsistency explanations, any more than that and they need to make
                 // modifications and try again
                 final RDFXMLExplanationRenderer renderer = new RDFXMLExplanationRenderer();
-                final Set<Set<OWLAxiom>> inconsistencyExplanations = exp.getInconsistencyExplanations(100);
+                Set<Set<OWLAxiom>> inconsistencyExplanations;
+                try
+                {
+                    inconsistencyExplanations = this.runWithTimeout(new Callable<Set<Set<OWLAxiom>>>()
+                        {
+                            @Override
+                            public Set<Set<OWLAxiom>> call() throws Exception
+                            {
+                                return exp.getInconsistencyExplanations(100);
+                            }
+                        }, reasoner, this.explanationTimeout, "explanation");
+                }
+                catch(final TimeOutException e)
+                {
+                    inconsistencyExplanations = new HashSet<Set<OWLAxiom>>();
+                }
                 throw new InconsistentOntologyException(inconsistencyExplanations, nextOntology.getOntologyID(),
                         renderer, "Ontology is inconsistent");
             }
@@ -485,6 +673,10 @@ public class PoddOWLManagerImpl implements PoddOWLManager
      * @param inferredOntologyID
      *            The OWLOntologyID to use for the inferred ontology. This must be unique and not
      *            previously used in either the repository or the OWLOntologyManager
+     * @param includeIndividuals
+     *            True to include the inferred class and property assertions for individuals, and
+     *            false to leave them to be computed separately using
+     *            {@link #computeIndividualInferences(OWLReasoner, Collection, Set, Set)}.
      * @return An OWLOntology instance containing the axioms that were inferred from the original
      *         ontology.
      * @throws ReasonerInterruptedException
@@ -494,12 +686,16 @@ public class PoddOWLManagerImpl implements PoddOWLManager
      * @throws OWLOntologyChangeException
      */
     private OWLOntology computeInferences(final OWLReasoner nextReasoner, final OWLOntologyID concreteOntologyID,
-            final OWLOntologyID inferredOntologyID) throws ReasonerInterruptedException, TimeOutException,
-        OWLOntologyCreationException, OWLOntologyChangeException
+            final OWLOntologyID inferredOntologyID, final boolean includeIndividuals)
+        throws ReasonerInterruptedException, TimeOutException, OWLOntologyCreationException,
+        OWLOntologyChangeException
     {
         final List<InferredAxiomGenerator<? extends OWLAxiom>> axiomGenerators =
                 new ArrayList<InferredAxiomGenerator<? extends OWLAxiom>>();
-        axiomGenerators.add(new InferredClassAssertionAxiomGenerator());
+        if(includeIndividuals)
+        {
+            axiomGenerators.add(new InferredClassAssertionAxiomGenerator());
+        }
         axiomGenerators.add(new InferredDataPropertyCharacteristicAxiomGenerator());
         axiomGenerators.add(new InferredEquivalentClassAxiomGenerator());
         axiomGenerators.add(new InferredEquivalentDataPropertiesAxiomGenerator());
@@ -509,7 +705,10 @@ public class PoddOWLManagerImpl implements PoddOWLManager
         
         // NOTE: InferredPropertyAssertionGenerator significantly slows down
         // inference computation
-        axiomGenerators.add(new org.semanticweb.owlapi.util.InferredPropertyAssertionGenerator());
+        if(includeIndividuals)
+        {
+            axiomGenerators.add(new org.semanticweb.owlapi.util.InferredPropertyAssertionGenerator());
+        }
         
         axiomGenerators.add(new InferredSubClassAxiomGenerator());
         axiomGenerators.add(new InferredSubDataPropertyAxiomGenerator());
@@ -536,6 +735,54 @@ public class PoddOWLManagerImpl implements PoddOWLManager
         return nextInferredAxiomsOntology;
     }
     
+    /**
+     * Computes the inferred class and property assertions for the given individuals, matching the
+     * assertions generated by {@link InferredClassAssertionAxiomGenerator} and
+     * {@link org.semanticweb.owlapi.util.InferredPropertyAssertionGenerator} for those individuals.
+     *
+     * @param nextReasoner
+     *            The reasoner to use to compute the inferences.
+     * @param individuals
+     *            The individuals to compute inferences for.
+     * @param objectProperties
+     *            The object properties in the imports closure of the reasoner root ontology.
+     * @param dataProperties
+     *            The data properties in the imports closure of the reasoner root ontology.
+     * @return The inferred axioms for the given individuals.
+     */
+    private Set<OWLAxiom> computeIndividualInferences(final OWLReasoner nextReasoner,
+            final Collection<OWLNamedIndividual> individuals, final Set<OWLObjectProperty> objectProperties,
+            final Set<OWLDataProperty> dataProperties)
+    {
+        final OWLDataFactory dataFactory = nextReasoner.getRootOntology().getOWLOntologyManager().getOWLDataFactory();
+        final Set<OWLAxiom> results = new HashSet<>();
+        for(final OWLNamedIndividual nextIndividual : individuals)
+        {
+            for(final OWLClass nextType : nextReasoner.getTypes(nextIndividual, false).getFlattened())
+            {
+                results.add(dataFactory.getOWLClassAssertionAxiom(nextType, nextIndividual));
+            }
+            for(final OWLObjectProperty nextProperty : objectProperties)
+            {
+                for(final OWLNamedIndividual nextValue : nextReasoner.getObjectPropertyValues(nextIndividual,
+                        nextProperty).getFlattened())
+                {
+                    results.add(dataFactory.getOWLObjectPropertyAssertionAxiom(nextProperty, nextIndividual,
+                            nextValue));
+                }
+            }
+            for(final OWLDataProperty nextProperty : dataProperties)
+            {
+                for(final OWLLiteral nextValue : nextReasoner.getDataPropertyValues(nextIndividual, nextProperty))
+                {
+                    results.add(dataFactory.getOWLDataPropertyAssertionAxiom(nextProperty, nextIndividual,
+                            nextValue));
+                }
+            }
+        }
+        return results;
+    }
+    
     public OWLReasoner createReasoner(final OWLOntology nextOntology)
     {
         if(this.reasonerFactory == null)
@@ -546,6 +793,70 @@ public class PoddOWLManagerImpl implements PoddOWLManager
         return this.reasonerFactory.createReasoner(nextOntology);
     }
     
+    /**
+     * Retrieves the reasoner holding the classified TBox for the given set of schema ontologies,
+     * creating and classifying it if necessary. The root ontology of the reasoner imports every
+     * schema ontology in the set, and artifact axioms are temporarily added to it so that they can
+     * be reasoned over without classifying the schema ontologies again.
+     *
+     * NOTE: Callers must be synchronized on the cached manager.
+     */
+    private OWLReasoner getSchemaReasoner(final Set<? extends OWLOntologyID> schemaOntologies,
+            final OWLOntologyManager cachedManager) throws OWLOntologyCreationException
+    {
+        OWLReasoner schemaReasoner = this.schemaReasonerCache.get(schemaOntologies);
+        if(schemaReasoner == null)
+        {
+            final OWLOntology schemaRoot = cachedManager.createOntology();
+            for(final OWLOntologyID nextSchemaOntology : schemaOntologies)
+            {
+                IRI importIRI = nextSchemaOntology.getVersionIRI();
+                if(importIRI == null)
+                {
+                    importIRI = nextSchemaOntology.getOntologyIRI();
+                }
+                cachedManager.applyChange(new AddImport(schemaRoot, new OWLImportsDeclarationImpl(importIRI)));
+            }
+            
+            schemaReasoner = this.createReasoner(schemaRoot);
+            schemaReasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+            this.schemaReasonerCache.put(new HashSet<OWLOntologyID>(schemaOntologies), schemaReasoner);
+            this.log.debug("Classified schema TBox for: {}", schemaOntologies);
+        }
+        return schemaReasoner;
+    }
+    
+    /**
+     * Removes the given reasoner from the schema reasoner cache and disposes of it, so that the
+     * schema ontologies are classified again the next time they are needed.
+     *
+     * NOTE: Callers must be synchronized on the cached manager.
+     */
+    private void discardSchemaReasoner(final Set<? extends OWLOntologyID> schemaOntologies,
+            final OWLReasoner schemaReasoner, final OWLOntologyManager cachedManager)
+    {
+        final OWLOntology schemaRoot = schemaReasoner.getRootOntology();
+        this.schemaReasonerCache.remove(schemaOntologies);
+        schemaReasoner.dispose();
+        cachedManager.removeOntology(schemaRoot);
+    }
+    
+    /**
+     * Removes the given manager, and the schema reasoner for the same schema ontologies, from the
+     * caches without disposing of them, as a reasoner task that did not stop when interrupted may
+     * still be using them. The schema ontologies are loaded into a new manager and classified again
+     * the next time they are needed.
+     *
+     * NOTE: Callers must be synchronized on the cached manager.
+     */
+    private void abandonCachedManager(final Set<? extends OWLOntologyID> schemaOntologies,
+            final OWLOntologyManager cachedManager)
+    {
+        this.log.warn("Abandoning cached ontology manager for schemas: {}", schemaOntologies);
+        this.schemaReasonerCache.remove(schemaOntologies);
+        this.managerCache.remove(schemaOntologies, cachedManager);
+    }
+    
     /**
      * Dump the triples representing a given ontology into a Sesame Repository.
      *
@@ -623,6 +934,12 @@ public class PoddOWLManagerImpl implements PoddOWLManager
         return new InferredOWLOntologyID(ontologyID.getOntologyIRI(), ontologyID.getVersionIRI(), inferredOntologyIRI);
     }
     
+    @Override
+    public Model getSchemaClassHierarchy(final Set<? extends OWLOntologyID> schemaOntologies)
+    {
+        return this.hierarchyCache.get(schemaOntologies);
+    }
+    
     private OWLReasonerFactory getReasonerFactory()
     {
         return this.reasonerFactory;
@@ -649,9 +966,16 @@ public class PoddOWLManagerImpl implements PoddOWLManager
         }
         // final OWLReasoner nextReasoner = this.createReasoner(nextOntology);
         
-        final OWLOntology nextInferredAxiomsOntology =
-                this.computeInferences(nextReasoner, nextOntology.getOntologyID(),
-                        inferredOntologyID.getInferredOWLOntologyID());
+        final OWLReasoner reasoner = nextReasoner;
+        final OWLOntology nextInferredAxiomsOntology = this.runWithTimeout(new Callable<OWLOntology>()
+            {
+                @Override
+                public OWLOntology call() throws Exception
+                {
+                    return PoddOWLManagerImpl.this.computeInferences(reasoner, nextOntology.getOntologyID(),
+                            inferredOntologyID.getInferredOWLOntologyID(), true);
+                }
+            }, nextReasoner, this.classificationTimeout, "classification");
         
         this.dumpOntologyToRepositoryWithoutDuplication(inferredOntologyID.getVersionIRI().toOpenRDFURI(),
                 nextInferredAxiomsOntology, nextRepositoryConnection, nextInferredAxiomsOntology.getOntologyID()
@@ -660,6 +984,340 @@ public class PoddOWLManagerImpl implements PoddOWLManager
         return inferredOntologyID;
     }
     
+    /**
+     * Generates and stores the inferred statements for a large ontology in chunks of individuals,
+     * so that the inferred axioms for all of the individuals are never held in memory together.
+     * The inferences that do not relate to individuals are generated and stored first.
+     *
+     * @param nextOntology
+     *            The ontology to infer statements for.
+     * @param nextRepositoryConnection
+     *            The connection to store the inferred statements using.
+     * @param nextReasoner
+     *            The reasoner to use, which must already contain the axioms from the ontology.
+     * @return The inferred ontology ID.
+     * @throws TimeOutException
+     *             If the inferences for all of the chunks were not generated within the
+     *             classification time limit.
+     */
+    private InferredOWLOntologyID inferStatementsInChunks(final OWLOntology nextOntology,
+            final RepositoryConnection nextRepositoryConnection, final OWLReasoner nextReasoner)
+        throws OWLException, OpenRDFException, IOException
+    {
+        final InferredOWLOntologyID inferredOntologyID = this.generateInferredOntologyID(nextOntology.getOntologyID());
+        final URI versionURI = inferredOntologyID.getVersionIRI().toOpenRDFURI();
+        final URI inferredURI = inferredOntologyID.getInferredOntologyIRI().toOpenRDFURI();
+        final long deadline = System.currentTimeMillis() + this.classificationTimeout;
+        
+        final OWLOntology inferredAxiomsOntology = this.runWithTimeout(new Callable<OWLOntology>()
+            {
+                @Override
+                public OWLOntology call() throws Exception
+                {
+                    return PoddOWLManagerImpl.this.computeInferences(nextReasoner, nextOntology.getOntologyID(),
+                            inferredOntologyID.getInferredOWLOntologyID(), false);
+                }
+            }, nextReasoner, this.getRemainingTime(deadline), "classification");
+        this.dumpOntologyToRepositoryWithoutDuplication(versionURI, inferredAxiomsOntology,
+                nextRepositoryConnection, inferredURI);
+        
+        final OWLOntologyManager manager = inferredAxiomsOntology.getOWLOntologyManager();
+        final Set<OWLObjectProperty> objectProperties =
+                nextReasoner.getRootOntology().getObjectPropertiesInSignature(true);
+        final Set<OWLDataProperty> dataProperties = nextReasoner.getRootOntology().getDataPropertiesInSignature(true);
+        final List<OWLNamedIndividual> individuals = new ArrayList<>(nextOntology.getIndividualsInSignature());
+        for(int i = 0; i < individuals.size(); i += this.inferenceChunkSize)
+        {
+            final List<OWLNamedIndividual> chunk =
+                    individuals.subList(i, Math.min(individuals.size(), i + this.inferenceChunkSize));
+            final Set<OWLAxiom> chunkAxioms = this.runWithTimeout(new Callable<Set<OWLAxiom>>()
+                {
+                    @Override
+                    public Set<OWLAxiom> call() throws Exception
+                    {
+                        return PoddOWLManagerImpl.this.computeIndividualInferences(nextReasoner, chunk,
+                                objectProperties, dataProperties);
+                    }
+                }, nextReasoner, this.getRemainingTime(deadline), "classification");
+            
+            // Replace the previous chunk, keeping the ontology header and import
+            manager.removeAxioms(inferredAxiomsOntology, new HashSet<>(inferredAxiomsOntology.getAxioms()));
+            manager.addAxioms(inferredAxiomsOntology, chunkAxioms);
+            this.dumpOntologyToRepositoryWithoutDuplication(versionURI, inferredAxiomsOntology,
+                    nextRepositoryConnection, inferredURI);
+            this.log.debug("Stored inferred statements for {} of {} individuals", i + chunk.size(),
+                    individuals.size());
+        }
+        manager.removeAxioms(inferredAxiomsOntology, new HashSet<>(inferredAxiomsOntology.getAxioms()));
+        
+        return inferredOntologyID;
+    }
+    
+    /**
+     * Returns the time remaining before the given deadline, for use with
+     * {@link #runWithTimeout(Callable, OWLReasoner, long, String)}, or 0 if there is no
+     * classification time limit.
+     */
+    private long getRemainingTime(final long deadline)
+    {
+        if(this.classificationTimeout <= 0)
+        {
+            return 0;
+        }
+        return Math.max(1, deadline - System.currentTimeMillis());
+    }
+    
+    /**
+     * Generates inferred statements for an ontology using RDFS forward chaining over the ontology
+     * and its imports. This is much cheaper than full OWL reasoning, and is used when the reasoner
+     * does not finish within its time limit.
+     *
+     * @param nextOntology
+     *            The ontology to infer statements for.
+     * @param reasonerRoot
+     *            The root ontology of the reasoner that was used, whose imports closure contains
+     *            the schema ontologies.
+     * @param inferredOntologyID
+     *            The ID to use for the inferred ontology.
+     * @param nextRepositoryConnection
+     *            The connection to store the inferred statements using.
+     * @return The inferred ontology ID.
+     */
+    private InferredOWLOntologyID inferStatementsFallback(final OWLOntology nextOntology,
+            final OWLOntology reasonerRoot, final InferredOWLOntologyID inferredOntologyID,
+            final RepositoryConnection nextRepositoryConnection) throws OpenRDFException, IOException
+    {
+        final Set<OWLOntology> ontologies = new LinkedHashSet<>(reasonerRoot.getImportsClosure());
+        ontologies.add(nextOntology);
+        
+        final Set<URI> individuals = new HashSet<>();
+        for(final OWLNamedIndividual nextIndividual : nextOntology.getIndividualsInSignature())
+        {
+            individuals.add(nextIndividual.getIRI().toOpenRDFURI());
+        }
+        
+        final Model inferredStatements = new LinkedHashModel();
+        final Repository tempRepository = new SailRepository(new ForwardChainingRDFSInferencer(new MemoryStore()));
+        tempRepository.initialize();
+        try
+        {
+            final RepositoryConnection tempConnection = tempRepository.getConnection();
+            try
+            {
+                tempConnection.begin();
+                for(final OWLOntology nextImport : ontologies)
+                {
+                    if(!nextImport.getOntologyID().isAnonymous())
+                    {
+                        this.dumpOntologyToRepository(nextImport, tempConnection);
+                    }
+                }
+                tempConnection.commit();
+                
+                for(final Statement nextStatement : Iterations.asList(tempConnection.getStatements(null, null, null,
+                        true)))
+                {
+                    if(individuals.contains(nextStatement.getSubject())
+                            && !RDFS.RESOURCE.equals(nextStatement.getObject())
+                            && !tempConnection.hasStatement(nextStatement.getSubject(),
+                                    nextStatement.getPredicate(), nextStatement.getObject(), false))
+                    {
+                        inferredStatements.add(nextStatement.getSubject(), nextStatement.getPredicate(),
+                                nextStatement.getObject());
+                    }
+                }
+            }
+            finally
+            {
+                tempConnection.close();
+            }
+        }
+        finally
+        {
+            tempRepository.shutDown();
+        }
+        
+        final URI inferredOntologyURI = inferredOntologyID.getInferredOntologyIRI().toOpenRDFURI();
+        inferredStatements.add(inferredOntologyURI, RDF.TYPE, OWL.ONTOLOGY);
+        inferredStatements.add(inferredOntologyURI, OWL.IMPORTS, inferredOntologyID.getVersionIRI().toOpenRDFURI());
+        nextRepositoryConnection.add(inferredStatements, inferredOntologyURI);
+        
+        this.log.debug("RDFS fallback inferred {} statements", inferredStatements.size());
+        return inferredOntologyID;
+    }
+    
+    /**
+     * Checks whether the reasoner is consistent, interrupting it if it does not finish within the
+     * consistency time limit.
+     */
+    private boolean isConsistent(final OWLReasoner reasoner)
+    {
+        return this.runWithTimeout(new Callable<Boolean>()
+            {
+                @Override
+                public Boolean call() throws Exception
+                {
+                    return reasoner.isConsistent();
+                }
+            }, reasoner, this.consistencyTimeout, "consistency check");
+    }
+    
+    /**
+     * Runs the given reasoner task on a separate thread, interrupting the reasoner if the task does
+     * not finish within the given time limit. If the task is interrupted, this method waits for up
+     * to the time limit again for the task to stop using the reasoner, so that the caller can safely
+     * use or dispose of the reasoner afterwards. If the task still has not stopped, an
+     * {@link AbandonedReasonerException} is thrown, and the caller must not use the reasoner or the
+     * ontology manager containing its ontologies again.
+     *
+     * @param task
+     *            The task to run.
+     * @param reasoner
+     *            The reasoner that the task uses.
+     * @param timeout
+     *            The time limit in milliseconds, or 0 to run the task on this thread without a
+     *            limit.
+     * @param operation
+     *            A description of the task for logging.
+     * @return The result of the task.
+     * @throws TimeOutException
+     *             If the task did not finish within the time limit.
+     * @throws AbandonedReasonerException
+     *             If the task did not finish within the time limit, and did not stop after being
+     *             interrupted.
+     */
+    private <T> T runWithTimeout(final Callable<T> task, final OWLReasoner reasoner, final long timeout,
+            final String operation) throws TimeOutException
+    {
+        try
+        {
+            if(timeout <= 0)
+            {
+                return task.call();
+            }
+            
+            // Either the worker claims the task before running it, or the caller claims it when
+            // abandoning it, so the caller knows whether it needs to wait for the worker to stop
+            final AtomicBoolean claimed = new AtomicBoolean(false);
+            final CountDownLatch finished = new CountDownLatch(1);
+            final Future<T> future = this.reasonerExecutor.submit(new Callable<T>()
+                {
+                    @Override
+                    public T call() throws Exception
+                    {
+                        if(!claimed.compareAndSet(false, true))
+                        {
+                            return null;
+                        }
+                        try
+                        {
+                            return task.call();
+                        }
+                        finally
+                        {
+                            finished.countDown();
+                        }
+                    }
+                });
+            try
+            {
+                return future.get(timeout, TimeUnit.MILLISECONDS);
+            }
+            catch(final java.util.concurrent.TimeoutException e)
+            {
+                this.log.warn("Reasoner {} did not finish within {} ms", operation, timeout);
+                if(!this.stopWorker(future, claimed, finished, reasoner, timeout, operation))
+                {
+                    throw new AbandonedReasonerException("Reasoner " + operation + " did not stop within "
+                            + timeout + " ms of being interrupted");
+                }
+                throw new TimeOutException("Reasoner " + operation + " did not finish within " + timeout + " ms");
+            }
+            catch(final InterruptedException e)
+            {
+                final boolean stopped = this.stopWorker(future, claimed, finished, reasoner, timeout, operation);
+                Thread.currentThread().interrupt();
+                if(!stopped)
+                {
+                    throw new AbandonedReasonerException("Reasoner " + operation + " did not stop within "
+                            + timeout + " ms of being interrupted");
+                }
+                throw new ReasonerInterruptedException(e);
+            }
+            catch(final ExecutionException e)
+            {
+                if(e.getCause() instanceof Exception)
+                {
+                    throw (Exception)e.getCause();
+                }
+                else if(e.getCause() instanceof Error)
+                {
+                    throw (Error)e.getCause();
+                }
+                throw new OWLRuntimeException(e.getCause());
+            }
+        }
+        catch(final RuntimeException e)
+        {
+            throw e;
+        }
+        catch(final Exception e)
+        {
+            throw new OWLRuntimeException(e);
+        }
+    }
+    
+    /**
+     * Interrupts the reasoner and the worker thread running a task from
+     * {@link #runWithTimeout(Callable, OWLReasoner, long, String)}, and waits for up to the given
+     * time limit for the task to stop.
+     *
+     * @return True if the task stopped, or was never started, and false if it is still running.
+     */
+    private boolean stopWorker(final Future<?> future, final AtomicBoolean claimed, final CountDownLatch finished,
+            final OWLReasoner reasoner, final long timeout, final String operation)
+    {
+        reasoner.interrupt();
+        future.cancel(true);
+        if(claimed.compareAndSet(false, true))
+        {
+            // The worker had not started the task, and will not start it now
+            return true;
+        }
+        
+        boolean interrupted = false;
+        try
+        {
+            final long deadline = System.currentTimeMillis() + timeout;
+            long remaining = timeout;
+            while(remaining > 0)
+            {
+                try
+                {
+                    if(finished.await(remaining, TimeUnit.MILLISECONDS))
+                    {
+                        return true;
+                    }
+                }
+                catch(final InterruptedException e)
+                {
+                    interrupted = true;
+                }
+                remaining = deadline - System.currentTimeMillis();
+            }
+            this.log.error("Abandoning reasoner {} as it did not stop within {} ms of being interrupted",
+                    operation, timeout);
+            return false;
+        }
+        finally
+        {
+            if(interrupted)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
     @Override
     public boolean isCached(final OWLOntologyID ontologyID, final Set<? extends OWLOntologyID> dependentSchemaOntologies)
     {
@@ -715,9 +1373,11 @@ public class PoddOWLManagerImpl implements PoddOWLManager
         {
             cachedManager =
                     this.cacheSchemaOntologies(dependentSchemaOntologies, managementConnection, schemaManagementContext);
+            PhaseTimer.lap("cacheSchemaOntologies");
             synchronized(cachedManager)
             {
                 nextOntology = this.loadOntologyInternal(ontologyID, owlSource, cachedManager);
+                PhaseTimer.lap("loadOntology");
                 
                 // Check the OWLAPI OWLOntology against an OWLProfile to make sure
                 // it is in profile
@@ -735,71 +1395,211 @@ public class PoddOWLManagerImpl implements PoddOWLManager
                     throw new OntologyNotInProfileException(nextOntology, profileReport,
                             "Ontology is not in required OWL Profile: " + profileReport.getProfile().getName());
                 }
+                PhaseTimer.lap("profileCheck");
+                
+                // Inferred statements for large artifacts are stored in chunks, and the reasoner
+                // state for them is discarded afterwards
+                final boolean largeArtifact =
+                        nextOntology.getIndividualsInSignature().size() >= this.largeArtifactIndividuals;
+                if(largeArtifact)
+                {
+                    this.log.info("Inferring statements in chunks for large ontology: {}",
+                            nextOntology.getOntologyID());
+                }
                 
-                // Use the OWLManager to create a reasoner over the ontology
-                final OWLReasoner nextReasoner = this.createReasoner(nextOntology);
+                // Artifacts that only contain ABox axioms are reasoned over using the classified
+                // schema TBox, so that the schema ontologies are not classified again for each
+                // artifact
+                final boolean useSchemaReasoner =
+                        this.reuseSchemaReasoner && !dependentSchemaOntologies.isEmpty()
+                                && nextOntology.getTBoxAxioms(false).isEmpty()
+                                && nextOntology.getRBoxAxioms(false).isEmpty();
+                final OWLReasoner nextReasoner;
+                final Set<OWLAxiom> schemaReasonerAxioms;
+                if(useSchemaReasoner)
+                {
+                    nextReasoner = this.getSchemaReasoner(dependentSchemaOntologies, cachedManager);
+                    schemaReasonerAxioms = nextOntology.getAxioms();
+                    cachedManager.addAxioms(nextReasoner.getRootOntology(), schemaReasonerAxioms);
+                    nextReasoner.flush();
+                }
+                else
+                {
+                    // Use the OWLManager to create a reasoner over the ontology
+                    nextReasoner = this.createReasoner(nextOntology);
+                    schemaReasonerAxioms = Collections.emptySet();
+                }
+                PhaseTimer.lap("createReasoner");
                 
-                // Test that the ontology was consistent with this reasoner
-                // This ensures in the case of Pellet that it is in the OWL2-DL
-                // profile
-                if(!nextReasoner.isConsistent())
+                boolean reasonerInterrupted = false;
+                boolean reasonerAbandoned = false;
+                boolean reasonerCompleted = false;
+                try
                 {
-                    final RDFXMLExplanationRenderer renderer = new RDFXMLExplanationRenderer();
-                    // Get 100 inconsistency explanations, any more than that and they need to make
-                    // modifications and try again
-                    final ExplanationUtils exp =
-                            new ExplanationUtils((PelletReasoner)nextReasoner,
-                                    (PelletReasonerFactory)this.getReasonerFactory(), renderer,
-                                    new NullProgressMonitor(), 100);
+                    // Test that the ontology was consistent with this reasoner
+                    // This ensures in the case of Pellet that it is in the OWL2-DL
+                    // profile
+                    if(!this.isConsistent(nextReasoner))
+                    {
+                        final RDFXMLExplanationRenderer renderer = new RDFXMLExplanationRenderer();
+                        // Get 100 inconsistency explanations, any more than that and they need to make
+                        // modifications and try again
+                        final ExplanationUtils exp =
+                                new ExplanationUtils((PelletReasoner)nextReasoner,
+                                        (PelletReasonerFactory)this.getReasonerFactory(), renderer,
+                                        new NullProgressMonitor(), 100);
+                        
+                        try
+                        {
+                            final Set<Set<OWLAxiom>> inconsistencyExplanations =
+                                    this.runWithTimeout(new Callable<Set<Set<OWLAxiom>>>()
+                                        {
+                                            @Override
+                                            public Set<Set<OWLAxiom>> call() throws Exception
+                                            {
+                                                return exp.explainClassHierarchy();
+                                            }
+                                        }, nextReasoner, this.explanationTimeout, "explanation");
+                            
+                            throw new InconsistentOntologyException(inconsistencyExplanations,
+                                    nextOntology.getOntologyID(), renderer,
+                                    "Ontology is inconsistent (explanation available)");
+                        }
+                        catch(final TimeOutException e)
+                        {
+                            if(e instanceof AbandonedReasonerException)
+                            {
+                                throw e;
+                            }
+                            reasonerInterrupted = true;
+                            throw new InconsistentOntologyException(new HashSet<Set<OWLAxiom>>(),
+                                    nextOntology.getOntologyID(), renderer,
+                                    "Ontology is inconsistent (explanation timed out)");
+                        }
+                        catch(final org.mindswap.pellet.exceptions.InconsistentOntologyException e)
+                        {
+                            throw new InconsistentOntologyException(new HashSet<Set<OWLAxiom>>(),
+                                    nextOntology.getOntologyID(), renderer,
+                                    "Ontology is inconsistent (textual explanation available): " + e.getMessage());
+                        }
+                        catch(PelletRuntimeException | OWLRuntimeException e)
+                        {
+                            throw new InconsistentOntologyException(new HashSet<Set<OWLAxiom>>(),
+                                    nextOntology.getOntologyID(), renderer,
+                                    "Ontology is inconsistent (no explanation available): " + e.getMessage());
+                        }
+                    }
+                    PhaseTimer.lap("consistency");
+                    
+                    // Copy the statements to permanentRepositoryConnection
+                    this.dumpOntologyToRepository(nextOntology, permanentRepositoryConnection, nextOntology
+                            .getOntologyID().getVersionIRI().toOpenRDFURI());
+                    PhaseTimer.lap("dumpOntologyToRepository");
                     
+                    // NOTE: At this stage, a client could be notified, and the artifact
+                    // could be streamed
+                    // back to them from permanentRepositoryConnection
+                    
+                    // Use an OWLAPI InferredAxiomGenerator together with the reasoner
+                    // to create inferred
+                    // axioms to store in the database.
+                    // Serialise the inferred statements back to a different context in
+                    // the permanent
+                    // repository connection.
+                    // The contexts to use within the permanent repository connection
+                    // are all encapsulated
+                    // in the InferredOWLOntologyID object.
+                    
+                    // FIXME: This should return a Future so that we can defer inferencing into the
+                    // background
                     try
                     {
-                        final Set<Set<OWLAxiom>> inconsistencyExplanations = exp.explainClassHierarchy();
+                        if(largeArtifact)
+                        {
+                            inferredOWLOntologyID =
+                                    this.inferStatementsInChunks(nextOntology, permanentRepositoryConnection,
+                                            nextReasoner);
+                        }
+                        else
+                        {
+                            inferredOWLOntologyID =
+                                    this.inferStatements(nextOntology, permanentRepositoryConnection, nextReasoner);
+                        }
+                    }
+                    catch(final TimeOutException e)
+                    {
+                        reasonerInterrupted = true;
+                        if(!this.fallbackReasoning || e instanceof AbandonedReasonerException)
+                        {
+                            throw e;
+                        }
                         
-                        throw new InconsistentOntologyException(inconsistencyExplanations,
-                                nextOntology.getOntologyID(), renderer,
-                                "Ontology is inconsistent (explanation available)");
+                        this.log.warn("Using RDFS fallback to infer statements for: {}", nextOntology.getOntologyID());
+                        final InferredOWLOntologyID fallbackOntologyID =
+                                this.generateInferredOntologyID(nextOntology.getOntologyID());
+                        // Remove any partially computed inferred ontology
+                        if(cachedManager.contains(fallbackOntologyID.getInferredOntologyIRI()))
+                        {
+                            cachedManager.removeOntology(cachedManager.getOntology(fallbackOntologyID
+                                    .getInferredOntologyIRI()));
+                        }
+                        inferredOWLOntologyID =
+                                this.inferStatementsFallback(nextOntology, nextReasoner.getRootOntology(),
+                                        fallbackOntologyID, permanentRepositoryConnection);
                     }
-                    catch(final org.mindswap.pellet.exceptions.InconsistentOntologyException e)
+                    PhaseTimer.lap("inferStatements");
+                    reasonerCompleted = true;
+                }
+                catch(final AbandonedReasonerException e)
+                {
+                    reasonerAbandoned = true;
+                    throw e;
+                }
+                catch(final TimeOutException | ReasonerInterruptedException e)
+                {
+                    reasonerInterrupted = true;
+                    throw e;
+                }
+                finally
+                {
+                    if(reasonerAbandoned)
                     {
-                        throw new InconsistentOntologyException(new HashSet<Set<OWLAxiom>>(),
-                                nextOntology.getOntologyID(), renderer,
-                                "Ontology is inconsistent (textual explanation available): " + e.getMessage());
+                        this.abandonCachedManager(dependentSchemaOntologies, cachedManager);
                     }
-                    catch(PelletRuntimeException | OWLRuntimeException e)
+                    else if(useSchemaReasoner && (!reasonerCompleted || reasonerInterrupted || largeArtifact))
                     {
-                        throw new InconsistentOntologyException(new HashSet<Set<OWLAxiom>>(),
-                                nextOntology.getOntologyID(), renderer,
-                                "Ontology is inconsistent (no explanation available): " + e.getMessage());
+                        // The state of a reasoner that failed, was interrupted, or found the
+                        // artifact to be inconsistent is unknown, and the reasoner would otherwise
+                        // hold onto the individuals in a large artifact, so classify the schema
+                        // ontologies again for the next artifact
+                        this.discardSchemaReasoner(dependentSchemaOntologies, nextReasoner, cachedManager);
+                    }
+                    else if(useSchemaReasoner)
+                    {
+                        // Process the removals now, so that the next artifact starts from the
+                        // classified schema TBox with an empty ABox
+                        cachedManager.removeAxioms(nextReasoner.getRootOntology(), schemaReasonerAxioms);
+                        try
+                        {
+                            nextReasoner.flush();
+                        }
+                        catch(final RuntimeException e)
+                        {
+                            this.log.warn("Failed to remove artifact axioms from schema reasoner", e);
+                            this.discardSchemaReasoner(dependentSchemaOntologies, nextReasoner, cachedManager);
+                        }
+                    }
+                    else
+                    {
+                        nextReasoner.dispose();
                     }
                 }
-                
-                // Copy the statements to permanentRepositoryConnection
-                this.dumpOntologyToRepository(nextOntology, permanentRepositoryConnection, nextOntology.getOntologyID()
-                        .getVersionIRI().toOpenRDFURI());
-                
-                // NOTE: At this stage, a client could be notified, and the artifact
-                // could be streamed
-                // back to them from permanentRepositoryConnection
-                
-                // Use an OWLAPI InferredAxiomGenerator together with the reasoner
-                // to create inferred
-                // axioms to store in the database.
-                // Serialise the inferred statements back to a different context in
-                // the permanent
-                // repository connection.
-                // The contexts to use within the permanent repository connection
-                // are all encapsulated
-                // in the InferredOWLOntologyID object.
-                
-                // FIXME: This should return a Future so that we can defer inferencing into the
-                // background
-                inferredOWLOntologyID = this.inferStatements(nextOntology, permanentRepositoryConnection, nextReasoner);
             }
         }
         catch(final Throwable e)
         {
-            if(cachedManager != null)
+            // An abandoned manager may still be in use by a reasoner that did not stop
+            if(cachedManager != null && this.managerCache.get(dependentSchemaOntologies) == cachedManager)
             {
                 synchronized(cachedManager)
                 {
@@ -969,6 +1769,11 @@ public class PoddOWLManagerImpl implements PoddOWLManager
         if(ontologyID == null)
         {
             this.log.debug("Clearing manager cache: {}", dependentSchemaOntologies);
+            final OWLReasoner schemaReasoner = this.schemaReasonerCache.remove(dependentSchemaOntologies);
+            if(schemaReasoner != null)
+            {
+                schemaReasoner.dispose();
+            }
             for(final OWLOntology nextOntology : cachedManager.getOntologies())
             {
                 cachedManager.removeOntology(nextOntology.getOntologyID());
@@ -1060,4 +1865,19 @@ public class PoddOWLManagerImpl implements PoddOWLManager
             }
         }
     }
+    
+    /**
+     * Thrown when a reasoner task did not finish within its time limit, and was still running after
+     * being interrupted, so that the reasoner and the ontology manager containing its ontologies
+     * must not be used again.
+     */
+    private static final class AbandonedReasonerException extends TimeOutException
+    {
+        private static final long serialVersionUID = -2297826531479126735L;
+        
+        AbandonedReasonerException(final String message)
+        {
+            super(message);
+        }
+    }
 }
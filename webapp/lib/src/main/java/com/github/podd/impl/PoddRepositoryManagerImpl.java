@@ -24,20 +24,32 @@ import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
+import org.apache.commons.io.FileUtils;
 import org.openrdf.OpenRDFException;
 import org.openrdf.model.Literal;
 import org.openrdf.model.Model;
+import org.openrdf.model.Namespace;
 import org.openrdf.model.Resource;
 import org.openrdf.model.Statement;
 import org.openrdf.model.URI;
@@ -50,6 +62,7 @@ import org.openrdf.repository.Repository;
 import org.openrdf.repository.RepositoryConnection;
 import org.openrdf.repository.RepositoryException;
 import org.openrdf.repository.RepositoryResult;
+import org.openrdf.repository.base.RepositoryConnectionWrapper;
 import org.openrdf.repository.config.RepositoryConfig;
 import org.openrdf.repository.config.RepositoryConfigException;
 import org.openrdf.repository.config.RepositoryImplConfig;
@@ -61,6 +74,8 @@ import org.openrdf.rio.RDFHandlerException;
 import org.openrdf.rio.helpers.StatementCollector;
 import org.openrdf.sail.federation.Federation;
 import org.openrdf.sail.memory.MemoryStore;
+import org.openrdf.sail.nativerdf.NativeStore;
+import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLOntologyID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -71,6 +86,9 @@ import com.github.podd.exception.RepositoryNotFoundException;
 import com.github.podd.utils.ManualShutdownRepository;
 import com.github.podd.utils.OntologyUtils;
 import com.github.podd.utils.PODD;
+import com.github.podd.utils.PoddWebConstants;
+import com.github.podd.utils.RepositorySnapshot;
+import com.github.podd.utils.RepositoryUnitOfWork;
 
 /**
  * @author Peter Ansell p_ansell@yahoo.com
@@ -101,6 +119,19 @@ public class PoddRepositoryManagerImpl implements PoddRepositoryManager
     
     private ConcurrentMap<URI, RepositoryManager> sesameRepositoryManagers = new ConcurrentHashMap<>();
     
+    private boolean nativeTemporaryRepositories;
+    
+    private int shardCount;
+    
+    private List<String> shardServerUrls = new ArrayList<>();
+    
+    private boolean sizeAwareShardPlacement;
+    
+    private ConcurrentMap<URI, ManualShutdownRepository> shardRepositories = new ConcurrentHashMap<>();
+    
+    private ConcurrentMap<Set<Set<IRI>>, SharedFederatedRepository> federatedRepositories =
+            new ConcurrentHashMap<>();
+    
     /**
      *
      * @param managementRepository
@@ -129,6 +160,23 @@ public class PoddRepositoryManagerImpl implements PoddRepositoryManager
         this.repositoryGraph =
                 PODD.VF.createURI(props.get(PODD.PROPERTY_REPOSITORY_MANAGEMENT_GRAPH,
                         PODD.DEFAULT_REPOSITORY_MANAGEMENT_GRAPH.stringValue()));
+        this.nativeTemporaryRepositories =
+                "native".equalsIgnoreCase(props.get(PoddWebConstants.PROPERTY_TEMPORARY_REPOSITORY_TYPE,
+                        PoddWebConstants.DEFAULT_TEMPORARY_REPOSITORY_TYPE));
+        this.shardCount =
+                Integer.parseInt(props.get(PoddWebConstants.PROPERTY_PERMANENT_SESAME_REPOSITORY_SHARDS,
+                        PoddWebConstants.DEFAULT_PERMANENT_SESAME_REPOSITORY_SHARDS));
+        for(final String nextServerUrl : props.get(PoddWebConstants.PROPERTY_PERMANENT_SESAME_REPOSITORY_SHARD_SERVERS,
+                PoddWebConstants.DEFAULT_PERMANENT_SESAME_REPOSITORY_SHARD_SERVERS).split(","))
+        {
+            if(!nextServerUrl.trim().isEmpty())
+            {
+                this.shardServerUrls.add(nextServerUrl.trim());
+            }
+        }
+        this.sizeAwareShardPlacement =
+                "size".equalsIgnoreCase(props.get(PoddWebConstants.PROPERTY_PERMANENT_SESAME_REPOSITORY_SHARD_PLACEMENT,
+                        PoddWebConstants.DEFAULT_PERMANENT_SESAME_REPOSITORY_SHARD_PLACEMENT));
     }
     
     @Override
@@ -147,12 +195,17 @@ public class PoddRepositoryManagerImpl implements PoddRepositoryManager
     public RepositoryConnection getManagementRepositoryConnection() throws OpenRDFException
     {
         this.log.debug("Get management repository");
-        return this.managementRepository.getConnection();
+        return RepositoryUnitOfWork.getConnection(this.managementRepository);
     }
     
     @Override
     public Repository getNewTemporaryRepository() throws OpenRDFException
     {
+        if(this.nativeTemporaryRepositories)
+        {
+            return this.getNewTemporaryNativeRepository();
+        }
+        
         this.log.debug("Started creating temporary MemoryStore repository");
         final Repository result = new SailRepository(new MemoryStore());
         result.initialize();
@@ -161,6 +214,54 @@ public class PoddRepositoryManagerImpl implements PoddRepositoryManager
         return result;
     }
     
+    /**
+     * Creates a temporary NativeStore repository, so that the statements in very large artifacts
+     * do not need to be held in memory while they are uploaded. The directory for the store is
+     * deleted when the repository is shut down.
+     */
+    private Repository getNewTemporaryNativeRepository() throws OpenRDFException
+    {
+        this.log.debug("Started creating temporary NativeStore repository");
+        final Path tempDirectory;
+        try
+        {
+            if(this.poddHomeDirectory != null)
+            {
+                tempDirectory =
+                        Files.createDirectories(this.poddHomeDirectory.resolve("temp")).resolve(
+                                UUID.randomUUID().toString());
+            }
+            else
+            {
+                tempDirectory = Files.createTempDirectory("podd-temp-");
+            }
+        }
+        catch(final IOException e)
+        {
+            throw new RepositoryException("Could not create directory for temporary repository", e);
+        }
+        
+        final Repository result = new SailRepository(new NativeStore(tempDirectory.toFile()))
+            {
+                @Override
+                protected void shutDownInternal() throws RepositoryException
+                {
+                    try
+                    {
+                        super.shutDownInternal();
+                    }
+                    finally
+                    {
+                        FileUtils.deleteQuietly(tempDirectory.toFile());
+                    }
+                }
+            };
+        result.initialize();
+        this.log.debug("Finished creating temporary NativeStore repository: {}", tempDirectory);
+        
+        return result;
+    }
+    
     @Override
     public RepositoryConnection getPermanentRepositoryConnection(final Set<? extends OWLOntologyID> schemaOntologies)
         throws OpenRDFException, IOException, RepositoryNotFoundException
@@ -171,6 +272,75 @@ public class PoddRepositoryManagerImpl implements PoddRepositoryManager
     @Override
     public RepositoryConnection getPermanentRepositoryConnection(final Set<? extends OWLOntologyID> schemaOntologies,
             final boolean createIfNotExists) throws OpenRDFException, IOException, RepositoryNotFoundException
+    {
+        return RepositoryUnitOfWork.getConnection(this.getPermanentRepository(schemaOntologies, createIfNotExists));
+    }
+    
+    @Override
+    public RepositoryConnection getPermanentRepositoryConnection(final Set<? extends OWLOntologyID> schemaOntologies,
+            final OWLOntologyID artifactId) throws OpenRDFException, IOException, RepositoryNotFoundException
+    {
+        return this.getPermanentRepositoryConnection(schemaOntologies, artifactId, false);
+    }
+    
+    @Override
+    public RepositoryConnection getPermanentRepositoryConnection(final Set<? extends OWLOntologyID> schemaOntologies,
+            final OWLOntologyID artifactId, final boolean createIfNotExists) throws OpenRDFException, IOException,
+        RepositoryNotFoundException
+    {
+        final ManualShutdownRepository permanentRepository =
+                this.getPermanentRepository(schemaOntologies, createIfNotExists);
+        if(this.shardCount <= 1 || artifactId == null || artifactId.getOntologyIRI() == null)
+        {
+            return RepositoryUnitOfWork.getConnection(permanentRepository);
+        }
+        return RepositoryUnitOfWork.getConnection(this.getPermanentRepositoryShard(schemaOntologies,
+                permanentRepository, artifactId.getOntologyIRI().toOpenRDFURI(), createIfNotExists));
+    }
+    
+    @Override
+    public void removeArtifactAssignment(final URI artifactUri, final RepositoryConnection managementConnection)
+        throws OpenRDFException
+    {
+        managementConnection.remove((Resource)null, PODD.PODD_REPOSITORY_CONTAINS_ARTIFACT, artifactUri,
+                this.repositoryGraph);
+    }
+    
+    @Override
+    public List<RepositoryConnection> getPermanentRepositoryConnections(
+            final Set<? extends OWLOntologyID> schemaOntologies) throws OpenRDFException, IOException,
+        RepositoryNotFoundException
+    {
+        final ManualShutdownRepository permanentRepository = this.getPermanentRepository(schemaOntologies, false);
+        final List<RepositoryConnection> results = new ArrayList<>(Math.max(1, this.shardCount));
+        try
+        {
+            results.add(RepositoryUnitOfWork.getConnection(permanentRepository));
+            if(this.shardCount > 1)
+            {
+                for(final ManualShutdownRepository nextShard : this.getPermanentRepositoryShards(schemaOntologies))
+                {
+                    results.add(RepositoryUnitOfWork.getConnection(nextShard));
+                }
+            }
+        }
+        catch(final Throwable e)
+        {
+            for(final RepositoryConnection nextConnection : results)
+            {
+                nextConnection.close();
+            }
+            throw e;
+        }
+        return results;
+    }
+    
+    /**
+     * Gets the first permanent repository for the given set of schema ontologies, which contains
+     * every artifact for the schema ontologies, unless they are spread across more than one shard.
+     */
+    protected ManualShutdownRepository getPermanentRepository(final Set<? extends OWLOntologyID> schemaOntologies,
+            final boolean createIfNotExists) throws OpenRDFException, IOException, RepositoryNotFoundException
     {
         this.log.debug("Entering get permanent repository: createIfNotExists={}", createIfNotExists);
         this.log.debug("Get permanent repository schemas: {}", schemaOntologies);
@@ -450,7 +620,7 @@ public class PoddRepositoryManagerImpl implements PoddRepositoryManager
             }
         }
         this.log.debug("Returning from get permanent repository");
-        return permanentRepository.getConnection();
+        return permanentRepository;
     }
     
     /**
@@ -595,6 +765,428 @@ public class PoddRepositoryManagerImpl implements PoddRepositoryManager
         return null;
     }
     
+    /**
+     * Gets the shard that contains the given artifact, out of the shards for the given set of schema
+     * ontologies. Artifacts that have not been assigned to a shard are in the first shard, which is
+     * the given permanent repository, unless createIfNotExists is true, in which case they are
+     * assigned to a shard and recorded in the repository management graph.
+     */
+    protected Repository getPermanentRepositoryShard(final Set<? extends OWLOntologyID> schemaOntologies,
+            final ManualShutdownRepository permanentRepository, final URI artifactUri, final boolean createIfNotExists)
+        throws OpenRDFException, IOException
+    {
+        RepositoryConnection managementConnection = null;
+        try
+        {
+            managementConnection = this.getManagementRepositoryConnection();
+            final URI repositoryUri = this.getPermanentRepositoryUri(schemaOntologies, managementConnection);
+            if(repositoryUri == null)
+            {
+                return permanentRepository;
+            }
+            final Repository existingShard =
+                    this.findArtifactShard(repositoryUri, permanentRepository, artifactUri, managementConnection);
+            if(existingShard != null)
+            {
+                return existingShard;
+            }
+            if(!createIfNotExists)
+            {
+                return permanentRepository;
+            }
+        }
+        finally
+        {
+            if(managementConnection != null)
+            {
+                managementConnection.close();
+            }
+        }
+        
+        // Assign the artifact to a shard, creating the shards for this set of schema ontologies if
+        // they do not exist yet
+        synchronized(this.shardRepositories)
+        {
+            managementConnection = null;
+            try
+            {
+                managementConnection = this.getManagementRepositoryConnection();
+                managementConnection.begin();
+                final URI repositoryUri = this.getPermanentRepositoryUri(schemaOntologies, managementConnection);
+                
+                // Check again in case another thread assigned the artifact while we were waiting
+                final Repository existingShard =
+                        this.findArtifactShard(repositoryUri, permanentRepository, artifactUri, managementConnection);
+                if(existingShard != null)
+                {
+                    managementConnection.commit();
+                    return existingShard;
+                }
+                
+                final SortedMap<Integer, URI> shardUris = this.getShardUris(repositoryUri, managementConnection);
+                for(int i = 1; i < this.shardCount; i++)
+                {
+                    if(!shardUris.containsKey(i))
+                    {
+                        shardUris.put(i, this.createShardRepository(schemaOntologies, repositoryUri, i,
+                                managementConnection));
+                    }
+                }
+                
+                int shardIndex = (artifactUri.stringValue().hashCode() & Integer.MAX_VALUE) % this.shardCount;
+                if(this.sizeAwareShardPlacement)
+                {
+                    long smallestSize = Long.MAX_VALUE;
+                    for(int i = 0; i < this.shardCount; i++)
+                    {
+                        final Repository nextShard =
+                                i == 0 ? permanentRepository : this.getShardRepository(shardUris.get(i),
+                                        managementConnection);
+                        final RepositoryConnection shardConnection = RepositoryUnitOfWork.getConnection(nextShard);
+                        try
+                        {
+                            final long nextSize = shardConnection.size();
+                            if(nextSize < smallestSize)
+                            {
+                                smallestSize = nextSize;
+                                shardIndex = i;
+                            }
+                        }
+                        finally
+                        {
+                            shardConnection.close();
+                        }
+                    }
+                }
+                
+                managementConnection.add(shardUris.get(shardIndex), PODD.PODD_REPOSITORY_CONTAINS_ARTIFACT,
+                        artifactUri, this.repositoryGraph);
+                final Repository result =
+                        shardIndex == 0 ? permanentRepository : this.getShardRepository(shardUris.get(shardIndex),
+                                managementConnection);
+                managementConnection.commit();
+                this.log.debug("Assigned artifact to shard {}: {}", shardIndex, artifactUri);
+                return result;
+            }
+            catch(final Throwable e)
+            {
+                if(managementConnection != null)
+                {
+                    managementConnection.rollback();
+                }
+                throw e;
+            }
+            finally
+            {
+                if(managementConnection != null)
+                {
+                    managementConnection.close();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Gets the shards other than the first shard for the given set of schema ontologies, in order.
+     */
+    protected List<ManualShutdownRepository> getPermanentRepositoryShards(
+            final Set<? extends OWLOntologyID> schemaOntologies) throws OpenRDFException
+    {
+        final List<ManualShutdownRepository> results = new ArrayList<>();
+        RepositoryConnection managementConnection = null;
+        try
+        {
+            managementConnection = this.getManagementRepositoryConnection();
+            final URI repositoryUri = this.getPermanentRepositoryUri(schemaOntologies, managementConnection);
+            if(repositoryUri != null)
+            {
+                for(final Entry<Integer, URI> nextShard : this.getShardUris(repositoryUri, managementConnection)
+                        .entrySet())
+                {
+                    if(nextShard.getKey() > 0)
+                    {
+                        results.add(this.getShardRepository(nextShard.getValue(), managementConnection));
+                    }
+                }
+            }
+        }
+        finally
+        {
+            if(managementConnection != null)
+            {
+                managementConnection.close();
+            }
+        }
+        return results;
+    }
+    
+    /**
+     * Finds the shard that the given artifact has been assigned to, or null if it has not been
+     * assigned to any of the shards for the given permanent repository.
+     */
+    private Repository findArtifactShard(final URI repositoryUri, final ManualShutdownRepository permanentRepository,
+            final URI artifactUri, final RepositoryConnection managementConnection) throws OpenRDFException
+    {
+        for(final Entry<Integer, URI> nextShard : this.getShardUris(repositoryUri, managementConnection).entrySet())
+        {
+            if(managementConnection.hasStatement(nextShard.getValue(), PODD.PODD_REPOSITORY_CONTAINS_ARTIFACT,
+                    artifactUri, false, this.repositoryGraph))
+            {
+                if(nextShard.getKey() == 0)
+                {
+                    return permanentRepository;
+                }
+                return this.getShardRepository(nextShard.getValue(), managementConnection);
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Finds the permanent repository in the repository management graph that contains exactly the
+     * given set of schema ontologies.
+     */
+    private URI getPermanentRepositoryUri(final Set<? extends OWLOntologyID> schemaOntologies,
+            final RepositoryConnection managementConnection) throws RepositoryException
+    {
+        final Set<Value> schemaVersions = new HashSet<>();
+        for(final OWLOntologyID nextSchemaOntology : schemaOntologies)
+        {
+            schemaVersions.add(nextSchemaOntology.getVersionIRI().toOpenRDFURI());
+        }
+        
+        for(final Statement nextType : Iterations.asList(managementConnection.getStatements(null, RDF.TYPE,
+                PODD.PODD_REPOSITORY, false, this.repositoryGraph)))
+        {
+            final Resource nextRepository = nextType.getSubject();
+            if(nextRepository instanceof URI)
+            {
+                final Set<Value> nextSchemaVersions = new HashSet<>();
+                for(final Statement nextStatement : Iterations.asList(managementConnection.getStatements(
+                        nextRepository, PODD.PODD_REPOSITORY_CONTAINS_SCHEMA_VERSION, null, false,
+                        this.repositoryGraph)))
+                {
+                    nextSchemaVersions.add(nextStatement.getObject());
+                }
+                if(nextSchemaVersions.equals(schemaVersions))
+                {
+                    return (URI)nextRepository;
+                }
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Gets the shards for the given permanent repository, keyed on their index, where the
+     * permanent repository itself is the shard with index 0.
+     */
+    private SortedMap<Integer, URI> getShardUris(final URI repositoryUri,
+            final RepositoryConnection managementConnection) throws RepositoryException
+    {
+        final SortedMap<Integer, URI> results = new TreeMap<>();
+        results.put(0, repositoryUri);
+        for(final Statement nextShard : Iterations.asList(managementConnection.getStatements(repositoryUri,
+                PODD.PODD_REPOSITORY_HAS_SHARD, null, false, this.repositoryGraph)))
+        {
+            if(nextShard.getObject() instanceof URI)
+            {
+                for(final Statement nextIndex : Iterations.asList(managementConnection.getStatements(
+                        (URI)nextShard.getObject(), PODD.PODD_REPOSITORY_SHARD_INDEX, null, false,
+                        this.repositoryGraph)))
+                {
+                    if(nextIndex.getObject() instanceof Literal)
+                    {
+                        results.put(((Literal)nextIndex.getObject()).intValue(), (URI)nextShard.getObject());
+                    }
+                }
+            }
+        }
+        return results;
+    }
+    
+    /**
+     * Creates a new shard for the given permanent repository, on the next shard server if any are
+     * configured, or alongside the permanent repository otherwise.
+     */
+    private URI createShardRepository(final Set<? extends OWLOntologyID> schemaOntologies, final URI repositoryUri,
+            final int shardIndex, final RepositoryConnection managementConnection) throws OpenRDFException,
+        IOException
+    {
+        final Entry<Resource, RepositoryManager> repositoryManagerEntry;
+        if(this.shardServerUrls.isEmpty())
+        {
+            repositoryManagerEntry = this.getRepositoryManagerEntry(schemaOntologies, managementConnection);
+        }
+        else
+        {
+            repositoryManagerEntry =
+                    this.getRemoteRepositoryManagerEntry(
+                            this.shardServerUrls.get((shardIndex - 1) % this.shardServerUrls.size()),
+                            managementConnection);
+        }
+        final RepositoryManager sesameRepositoryManager = repositoryManagerEntry.getValue();
+        
+        final URI shardUri =
+                managementConnection.getValueFactory().createURI("urn:podd:repository:", UUID.randomUUID().toString());
+        final String newRepositoryID = sesameRepositoryManager.getNewRepositoryID(shardUri.stringValue());
+        final SimpleDateFormat iso8601Format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
+        final RepositoryConfig config =
+                new RepositoryConfig(newRepositoryID, "PODD Redesign Repository Shard " + shardIndex
+                        + " (Automatically created at " + iso8601Format.format(new Date()) + ")",
+                        this.permanentRepositoryConfigForNew);
+        sesameRepositoryManager.addRepositoryConfig(config);
+        
+        final ManualShutdownRepository shardRepository =
+                new ManualShutdownRepository(this.getRepositoryByID(sesameRepositoryManager, newRepositoryID));
+        this.initialisePermanentRepository(schemaOntologies, managementConnection, shardRepository);
+        
+        managementConnection.add(repositoryManagerEntry.getKey(), PODD.PODD_REPOSITORY_MANAGER_CONTAINS_REPOSITORY,
+                shardUri, this.repositoryGraph);
+        managementConnection.add(shardUri, RDF.TYPE, PODD.PODD_REPOSITORY_SHARD, this.repositoryGraph);
+        managementConnection.add(shardUri, PODD.PODD_REPOSITORY_ID_IN_MANAGER, managementConnection
+                .getValueFactory().createLiteral(newRepositoryID), this.repositoryGraph);
+        managementConnection.add(shardUri, PODD.PODD_REPOSITORY_SHARD_INDEX, managementConnection.getValueFactory()
+                .createLiteral(shardIndex), this.repositoryGraph);
+        managementConnection.add(repositoryUri, PODD.PODD_REPOSITORY_HAS_SHARD, shardUri, this.repositoryGraph);
+        
+        this.shardRepositories.put(shardUri, shardRepository);
+        // Federated repositories for this set of schema ontologies do not include the new shard
+        this.clearFederatedRepositories();
+        this.log.info("Created shard {} for permanent repository {}: {}", shardIndex, repositoryUri, newRepositoryID);
+        return shardUri;
+    }
+    
+    /**
+     * Gets the shard repository with the given URI, opening it using its repository manager if it
+     * has not been opened yet.
+     */
+    private ManualShutdownRepository getShardRepository(final URI shardUri,
+            final RepositoryConnection managementConnection) throws OpenRDFException
+    {
+        ManualShutdownRepository result = this.shardRepositories.get(shardUri);
+        if(result != null)
+        {
+            return result;
+        }
+        
+        final Model model = new LinkedHashModel();
+        managementConnection.exportStatements(shardUri, PODD.PODD_REPOSITORY_ID_IN_MANAGER, null, false,
+                new StatementCollector(model), this.repositoryGraph);
+        managementConnection.exportStatements(null, PODD.PODD_REPOSITORY_MANAGER_CONTAINS_REPOSITORY, shardUri, false,
+                new StatementCollector(model), this.repositoryGraph);
+        final Literal repositoryId = model.filter(shardUri, PODD.PODD_REPOSITORY_ID_IN_MANAGER, null).objectLiteral();
+        final URI repositoryManagerUri =
+                model.filter(null, PODD.PODD_REPOSITORY_MANAGER_CONTAINS_REPOSITORY, shardUri).subjectURI();
+        if(repositoryId == null || repositoryManagerUri == null)
+        {
+            throw new RepositoryException("Shard was not described correctly in management graph: " + shardUri);
+        }
+        
+        final Repository nextRepository =
+                this.getRepositoryManagerByUri(repositoryManagerUri, managementConnection).getRepository(
+                        repositoryId.getLabel());
+        if(nextRepository == null)
+        {
+            throw new RepositoryException("Failed to get shard repository from manager: " + repositoryId);
+        }
+        
+        result = new ManualShutdownRepository(nextRepository);
+        final ManualShutdownRepository putIfAbsent = this.shardRepositories.putIfAbsent(shardUri, result);
+        return putIfAbsent != null ? putIfAbsent : result;
+    }
+    
+    /**
+     * Finds or creates the remote repository manager in the repository management graph for the
+     * given Sesame server URL.
+     */
+    private Entry<Resource, RepositoryManager> getRemoteRepositoryManagerEntry(final String serverUrl,
+            final RepositoryConnection managementConnection) throws OpenRDFException
+    {
+        final Literal serverUrlLiteral = managementConnection.getValueFactory().createLiteral(serverUrl);
+        for(final Statement nextManager : Iterations.asList(managementConnection.getStatements(null,
+                PODD.PODD_REPOSITORY_MANAGER_REMOTE_SERVER_URL, serverUrlLiteral, false, this.repositoryGraph)))
+        {
+            if(nextManager.getSubject() instanceof URI)
+            {
+                return new SimpleImmutableEntry<Resource, RepositoryManager>(nextManager.getSubject(),
+                        this.getRepositoryManagerByUri((URI)nextManager.getSubject(), managementConnection));
+            }
+        }
+        
+        synchronized(this.sesameRepositoryManagers)
+        {
+            final URI newRepositoryManagerURI =
+                    managementConnection.getValueFactory().createURI(
+                            "urn:podd:repositorymanager:" + UUID.randomUUID().toString());
+            RepositoryManager repositoryManager = new RemoteRepositoryManager(serverUrl);
+            repositoryManager.initialize();
+            managementConnection.add(newRepositoryManagerURI, RDF.TYPE, PODD.PODD_REPOSITORY_MANAGER,
+                    this.repositoryGraph);
+            managementConnection.add(newRepositoryManagerURI, PODD.PODD_REPOSITORY_MANAGER_TYPE,
+                    PODD.PODD_REPOSITORY_MANAGER_TYPE_REMOTE, this.repositoryGraph);
+            managementConnection.add(newRepositoryManagerURI, PODD.PODD_REPOSITORY_MANAGER_REMOTE_SERVER_URL,
+                    serverUrlLiteral, this.repositoryGraph);
+            final RepositoryManager putIfAbsent =
+                    this.sesameRepositoryManagers.putIfAbsent(newRepositoryManagerURI, repositoryManager);
+            if(putIfAbsent != null)
+            {
+                repositoryManager.shutDown();
+                repositoryManager = putIfAbsent;
+            }
+            return new SimpleImmutableEntry<Resource, RepositoryManager>(newRepositoryManagerURI, repositoryManager);
+        }
+    }
+    
+    /**
+     * Gets the repository manager with the given URI, initialising it from its description in the
+     * repository management graph if it has not been initialised yet.
+     */
+    private RepositoryManager getRepositoryManagerByUri(final URI repositoryManagerUri,
+            final RepositoryConnection managementConnection) throws OpenRDFException
+    {
+        RepositoryManager result = this.sesameRepositoryManagers.get(repositoryManagerUri);
+        if(result != null)
+        {
+            return result;
+        }
+        
+        synchronized(this.sesameRepositoryManagers)
+        {
+            result = this.sesameRepositoryManagers.get(repositoryManagerUri);
+            if(result != null)
+            {
+                return result;
+            }
+            
+            final Model model = new LinkedHashModel();
+            managementConnection.exportStatements(repositoryManagerUri, null, null, false, new StatementCollector(
+                    model), this.repositoryGraph);
+            final URI repositoryManagerType = model.filter(null, PODD.PODD_REPOSITORY_MANAGER_TYPE, null).objectURI();
+            if(PODD.PODD_REPOSITORY_MANAGER_TYPE_REMOTE.equals(repositoryManagerType))
+            {
+                result =
+                        new RemoteRepositoryManager(model.filter(null, PODD.PODD_REPOSITORY_MANAGER_REMOTE_SERVER_URL,
+                                null).objectString());
+            }
+            else if(PODD.PODD_REPOSITORY_MANAGER_TYPE_LOCAL.equals(repositoryManagerType)
+                    && model.contains(null, PODD.PODD_REPOSITORY_MANAGER_LOCAL_DIRECTORY, null))
+            {
+                result =
+                        new LocalRepositoryManager(Paths.get(
+                                model.filter(null, PODD.PODD_REPOSITORY_MANAGER_LOCAL_DIRECTORY, null).objectString())
+                                .toFile());
+            }
+            else
+            {
+                throw new RepositoryException("Could not recognise repository manager: " + repositoryManagerUri);
+            }
+            result.initialize();
+            this.sesameRepositoryManagers.put(repositoryManagerUri, result);
+            return result;
+        }
+    }
+    
     @Override
     public URI getSchemaManagementGraph()
     {
@@ -679,6 +1271,8 @@ public class PoddRepositoryManagerImpl implements PoddRepositoryManager
     @Override
     public void shutDown() throws RepositoryException
     {
+        this.clearFederatedRepositories();
+        
         RepositoryException foundException = null;
         try
         {
@@ -722,6 +1316,31 @@ public class PoddRepositoryManagerImpl implements PoddRepositoryManager
                 this.permanentRepositories.clear();
             }
             
+            synchronized(this.shardRepositories)
+            {
+                for(final Entry<URI, ManualShutdownRepository> nextShard : this.shardRepositories.entrySet())
+                {
+                    try
+                    {
+                        this.log.debug("Shutting down repository shard: {} ", nextShard.getKey());
+                        nextShard.getValue().realShutDown();
+                    }
+                    catch(final RepositoryException e)
+                    {
+                        this.log.error("Found exception shutting down repository shard: " + nextShard.getKey(), e);
+                        if(foundException == null)
+                        {
+                            foundException = e;
+                        }
+                        else
+                        {
+                            foundException.addSuppressed(e);
+                        }
+                    }
+                }
+                this.shardRepositories.clear();
+            }
+            
             synchronized(this.sesameRepositoryManagers)
             {
                 for(final Entry<URI, RepositoryManager> nextManager : this.sesameRepositoryManagers.entrySet())
@@ -756,19 +1375,318 @@ public class PoddRepositoryManagerImpl implements PoddRepositoryManager
         }
     }
     
+    @Override
+    public RepositorySnapshot createSnapshot() throws OpenRDFException
+    {
+        final Model managementStatements;
+        RepositoryConnection managementConnection = null;
+        try
+        {
+            managementConnection = this.getManagementRepositoryConnection();
+            managementStatements = this.exportContents(managementConnection);
+        }
+        finally
+        {
+            if(managementConnection != null)
+            {
+                managementConnection.close();
+            }
+        }
+        
+        final Map<Set<? extends OWLOntologyID>, Model> permanentStatements =
+                new LinkedHashMap<Set<? extends OWLOntologyID>, Model>();
+        synchronized(this.permanentRepositories)
+        {
+            for(final Entry<Set<? extends OWLOntologyID>, ManualShutdownRepository> nextRepository : this.permanentRepositories
+                    .entrySet())
+            {
+                final RepositoryConnection permanentConnection =
+                        RepositoryUnitOfWork.getConnection(nextRepository.getValue());
+                try
+                {
+                    permanentStatements.put(nextRepository.getKey(), this.exportContents(permanentConnection));
+                }
+                finally
+                {
+                    permanentConnection.close();
+                }
+            }
+        }
+        
+        final Map<URI, Model> shardStatements = new LinkedHashMap<URI, Model>();
+        synchronized(this.shardRepositories)
+        {
+            for(final Entry<URI, ManualShutdownRepository> nextShard : this.shardRepositories.entrySet())
+            {
+                final RepositoryConnection shardConnection = RepositoryUnitOfWork.getConnection(nextShard.getValue());
+                try
+                {
+                    shardStatements.put(nextShard.getKey(), this.exportContents(shardConnection));
+                }
+                finally
+                {
+                    shardConnection.close();
+                }
+            }
+        }
+        
+        final RepositorySnapshot result =
+                new RepositorySnapshot(managementStatements, permanentStatements, shardStatements);
+        this.log.info("Created snapshot of {} repositories with {} statements", permanentStatements.size()
+                + shardStatements.size() + 1, result.size());
+        return result;
+    }
+    
+    @Override
+    public void restoreSnapshot(final RepositorySnapshot snapshot) throws OpenRDFException, IOException,
+        RepositoryNotFoundException
+    {
+        Objects.requireNonNull(snapshot, "Snapshot must not be null");
+        
+        this.clearFederatedRepositories();
+        
+        synchronized(this.permanentRepositories)
+        {
+            // Repositories created after the snapshot will not be referenced by the restored
+            // management repository, so they are closed and forgotten
+            final Iterator<Entry<Set<? extends OWLOntologyID>, ManualShutdownRepository>> iterator =
+                    this.permanentRepositories.entrySet().iterator();
+            while(iterator.hasNext())
+            {
+                final Entry<Set<? extends OWLOntologyID>, ManualShutdownRepository> nextRepository = iterator.next();
+                if(!snapshot.getPermanentStatements().containsKey(nextRepository.getKey()))
+                {
+                    this.log.debug("Closing repository created after snapshot: {}", nextRepository.getKey());
+                    nextRepository.getValue().realShutDown();
+                    iterator.remove();
+                }
+            }
+            
+            synchronized(this.shardRepositories)
+            {
+                final Iterator<Entry<URI, ManualShutdownRepository>> shardIterator =
+                        this.shardRepositories.entrySet().iterator();
+                while(shardIterator.hasNext())
+                {
+                    final Entry<URI, ManualShutdownRepository> nextShard = shardIterator.next();
+                    if(!snapshot.getShardStatements().containsKey(nextShard.getKey()))
+                    {
+                        this.log.debug("Closing repository shard created after snapshot: {}", nextShard.getKey());
+                        nextShard.getValue().realShutDown();
+                        shardIterator.remove();
+                    }
+                }
+                
+                // The repositories are then deleted from their repository managers, using the
+                // descriptions in the management repository before it is restored
+                this.removeRepositoriesCreatedAfter(snapshot);
+                
+                this.replaceContents(this.getManagementRepositoryConnection(), snapshot.getManagementStatements());
+                
+                for(final Entry<Set<? extends OWLOntologyID>, Model> nextStatements : snapshot
+                        .getPermanentStatements().entrySet())
+                {
+                    this.replaceContents(this.getPermanentRepositoryConnection(nextStatements.getKey()),
+                            nextStatements.getValue());
+                }
+                
+                final RepositoryConnection managementConnection = this.getManagementRepositoryConnection();
+                try
+                {
+                    for(final Entry<URI, Model> nextStatements : snapshot.getShardStatements().entrySet())
+                    {
+                        this.replaceContents(RepositoryUnitOfWork.getConnection(this.getShardRepository(
+                                nextStatements.getKey(), managementConnection)), nextStatements.getValue());
+                    }
+                }
+                finally
+                {
+                    managementConnection.close();
+                }
+            }
+        }
+        this.log.info("Restored snapshot of {} repositories with {} statements", snapshot.getPermanentStatements()
+                .size() + snapshot.getShardStatements().size() + 1, snapshot.size());
+    }
+    
+    /**
+     * Copies all of the statements and namespaces in the repository for the given connection.
+     */
+    private Model exportContents(final RepositoryConnection connection) throws OpenRDFException
+    {
+        final Model result = new LinkedHashModel();
+        connection.export(new StatementCollector(result));
+        for(final Namespace nextNamespace : Iterations.asList(connection.getNamespaces()))
+        {
+            result.setNamespace(nextNamespace);
+        }
+        return result;
+    }
+    
+    /**
+     * Deletes each repository that is described in the repository management graph but not in the
+     * management statements in the given snapshot from the repository manager that contains it.
+     */
+    private void removeRepositoriesCreatedAfter(final RepositorySnapshot snapshot) throws OpenRDFException
+    {
+        final RepositoryConnection managementConnection = this.getManagementRepositoryConnection();
+        try
+        {
+            for(final Statement nextRepository : Iterations.asList(managementConnection.getStatements(null,
+                    PODD.PODD_REPOSITORY_MANAGER_CONTAINS_REPOSITORY, null, false, this.repositoryGraph)))
+            {
+                if(!(nextRepository.getSubject() instanceof URI)
+                        || !(nextRepository.getObject() instanceof URI)
+                        || snapshot.getManagementStatements().contains(nextRepository.getSubject(),
+                                nextRepository.getPredicate(), nextRepository.getObject(), this.repositoryGraph))
+                {
+                    continue;
+                }
+                
+                final URI repositoryUri = (URI)nextRepository.getObject();
+                for(final Statement nextId : Iterations.asList(managementConnection.getStatements(repositoryUri,
+                        PODD.PODD_REPOSITORY_ID_IN_MANAGER, null, false, this.repositoryGraph)))
+                {
+                    final String repositoryId = nextId.getObject().stringValue();
+                    this.log.debug("Removing repository created after snapshot: {} {}", repositoryUri, repositoryId);
+                    if(!this.getRepositoryManagerByUri((URI)nextRepository.getSubject(), managementConnection)
+                            .removeRepository(repositoryId))
+                    {
+                        this.log.warn("Could not remove repository created after snapshot: {}", repositoryId);
+                    }
+                }
+            }
+        }
+        finally
+        {
+            managementConnection.close();
+        }
+    }
+    
+    /**
+     * Replaces all of the statements and namespaces in the repository for the given connection in
+     * a single transaction, and closes the connection.
+     */
+    private void replaceContents(final RepositoryConnection connection, final Model statements)
+        throws RepositoryException
+    {
+        try
+        {
+            connection.begin();
+            connection.clear();
+            connection.clearNamespaces();
+            for(final Namespace nextNamespace : statements.getNamespaces())
+            {
+                connection.setNamespace(nextNamespace.getPrefix(), nextNamespace.getName());
+            }
+            connection.add(statements);
+            connection.commit();
+        }
+        catch(final Throwable e)
+        {
+            connection.rollback();
+            throw e;
+        }
+        finally
+        {
+            connection.close();
+        }
+    }
+    
     @Override
     public Repository getReadOnlyFederatedRepository(final Set<? extends OWLOntologyID> schemaImports)
-        throws OpenRDFException, IOException
+        throws OpenRDFException, IOException, RepositoryNotFoundException
     {
-        final Federation federation = new Federation();
-        federation.setReadOnly(true);
-        // FIXME: Need an internal method that returns a repository to support this
-        // federation.addMember(this.getPermanentRepositoryConnection(schemaImports));
-        // federation.addMember(this.getManagementRepositoryConnection());
-        federation.initialize();
-        final Repository federationRepository = new SailRepository(federation);
-        federationRepository.initialize();
-        return federationRepository;
+        return this.getReadOnlyFederatedRepository(Collections.singleton(schemaImports));
+    }
+    
+    @Override
+    public Repository getReadOnlyFederatedRepository(
+            final Collection<? extends Set<? extends OWLOntologyID>> schemaOntologySets) throws OpenRDFException,
+        IOException, RepositoryNotFoundException
+    {
+        // Key on the version IRIs, as OWLOntologyID and InferredOWLOntologyID are not equal even when
+        // they refer to the same schema ontology version
+        final Set<Set<IRI>> key = new HashSet<>();
+        for(final Set<? extends OWLOntologyID> nextSchemaOntologies : schemaOntologySets)
+        {
+            final Set<IRI> nextVersions = new HashSet<>();
+            for(final OWLOntologyID nextSchemaOntology : nextSchemaOntologies)
+            {
+                nextVersions.add(nextSchemaOntology.getVersionIRI());
+            }
+            key.add(Collections.unmodifiableSet(nextVersions));
+        }
+        
+        SharedFederatedRepository result = this.federatedRepositories.get(key);
+        if(result != null)
+        {
+            return result;
+        }
+        
+        synchronized(this.federatedRepositories)
+        {
+            result = this.federatedRepositories.get(key);
+            if(result != null)
+            {
+                return result;
+            }
+            
+            // Members are identified by identity so that a repository shared by more than one set of
+            // schema ontologies is only queried once
+            final Set<Repository> members = Collections.newSetFromMap(new IdentityHashMap<Repository, Boolean>());
+            members.add(this.managementRepository);
+            for(final Set<? extends OWLOntologyID> nextSchemaOntologies : schemaOntologySets)
+            {
+                members.add(this.getPermanentRepository(nextSchemaOntologies, false));
+                members.addAll(this.getPermanentRepositoryShards(nextSchemaOntologies));
+            }
+            
+            // The federation pushes the parts of each query that can be answered by a single member,
+            // including filters and context restrictions, down to that member, and evaluates joins
+            // across members in parallel. Members may overlap, as the schema ontologies are copied to
+            // each permanent repository, so duplicate statements are removed.
+            final Federation federation = new Federation();
+            federation.setReadOnly(true);
+            federation.setDistinct(false);
+            for(final Repository nextMember : members)
+            {
+                // Members are all ManualShutdownRepository instances, so shutting down the
+                // federation does not shut down the members
+                federation.addMember(nextMember);
+            }
+            result = new SharedFederatedRepository(new SailRepository(federation), schemaOntologySets);
+            result.initialize();
+            this.federatedRepositories.put(key, result);
+            this.log.debug("Created federated repository with {} members for schema ontologies: {}",
+                    members.size(), key);
+            return result;
+        }
+    }
+    
+    /**
+     * Forgets the cached federated repositories, after the repositories that they are built from
+     * have changed. Each of them is shut down once the connections that are still open on it have
+     * been closed.
+     */
+    private void clearFederatedRepositories()
+    {
+        // Does not lock federatedRepositories, as this is called while holding the locks that
+        // getReadOnlyFederatedRepository acquires while creating a federation
+        final Iterator<SharedFederatedRepository> iterator = this.federatedRepositories.values().iterator();
+        while(iterator.hasNext())
+        {
+            final SharedFederatedRepository nextRepository = iterator.next();
+            iterator.remove();
+            try
+            {
+                nextRepository.replaced();
+            }
+            catch(final RepositoryException e)
+            {
+                this.log.error("Found exception shutting down federated repository", e);
+            }
+        }
     }
     
     protected Map<Resource, RepositoryManager> getRepositoryManager(final Set<? extends OWLOntologyID> schemaImports,
@@ -999,4 +1917,112 @@ public class PoddRepositoryManagerImpl implements PoddRepositoryManager
             return Collections.<Resource, RepositoryManager> singletonMap(newRepositoryManagerURI, repositoryManager);
         }
     }
+    
+    /**
+     * A federated repository that is shared between callers. Once it has been replaced, because the
+     * repositories that it is built from have changed, it is only shut down after the connections
+     * that are still open on it have been closed, and new connections are taken from the federated
+     * repository that replaced it.
+     */
+    private final class SharedFederatedRepository extends ManualShutdownRepository
+    {
+        private final List<Set<? extends OWLOntologyID>> schemaOntologySets;
+        
+        private int openConnections;
+        
+        private boolean replaced;
+        
+        SharedFederatedRepository(final Repository delegate,
+                final Collection<? extends Set<? extends OWLOntologyID>> schemaOntologySets)
+        {
+            super(delegate);
+            this.schemaOntologySets = new ArrayList<Set<? extends OWLOntologyID>>(schemaOntologySets);
+        }
+        
+        @Override
+        public RepositoryConnection getConnection() throws RepositoryException
+        {
+            synchronized(this)
+            {
+                if(!this.replaced)
+                {
+                    final RepositoryConnection result =
+                            new SharedFederatedRepositoryConnection(this, super.getConnection());
+                    this.openConnections++;
+                    return result;
+                }
+            }
+            
+            try
+            {
+                return PoddRepositoryManagerImpl.this.getReadOnlyFederatedRepository(this.schemaOntologySets)
+                        .getConnection();
+            }
+            catch(final RepositoryException e)
+            {
+                throw e;
+            }
+            catch(final OpenRDFException | IOException | RepositoryNotFoundException e)
+            {
+                throw new RepositoryException("Could not replace federated repository", e);
+            }
+        }
+        
+        /**
+         * Called when this repository is removed from the cache, so that it is shut down as soon as
+         * no connections are open on it.
+         */
+        synchronized void replaced() throws RepositoryException
+        {
+            this.replaced = true;
+            if(this.openConnections == 0)
+            {
+                this.realShutDown();
+            }
+        }
+        
+        synchronized void connectionClosed() throws RepositoryException
+        {
+            this.openConnections--;
+            if(this.replaced && this.openConnections == 0)
+            {
+                this.realShutDown();
+            }
+        }
+    }
+    
+    /**
+     * A connection to a {@link SharedFederatedRepository} that tells the repository when it is
+     * closed.
+     */
+    private static final class SharedFederatedRepositoryConnection extends RepositoryConnectionWrapper
+    {
+        private final SharedFederatedRepository repository;
+        
+        private boolean closed;
+        
+        SharedFederatedRepositoryConnection(final SharedFederatedRepository repository,
+                final RepositoryConnection delegate)
+        {
+            super(repository, delegate);
+            this.repository = repository;
+        }
+        
+        @Override
+        public void close() throws RepositoryException
+        {
+            try
+            {
+                super.close();
+            }
+            finally
+            {
+                if(!this.closed)
+                {
+                    this.closed = true;
+                    this.repository.connectionClosed();
+                }
+            }
+        }
+    }
 }
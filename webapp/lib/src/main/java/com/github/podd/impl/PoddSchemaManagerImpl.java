@@ -33,6 +33,9 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.openrdf.OpenRDFException;
 import org.openrdf.model.Model;
@@ -43,6 +46,7 @@ import org.openrdf.model.URI;
 import org.openrdf.model.impl.LinkedHashModel;
 import org.openrdf.model.util.ModelException;
 import org.openrdf.model.vocabulary.OWL;
+import org.openrdf.repository.Repository;
 import org.openrdf.repository.RepositoryConnection;
 import org.openrdf.repository.RepositoryException;
 import org.openrdf.repository.RepositoryResult;
@@ -87,11 +91,27 @@ public class PoddSchemaManagerImpl implements PoddSchemaManager
     private PoddOWLManager owlManager;
     
     /**
-     *
+     * The maximum number of schema ontologies from a schema manifest that are loaded concurrently.
+     */
+    private final int uploadThreads;
+    
+    /**
+     * Creates a schema manager that loads independent schema ontologies from a schema manifest
+     * using one thread for each available processor.
      */
     public PoddSchemaManagerImpl()
     {
-        // TODO Auto-generated constructor stub
+        this(0);
+    }
+    
+    /**
+     * @param uploadThreads
+     *            The maximum number of schema ontologies from a schema manifest to load
+     *            concurrently, or 0 to use one thread for each available processor.
+     */
+    public PoddSchemaManagerImpl(final int uploadThreads)
+    {
+        this.uploadThreads = uploadThreads > 0 ? uploadThreads : Runtime.getRuntime().availableProcessors();
     }
     
     @Override
@@ -378,6 +398,14 @@ public class PoddSchemaManagerImpl implements PoddSchemaManager
     /**
      * Given the manifest {@link Model} and the overall order of imports based on ontology version
      * IRIs, import all of the ontologies which have new versions.
+     * <p>
+     * Each ontology is loaded and reasoned over as soon as all of the ontologies that it imports
+     * have been loaded, so ontologies on independent branches of the import hierarchy are loaded
+     * concurrently. Loaded ontologies are kept in a temporary staging repository, and are only
+     * copied to the management repository, in import order and in a single transaction, after all
+     * of them have loaded successfully. If any ontology fails to load, no further ontologies are
+     * started, nothing is committed, and the first failure in import order is thrown once the
+     * ontologies that were already being loaded have finished.
      *
      * @param model
      *            The complete schema ontology information.
@@ -389,7 +417,7 @@ public class PoddSchemaManagerImpl implements PoddSchemaManager
      * @param importsMap
      *            The map from all ontology version IRIs to the set of version IRIs that they have
      *            dependencies on. This enables loading of nextImportOrder consistently.
-     * @return The IDs for the schema ontologies that were successfully uploaded.
+     * @return The IDs for the schema ontologies that were successfully uploaded, in import order.
      * @throws ModelException
      * @throws OpenRDFException
      * @throws IOException
@@ -405,12 +433,12 @@ public class PoddSchemaManagerImpl implements PoddSchemaManager
         Objects.requireNonNull(nextImportOrder, "Schema Ontology import order was null");
         
         final Map<OWLOntologyID, Boolean> loadingOrder = new LinkedHashMap<>();
+        final Set<InferredOWLOntologyID> loadedSchemaOntologies = new HashSet<>();
         
         RepositoryConnection managementConnection = null;
         
         try
         {
-            
             managementConnection = this.repositoryManager.getManagementRepositoryConnection();
             
             if(this.log.isDebugEnabled())
@@ -435,130 +463,484 @@ public class PoddSchemaManagerImpl implements PoddSchemaManager
                         // FIXME: Must do it this way to preserve inferred ontology information
                         // which may not be present in nextImport
                         alreadyLoaded = true;
+                        loadedSchemaOntologies.add(nextCurrentSchemaOntology);
                         break;
                     }
                 }
                 loadingOrder.put(nextImport, alreadyLoaded);
             }
-            
+        }
+        finally
+        {
+            if(managementConnection != null)
+            {
+                managementConnection.close();
+            }
+        }
+        
+        if(!loadingOrder.containsValue(Boolean.FALSE))
+        {
+            this.log.debug("All schema ontologies were already loaded");
             final List<InferredOWLOntologyID> results = new ArrayList<>();
-            
-            this.log.debug("About to load ontologies in order: {}", loadingOrder);
-            for(final Entry<OWLOntologyID, Boolean> loadEntry : loadingOrder.entrySet())
+            for(final OWLOntologyID nextLoaded : loadingOrder.keySet())
             {
-                this.log.debug("Ontologies loaded so far: {}", results);
-                if(loadEntry.getValue())
+                results.add(PoddSchemaManagerImpl.toInferredOntologyID(nextLoaded));
+            }
+            return results;
+        }
+        
+        final Repository stagingRepository = this.getStagingRepository(loadedSchemaOntologies);
+        try
+        {
+            return this.uploadSchemaOntologiesInOrder(model, nextImportOrder, currentVersionsMap, importsMap,
+                    loadingOrder, stagingRepository);
+        }
+        finally
+        {
+            stagingRepository.shutDown();
+        }
+    }
+    
+    /**
+     * Loads the schema ontologies that are not already loaded into the staging repository, and then
+     * copies them to the management repository in a single transaction.
+     */
+    private List<InferredOWLOntologyID> uploadSchemaOntologiesInOrder(final Model model,
+            final List<OWLOntologyID> nextImportOrder, final ConcurrentMap<URI, URI> currentVersionsMap,
+            final ConcurrentMap<URI, Set<URI>> importsMap, final Map<OWLOntologyID, Boolean> loadingOrder,
+            final Repository stagingRepository) throws ModelException, OpenRDFException, IOException, OWLException,
+        PoddException
+    {
+        // Create a task for each ontology that waits for the tasks for the ontologies that it
+        // imports, which always appear earlier in the import order
+        final AtomicBoolean failed = new AtomicBoolean(false);
+        final Map<URI, SchemaUploadTask> tasks = new LinkedHashMap<>();
+        for(final Entry<OWLOntologyID, Boolean> loadEntry : loadingOrder.entrySet())
+        {
+            final URI nextVersion = loadEntry.getKey().getVersionIRI().toOpenRDFURI();
+            final List<SchemaUploadTask> dependencies = new ArrayList<>();
+            final Set<URI> nextImports = importsMap.get(nextVersion);
+            if(nextImports != null)
+            {
+                for(final URI nextImport : nextImports)
                 {
-                    this.log.debug("Not loading ontology from scratch as it was already available: {}",
-                            loadEntry.getKey());
-                    if(loadEntry.getKey() instanceof InferredOWLOntologyID)
-                    {
-                        results.add((InferredOWLOntologyID)loadEntry.getKey());
-                    }
-                    else
+                    final SchemaUploadTask nextDependency = tasks.get(nextImport);
+                    if(nextDependency != null)
                     {
-                        this.log.error("Found an already loaded ontology without an inferred IRI: {}",
-                                loadEntry.getKey());
-                        results.add(new InferredOWLOntologyID(loadEntry.getKey().getOntologyIRI(), loadEntry.getKey()
-                                .getVersionIRI(), null));
+                        dependencies.add(nextDependency);
                     }
                 }
-                else
+            }
+            tasks.put(nextVersion, new SchemaUploadTask(loadEntry.getKey(), loadEntry.getValue(), dependencies,
+                    failed, model, nextImportOrder, currentVersionsMap, importsMap, stagingRepository));
+        }
+        
+        this.log.debug("About to load ontologies in order: {}", loadingOrder);
+        final List<InferredOWLOntologyID> results = new ArrayList<>();
+        Throwable firstFailure = null;
+        final ForkJoinPool pool = new ForkJoinPool(Math.min(this.uploadThreads, Math.max(1, tasks.size())));
+        try
+        {
+            for(final SchemaUploadTask nextTask : tasks.values())
+            {
+                pool.execute(nextTask);
+            }
+            for(final SchemaUploadTask nextTask : tasks.values())
+            {
+                final InferredOWLOntologyID nextResult = nextTask.join();
+                if(nextResult != null)
                 {
-                    this.log.debug("Need to load ontology that is not already available in management repository: {}",
-                            loadEntry.getKey());
-                    final OWLOntologyID loadEntryID = loadEntry.getKey();
-                    final String classpathLocation =
-                            model.filter(loadEntryID.getVersionIRI().toOpenRDFURI(), PODD.PODD_SCHEMA_CLASSPATH, null)
-                                    .objectLiteral().stringValue();
-                    this.log.debug("Loading from classpath: {}", classpathLocation);
-                    final RDFFormat fileFormat = Rio.getParserFormatForFileName(classpathLocation, RDFFormat.RDFXML);
-                    try (final InputStream inputStream = ApplicationUtils.class.getResourceAsStream(classpathLocation);)
-                    {
-                        if(inputStream == null)
-                        {
-                            throw new SchemaManifestException(loadEntryID.getVersionIRI(),
-                                    "Could not find schema at designated classpath location: " + classpathLocation);
-                        }
-                        
-                        managementConnection.begin();
-                        final OWLOntologyID schemaOntologyID = null;
-                        // Need to get the minimal set of imports for the next schema ontology and
-                        // load exactly those ontologies
-                        final Set<URI> nextMinimalImportsSet =
-                                importsMap.get(loadEntryID.getVersionIRI().toOpenRDFURI());
-                        final Set<? extends OWLOntologyID> nextMinimalOntologyIDs =
-                                OntologyUtils.mapFromVersions(nextMinimalImportsSet, nextImportOrder);
-                        this.log.debug("nextMinimalImportsSet: {}", nextMinimalImportsSet);
-                        this.log.debug("nextMinimalOntologyIDs: {}", nextMinimalOntologyIDs);
-                        final InferredOWLOntologyID nextResult =
-                                this.uploadSchemaOntologyInternal(schemaOntologyID, inputStream, fileFormat,
-                                        managementConnection, this.repositoryManager.getSchemaManagementGraph(),
-                                        nextMinimalOntologyIDs);
-                        
-                        boolean updateCurrent = true;
-                        if(currentVersionsMap.containsKey(nextResult.getOntologyIRI().toOpenRDFURI()))
-                        {
-                            if(!currentVersionsMap.get(nextResult.getOntologyIRI().toOpenRDFURI()).equals(
-                                    nextResult.getVersionIRI().toOpenRDFURI()))
-                            {
-                                updateCurrent = false;
-                            }
-                        }
-                        
-                        this.log.debug("Current version update required : {} {}", nextResult, updateCurrent);
-                        
-                        this.setUpdateManagedSchemaOntologyVersionInternal(nextResult, updateCurrent,
-                                managementConnection, this.repositoryManager.getSchemaManagementGraph());
-                        
-                        final List<Statement> importStatements =
-                                Iterations.asList(managementConnection.getStatements(nextResult.getOntologyIRI()
-                                        .toOpenRDFURI(), OWL.IMPORTS, null, true, nextResult.getVersionIRI()
-                                        .toOpenRDFURI()));
-                        
-                        this.log.debug("Imports to copy for ontology: {} {}", nextResult, importStatements);
-                        
-                        for(final Statement nextImportStatement : importStatements)
-                        {
-                            managementConnection.add(nextResult.getVersionIRI().toOpenRDFURI(), OWL.IMPORTS,
-                                    nextImportStatement.getObject(), this.repositoryManager.getSchemaManagementGraph());
-                        }
-                        
-                        for(final URI nextMinimalImport : nextMinimalImportsSet)
-                        {
-                            // Add from the analysed schema manifest which includes the full
-                            // heirarchy
-                            managementConnection.add(nextResult.getVersionIRI().toOpenRDFURI(), OWL.IMPORTS,
-                                    nextMinimalImport, this.repositoryManager.getSchemaManagementGraph());
-                        }
-                        managementConnection.commit();
-                        
-                        results.add(nextResult);
-                    }
-                    
+                    results.add(nextResult);
+                }
+                else if(firstFailure == null && nextTask.getFailure() != null)
+                {
+                    firstFailure = nextTask.getFailure();
                 }
             }
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+        
+        if(firstFailure != null)
+        {
+            this.log.error("Failed to load schema ontologies, none were committed, loaded so far: {}", results);
+            PoddSchemaManagerImpl.rethrow(firstFailure);
+        }
+        
+        RepositoryConnection managementConnection = null;
+        RepositoryConnection stagingConnection = null;
+        try
+        {
+            managementConnection = this.repositoryManager.getManagementRepositoryConnection();
+            stagingConnection = stagingRepository.getConnection();
+            managementConnection.begin();
+            for(final Entry<OWLOntologyID, Boolean> loadEntry : loadingOrder.entrySet())
+            {
+                if(loadEntry.getValue())
+                {
+                    continue;
+                }
+                final InferredOWLOntologyID nextResult =
+                        tasks.get(loadEntry.getKey().getVersionIRI().toOpenRDFURI()).join();
+                managementConnection.add(stagingConnection.getStatements(null, null, null, false, nextResult
+                        .getVersionIRI().toOpenRDFURI(), nextResult.getInferredOntologyIRI().toOpenRDFURI()));
+                this.addSchemaManagementStatements(nextResult,
+                        importsMap.get(loadEntry.getKey().getVersionIRI().toOpenRDFURI()), currentVersionsMap,
+                        managementConnection);
+            }
+            managementConnection.commit();
+        }
+        catch(final Throwable e)
+        {
+            if(managementConnection != null && managementConnection.isActive())
+            {
+                managementConnection.rollback();
+            }
             
-            this.log.debug("Completed loading schema ontologies");
+            throw e;
+        }
+        finally
+        {
+            try
+            {
+                if(stagingConnection != null)
+                {
+                    stagingConnection.close();
+                }
+            }
+            finally
+            {
+                if(managementConnection != null)
+                {
+                    managementConnection.close();
+                }
+            }
+        }
+        
+        this.log.debug("Completed loading schema ontologies");
+        
+        return results;
+    }
+    
+    /**
+     * Creates a temporary repository containing the schema management graph and the statements for
+     * the schema ontologies that are already loaded, which schema ontologies from a schema manifest
+     * are staged in until they are all loaded.
+     */
+    private Repository getStagingRepository(final Set<InferredOWLOntologyID> loadedSchemaOntologies)
+        throws OpenRDFException
+    {
+        final List<Resource> contexts = new ArrayList<>();
+        contexts.add(this.repositoryManager.getSchemaManagementGraph());
+        for(final InferredOWLOntologyID nextLoaded : loadedSchemaOntologies)
+        {
+            contexts.add(nextLoaded.getVersionIRI().toOpenRDFURI());
+            if(nextLoaded.getInferredOntologyIRI() != null)
+            {
+                contexts.add(nextLoaded.getInferredOntologyIRI().toOpenRDFURI());
+            }
+        }
+        
+        final Repository result = this.repositoryManager.getNewTemporaryRepository();
+        RepositoryConnection managementConnection = null;
+        RepositoryConnection stagingConnection = null;
+        try
+        {
+            managementConnection = this.repositoryManager.getManagementRepositoryConnection();
+            stagingConnection = result.getConnection();
+            stagingConnection.begin();
+            stagingConnection.add(managementConnection.getStatements(null, null, null, false,
+                    contexts.toArray(new Resource[contexts.size()])));
+            stagingConnection.commit();
+            return result;
+        }
+        catch(final Throwable e)
+        {
+            result.shutDown();
+            throw e;
+        }
+        finally
+        {
+            try
+            {
+                if(stagingConnection != null)
+                {
+                    stagingConnection.close();
+                }
+            }
+            finally
+            {
+                if(managementConnection != null)
+                {
+                    managementConnection.close();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Adds the management statements for a schema ontology loaded from a schema manifest, after the
+     * statements for the schema ontology itself have been added using the given connection.
+     */
+    private void addSchemaManagementStatements(final InferredOWLOntologyID nextResult,
+            final Set<URI> nextMinimalImportsSet, final ConcurrentMap<URI, URI> currentVersionsMap,
+            final RepositoryConnection managementConnection) throws OpenRDFException
+    {
+        boolean updateCurrent = true;
+        if(currentVersionsMap.containsKey(nextResult.getOntologyIRI().toOpenRDFURI()))
+        {
+            if(!currentVersionsMap.get(nextResult.getOntologyIRI().toOpenRDFURI()).equals(
+                    nextResult.getVersionIRI().toOpenRDFURI()))
+            {
+                updateCurrent = false;
+            }
+        }
+        
+        this.log.debug("Current version update required : {} {}", nextResult, updateCurrent);
+        
+        this.setUpdateManagedSchemaOntologyVersionInternal(nextResult, updateCurrent, managementConnection,
+                this.repositoryManager.getSchemaManagementGraph());
+        
+        final List<Statement> importStatements =
+                Iterations.asList(managementConnection.getStatements(nextResult.getOntologyIRI().toOpenRDFURI(),
+                        OWL.IMPORTS, null, true, nextResult.getVersionIRI().toOpenRDFURI()));
+        
+        this.log.debug("Imports to copy for ontology: {} {}", nextResult, importStatements);
+        
+        for(final Statement nextImportStatement : importStatements)
+        {
+            managementConnection.add(nextResult.getVersionIRI().toOpenRDFURI(), OWL.IMPORTS,
+                    nextImportStatement.getObject(), this.repositoryManager.getSchemaManagementGraph());
+        }
+        
+        for(final URI nextMinimalImport : nextMinimalImportsSet)
+        {
+            // Add from the analysed schema manifest which includes the full
+            // heirarchy
+            managementConnection.add(nextResult.getVersionIRI().toOpenRDFURI(), OWL.IMPORTS, nextMinimalImport,
+                    this.repositoryManager.getSchemaManagementGraph());
+        }
+    }
+    
+    /**
+     * Loads a single schema ontology from the classpath location given in the schema manifest, and
+     * adds it to the staging repository along with its imports.
+     * <p>
+     * The ontology is reasoned over in a temporary repository of its own, reading the ontologies that
+     * it imports from the staging repository, so that no transaction is held open while reasoning.
+     */
+    private InferredOWLOntologyID uploadSchemaOntologyFromManifest(final OWLOntologyID loadEntryID,
+            final Model model, final List<OWLOntologyID> nextImportOrder,
+            final ConcurrentMap<URI, URI> currentVersionsMap, final ConcurrentMap<URI, Set<URI>> importsMap,
+            final Repository stagingRepository) throws ModelException, OpenRDFException, IOException, OWLException,
+        PoddException
+    {
+        this.log.debug("Need to load ontology that is not already available in management repository: {}",
+                loadEntryID);
+        final String classpathLocation =
+                model.filter(loadEntryID.getVersionIRI().toOpenRDFURI(), PODD.PODD_SCHEMA_CLASSPATH, null)
+                        .objectLiteral().stringValue();
+        this.log.debug("Loading from classpath: {}", classpathLocation);
+        final RDFFormat fileFormat = Rio.getParserFormatForFileName(classpathLocation, RDFFormat.RDFXML);
+        
+        Repository taskRepository = null;
+        RepositoryConnection taskConnection = null;
+        RepositoryConnection stagingConnection = null;
+        try (final InputStream inputStream = ApplicationUtils.class.getResourceAsStream(classpathLocation);)
+        {
+            if(inputStream == null)
+            {
+                throw new SchemaManifestException(loadEntryID.getVersionIRI(),
+                        "Could not find schema at designated classpath location: " + classpathLocation);
+            }
             
-            return results;
+            taskRepository = this.repositoryManager.getNewTemporaryRepository();
+            taskConnection = taskRepository.getConnection();
+            stagingConnection = stagingRepository.getConnection();
+            final OWLOntologyID schemaOntologyID = null;
+            // Need to get the minimal set of imports for the next schema ontology and
+            // load exactly those ontologies
+            final Set<URI> nextMinimalImportsSet = importsMap.get(loadEntryID.getVersionIRI().toOpenRDFURI());
+            final Set<? extends OWLOntologyID> nextMinimalOntologyIDs =
+                    OntologyUtils.mapFromVersions(nextMinimalImportsSet, nextImportOrder);
+            this.log.debug("nextMinimalImportsSet: {}", nextMinimalImportsSet);
+            this.log.debug("nextMinimalOntologyIDs: {}", nextMinimalOntologyIDs);
+            final InferredOWLOntologyID nextResult =
+                    this.uploadSchemaOntologyInternal(schemaOntologyID, inputStream, fileFormat, taskConnection,
+                            stagingConnection, this.repositoryManager.getSchemaManagementGraph(),
+                            nextMinimalOntologyIDs);
+            
+            stagingConnection.begin();
+            stagingConnection.add(taskConnection.getStatements(null, null, null, false));
+            this.addSchemaManagementStatements(nextResult, nextMinimalImportsSet, currentVersionsMap,
+                    stagingConnection);
+            stagingConnection.commit();
+            
+            return nextResult;
         }
         catch(final Throwable e)
         {
-            if(managementConnection != null)
+            if(stagingConnection != null && stagingConnection.isActive())
             {
-                managementConnection.rollback();
+                stagingConnection.rollback();
             }
             
             throw e;
         }
         finally
         {
-            if(managementConnection != null)
+            try
             {
-                managementConnection.close();
+                if(stagingConnection != null)
+                {
+                    stagingConnection.close();
+                }
+                if(taskConnection != null)
+                {
+                    taskConnection.close();
+                }
+            }
+            finally
+            {
+                if(taskRepository != null)
+                {
+                    taskRepository.shutDown();
+                }
+            }
+        }
+    }
+    
+    private static InferredOWLOntologyID toInferredOntologyID(final OWLOntologyID ontologyID)
+    {
+        if(ontologyID instanceof InferredOWLOntologyID)
+        {
+            return (InferredOWLOntologyID)ontologyID;
+        }
+        return new InferredOWLOntologyID(ontologyID.getOntologyIRI(), ontologyID.getVersionIRI(), null);
+    }
+    
+    private static void rethrow(final Throwable e) throws OpenRDFException, IOException, OWLException, PoddException
+    {
+        if(e instanceof OpenRDFException)
+        {
+            throw (OpenRDFException)e;
+        }
+        else if(e instanceof IOException)
+        {
+            throw (IOException)e;
+        }
+        else if(e instanceof OWLException)
+        {
+            throw (OWLException)e;
+        }
+        else if(e instanceof PoddException)
+        {
+            throw (PoddException)e;
+        }
+        else if(e instanceof RuntimeException)
+        {
+            throw (RuntimeException)e;
+        }
+        else if(e instanceof Error)
+        {
+            throw (Error)e;
+        }
+        throw new PoddRuntimeException("Failed to load schema ontology", e);
+    }
+    
+    /**
+     * Loads a single schema ontology from a schema manifest after the tasks for all of the
+     * ontologies that it imports have completed. The result is null if this ontology, or one of the
+     * ontologies that it imports, could not be loaded.
+     */
+    private final class SchemaUploadTask extends RecursiveTask<InferredOWLOntologyID>
+    {
+        private static final long serialVersionUID = 1L;
+        
+        private final OWLOntologyID ontologyID;
+        
+        private final boolean alreadyLoaded;
+        
+        private final List<SchemaUploadTask> dependencies;
+        
+        private final AtomicBoolean failed;
+        
+        private final Model model;
+        
+        private final List<OWLOntologyID> nextImportOrder;
+        
+        private final ConcurrentMap<URI, URI> currentVersionsMap;
+        
+        private final ConcurrentMap<URI, Set<URI>> importsMap;
+        
+        private final Repository stagingRepository;
+        
+        private volatile Throwable failure;
+        
+        SchemaUploadTask(final OWLOntologyID ontologyID, final boolean alreadyLoaded,
+                final List<SchemaUploadTask> dependencies, final AtomicBoolean failed, final Model model,
+                final List<OWLOntologyID> nextImportOrder, final ConcurrentMap<URI, URI> currentVersionsMap,
+                final ConcurrentMap<URI, Set<URI>> importsMap, final Repository stagingRepository)
+        {
+            this.ontologyID = ontologyID;
+            this.alreadyLoaded = alreadyLoaded;
+            this.dependencies = dependencies;
+            this.failed = failed;
+            this.model = model;
+            this.nextImportOrder = nextImportOrder;
+            this.currentVersionsMap = currentVersionsMap;
+            this.importsMap = importsMap;
+            this.stagingRepository = stagingRepository;
+        }
+        
+        @Override
+        protected InferredOWLOntologyID compute()
+        {
+            if(this.alreadyLoaded)
+            {
+                PoddSchemaManagerImpl.this.log.debug(
+                        "Not loading ontology from scratch as it was already available: {}", this.ontologyID);
+                if(this.ontologyID instanceof InferredOWLOntologyID)
+                {
+                    return (InferredOWLOntologyID)this.ontologyID;
+                }
+                PoddSchemaManagerImpl.this.log.error("Found an already loaded ontology without an inferred IRI: {}",
+                        this.ontologyID);
+                return PoddSchemaManagerImpl.toInferredOntologyID(this.ontologyID);
+            }
+            
+            for(final SchemaUploadTask nextDependency : this.dependencies)
+            {
+                if(nextDependency.join() == null)
+                {
+                    return null;
+                }
+            }
+            
+            if(this.failed.get())
+            {
+                return null;
+            }
+            
+            try
+            {
+                return PoddSchemaManagerImpl.this.uploadSchemaOntologyFromManifest(this.ontologyID, this.model,
+                        this.nextImportOrder, this.currentVersionsMap, this.importsMap, this.stagingRepository);
+            }
+            catch(final Throwable e)
+            {
+                this.failure = e;
+                this.failed.set(true);
+                return null;
             }
         }
+        
+        Throwable getFailure()
+        {
+            return this.failure;
+        }
     }
     
     @Override
@@ -594,7 +976,8 @@ public class PoddSchemaManagerImpl implements PoddSchemaManager
             // be rolled back if there are any failures!
             final InferredOWLOntologyID nextResult =
                     this.uploadSchemaOntologyInternal(schemaOntologyID, inputStream, fileFormat, managementConnection,
-                            this.repositoryManager.getSchemaManagementGraph(), dependentSchemaOntologies);
+                            managementConnection, this.repositoryManager.getSchemaManagementGraph(),
+                            dependentSchemaOntologies);
             
             this.setUpdateManagedSchemaOntologyVersionInternal(nextResult, true, managementConnection,
                     this.repositoryManager.getSchemaManagementGraph());
@@ -628,14 +1011,17 @@ public class PoddSchemaManagerImpl implements PoddSchemaManager
                 managementConnection.close();
             }
         }
-        
+    
     }
     
     /**
      * @param schemaOntologyID
      * @param inputStream
      * @param fileFormat
+     * @param permanentConnection
+     *            The connection that the schema ontology and its inferred statements are added to.
      * @param managementConnection
+     *            The connection that the dependent schema ontologies are read from.
      * @param dependentSchemaOntologies
      * @return
      * @throws OWLException
@@ -647,8 +1033,9 @@ public class PoddSchemaManagerImpl implements PoddSchemaManager
      * @throws OpenRDFException
      */
     private InferredOWLOntologyID uploadSchemaOntologyInternal(final OWLOntologyID schemaOntologyID,
-            final InputStream inputStream, final RDFFormat fileFormat, final RepositoryConnection managementConnection,
-            final URI schemaManagementGraph, final Set<? extends OWLOntologyID> dependentSchemaOntologies)
+            final InputStream inputStream, final RDFFormat fileFormat, final RepositoryConnection permanentConnection,
+            final RepositoryConnection managementConnection, final URI schemaManagementGraph,
+            final Set<? extends OWLOntologyID> dependentSchemaOntologies)
         throws OWLException, IOException, PoddException, EmptyOntologyException, RepositoryException,
         OWLRuntimeException, OpenRDFException
     {
@@ -657,7 +1044,7 @@ public class PoddSchemaManagerImpl implements PoddSchemaManager
         final OWLOntologyDocumentSource owlSource =
                 new StreamDocumentSource(inputStream, fileFormat.getDefaultMIMEType());
         final InferredOWLOntologyID nextInferredOntology =
-                this.owlManager.loadAndInfer(owlSource, managementConnection, schemaOntologyID,
+                this.owlManager.loadAndInfer(owlSource, permanentConnection, schemaOntologyID,
                         dependentSchemaOntologies, managementConnection, schemaManagementGraph);
         
         // update the link in the schema ontology management graph
@@ -22,6 +22,7 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -221,7 +222,7 @@ public class PoddSesameManagerImpl implements PoddSesameManager
         
         this.log.trace("Created SPARQL {}.", graphQuery);
         
-        return RdfUtility.executeGraphQuery(rdfsGraphQuery, contexts);
+        return RdfUtility.executeGraphQuery("PoddSesameManager.fillMissingLabels", rdfsGraphQuery, contexts);
     }
     
     @Override
@@ -243,7 +244,9 @@ public class PoddSesameManagerImpl implements PoddSesameManager
         this.log.debug("Generated SPARQL {} ", sb);
         
         final TupleQuery query = repositoryConnection.prepareTupleQuery(QueryLanguage.SPARQL, sb.toString());
-        final QueryResultCollector queryResults = RdfUtility.executeTupleQuery(query, schemaManagementGraph);
+        final QueryResultCollector queryResults =
+                RdfUtility.executeTupleQuery("PoddSesameManager.getAllCurrentSchemaOntologyVersions", query,
+                        schemaManagementGraph);
         
         for(final BindingSet nextResult : queryResults.getBindingSets())
         {
@@ -288,7 +291,9 @@ public class PoddSesameManagerImpl implements PoddSesameManager
         this.log.debug("Generated SPARQL {} ", sb);
         
         final TupleQuery query = repositoryConnection.prepareTupleQuery(QueryLanguage.SPARQL, sb.toString());
-        final QueryResultCollector queryResults = RdfUtility.executeTupleQuery(query, schemaManagementGraph);
+        final QueryResultCollector queryResults =
+                RdfUtility.executeTupleQuery("PoddSesameManager.getAllSchemaOntologyVersions", query,
+                        schemaManagementGraph);
         
         for(final BindingSet nextResult : queryResults.getBindingSets())
         {
@@ -384,7 +389,8 @@ public class PoddSesameManagerImpl implements PoddSesameManager
             query.setBinding("poddObject", objectUri);
         }
         
-        final QueryResultCollector queryResults = RdfUtility.executeTupleQuery(query, contexts);
+        final QueryResultCollector queryResults =
+                RdfUtility.executeTupleQuery("PoddSesameManager.getCardinalityValues", query, contexts);
         
         final ConcurrentMap<URI, URI> resultMap = new ConcurrentHashMap<URI, URI>();
         
@@ -459,7 +465,8 @@ public class PoddSesameManagerImpl implements PoddSesameManager
         
         final TupleQuery tupleQuery = repositoryConnection.prepareTupleQuery(QueryLanguage.SPARQL, sb.toString());
         
-        final QueryResultCollector queryResults = RdfUtility.executeTupleQuery(tupleQuery, contexts);
+        final QueryResultCollector queryResults =
+                RdfUtility.executeTupleQuery("PoddSesameManager.getEventsTopConcepts", tupleQuery, contexts);
         
         final Set<URI> resultSet = new HashSet<URI>();
         for(final BindingSet next : queryResults.getBindingSets())
@@ -489,7 +496,8 @@ public class PoddSesameManagerImpl implements PoddSesameManager
         
         final TupleQuery tupleQuery = repositoryConnection.prepareTupleQuery(QueryLanguage.SPARQL, sb.toString());
         
-        final QueryResultCollector queryResults = RdfUtility.executeTupleQuery(tupleQuery, contexts);
+        final QueryResultCollector queryResults =
+                RdfUtility.executeTupleQuery("PoddSesameManager.getDirectSubClassOf", tupleQuery, contexts);
         
         final Set<URI> resultSet = new HashSet<URI>();
         for(final BindingSet next : queryResults.getBindingSets())
@@ -521,7 +529,8 @@ public class PoddSesameManagerImpl implements PoddSesameManager
         
         final TupleQuery tupleQuery = repositoryConnection.prepareTupleQuery(QueryLanguage.SPARQL, sb.toString());
         tupleQuery.setBinding("poddObject", objectUri);
-        final QueryResultCollector queryResults = RdfUtility.executeTupleQuery(tupleQuery, contexts);
+        final QueryResultCollector queryResults =
+                RdfUtility.executeTupleQuery("PoddSesameManager.getChildObjects", tupleQuery, contexts);
         
         final Set<URI> resultSet = new HashSet<URI>();
         for(final BindingSet next : queryResults.getBindingSets())
@@ -813,7 +822,7 @@ public class PoddSesameManagerImpl implements PoddSesameManager
         // instanceQuery,
         // nextRangeType);
         
-        return RdfUtility.executeGraphQuery(rdfsGraphQuery, contexts);
+        return RdfUtility.executeGraphQuery("PoddSesameManager.getInstancesOf", rdfsGraphQuery, contexts);
     }
     
     @Override
@@ -842,7 +851,8 @@ public class PoddSesameManagerImpl implements PoddSesameManager
         final GraphQuery graphQuery = repositoryConnection.prepareGraphQuery(QueryLanguage.SPARQL, sb.toString());
         graphQuery.setBinding("poddObject", objectUri);
         
-        final Model queryResults = RdfUtility.executeGraphQuery(graphQuery, contexts);
+        final Model queryResults =
+                RdfUtility.executeGraphQuery("PoddSesameManager.getObjectData", graphQuery, contexts);
         
         return queryResults;
     }
@@ -874,6 +884,15 @@ public class PoddSesameManagerImpl implements PoddSesameManager
             final RepositoryConnection managementConnection, final RepositoryConnection permanentConnection,
             final URI schemaManagementGraph, final URI artifactManagementGraph) throws OpenRDFException,
         SchemaManifestException, UnmanagedSchemaIRIException
+    {
+        return this.getObjectDetailsForDisplay(objectUri, permanentConnection, this
+                .versionAndInferredAndSchemaContexts(artifactID, managementConnection, schemaManagementGraph,
+                        artifactManagementGraph));
+    }
+    
+    @Override
+    public Model getObjectDetailsForDisplay(final URI objectUri, final RepositoryConnection permanentConnection,
+            final URI... contexts) throws OpenRDFException
     {
         final StringBuilder sb = new StringBuilder(1024);
         
@@ -906,8 +925,7 @@ public class PoddSesameManagerImpl implements PoddSesameManager
         graphQuery.setBinding("poddObject", objectUri);
         
         final Model queryResults =
-                RdfUtility.executeGraphQuery(graphQuery, this.versionAndInferredAndSchemaContexts(artifactID,
-                        managementConnection, schemaManagementGraph, artifactManagementGraph));
+                RdfUtility.executeGraphQuery("PoddSesameManager.getObjectDetailsForDisplay", graphQuery, contexts);
         
         return queryResults;
     }
@@ -977,7 +995,8 @@ public class PoddSesameManagerImpl implements PoddSesameManager
                     this.schemaContexts(ontologyID, managementConnection, schemaManagementGraph,
                             artifactManagementGraph);
         }
-        final QueryResultCollector queryResults = RdfUtility.executeTupleQuery(tupleQuery, contexts);
+        final QueryResultCollector queryResults =
+                RdfUtility.executeTupleQuery("PoddSesameManager.getObjectLabel", tupleQuery, contexts);
         
         String label = null;
         String description = null;
@@ -1015,6 +1034,86 @@ public class PoddSesameManagerImpl implements PoddSesameManager
         return new PoddObjectLabelImpl(ontologyID, objectUri, label, description, barcode);
     }
     
+    @Override
+    public Map<URI, PoddObjectLabel> getObjectLabels(final InferredOWLOntologyID ontologyID,
+            final Collection<URI> objectUris, final RepositoryConnection permanentConnection, final URI... contexts)
+        throws OpenRDFException
+    {
+        final Map<URI, PoddObjectLabel> results = new HashMap<URI, PoddObjectLabel>();
+        if(objectUris.isEmpty())
+        {
+            return results;
+        }
+        
+        final StringBuilder sb = new StringBuilder(1024);
+        sb.append("SELECT ?objectUri ?label ?description ?barcode ");
+        sb.append(" WHERE { ");
+        // The language filter is inside the OPTIONAL so that objects without labels are still returned
+        sb.append(" OPTIONAL { ?objectUri <" + RDFS.LABEL + "> ?label . ");
+        sb.append(" FILTER (lang(?label) = 'en'|| lang(?label)='') } ");
+        sb.append(" OPTIONAL { ?objectUri <" + RDFS.COMMENT + "> ?description . } ");
+        sb.append(" OPTIONAL { ?objectUri <" + PODDSCIENCE.HAS_BARCODE + "> ?barcode . } ");
+        sb.append(" }");
+        sb.append(" VALUES (?objectUri) { ");
+        for(final URI nextObjectUri : objectUris)
+        {
+            sb.append(" ( ");
+            sb.append(RenderUtils.getSPARQLQueryString(nextObjectUri));
+            sb.append(" ) ");
+        }
+        sb.append(" } ");
+        
+        this.log.trace("Created SPARQL {}", sb);
+        
+        final TupleQuery tupleQuery = permanentConnection.prepareTupleQuery(QueryLanguage.SPARQL, sb.toString());
+        final QueryResultCollector queryResults =
+                RdfUtility.executeTupleQuery("PoddSesameManager.getObjectLabels", tupleQuery, contexts);
+        
+        final Map<URI, String[]> labels = new HashMap<URI, String[]>();
+        for(final BindingSet next : queryResults.getBindingSets())
+        {
+            final URI nextObjectUri = (URI)next.getValue("objectUri");
+            String[] nextLabel = labels.get(nextObjectUri);
+            if(nextLabel == null)
+            {
+                nextLabel = new String[3];
+                labels.put(nextObjectUri, nextLabel);
+            }
+            
+            if(next.getValue("label") != null)
+            {
+                nextLabel[0] = next.getValue("label").stringValue();
+            }
+            
+            if(next.getValue("description") != null)
+            {
+                nextLabel[1] = next.getValue("description").stringValue();
+            }
+            
+            if(next.getValue("barcode") != null)
+            {
+                nextLabel[2] = next.getValue("barcode").stringValue();
+            }
+        }
+        
+        for(final URI nextObjectUri : objectUris)
+        {
+            String[] nextLabel = labels.get(nextObjectUri);
+            if(nextLabel == null)
+            {
+                nextLabel = new String[3];
+            }
+            if(nextLabel[0] == null)
+            {
+                nextLabel[0] = nextObjectUri.stringValue();
+            }
+            results.put(nextObjectUri, new PoddObjectLabelImpl(ontologyID, nextObjectUri, nextLabel[0], nextLabel[1],
+                    nextLabel[2]));
+        }
+        
+        return results;
+    }
+    
     @Override
     public Model getObjectTypeContainsMetadata(final URI objectType, final RepositoryConnection repositoryConnection,
             final URI... contexts) throws OpenRDFException
@@ -1076,7 +1175,9 @@ public class PoddSesameManagerImpl implements PoddSesameManager
         this.log.debug("[getObjectTypeContainsMetadata] Created SPARQL {} \n   with objectType bound to {}",
                 owlRestrictionQueryString, objectType);
         
-        final Model rdfsQueryResults = RdfUtility.executeGraphQuery(rdfsGraphQuery, contexts);
+        final Model rdfsQueryResults =
+                RdfUtility.executeGraphQuery("PoddSesameManager.getObjectTypeContainsMetadata", rdfsGraphQuery,
+                        contexts);
         results.addAll(rdfsQueryResults);
         
         this.log.debug("rdfsQueryResults ", rdfsQueryResults);
@@ -1146,7 +1247,8 @@ public class PoddSesameManagerImpl implements PoddSesameManager
             // this.log.trace("Created SPARQL {} \n   with rangeClass bound to {}",
             // subRangeQueryString, restriction);
             
-            results.addAll(RdfUtility.executeGraphQuery(subRangeGraphQuery, contexts));
+            results.addAll(RdfUtility.executeGraphQuery("PoddSesameManager.getObjectTypeContainsMetadata.subRanges",
+                    subRangeGraphQuery, contexts));
         }
         
         return results;
@@ -1239,7 +1341,9 @@ public class PoddSesameManagerImpl implements PoddSesameManager
         
         this.log.trace("Created SPARQL {} \n   with objectType bound to {}", owlRestrictionQueryString, objectType);
         
-        final Model restrictionQueryResults = RdfUtility.executeGraphQuery(graphQuery, contexts);
+        final Model restrictionQueryResults =
+                RdfUtility.executeGraphQuery("PoddSesameManager.getObjectTypeMetadata.restrictions", graphQuery,
+                        contexts);
         results.addAll(restrictionQueryResults);
         
         this.log.debug("restrictionQueryResults {}", restrictionQueryResults);
@@ -1292,7 +1396,8 @@ public class PoddSesameManagerImpl implements PoddSesameManager
         
         this.log.trace("Created SPARQL {} \n   with objectType bound to {}", rdfsQueryString, objectType);
         
-        final Model rdfsQueryResults = RdfUtility.executeGraphQuery(rdfsGraphQuery, contexts);
+        final Model rdfsQueryResults =
+                RdfUtility.executeGraphQuery("PoddSesameManager.getObjectTypeMetadata.rdfs", rdfsGraphQuery, contexts);
         results.addAll(rdfsQueryResults);
         
         this.log.debug("rdfsQueryResults {}", rdfsQueryResults);
@@ -1339,7 +1444,9 @@ public class PoddSesameManagerImpl implements PoddSesameManager
                     repositoryConnection.prepareGraphQuery(QueryLanguage.SPARQL, annotationQueryString);
             annotationGraphQuery.setBinding("objectType", objectType);
             
-            final Model annotationQueryResults = RdfUtility.executeGraphQuery(annotationGraphQuery, contexts);
+            final Model annotationQueryResults =
+                    RdfUtility.executeGraphQuery("PoddSesameManager.getObjectTypeMetadata.annotations",
+                            annotationGraphQuery, contexts);
             
             this.log.debug("annotationQueryResults {}", annotationQueryResults);
             
@@ -1403,7 +1510,9 @@ public class PoddSesameManagerImpl implements PoddSesameManager
             this.log.trace("Created SPARQL get metaData for properties {} ", sb2);
             
             final GraphQuery graphQuery2 = repositoryConnection.prepareGraphQuery(QueryLanguage.SPARQL, sb2String);
-            final Model queryResults2 = RdfUtility.executeGraphQuery(graphQuery2, contexts);
+            final Model queryResults2 =
+                    RdfUtility.executeGraphQuery("PoddSesameManager.getObjectTypeMetadata.properties", graphQuery2,
+                            contexts);
             
             this.log.debug("SPARQL get metaData for properties result {}", queryResults2);
             results.addAll(queryResults2);
@@ -1508,8 +1617,28 @@ public class PoddSesameManagerImpl implements PoddSesameManager
             final URI schemaManagementGraph, final URI artifactManagementGraph) throws OpenRDFException,
         SchemaManifestException, UnmanagedSchemaIRIException
     {
+        return this.getObjectTypes(Arrays.asList(objectUri), permanentConnection,
+                this.versionAndSchemaContexts(ontologyID, managementConnection, schemaManagementGraph,
+                        artifactManagementGraph)).get(objectUri);
+    }
+    
+    @Override
+    public Map<URI, List<URI>> getObjectTypes(final Collection<URI> objectUris,
+            final RepositoryConnection permanentConnection, final URI... contexts) throws OpenRDFException
+    {
+        final Map<URI, List<URI>> results = new HashMap<URI, List<URI>>();
+        for(final URI nextObjectUri : objectUris)
+        {
+            results.put(nextObjectUri, new ArrayList<URI>());
+        }
+        
+        if(objectUris.isEmpty())
+        {
+            return results;
+        }
+        
         final StringBuilder sb = new StringBuilder(1024);
-        sb.append("SELECT DISTINCT ?poddTypeUri ");
+        sb.append("SELECT DISTINCT ?objectUri ?poddTypeUri ");
         sb.append(" WHERE { ");
         sb.append(" ?objectUri <" + RDF.TYPE + "> ?poddTypeUri . ");
         
@@ -1524,20 +1653,24 @@ public class PoddSesameManagerImpl implements PoddSesameManager
         sb.append("FILTER (?poddTypeUri != <" + OWL.CLASS.stringValue() + ">) ");
         
         sb.append(" }");
+        sb.append(" VALUES (?objectUri) { ");
+        for(final URI nextObjectUri : objectUris)
+        {
+            sb.append(" ( ");
+            sb.append(RenderUtils.getSPARQLQueryString(nextObjectUri));
+            sb.append(" ) ");
+        }
+        sb.append(" } ");
         
-        this.log.trace("Created SPARQL {} with objectUri bound to {}", sb, objectUri);
+        this.log.trace("Created SPARQL {}", sb);
         
         final TupleQuery tupleQuery = permanentConnection.prepareTupleQuery(QueryLanguage.SPARQL, sb.toString());
-        tupleQuery.setBinding("objectUri", objectUri);
         final QueryResultCollector queryResults =
-                RdfUtility.executeTupleQuery(tupleQuery, this.versionAndSchemaContexts(ontologyID,
-                        managementConnection, schemaManagementGraph, artifactManagementGraph));
-        
-        final List<URI> results = new ArrayList<URI>(queryResults.getBindingSets().size());
+                RdfUtility.executeTupleQuery("PoddSesameManager.getObjectTypes", tupleQuery, contexts);
         
         for(final BindingSet next : queryResults.getBindingSets())
         {
-            results.add((URI)next.getValue("poddTypeUri"));
+            results.get(next.getValue("objectUri")).add((URI)next.getValue("poddTypeUri"));
         }
         
         return results;
@@ -1732,7 +1865,7 @@ public class PoddSesameManagerImpl implements PoddSesameManager
         
         this.log.trace("Created SPARQL {} \n   with poddObject bound to {}", sb, objectUri);
         
-        return RdfUtility.executeGraphQuery(graphQuery, contexts);
+        return RdfUtility.executeGraphQuery("PoddSesameManager.getParentDetails", graphQuery, contexts);
     }
     
     /*
@@ -1765,7 +1898,7 @@ public class PoddSesameManagerImpl implements PoddSesameManager
         
         this.log.trace("Created SPARQL {} \n   with poddObject bound to {}", sb, objectUri);
         
-        return RdfUtility.executeGraphQuery(graphQuery, contexts);
+        return RdfUtility.executeGraphQuery("PoddSesameManager.getReferringObjectDetails", graphQuery, contexts);
     }
     
     @Override
@@ -1837,7 +1970,8 @@ public class PoddSesameManagerImpl implements PoddSesameManager
         query.setBinding("artifactUri", ontologyID.getOntologyIRI().toOpenRDFURI());
         
         final QueryResultCollector queryResults =
-                RdfUtility.executeTupleQuery(query, this.versionAndInferredContexts(ontologyID));
+                RdfUtility.executeTupleQuery("PoddSesameManager.getTopObjects", query,
+                        this.versionAndInferredContexts(ontologyID));
         
         final List<URI> topObjectList = new ArrayList<URI>();
         
@@ -1900,7 +2034,8 @@ public class PoddSesameManagerImpl implements PoddSesameManager
         
         final TupleQuery tupleQuery = repositoryConnection.prepareTupleQuery(QueryLanguage.SPARQL, sb.toString());
         tupleQuery.setBinding("poddObject", objectUri);
-        final QueryResultCollector queryResults = RdfUtility.executeTupleQuery(tupleQuery, contexts);
+        final QueryResultCollector queryResults =
+                RdfUtility.executeTupleQuery("PoddSesameManager.getWeightedProperties", tupleQuery, contexts);
         // this.versionAndSchemaContexts(artifactID, repositoryConnection, c));
         
         final List<URI> resultList = new ArrayList<URI>();
@@ -2117,7 +2252,8 @@ public class PoddSesameManagerImpl implements PoddSesameManager
         
         this.log.trace("Created SPARQL {} with searchTerm bound to '{}' ", sb, searchTerm);
         
-        final Model queryResults = RdfUtility.executeGraphQuery(graphQuery, contexts);
+        final Model queryResults =
+                RdfUtility.executeGraphQuery("PoddSesameManager.searchOntologyLabels", graphQuery, contexts);
         
         return queryResults;
     }
@@ -2572,7 +2708,7 @@ public class PoddSesameManagerImpl implements PoddSesameManager
         
         this.log.trace("Created SPARQL {} \n   with objects types bound to {}", subChildQueryString, objectsType);
         
-        return RdfUtility.executeGraphQuery(subChildGraphQuery, contexts);
+        return RdfUtility.executeGraphQuery("PoddSesameManager.ChildOfList", subChildGraphQuery, contexts);
         
     }
     
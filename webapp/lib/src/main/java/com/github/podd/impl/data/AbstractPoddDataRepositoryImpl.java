@@ -16,10 +16,14 @@
  */
 package com.github.podd.impl.data;
 
+import java.io.IOException;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.openrdf.OpenRDFException;
 import org.openrdf.model.Literal;
 import org.openrdf.model.Model;
 import org.openrdf.model.Resource;
@@ -30,6 +34,7 @@ import org.openrdf.model.vocabulary.RDF;
 
 import com.github.podd.api.data.DataReference;
 import com.github.podd.api.data.PoddDataRepository;
+import com.github.podd.exception.DataReferenceNotSupportedException;
 import com.github.podd.exception.DataRepositoryIncompleteException;
 import com.github.podd.utils.PODD;
 
@@ -115,4 +120,32 @@ abstract class AbstractPoddDataRepositoryImpl<T extends DataReference> implement
         return this.types;
     }
     
+    /**
+     * Does nothing, as this repository does not hold any connections. Sub-classes that hold
+     * connections should override this method.
+     */
+    @Override
+    public void shutDown() throws OpenRDFException
+    {
+    }
+    
+    /**
+     * Validates each of the references in turn. Sub-classes that can validate references together
+     * should override this method.
+     */
+    @Override
+    public Set<T> validateAll(final Collection<T> references) throws DataReferenceNotSupportedException,
+        IOException
+    {
+        final Set<T> invalid = new LinkedHashSet<T>();
+        for(final T nextReference : references)
+        {
+            if(!this.validate(nextReference))
+            {
+                invalid.add(nextReference);
+            }
+        }
+        return invalid;
+    }
+    
 }
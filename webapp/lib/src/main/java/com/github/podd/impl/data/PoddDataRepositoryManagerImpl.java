@@ -24,10 +24,14 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.openrdf.OpenRDFException;
 import org.openrdf.model.Literal;
@@ -85,6 +89,13 @@ public class PoddDataRepositoryManagerImpl implements PoddDataRepositoryManager
     
     private final Model dataRepositorySchema;
     
+    /**
+     * The data repositories that have been created, by lower case alias, so that they can reuse
+     * their connections and caches. Each is replaced when its configuration changes.
+     */
+    private final ConcurrentMap<String, PoddDataRepository<? extends DataReference>> repositoryCache =
+            new ConcurrentHashMap<String, PoddDataRepository<? extends DataReference>>();
+    
     /**
      *
      */
@@ -247,7 +258,8 @@ public class PoddDataRepositoryManagerImpl implements PoddDataRepositoryManager
             
             final TupleQuery query = conn.prepareTupleQuery(QueryLanguage.SPARQL, sb.toString());
             
-            final QueryResultCollector queryResults = RdfUtility.executeTupleQuery(query, context);
+            final QueryResultCollector queryResults =
+                    RdfUtility.executeTupleQuery("PoddDataRepositoryManager.getAllAliases", query, context);
             for(final BindingSet binding : queryResults.getBindingSets())
             {
                 final Value member = binding.getValue("alias");
@@ -295,7 +307,8 @@ public class PoddDataRepositoryManagerImpl implements PoddDataRepositoryManager
             final TupleQuery query = conn.prepareTupleQuery(QueryLanguage.SPARQL, sb.toString());
             query.setBinding("alias", ValueFactoryImpl.getInstance().createLiteral(aliasInLowerCase));
             
-            final QueryResultCollector queryResults = RdfUtility.executeTupleQuery(query, context);
+            final QueryResultCollector queryResults =
+                    RdfUtility.executeTupleQuery("PoddDataRepositoryManager.getEquivalentAliases", query, context);
             for(final BindingSet binding : queryResults.getBindingSets())
             {
                 final Value member = binding.getValue("otherAlias");
@@ -360,16 +373,34 @@ public class PoddDataRepositoryManagerImpl implements PoddDataRepositoryManager
                 }
             }
             
-            for(final Resource nextMatchingRepository : matchingRepositories)
+            final String aliasInLowerCase = alias.toLowerCase();
+            synchronized(this.repositoryCache)
             {
-                final PoddDataRepository<? extends DataReference> repository =
-                        PoddDataRepositoryRegistry.getInstance().createDataRepository(nextMatchingRepository,
-                                repositories);
+                // Reuse the cached repository if its configuration has not changed
+                final PoddDataRepository<? extends DataReference> cached = this.repositoryCache.get(aliasInLowerCase);
+                if(cached != null && matchingRepositories.size() == 1)
+                {
+                    final Resource matchingRepository = matchingRepositories.iterator().next();
+                    if(cached.getAsModel().equals(repositories.filter(matchingRepository, null, null)))
+                    {
+                        return cached;
+                    }
+                }
                 
-                if(repository != null)
+                for(final Resource nextMatchingRepository : matchingRepositories)
                 {
-                    return repository;
+                    final PoddDataRepository<? extends DataReference> repository =
+                            PoddDataRepositoryRegistry.getInstance().createDataRepository(nextMatchingRepository,
+                                    repositories);
+                    
+                    if(repository != null)
+                    {
+                        this.replaceCachedRepository(aliasInLowerCase, repository);
+                        return repository;
+                    }
                 }
+                
+                this.replaceCachedRepository(aliasInLowerCase, null);
             }
         }
         finally
@@ -386,6 +417,41 @@ public class PoddDataRepositoryManagerImpl implements PoddDataRepositoryManager
         return null;
     }
     
+    /**
+     * Replaces the cached repository for the given alias, shutting down the previous repository
+     * if it was different.
+     *
+     * @param aliasInLowerCase
+     *            The lower case alias.
+     * @param repository
+     *            The repository to cache, or null to remove the cached repository.
+     */
+    private void replaceCachedRepository(final String aliasInLowerCase,
+            final PoddDataRepository<? extends DataReference> repository)
+    {
+        final PoddDataRepository<? extends DataReference> previous;
+        if(repository == null)
+        {
+            previous = this.repositoryCache.remove(aliasInLowerCase);
+        }
+        else
+        {
+            previous = this.repositoryCache.put(aliasInLowerCase, repository);
+        }
+        
+        if(previous != null && previous != repository)
+        {
+            try
+            {
+                previous.shutDown();
+            }
+            catch(final OpenRDFException e)
+            {
+                this.log.warn("Could not shut down previous data repository for alias: " + aliasInLowerCase, e);
+            }
+        }
+    }
+    
     @Override
     public List<String> getRepositoryAliases(final PoddDataRepository<?> repositoryConfiguration)
         throws DataRepositoryException, OpenRDFException
@@ -496,6 +562,11 @@ public class PoddDataRepositoryManagerImpl implements PoddDataRepositoryManager
             }
             
             conn.commit();
+            
+            synchronized(this.repositoryCache)
+            {
+                this.replaceCachedRepository(aliasInLowerCase, null);
+            }
             return repositoryToRemove;
         }
         finally
@@ -511,6 +582,36 @@ public class PoddDataRepositoryManagerImpl implements PoddDataRepositoryManager
         }
     }
     
+    @Override
+    public void shutDown() throws OpenRDFException
+    {
+        synchronized(this.repositoryCache)
+        {
+            OpenRDFException firstException = null;
+            for(final PoddDataRepository<? extends DataReference> nextRepository : this.repositoryCache.values())
+            {
+                try
+                {
+                    nextRepository.shutDown();
+                }
+                catch(final OpenRDFException e)
+                {
+                    this.log.error("Could not shut down data repository: " + nextRepository.getAlias(), e);
+                    if(firstException == null)
+                    {
+                        firstException = e;
+                    }
+                }
+            }
+            this.repositoryCache.clear();
+            
+            if(firstException != null)
+            {
+                throw firstException;
+            }
+        }
+    }
+    
     @Override
     public void setOWLManager(final PoddOWLManager owlManager)
     {
@@ -529,21 +630,40 @@ public class PoddDataRepositoryManagerImpl implements PoddDataRepositoryManager
     {
         final Map<DataReference, Throwable> errors = new HashMap<DataReference, Throwable>();
         
+        // Group the references by alias so that each repository can validate all of its
+        // references together
+        final Map<String, List<DataReference>> referencesByAlias = new LinkedHashMap<String, List<DataReference>>();
         for(final DataReference dataReference : fileReferenceResults)
         {
             final String alias = dataReference.getRepositoryAlias();
+            List<DataReference> aliasReferences = referencesByAlias.get(alias);
+            if(aliasReferences == null)
+            {
+                aliasReferences = new ArrayList<DataReference>();
+                referencesByAlias.put(alias, aliasReferences);
+            }
+            aliasReferences.add(dataReference);
+        }
+        
+        for(final Entry<String, List<DataReference>> nextAlias : referencesByAlias.entrySet())
+        {
+            final String alias = nextAlias.getKey();
+            final List<DataReference> aliasReferences = nextAlias.getValue();
             final PoddDataRepository<DataReference> repository =
                     (PoddDataRepository<DataReference>)this.getRepository(alias);
             if(repository == null)
             {
-                errors.put(dataReference, new DataRepositoryMappingNotFoundException(alias,
-                        "Could not find a File Repository configuration mapped to this alias"));
+                for(final DataReference dataReference : aliasReferences)
+                {
+                    errors.put(dataReference, new DataRepositoryMappingNotFoundException(alias,
+                            "Could not find a File Repository configuration mapped to this alias"));
+                }
             }
             else
             {
                 try
                 {
-                    if(!repository.validate(dataReference))
+                    for(final DataReference dataReference : repository.validateAll(aliasReferences))
                     {
                         errors.put(dataReference, new DataReferenceInvalidException(dataReference,
                                 "Remote File Repository says this File Reference is invalid"));
@@ -551,7 +671,10 @@ public class PoddDataRepositoryManagerImpl implements PoddDataRepositoryManager
                 }
                 catch(final Exception e)
                 {
-                    errors.put(dataReference, e);
+                    for(final DataReference dataReference : aliasReferences)
+                    {
+                        errors.put(dataReference, e);
+                    }
                 }
             }
         }
@@ -17,9 +17,31 @@
 package com.github.podd.impl.data;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
+import org.openrdf.OpenRDFException;
 import org.openrdf.model.Model;
 import org.openrdf.model.Resource;
+import org.openrdf.model.URI;
+import org.openrdf.model.Value;
+import org.openrdf.query.BindingSet;
+import org.openrdf.query.QueryLanguage;
+import org.openrdf.query.TupleQuery;
+import org.openrdf.query.TupleQueryResult;
+import org.openrdf.repository.Repository;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.RepositoryException;
+import org.openrdf.repository.http.HTTPRepository;
+import org.openrdf.rio.ntriples.NTriplesUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,15 +50,46 @@ import com.github.podd.api.data.SPARQLDataReference;
 import com.github.podd.exception.DataReferenceNotSupportedException;
 import com.github.podd.exception.DataRepositoryIncompleteException;
 import com.github.podd.utils.PODD;
+import com.github.podd.utils.QueryMetrics;
 
 /**
+ * A data repository for SPARQL Data References, which are validated by checking that their graphs
+ * exist in a remote SPARQL endpoint.
+ * <p>
+ * All of the references being validated are checked together using SELECT queries with a VALUES
+ * block, and graphs that were recently found to exist are cached so that they are not checked
+ * again until the cache entry expires. The HTTP connections to the endpoint are pooled by the
+ * underlying repository and reused between validations.
+ *
  * @author Peter Ansell p_ansell@yahoo.com
  *
  */
 public class SPARQLDataRepositoryImpl extends AbstractPoddDataRepositoryImpl<SPARQLDataReference>
 {
+    /**
+     * The default time, in milliseconds, that a graph is remembered as existing after it has been
+     * verified.
+     */
+    public static final long DEFAULT_VALIDATION_CACHE_TTL = TimeUnit.MINUTES.toMillis(5);
+    
+    /**
+     * The maximum number of graphs that are checked in a single query.
+     */
+    public static final int VALIDATION_BATCH_SIZE = 200;
+    
     protected final Logger log = LoggerFactory.getLogger(this.getClass());
     
+    private final String endpointUrl;
+    
+    /**
+     * The time, in milliseconds since the epoch, that each verified graph expires from the cache.
+     */
+    private final ConcurrentMap<String, Long> verifiedGraphs = new ConcurrentHashMap<String, Long>();
+    
+    private volatile long validationCacheTtl = SPARQLDataRepositoryImpl.DEFAULT_VALIDATION_CACHE_TTL;
+    
+    private volatile Repository sparqlRepository;
+    
     public SPARQLDataRepositoryImpl(final Resource nextDataRepository, final Model model)
         throws DataRepositoryIncompleteException
     {
@@ -59,6 +112,9 @@ public class SPARQLDataRepositoryImpl extends AbstractPoddDataRepositoryImpl<SPA
         {
             throw new DataRepositoryIncompleteException("Protocol needs to be HTTP for SPARQL Repository");
         }
+        
+        this.endpointUrl =
+                protocol.toLowerCase() + "://" + host + ":" + port + (path.startsWith("/") ? path : "/" + path);
     }
     
     @Override
@@ -85,35 +141,217 @@ public class SPARQLDataRepositoryImpl extends AbstractPoddDataRepositoryImpl<SPA
         return true;
     }
     
+    /**
+     * @return The URL of the SPARQL endpoint for this repository.
+     */
+    public String getEndpointUrl()
+    {
+        return this.endpointUrl;
+    }
+    
+    /**
+     * Overrides the repository that is used to access the SPARQL endpoint. By default an
+     * {@link HTTPRepository} is created for {@link #getEndpointUrl()} when it is first needed.
+     *
+     * @param sparqlRepository
+     *            An initialised repository to query for graphs.
+     */
+    public void setSparqlRepository(final Repository sparqlRepository)
+    {
+        this.sparqlRepository = sparqlRepository;
+        this.verifiedGraphs.clear();
+    }
+    
+    /**
+     * @param validationCacheTtl
+     *            The time, in milliseconds, that a graph is remembered as existing after it has
+     *            been verified. Zero disables the cache.
+     */
+    public void setValidationCacheTtl(final long validationCacheTtl)
+    {
+        this.validationCacheTtl = validationCacheTtl;
+        if(validationCacheTtl <= 0)
+        {
+            this.verifiedGraphs.clear();
+        }
+    }
+    
+    /**
+     * Shuts down the repository used to access the SPARQL endpoint, if it was created by this
+     * object, and clears the cache of verified graphs.
+     */
+    @Override
+    public void shutDown() throws RepositoryException
+    {
+        this.verifiedGraphs.clear();
+        final Repository repository = this.sparqlRepository;
+        if(repository instanceof HTTPRepository)
+        {
+            this.sparqlRepository = null;
+            repository.shutDown();
+        }
+    }
+    
     @Override
     public boolean validate(final SPARQLDataReference dataReference) throws DataReferenceNotSupportedException,
         IOException
     {
-        if(!this.canHandle(dataReference))
+        return this.validateAll(Collections.singleton(dataReference)).isEmpty();
+    }
+    
+    @Override
+    public Set<SPARQLDataReference> validateAll(final Collection<SPARQLDataReference> references)
+        throws DataReferenceNotSupportedException, IOException
+    {
+        final Set<SPARQLDataReference> invalid = new LinkedHashSet<SPARQLDataReference>();
+        final Set<String> graphsToCheck = new LinkedHashSet<String>();
+        final long now = System.currentTimeMillis();
+        
+        for(final SPARQLDataReference nextReference : references)
         {
-            throw new DataReferenceNotSupportedException(dataReference, "cannot handle file reference for validation");
+            if(!this.canHandle(nextReference))
+            {
+                throw new DataReferenceNotSupportedException(nextReference,
+                        "cannot handle file reference for validation");
+            }
+            
+            final String graph = nextReference.getGraph();
+            if(graph == null || graph.indexOf(':') < 0)
+            {
+                this.log.info("SPARQL data reference did not have a valid graph IRI: {}", nextReference);
+                invalid.add(nextReference);
+                continue;
+            }
+            
+            final Long expiry = this.verifiedGraphs.get(graph);
+            if(expiry == null || expiry < now)
+            {
+                graphsToCheck.add(graph);
+            }
         }
         
-        final String host = this.model.filter(super.aliasUri, PODD.PODD_DATA_REPOSITORY_HOST, null).objectString();
-        final String port = this.model.filter(super.aliasUri, PODD.PODD_DATA_REPOSITORY_PORT, null).objectString();
+        if(!graphsToCheck.isEmpty())
+        {
+            this.log.info("Validating {} graphs in SPARQL repository: {}", graphsToCheck.size(), this.endpointUrl);
+            
+            final Set<String> existingGraphs = this.findExistingGraphs(graphsToCheck);
+            
+            if(this.validationCacheTtl > 0)
+            {
+                final long expiry = System.currentTimeMillis() + this.validationCacheTtl;
+                for(final String nextGraph : existingGraphs)
+                {
+                    this.verifiedGraphs.put(nextGraph, expiry);
+                }
+            }
+            
+            for(final SPARQLDataReference nextReference : references)
+            {
+                final String graph = nextReference.getGraph();
+                if(graphsToCheck.contains(graph) && !existingGraphs.contains(graph))
+                {
+                    invalid.add(nextReference);
+                }
+            }
+        }
+        
+        return invalid;
+    }
+    
+    /**
+     * Finds which of the given graphs contain at least one statement, checking up to
+     * {@link #VALIDATION_BATCH_SIZE} graphs in each query.
+     */
+    private Set<String> findExistingGraphs(final Set<String> graphs) throws IOException
+    {
+        final Set<String> results = new HashSet<String>();
+        final List<String> graphList = new ArrayList<String>(graphs);
         
-        int portNo = -1;
+        RepositoryConnection conn = null;
         try
         {
-            portNo = Integer.parseInt(port);
+            conn = this.getSparqlRepository().getConnection();
+            
+            for(int start = 0; start < graphList.size(); start += SPARQLDataRepositoryImpl.VALIDATION_BATCH_SIZE)
+            {
+                final List<String> batch =
+                        graphList.subList(start,
+                                Math.min(graphList.size(), start + SPARQLDataRepositoryImpl.VALIDATION_BATCH_SIZE));
+                
+                final StringBuilder query = new StringBuilder(64 + batch.size() * 64);
+                query.append("SELECT DISTINCT ?graph WHERE { VALUES ?graph { ");
+                for(final String nextGraph : batch)
+                {
+                    query.append(NTriplesUtil.toNTriplesString(PODD.VF.createURI(nextGraph))).append(" ");
+                }
+                query.append("} GRAPH ?graph { ?s ?p ?o . } }");
+                
+                final TupleQuery tupleQuery = conn.prepareTupleQuery(QueryLanguage.SPARQL, query.toString());
+                
+                final long before = System.nanoTime();
+                long count = 0;
+                final TupleQueryResult queryResult = tupleQuery.evaluate();
+                try
+                {
+                    while(queryResult.hasNext())
+                    {
+                        final BindingSet bindingSet = queryResult.next();
+                        final Value graph = bindingSet.getValue("graph");
+                        if(graph instanceof URI)
+                        {
+                            results.add(graph.stringValue());
+                        }
+                        count++;
+                    }
+                }
+                finally
+                {
+                    queryResult.close();
+                }
+                QueryMetrics.getInstance().recordQuery("SPARQLDataRepository.findExistingGraphs", tupleQuery,
+                        System.nanoTime() - before, count);
+            }
         }
-        catch(final NumberFormatException e)
+        catch(final OpenRDFException e)
         {
-            throw new IOException("Port number could not be parsed correctly: " + port);
+            throw new IOException("Could not check graphs in SPARQL repository: " + this.endpointUrl, e);
+        }
+        finally
+        {
+            if(conn != null)
+            {
+                try
+                {
+                    conn.close();
+                }
+                catch(final RepositoryException e)
+                {
+                    this.log.error("Could not close SPARQL repository connection", e);
+                }
+            }
         }
         
-        final String graph = dataReference.getGraph();
-        
-        this.log.info("Validating file reference: " + host + ":" + port + " GRAPH<" + graph + ">");
-        
-        // FIXME: Implement validation that the graph exists
-        
-        return true;
+        return results;
+    }
+    
+    private Repository getSparqlRepository() throws RepositoryException
+    {
+        Repository result = this.sparqlRepository;
+        if(result == null)
+        {
+            synchronized(this)
+            {
+                result = this.sparqlRepository;
+                if(result == null)
+                {
+                    final HTTPRepository httpRepository = new HTTPRepository(this.endpointUrl);
+                    httpRepository.initialize();
+                    this.sparqlRepository = httpRepository;
+                    result = httpRepository;
+                }
+            }
+        }
+        return result;
     }
     
 }
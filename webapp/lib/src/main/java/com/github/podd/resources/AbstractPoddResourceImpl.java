@@ -16,14 +16,25 @@
  */
 package com.github.podd.resources;
 
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
 import java.util.List;
 
 import org.openrdf.model.URI;
+import org.restlet.data.Conditions;
 import org.restlet.data.Method;
 import org.restlet.data.Status;
+import org.restlet.data.Tag;
+import org.restlet.engine.header.Header;
+import org.restlet.engine.header.HeaderConstants;
+import org.restlet.representation.Representation;
 import org.restlet.representation.Variant;
 import org.restlet.resource.ResourceException;
 import org.restlet.resource.ServerResource;
+import org.restlet.util.Series;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,6 +45,9 @@ import com.github.podd.api.PoddSchemaManager;
 import com.github.podd.api.PoddSesameManager;
 import com.github.podd.restlet.PoddAction;
 import com.github.podd.restlet.PoddWebServiceApplication;
+import com.github.podd.utils.PhaseTimer;
+import com.github.podd.utils.QueryMetrics;
+import com.github.podd.utils.RepositoryUnitOfWork;
 
 public abstract class AbstractPoddResourceImpl extends ServerResource
 {
@@ -152,6 +166,155 @@ public abstract class AbstractPoddResourceImpl extends ServerResource
     public synchronized void doInit()
     {
         super.doInit();
+        // Conditional requests are checked by each resource before it generates a representation,
+        // using isNotModified, rather than after the representation has been generated
+        this.setConditional(false);
+    }
+    
+    /**
+     * Records the latency of each request to this resource in {@link QueryMetrics}, under the name
+     * of the resource class and the request method.
+     * <p>
+     * The request is handled in a {@link RepositoryUnitOfWork}, so that all of the manager calls
+     * made for the request share one connection to the management repository and to each permanent
+     * repository. The connections are closed after the response representation is generated.
+     */
+    @Override
+    public Representation handle()
+    {
+        final long before = System.nanoTime();
+        final RepositoryUnitOfWork unitOfWork = RepositoryUnitOfWork.begin();
+        try
+        {
+            return super.handle();
+        }
+        finally
+        {
+            if(unitOfWork != null)
+            {
+                unitOfWork.close();
+            }
+            final String operation = this.getClass().getSimpleName() + " " + this.getMethod().getName();
+            QueryMetrics.getRequestInstance().record(operation, System.nanoTime() - before, 0);
+        }
+    }
+    
+    /**
+     * Stops the given phase timer, if it is not null, and adds its phase breakdown to the response
+     * using the HTTP Server-Timing header.
+     *
+     * @param phaseTimer
+     *            The timer that was started for this request, or null if timing was disabled.
+     */
+    protected void addPhaseTimingHeader(final PhaseTimer phaseTimer)
+    {
+        if(phaseTimer == null)
+        {
+            return;
+        }
+        
+        phaseTimer.stop();
+        
+        @SuppressWarnings("unchecked")
+        Series<Header> headers =
+                (Series<Header>)this.getResponse().getAttributes().get(HeaderConstants.ATTRIBUTE_HEADERS);
+        if(headers == null)
+        {
+            headers = new Series<Header>(Header.class);
+            this.getResponse().getAttributes().put(HeaderConstants.ATTRIBUTE_HEADERS, headers);
+        }
+        headers.add("Server-Timing", phaseTimer.toServerTiming());
+    }
+    
+    /**
+     * Creates a strong entity tag for a representation in the given variant that is completely
+     * determined by the given values, such as artifact or schema version IRIs.
+     *
+     * @param variant
+     *            The variant that is being returned.
+     * @param values
+     *            The values that identify the content of the representation.
+     * @return A tag that changes whenever the media type or any of the values change.
+     */
+    protected Tag createTag(final Variant variant, final Object... values)
+    {
+        try
+        {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(variant.getMediaType().getName().getBytes(StandardCharsets.UTF_8));
+            for(final Object nextValue : values)
+            {
+                digest.update((byte)'\n');
+                digest.update(String.valueOf(nextValue).getBytes(StandardCharsets.UTF_8));
+            }
+            return new Tag(String.format("%064x", new BigInteger(1, digest.digest())), false);
+        }
+        catch(final NoSuchAlgorithmException e)
+        {
+            throw new RuntimeException("SHA-256 is not supported", e);
+        }
+    }
+    
+    /**
+     * Checks the If-None-Match and If-Modified-Since headers on the current request against the
+     * given tag and modification date. If the client already has the current representation, the
+     * response status is set to 304 (Not Modified), and the caller must return null without
+     * generating the representation.
+     *
+     * @param tag
+     *            The tag for the current representation.
+     * @param modificationDate
+     *            The date that the current representation was last modified, or null if it is not
+     *            known.
+     * @return True if the client already has the current representation, and false otherwise.
+     */
+    protected boolean isNotModified(final Tag tag, final Date modificationDate)
+    {
+        final Conditions conditions = this.getRequest().getConditions();
+        boolean notModified = false;
+        
+        // If-None-Match takes precedence over If-Modified-Since when both are present
+        if(!conditions.getNoneMatch().isEmpty())
+        {
+            for(final Tag nextTag : conditions.getNoneMatch())
+            {
+                if(Tag.ALL.equals(nextTag) || nextTag.getName().equals(tag.getName()))
+                {
+                    notModified = true;
+                    break;
+                }
+            }
+        }
+        else if(modificationDate != null && conditions.getModifiedSince() != null)
+        {
+            // HTTP dates only have a resolution of one second
+            notModified = modificationDate.getTime() / 1000 <= conditions.getModifiedSince().getTime() / 1000;
+        }
+        
+        if(notModified)
+        {
+            this.log.debug("Representation not modified: {}", tag);
+            this.setStatus(Status.REDIRECTION_NOT_MODIFIED);
+        }
+        
+        return notModified;
+    }
+    
+    /**
+     * Sets the tag and modification date on the given representation so that clients can make
+     * conditional requests for it later.
+     *
+     * @return The given representation.
+     */
+    protected Representation setValidators(final Representation representation, final Tag tag,
+            final Date modificationDate)
+    {
+        representation.setTag(tag);
+        if(modificationDate != null)
+        {
+            representation.setModificationDate(modificationDate);
+        }
+        return representation;
     }
     
     /**
@@ -197,7 +197,7 @@ public class AddObjectResourceImpl extends AbstractPoddResourceImpl
                     final Set<? extends OWLOntologyID> schemaImports =
                             this.getPoddArtifactManager().getSchemaImports(ontologyID);
                     permanentConnection =
-                            this.getPoddRepositoryManager().getPermanentRepositoryConnection(schemaImports);
+                            this.getPoddRepositoryManager().getPermanentRepositoryConnection(schemaImports, ontologyID);
                     
                     objectLabel =
                             this.getPoddSesameManager().getObjectLabel(ontologyID, PODD.VF.createURI(objectType),
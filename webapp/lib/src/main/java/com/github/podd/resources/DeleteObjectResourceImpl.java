@@ -18,10 +18,13 @@ package com.github.podd.resources;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import org.openrdf.OpenRDFException;
 import org.openrdf.model.Model;
+import org.openrdf.model.URI;
 import org.openrdf.model.impl.LinkedHashModel;
 import org.openrdf.rio.RDFFormat;
 import org.openrdf.rio.Rio;
@@ -54,8 +57,9 @@ import com.github.podd.utils.PoddWebConstants;
 public class DeleteObjectResourceImpl extends AbstractPoddResourceImpl
 {
     /**
-     * Accept an HTTP delete request to delete a PODD object. Upon successful deletion, an HTTP 200
-     * response with the updated Inferred Ontology ID is sent to the client.
+     * Accept an HTTP delete request to delete one or more PODD objects, given as repeated object
+     * parameters. Upon successful deletion, an HTTP 200 response with the updated Inferred
+     * Ontology ID is sent to the client.
      *
      * @param entity
      * @throws ResourceException
@@ -79,12 +83,19 @@ public class DeleteObjectResourceImpl extends AbstractPoddResourceImpl
                 throw new ResourceException(Status.CLIENT_ERROR_BAD_REQUEST, "Artifact Version IRI not submitted");
             }
             
-            final String objectUri = this.getQueryValue(PoddWebConstants.KEY_OBJECT_IDENTIFIER);
-            if(objectUri == null)
+            // - one or more objects may be deleted together in a single new version
+            final String[] objectUriStrings =
+                    this.getQuery().getValuesArray(PoddWebConstants.KEY_OBJECT_IDENTIFIER, true);
+            if(objectUriStrings.length == 0)
             {
                 throw new ResourceException(Status.CLIENT_ERROR_BAD_REQUEST,
                         "Object to delete not specified in request");
             }
+            final List<URI> objectUris = new ArrayList<URI>(objectUriStrings.length);
+            for(final String objectUriString : objectUriStrings)
+            {
+                objectUris.add(PODD.VF.createURI(objectUriString));
+            }
             
             String cascadeString = this.getQueryValue(PoddWebConstants.KEY_CASCADE);
             if(cascadeString == null)
@@ -95,15 +106,15 @@ public class DeleteObjectResourceImpl extends AbstractPoddResourceImpl
             
             this.checkAuthentication(PoddAction.ARTIFACT_EDIT, PODD.VF.createURI(artifactUri));
             
-            this.log.debug("requesting delete object: {}, {}, {} with cascade {}", artifactUri, versionUri, objectUri,
-                    cascade);
+            this.log.debug("requesting delete objects: {}, {}, {} with cascade {}", artifactUri, versionUri,
+                    objectUris, cascade);
             
             final User user = this.getRequest().getClientInfo().getUser();
             this.log.debug("authenticated user: {}", user);
             
             final InferredOWLOntologyID updatedOntologyID =
-                    this.getPoddArtifactManager().deleteObject(PODD.VF.createURI(artifactUri),
-                            PODD.VF.createURI(versionUri), PODD.VF.createURI(objectUri), cascade);
+                    this.getPoddArtifactManager().deleteObjects(PODD.VF.createURI(artifactUri),
+                            PODD.VF.createURI(versionUri), objectUris, cascade);
             
             // - prepare response
             final ByteArrayOutputStream output = new ByteArrayOutputStream(8096);
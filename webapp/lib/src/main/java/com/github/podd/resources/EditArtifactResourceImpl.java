@@ -57,6 +57,7 @@ import com.github.podd.restlet.PoddAction;
 import com.github.podd.restlet.RestletUtils;
 import com.github.podd.utils.InferredOWLOntologyID;
 import com.github.podd.utils.PODD;
+import com.github.podd.utils.PhaseTimer;
 import com.github.podd.utils.PoddObjectLabel;
 import com.github.podd.utils.PoddWebConstants;
 
@@ -72,7 +73,7 @@ public class EditArtifactResourceImpl extends AbstractPoddResourceImpl
     /**
      * Handle an HTTP POST request submitting RDF data to update an existing artifact
      */
-    @Post("rdf|rj|json|ttl")
+    @Post("rdf|rj|json|ttl|brf")
     public Representation editArtifactToRdf(final Representation entity, final Variant variant)
         throws ResourceException
     {
@@ -153,6 +154,7 @@ public class EditArtifactResourceImpl extends AbstractPoddResourceImpl
         final RDFFormat outputFormat =
                 Rio.getWriterFormatForMIMEType(variant.getMediaType().getName(), RDFFormat.RDFXML);
         // - do the artifact update
+        final PhaseTimer phaseTimer = PhaseTimer.start("updateArtifact");
         try
         {
             final Model model =
@@ -178,6 +180,10 @@ public class EditArtifactResourceImpl extends AbstractPoddResourceImpl
         {
             throw new ResourceException(Status.SERVER_ERROR_INTERNAL, "Could not create response", e);
         }
+        finally
+        {
+            this.addPhaseTimingHeader(phaseTimer);
+        }
         
         return new ByteArrayRepresentation(output.toByteArray(), MediaType.valueOf(outputFormat.getDefaultMIMEType()));
     }
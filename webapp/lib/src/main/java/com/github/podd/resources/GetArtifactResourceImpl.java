@@ -19,16 +19,17 @@ package com.github.podd.resources;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
 import org.openrdf.OpenRDFException;
-import org.openrdf.model.Model;
 import org.openrdf.model.URI;
 import org.openrdf.rio.RDFFormat;
 import org.openrdf.rio.UnsupportedRDFormatException;
 import org.restlet.data.MediaType;
 import org.restlet.data.Status;
+import org.restlet.data.Tag;
 import org.restlet.representation.ByteArrayRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.representation.Variant;
@@ -49,7 +50,10 @@ import com.github.podd.utils.FreemarkerUtil;
 import com.github.podd.utils.InferredOWLOntologyID;
 import com.github.podd.utils.PODD;
 import com.github.podd.utils.PoddObjectLabel;
+import com.github.podd.utils.PoddObjectView;
 import com.github.podd.utils.PoddWebConstants;
+import com.github.podd.utils.RenderedArtifactCache;
+import com.github.podd.utils.RenderedArtifactCache.RenderedArtifact;
 
 /**
  *
@@ -177,7 +181,7 @@ public class GetArtifactResourceImpl extends AbstractPoddResourceImpl
                 dataModel, MediaType.TEXT_HTML, this.getPoddApplication().getTemplateConfiguration());
     }
     
-    @Get(":rdf|rj|json|ttl")
+    @Get(":rdf|rj|json|ttl|brf")
     public Representation getArtifactRdf(final Representation entity, final Variant variant) throws ResourceException
     {
         // FIXME: Some Firefox requests get sent with Accept: */*, and Restlet
@@ -189,7 +193,11 @@ public class GetArtifactResourceImpl extends AbstractPoddResourceImpl
         
         this.log.debug("getArtifactRdf");
         
-        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        final RDFFormat format = RDFFormat.forMIMEType(variant.getMediaType().getName(), RDFFormat.RDFJSON);
+        final MediaType mediaType = MediaType.valueOf(format.getDefaultMIMEType());
+        byte[] rendered = null;
+        Tag tag = null;
+        Date modificationDate = null;
         
         try
         {
@@ -213,6 +221,16 @@ public class GetArtifactResourceImpl extends AbstractPoddResourceImpl
             final User user = this.getRequest().getClientInfo().getUser();
             this.log.debug("authenticated user: {}", user);
             
+            final String includeInferredString =
+                    this.getRequest().getResourceRef().getQueryAsForm()
+                            .getFirstValue(PoddWebConstants.KEY_INCLUDE_INFERRED, true);
+            final boolean includeInferred = Boolean.valueOf(includeInferredString);
+            
+            final RenderedArtifactCache cache = this.getPoddArtifactManager().getRenderedArtifactCache();
+            // Fetch the generation before resolving the version so that a version that is deleted
+            // while it is being exported is not added to the cache
+            final long cacheGeneration = cache.getGeneration();
+            
             InferredOWLOntologyID ontologyID = null;
             if(versionString == null)
             {
@@ -225,26 +243,68 @@ public class GetArtifactResourceImpl extends AbstractPoddResourceImpl
                                 .getArtifact(IRI.create(artifactString), IRI.create(versionString));
             }
             
-            final String includeInferredString =
-                    this.getRequest().getResourceRef().getQueryAsForm()
-                            .getFirstValue(PoddWebConstants.KEY_INCLUDE_INFERRED, true);
-            final boolean includeInferred = Boolean.valueOf(includeInferredString);
+            if(ontologyID == null)
+            {
+                throw new ResourceException(Status.CLIENT_ERROR_NOT_FOUND, "Could not find the given artifact");
+            }
+            
+            final String resolvedVersion = ontologyID.getVersionIRI().toString();
+            tag = this.createTag(variant, resolvedVersion, includeInferred);
+            // Artifact versions are immutable, so the timestamps in a version are only used when the
+            // client asked for that exact version. The current version may change without its
+            // timestamps being updated.
+            final boolean exactVersion = resolvedVersion.equals(versionString);
             
-            this.getPoddApplication()
-                    .getPoddArtifactManager()
-                    .exportArtifact(ontologyID, stream,
-                            RDFFormat.forMIMEType(variant.getMediaType().getName(), RDFFormat.RDFJSON), includeInferred);
+            // The modification date is cached with the rendered version, so that a cache hit does
+            // not need to read the permanent repository
+            final RenderedArtifact cached =
+                    cache.getRenderedArtifact(ontologyID.getOntologyIRI(), ontologyID.getVersionIRI(), format,
+                            includeInferred);
+            Date versionModificationDate = null;
+            if(cached != null)
+            {
+                versionModificationDate = cached.getModificationDate();
+            }
+            else if(exactVersion || cache.isEnabled())
+            {
+                versionModificationDate = this.getPoddArtifactManager().getArtifactModificationDate(ontologyID);
+            }
+            if(exactVersion)
+            {
+                modificationDate = versionModificationDate;
+            }
+            
+            if(this.isNotModified(tag, modificationDate))
+            {
+                return null;
+            }
+            
+            if(cached != null)
+            {
+                rendered = cached.getContent();
+            }
+            else
+            {
+                final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+                this.getPoddArtifactManager().exportArtifact(ontologyID, stream, format, includeInferred);
+                rendered = stream.toByteArray();
+                cache.put(ontologyID, format, includeInferred, rendered, versionModificationDate, cacheGeneration);
+            }
         }
         catch(final UnmanagedArtifactIRIException e)
         {
             throw new ResourceException(Status.CLIENT_ERROR_NOT_FOUND, "Could not find the given artifact", e);
         }
+        catch(final UnmanagedArtifactVersionException e)
+        {
+            throw new ResourceException(Status.CLIENT_ERROR_NOT_FOUND, "Could not find the given artifact version", e);
+        }
         catch(OpenRDFException | PoddException | IOException e)
         {
             throw new ResourceException(Status.SERVER_ERROR_INTERNAL, "Failed to export artifact", e);
         }
         
-        return new ByteArrayRepresentation(stream.toByteArray());
+        return this.setValidators(new ByteArrayRepresentation(rendered, mediaType), tag, modificationDate);
     }
     
     /**
@@ -277,20 +337,24 @@ public class GetArtifactResourceImpl extends AbstractPoddResourceImpl
         UnmanagedArtifactIRIException, UnmanagedArtifactVersionException, ResourceException,
         RepositoryNotFoundException
     {
+        URI objectUri = null;
+        if(objectToView != null && !objectToView.trim().isEmpty())
+        {
+            objectUri = PODD.VF.createURI(objectToView);
+        }
         
-        final PoddObjectLabel theObject =
-                RestletUtils.getParentDetails(this.getPoddArtifactManager(), ontologyID, objectToView);
-        // set title & description of object to display
-        dataModel.put("poddObject", theObject);
-        final URI objectUri = theObject.getObjectURI();
+        // fetch everything needed for display together
+        final PoddObjectView objectView = this.getPoddArtifactManager().getObjectView(ontologyID, objectUri);
+        dataModel.put("objectView", objectView);
         
-        final Map<String, String> parentMap =
-                RestletUtils.populateParentDetails(this.getPoddArtifactManager(), ontologyID, objectUri);
-        dataModel.put("parentObject", parentMap);
+        // set title & description of object to display
+        dataModel.put("poddObject", objectView.getObject());
+        dataModel.put("parentObject", objectView.getParentDetails());
+        dataModel.put("childObjects", objectView.getChildDetails());
         
         // find the object's type
-        final List<PoddObjectLabel> objectTypes = this.getPoddArtifactManager().getObjectTypes(ontologyID, objectUri);
-        if(objectTypes == null || objectTypes.isEmpty())
+        final List<PoddObjectLabel> objectTypes = objectView.getObjectTypes();
+        if(objectTypes.isEmpty())
         {
             throw new ResourceException(Status.SERVER_ERROR_INTERNAL, "Could not determine type of object");
         }
@@ -303,20 +367,11 @@ public class GetArtifactResourceImpl extends AbstractPoddResourceImpl
             dataModel.put("isProject", true);
         }
         
-        // populate the properties of the object
-        final List<URI> orderedProperties =
-                this.getPoddArtifactManager().getOrderedProperties(ontologyID, objectUri, false);
-        
-        final Model allNeededStatementsForDisplay =
-                this.getPoddArtifactManager().getObjectDetailsForDisplay(ontologyID, objectUri);
-        
         dataModel.put("artifactUri", ontologyID.getOntologyIRI().toOpenRDFURI());
         dataModel.put("versionIri", ontologyID.getVersionIRI().toOpenRDFURI());
-        dataModel.put("propertyList", orderedProperties);
-        dataModel.put("completeModel", allNeededStatementsForDisplay);
-        
-        final int childrenCount = this.getPoddArtifactManager().getChildObjects(ontologyID, objectUri).size();
-        dataModel.put("childCount", childrenCount);
+        dataModel.put("propertyList", objectView.getOrderedProperties());
+        dataModel.put("completeModel", objectView.getDisplayModel());
+        dataModel.put("childCount", objectView.getChildCount());
         
         if(!isPublished
                 && this.checkAuthentication(PoddAction.ARTIFACT_EDIT, ontologyID.getOntologyIRI().toOpenRDFURI(), false))
@@ -1,13 +1,13 @@
 package com.github.podd.resources;
 
 import java.io.IOException;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
 import org.openrdf.OpenRDFException;
 import org.openrdf.model.Model;
 import org.openrdf.model.URI;
-import org.openrdf.model.Value;
 import org.openrdf.rio.UnsupportedRDFormatException;
 import org.restlet.data.Status;
 import org.restlet.representation.Representation;
@@ -23,6 +23,7 @@ import com.github.podd.exception.SchemaManifestException;
 import com.github.podd.exception.UnmanagedArtifactIRIException;
 import com.github.podd.exception.UnmanagedArtifactVersionException;
 import com.github.podd.exception.UnmanagedSchemaIRIException;
+import com.github.podd.utils.ClassTaxonomy;
 import com.github.podd.utils.InferredOWLOntologyID;
 import com.github.podd.utils.PODD;
 import com.github.podd.utils.PoddWebConstants;
@@ -62,10 +63,10 @@ public class GetEventTypeResourceImpl extends AbstractPoddResourceImpl
         }
         final URI artifactUri = PODD.VF.createURI(artifactUriString);
         final InferredOWLOntologyID ontologyID = this.getPoddArtifactManager().getArtifact(IRI.create(artifactUri));
-        Set<URI> eventTopConcepts = new LinkedHashSet<>();
+        final ClassTaxonomy taxonomy;
         try
         {
-            eventTopConcepts = this.getPoddArtifactManager().getEventsTopConcepts(ontologyID);
+            taxonomy = this.getPoddArtifactManager().getClassTaxonomy(ontologyID);
         }
         catch(final OpenRDFException | UnmanagedSchemaIRIException | SchemaManifestException
                 | UnsupportedRDFormatException | IOException | UnmanagedArtifactIRIException
@@ -74,9 +75,10 @@ public class GetEventTypeResourceImpl extends AbstractPoddResourceImpl
             this.log.error("Could not find event type", e);
             throw new ResourceException(Status.CLIENT_ERROR_BAD_REQUEST, "Could not find parent details", e);
         }
+        final Set<URI> eventTopConcepts = taxonomy.getDirectSubClasses(PODD.INRA_EVENT_EVENT);
         final StringBuffer Datas = new StringBuffer();
         Datas.append("[");
-        Datas.append(this.getChildof(eventTopConcepts, ontologyID, true));
+        Datas.append(this.getChildof(eventTopConcepts, taxonomy));
         Datas.setLength(Datas.length() - 1);
         Datas.append("]");
         this.log.debug("Final Datas {}", Datas.toString());
@@ -116,58 +118,54 @@ public class GetEventTypeResourceImpl extends AbstractPoddResourceImpl
     }
     
     /**
-     * Call the function getchildOfList and construct the JSON for the jsTree plugin
+     * Construct the JSON for the jsTree plugin from the class hierarchy, one level at a time,
+     * starting from the top concepts. Top concepts are only included if they have children.
      *
-     * @param Set
-     *            of currant concept. Contains top concept the first time
-     * @param ontologyID
-     * @param TopConcept
-     *            Boolean indicate if it's the first call of the function
+     * @param Concepts
+     *            The top concepts
+     * @param taxonomy
+     *            The class hierarchy for the schema ontologies of the artifact
      * @return
-     * @throws ResourceException
      */
-    
-    public StringBuffer getChildof(final Set<URI> Concepts, final InferredOWLOntologyID ontologyID,
-            final boolean TopConcept) throws ResourceException
+    public StringBuffer getChildof(final Set<URI> Concepts, final ClassTaxonomy taxonomy)
     {
-        
-        Model ResultRequest;
         final StringBuffer Data = new StringBuffer();
-        ResultRequest = this.getChildOfList(Concepts, ontologyID);
-        final Set<URI> SubConcepts = new LinkedHashSet<>();
-        
-        if(!ResultRequest.isEmpty())
+        final Set<URI> visited = new HashSet<>(Concepts);
+        Set<URI> currentConcepts = Concepts;
+        boolean TopConcept = true;
+    
+        while(!currentConcepts.isEmpty())
         {
-            
-            for(final Value object : ResultRequest.objects())
+            final Set<URI> SubConcepts = new LinkedHashSet<>();
+            for(final URI object : currentConcepts)
             {
+                final Set<URI> directSubClasses = taxonomy.getDirectSubClasses(object);
+                if(directSubClasses.isEmpty())
+                {
+                    continue;
+                }
                 if(TopConcept)
                 {
-                    Data.append("{ \"id\" : \"" + ((URI)object).getLocalName()
-                            + "\", \"parent\" : \"#\", \"text\" : \"" + ((URI)object).getLocalName()
-                            + "\" ,\"type\":\"concept\",\"uri\" : \"" + object + "\"},");
+                    Data.append("{ \"id\" : \"" + object.getLocalName() + "\", \"parent\" : \"#\", \"text\" : \""
+                            + object.getLocalName() + "\" ,\"type\":\"concept\",\"uri\" : \"" + object + "\"},");
                 }
-                final Model SubConcept =
-                        ResultRequest.filter(null,
-                                PODD.VF.createURI("http://www.w3.org/2000/01/rdf-schema#subClassOf"), object);
-                
-                for(final Value subject : SubConcept.subjects())
+                for(final URI subject : directSubClasses)
                 {
-                    
-                    Data.append("{ \"id\" : \"" + ((URI)subject).getLocalName() + "\", \"parent\" : \""
-                            + ((URI)object).getLocalName() + "\", \"text\" : \"" + ((URI)subject).getLocalName()
+                    Data.append("{ \"id\" : \"" + subject.getLocalName() + "\", \"parent\" : \""
+                            + object.getLocalName() + "\", \"text\" : \"" + subject.getLocalName()
                             + "\" ,\"type\":\"concept\",\"uri\" : \"" + subject + "\"},");
-                    SubConcepts.add((URI)subject);
+                    // Guard against cycles between equivalent classes in the inferred hierarchy
+                    if(visited.add(subject))
+                    {
+                        SubConcepts.add(subject);
+                    }
                 }
             }
-            
-            return Data.append(this.getChildof(SubConcepts, ontologyID, false));
-        }
-        else
-        {
-            return Data;
+            currentConcepts = SubConcepts;
+            TopConcept = false;
         }
         
+        return Data;
     }
     
     @Post("rdf|rj|json|ttl")
@@ -18,12 +18,16 @@ package com.github.podd.resources;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import org.openrdf.OpenRDFException;
 import org.openrdf.rio.RDFFormat;
 import org.openrdf.rio.Rio;
 import org.restlet.data.MediaType;
 import org.restlet.data.Status;
+import org.restlet.data.Tag;
 import org.restlet.representation.ByteArrayRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.representation.Variant;
@@ -105,6 +109,7 @@ public class GetMetadataResourceImpl extends AbstractPoddResourceImpl
         
         final ByteArrayOutputStream output = new ByteArrayOutputStream();
         final RDFFormat format = Rio.getWriterFormatForMIMEType(variant.getMediaType().getName(), RDFFormat.TURTLE);
+        Tag tag = null;
         try
         {
             InferredOWLOntologyID artifactID = null;
@@ -114,6 +119,30 @@ public class GetMetadataResourceImpl extends AbstractPoddResourceImpl
             }
             this.log.info("artifactID: {}", artifactID);
             this.log.info("objectType: {}", objectType);
+            
+            // The metadata is completely determined by the artifact version, or by the current
+            // schema versions if there is no artifact
+            final List<String> versions = new ArrayList<String>();
+            if(artifactID != null)
+            {
+                versions.add(String.valueOf(artifactID.getVersionIRI()));
+                versions.add(String.valueOf(artifactID.getInferredOntologyIRI()));
+            }
+            else
+            {
+                for(final InferredOWLOntologyID nextSchema : this.getPoddSchemaManager().getCurrentSchemaOntologies())
+                {
+                    versions.add(String.valueOf(nextSchema.getVersionIRI()));
+                }
+                Collections.sort(versions);
+            }
+            tag = this.createTag(variant, objectType, includeDoNotDisplayProperties, containsPropertyPolicy, versions);
+            
+            if(this.isNotModified(tag, null))
+            {
+                return null;
+            }
+            
             this.getPoddArtifactManager().exportObjectMetadata(PODD.VF.createURI(objectType), output, format,
                     includeDoNotDisplayProperties, containsPropertyPolicy, artifactID);
         }
@@ -126,7 +155,9 @@ public class GetMetadataResourceImpl extends AbstractPoddResourceImpl
             throw new ResourceException(Status.SERVER_ERROR_INTERNAL, "Could not generate object metadata", e);
         }
         
-        return new ByteArrayRepresentation(output.toByteArray(), MediaType.valueOf(format.getDefaultMIMEType()));
+        return this.setValidators(
+                new ByteArrayRepresentation(output.toByteArray(), MediaType.valueOf(format.getDefaultMIMEType())), tag,
+                null);
     }
     
 }
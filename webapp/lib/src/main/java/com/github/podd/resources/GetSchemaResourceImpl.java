@@ -22,6 +22,7 @@ import org.openrdf.OpenRDFException;
 import org.openrdf.rio.RDFFormat;
 import org.openrdf.rio.Rio;
 import org.restlet.data.Status;
+import org.restlet.data.Tag;
 import org.restlet.representation.ByteArrayRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.representation.Variant;
@@ -86,6 +87,11 @@ public class GetSchemaResourceImpl extends AbstractPoddResourceImpl
             // final User user = this.getRequest().getClientInfo().getUser();
             // this.log.debug("authenticated user: {}", user);
             
+            final String includeInferredString =
+                    this.getRequest().getResourceRef().getQueryAsForm()
+                            .getFirstValue(PoddWebConstants.KEY_INCLUDE_INFERRED, true);
+            final boolean includeInferred = Boolean.valueOf(includeInferredString);
+            
             InferredOWLOntologyID ontologyID = null;
             
             if(versionString == null)
@@ -109,17 +115,18 @@ public class GetSchemaResourceImpl extends AbstractPoddResourceImpl
                 throw new ResourceException(Status.CLIENT_ERROR_NOT_FOUND, "Could not find the given schema or version");
             }
             
-            final String includeInferredString =
-                    this.getRequest().getResourceRef().getQueryAsForm()
-                            .getFirstValue(PoddWebConstants.KEY_INCLUDE_INFERRED, true);
-            final boolean includeInferred = Boolean.valueOf(includeInferredString);
+            final String resolvedVersion = ontologyID.getVersionIRI().toString();
+            // Schemas do not record when they were loaded, so only the tag is used to validate them
+            final Tag tag = this.createTag(variant, resolvedVersion, includeInferred);
+            if(this.isNotModified(tag, null))
+            {
+                return null;
+            }
             
+            final RDFFormat format = Rio.getWriterFormatForMIMEType(variant.getMediaType().getName(), RDFFormat.RDFXML);
             final ByteArrayOutputStream stream = new ByteArrayOutputStream();
-            this.getPoddSchemaManager()
-                    .downloadSchemaOntology(ontologyID, stream,
-                            Rio.getWriterFormatForMIMEType(variant.getMediaType().getName(), RDFFormat.RDFXML),
-                            includeInferred);
-            return new ByteArrayRepresentation(stream.toByteArray());
+            this.getPoddSchemaManager().downloadSchemaOntology(ontologyID, stream, format, includeInferred);
+            return this.setValidators(new ByteArrayRepresentation(stream.toByteArray()), tag, null);
         }
         catch(final UnmanagedSchemaIRIException e)
         {
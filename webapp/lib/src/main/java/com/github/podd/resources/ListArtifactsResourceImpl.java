@@ -19,6 +19,7 @@ package com.github.podd.resources;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,6 +35,7 @@ import org.openrdf.rio.Rio;
 import org.openrdf.rio.UnsupportedRDFormatException;
 import org.restlet.data.MediaType;
 import org.restlet.data.Status;
+import org.restlet.data.Tag;
 import org.restlet.representation.ByteArrayRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.representation.Variant;
@@ -261,6 +263,25 @@ public class ListArtifactsResourceImpl extends AbstractPoddResourceImpl
         
         final MediaType resultMediaType = MediaType.valueOf(resultFormat.getDefaultMIMEType());
         
+        // The labels and types in the listing only change when a new version of an artifact is
+        // created, so the listing is identified by the versions of the visible artifacts
+        final List<String> versions = new ArrayList<String>();
+        for(final Entry<String, List<InferredOWLOntologyID>> nextEntry : artifactsInternal.entrySet())
+        {
+            for(final InferredOWLOntologyID nextArtifact : nextEntry.getValue())
+            {
+                versions.add(nextEntry.getKey() + " " + nextArtifact.getVersionIRI() + " "
+                        + nextArtifact.getInferredOntologyIRI());
+            }
+        }
+        Collections.sort(versions);
+        final Tag tag = this.createTag(variant, versions);
+        
+        if(this.isNotModified(tag, null))
+        {
+            return null;
+        }
+        
         final ByteArrayOutputStream out = new ByteArrayOutputStream(8096);
         final Model model = new LinkedHashModel();
         
@@ -306,6 +327,6 @@ public class ListArtifactsResourceImpl extends AbstractPoddResourceImpl
         
         final ByteArrayRepresentation result = new ByteArrayRepresentation(out.toByteArray(), resultMediaType);
         
-        return result;
+        return this.setValidators(result, tag, null);
     }
 }
@@ -0,0 +1,131 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ *
+ * Copyright (C) 2009-2013 The University Of Queensland
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.resources;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import org.openrdf.OpenRDFException;
+import org.openrdf.model.BNode;
+import org.openrdf.model.Model;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.LinkedHashModel;
+import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.Rio;
+import org.restlet.data.MediaType;
+import org.restlet.data.Status;
+import org.restlet.representation.ByteArrayRepresentation;
+import org.restlet.representation.Representation;
+import org.restlet.representation.Variant;
+import org.restlet.resource.Get;
+import org.restlet.resource.ResourceException;
+
+import com.github.podd.restlet.PoddAction;
+import com.github.podd.utils.PODD;
+import com.github.podd.utils.QueryMetrics;
+import com.github.podd.utils.QueryStatistics;
+import com.github.podd.utils.SlowQuery;
+
+/**
+ * Resource which allows administrators to view the query latency statistics, the HTTP request and
+ * operation phase latency statistics, and the slow query log recorded by {@link QueryMetrics}.
+ *
+ * @author Peter Ansell p_ansell@yahoo.com
+ */
+public class QueryMetricsResourceImpl extends AbstractPoddResourceImpl
+{
+    @Get(":rdf|rj|json|ttl")
+    public Representation getQueryMetricsRdf(final Representation entity, final Variant variant)
+        throws ResourceException
+    {
+        this.log.info("@Get query metrics RDF");
+        
+        this.checkAuthentication(PoddAction.METRICS_READ);
+        
+        final RDFFormat resultFormat = Rio.getWriterFormatForMIMEType(variant.getMediaType().getName());
+        
+        if(resultFormat == null)
+        {
+            this.log.error("Could not find an RDF serialiser matching the requested mime-type: "
+                    + variant.getMediaType().getName());
+            throw new ResourceException(Status.CLIENT_ERROR_NOT_ACCEPTABLE,
+                    "Could not find an RDF serialiser matching the requested mime-type: "
+                            + variant.getMediaType().getName());
+        }
+        
+        final MediaType resultMediaType = MediaType.valueOf(resultFormat.getDefaultMIMEType());
+        
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(8096);
+        
+        final Model results = new LinkedHashModel();
+        
+        final QueryMetrics metrics = QueryMetrics.getInstance();
+        
+        this.addStatistics(results, PODD.PODD_METRICS_QUERY_STATISTICS, metrics.getStatistics());
+        this.addStatistics(results, PODD.PODD_METRICS_REQUEST_STATISTICS, QueryMetrics.getRequestInstance()
+                .getStatistics());
+        this.addStatistics(results, PODD.PODD_METRICS_PHASE_STATISTICS, QueryMetrics.getPhaseInstance()
+                .getStatistics());
+        
+        for(final SlowQuery nextSlowQuery : metrics.getSlowQueries())
+        {
+            final BNode node = PODD.VF.createBNode();
+            results.add(node, RDF.TYPE, PODD.PODD_METRICS_SLOW_QUERY);
+            results.add(node, PODD.PODD_METRICS_OPERATION, PODD.VF.createLiteral(nextSlowQuery.getOperation()));
+            results.add(node, PODD.PODD_METRICS_TIMESTAMP, PODD.VF.createLiteral(nextSlowQuery.getTimestamp()));
+            results.add(node, PODD.PODD_METRICS_DURATION_MILLIS,
+                    PODD.VF.createLiteral(nextSlowQuery.getDurationMillis()));
+            results.add(node, PODD.PODD_METRICS_RESULTS, PODD.VF.createLiteral(nextSlowQuery.getResults()));
+            results.add(node, PODD.PODD_METRICS_QUERY, PODD.VF.createLiteral(nextSlowQuery.getQuery()));
+            results.add(node, PODD.PODD_METRICS_BINDINGS, PODD.VF.createLiteral(nextSlowQuery.getBindings()));
+            results.add(node, PODD.PODD_METRICS_CALLER, PODD.VF.createLiteral(nextSlowQuery.getCaller()));
+            for(final String nextContext : nextSlowQuery.getContexts())
+            {
+                results.add(node, PODD.PODD_METRICS_CONTEXT, PODD.VF.createURI(nextContext));
+            }
+        }
+        
+        try
+        {
+            Rio.write(results, out, resultFormat);
+        }
+        catch(final OpenRDFException e)
+        {
+            throw new ResourceException(Status.SERVER_ERROR_INTERNAL, "Could not serialise query metrics", e);
+        }
+        
+        return new ByteArrayRepresentation(out.toByteArray(), resultMediaType);
+    }
+    
+    private void addStatistics(final Model results, final URI type, final List<QueryStatistics> statistics)
+    {
+        for(final QueryStatistics nextStatistics : statistics)
+        {
+            final BNode node = PODD.VF.createBNode();
+            results.add(node, RDF.TYPE, type);
+            results.add(node, PODD.PODD_METRICS_OPERATION, PODD.VF.createLiteral(nextStatistics.getOperation()));
+            results.add(node, PODD.PODD_METRICS_COUNT, PODD.VF.createLiteral(nextStatistics.getCount()));
+            results.add(node, PODD.PODD_METRICS_RESULTS, PODD.VF.createLiteral(nextStatistics.getResults()));
+            results.add(node, PODD.PODD_METRICS_MEAN_MILLIS, PODD.VF.createLiteral(nextStatistics.getMeanMillis()));
+            results.add(node, PODD.PODD_METRICS_P50_MILLIS, PODD.VF.createLiteral(nextStatistics.getP50Millis()));
+            results.add(node, PODD.PODD_METRICS_P95_MILLIS, PODD.VF.createLiteral(nextStatistics.getP95Millis()));
+            results.add(node, PODD.PODD_METRICS_P99_MILLIS, PODD.VF.createLiteral(nextStatistics.getP99Millis()));
+            results.add(node, PODD.PODD_METRICS_MAX_MILLIS, PODD.VF.createLiteral(nextStatistics.getMaxMillis()));
+        }
+    }
+}
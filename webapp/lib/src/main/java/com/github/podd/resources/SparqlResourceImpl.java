@@ -23,8 +23,6 @@ import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 import org.openrdf.OpenRDFException;
 import org.openrdf.model.Model;
@@ -70,7 +68,7 @@ import com.github.podd.utils.PoddWebConstants;
  */
 public class SparqlResourceImpl extends AbstractPoddResourceImpl
 {
-    @Get(":rdf|rj|json|ttl")
+    @Get(":rdf|rj|json|ttl|brf")
     public Representation getSparqlRdf(final Variant variant) throws ResourceException
     {
         // TODO: Support an interactive HTML page that users can enter queries
@@ -130,7 +128,7 @@ public class SparqlResourceImpl extends AbstractPoddResourceImpl
         }
     }
     
-    @Post(":rdf|rj|json|ttl")
+    @Post(":rdf|rj|json|ttl|brf")
     public Representation postSparqlRdf(final Representation entity, final Variant variant) throws ResourceException
     {
         this.log.debug("postSparqlRdf");
@@ -314,87 +312,69 @@ public class SparqlResourceImpl extends AbstractPoddResourceImpl
         RepositoryConnection managementConnection = null;
         try
         {
-            final ConcurrentMap<Set<? extends OWLOntologyID>, RepositoryConnection> cache =
-                    new ConcurrentHashMap<Set<? extends OWLOntologyID>, RepositoryConnection>();
+            // Collect the contexts for all of the artifacts, so that the query can be evaluated once
+            // over a federation of the repositories containing them, which also allows queries to
+            // join across artifacts
+            final Set<Set<? extends OWLOntologyID>> schemaOntologySets = new HashSet<>();
+            final Set<URI> allContexts = new LinkedHashSet<>();
             
             managementConnection = this.getPoddRepositoryManager().getManagementRepositoryConnection();
-            try
+            for(final InferredOWLOntologyID ontologyID : artifactIds)
             {
-                for(final InferredOWLOntologyID ontologyID : artifactIds)
+                final Set<URI> contextSet = new HashSet<>();
+                if(includeConcrete)
                 {
-                    final Set<? extends OWLOntologyID> schemaImports =
-                            this.getPoddArtifactManager().getSchemaImports(ontologyID);
-                    RepositoryConnection permanentConnection = cache.get(schemaImports);
-                    if(permanentConnection == null)
-                    {
-                        RepositoryConnection nextConnection =
-                                this.getPoddRepositoryManager().getPermanentRepositoryConnection(schemaImports);
-                        final RepositoryConnection putIfAbsent = cache.putIfAbsent(schemaImports, nextConnection);
-                        if(putIfAbsent != null)
-                        {
-                            nextConnection = putIfAbsent;
-                        }
-                        permanentConnection = nextConnection;
-                    }
-                    final Set<URI> contextSet = new HashSet<>();
-                    if(includeConcrete)
-                    {
-                        contextSet.addAll(Arrays.asList(this.getPoddSesameManager().versionContexts(ontologyID)));
-                    }
-                    if(includeInferred)
-                    {
-                        contextSet.addAll(Arrays.asList(this.getPoddSesameManager().inferredContexts(ontologyID)));
-                    }
-                    if(includeSchema)
-                    {
-                        contextSet.addAll(Arrays.asList(this.getPoddSesameManager().schemaContexts(ontologyID,
-                                managementConnection, this.getPoddRepositoryManager().getSchemaManagementGraph(),
-                                this.getPoddRepositoryManager().getArtifactManagementGraph())));
-                    }
-                    // TODO: Support cross-artifact queries if they all import the
-                    // same schemas
-                    final URI[] contexts = contextSet.toArray(new URI[0]);
-                    // MUST not perform queries on all contexts
-                    if(this.getPoddRepositoryManager().safeContexts(contexts))
-                    {
-                        final GraphQuery query =
-                                permanentConnection.prepareGraphQuery(QueryLanguage.SPARQL, sparqlQuery);
-                        
-                        final DatasetImpl dataset = new DatasetImpl();
-                        
-                        for(final URI nextUri : contexts)
-                        {
-                            dataset.addDefaultGraph(nextUri);
-                            dataset.addNamedGraph(nextUri);
-                        }
-                        
-                        query.setDataset(dataset);
-                        
-                        query.evaluate(new StatementCollector(results));
-                    }
-                    else
-                    {
-                        this.log.error(
-                                "Could not determine contexts for artifact, or included an unsafe context: ontology=<{}> contexts=<{}>",
-                                ontologyID, contextSet);
-                    }
+                    contextSet.addAll(Arrays.asList(this.getPoddSesameManager().versionContexts(ontologyID)));
+                }
+                if(includeInferred)
+                {
+                    contextSet.addAll(Arrays.asList(this.getPoddSesameManager().inferredContexts(ontologyID)));
+                }
+                if(includeSchema)
+                {
+                    contextSet.addAll(Arrays.asList(this.getPoddSesameManager().schemaContexts(ontologyID,
+                            managementConnection, this.getPoddRepositoryManager().getSchemaManagementGraph(),
+                            this.getPoddRepositoryManager().getArtifactManagementGraph())));
+                }
+                final URI[] contexts = contextSet.toArray(new URI[0]);
+                // MUST not perform queries on all contexts
+                if(this.getPoddRepositoryManager().safeContexts(contexts))
+                {
+                    schemaOntologySets.add(this.getPoddArtifactManager().getSchemaImports(ontologyID));
+                    allContexts.addAll(contextSet);
+                }
+                else
+                {
+                    this.log.error(
+                            "Could not determine contexts for artifact, or included an unsafe context: ontology=<{}> contexts=<{}>",
+                            ontologyID, contextSet);
                 }
             }
-            finally
+            
+            if(!allContexts.isEmpty())
             {
-                for(final RepositoryConnection nextPermanentConnection : cache.values())
+                final DatasetImpl dataset = new DatasetImpl();
+                
+                for(final URI nextUri : allContexts)
                 {
-                    try
-                    {
-                        if(nextPermanentConnection != null)
-                        {
-                            nextPermanentConnection.close();
-                        }
-                    }
-                    catch(final Throwable e)
-                    {
-                        this.log.error("Found exception closing connection", e);
-                    }
+                    dataset.addDefaultGraph(nextUri);
+                    dataset.addNamedGraph(nextUri);
+                }
+                
+                final RepositoryConnection federatedConnection =
+                        this.getPoddRepositoryManager().getReadOnlyFederatedRepository(schemaOntologySets)
+                                .getConnection();
+                try
+                {
+                    final GraphQuery query = federatedConnection.prepareGraphQuery(QueryLanguage.SPARQL, sparqlQuery);
+                    
+                    query.setDataset(dataset);
+                    
+                    query.evaluate(new StatementCollector(results));
+                }
+                finally
+                {
+                    federatedConnection.close();
                 }
             }
         }
@@ -20,22 +20,23 @@ import info.aduna.iteration.Iterations;
 
 import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
-import java.io.File;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import org.apache.commons.fileupload.FileItem;
+import org.apache.commons.fileupload.FileItemIterator;
+import org.apache.commons.fileupload.FileItemStream;
+import org.apache.commons.fileupload.FileUploadBase;
+import org.apache.commons.fileupload.FileUploadBase.FileUploadIOException;
 import org.apache.commons.fileupload.FileUploadException;
-import org.apache.commons.fileupload.disk.DiskFileItemFactory;
+import org.apache.commons.fileupload.util.LimitedInputStream;
+import org.apache.commons.fileupload.util.Streams;
+import org.apache.commons.io.output.NullOutputStream;
 import org.openrdf.OpenRDFException;
 import org.openrdf.model.Model;
 import org.openrdf.model.Resource;
@@ -84,6 +85,7 @@ import com.github.podd.utils.DebugUtils;
 import com.github.podd.utils.InferredOWLOntologyID;
 import com.github.podd.utils.OntologyUtils;
 import com.github.podd.utils.PODD;
+import com.github.podd.utils.PhaseTimer;
 import com.github.podd.utils.PoddRoles;
 import com.github.podd.utils.PoddWebConstants;
 
@@ -98,24 +100,9 @@ public class UploadArtifactResourceImpl extends AbstractPoddResourceImpl
 {
     private static final String UPLOAD_PAGE_TITLE_TEXT = "PODD Upload New Artifact";
     
-    private final Path tempDirectory;
-    
-    /**
-     * Constructor: prepare temp directory
-     */
     public UploadArtifactResourceImpl()
     {
         super();
-        
-        try
-        {
-            this.tempDirectory = Files.createTempDirectory("podd-ontologymanageruploads");
-        }
-        catch(final IOException e)
-        {
-            this.log.error("Could not create temporary directory for ontology upload", e);
-            throw new RuntimeException("Could not create temporary directory", e);
-        }
     }
     
     private InferredOWLOntologyID doUpload(final Representation entity) throws ResourceException
@@ -131,6 +118,13 @@ public class UploadArtifactResourceImpl extends AbstractPoddResourceImpl
         
         this.log.info("media-type: {}", entity.getMediaType());
         
+        final long maxUploadSize = this.getMaxUploadSize();
+        if(maxUploadSize >= 0 && entity.getSize() > maxUploadSize)
+        {
+            throw new ResourceException(Status.CLIENT_ERROR_REQUEST_ENTITY_TOO_LARGE, "Artifact upload of "
+                    + entity.getSize() + " bytes is larger than the maximum of " + maxUploadSize + " bytes");
+        }
+        
         InferredOWLOntologyID artifactMap;
         
         if(MediaType.MULTIPART_FORM_DATA.equals(entity.getMediaType(), true))
@@ -178,8 +172,8 @@ public class UploadArtifactResourceImpl extends AbstractPoddResourceImpl
                     throw new ResourceException(Status.CLIENT_ERROR_BAD_REQUEST, "Did not send an artifact");
                 }
                 artifactMap =
-                        this.uploadFileAndLoadArtifactIntoPodd(inputStream, format, danglingObjectPolicy,
-                                fileRefVerificationPolicy);
+                        this.uploadFileAndLoadArtifactIntoPodd(this.limitUploadSize(inputStream, maxUploadSize),
+                                format, danglingObjectPolicy, fileRefVerificationPolicy);
             }
             catch(final IOException e)
             {
@@ -256,7 +250,7 @@ public class UploadArtifactResourceImpl extends AbstractPoddResourceImpl
                 dataModel, MediaType.TEXT_HTML, this.getPoddApplication().getTemplateConfiguration());
     }
     
-    @Post(":rdf|rj|json|ttl")
+    @Post(":rdf|rj|json|ttl|brf")
     public Representation uploadArtifactToRdf(final Representation entity, final Variant variant)
         throws ResourceException
     {
@@ -335,7 +329,8 @@ public class UploadArtifactResourceImpl extends AbstractPoddResourceImpl
                 // PoddArtifactManagerImpl
                 final Set<? extends OWLOntologyID> schemaImports =
                         this.getPoddArtifactManager().getSchemaImports(artifactId);
-                permanentConnection = this.getPoddRepositoryManager().getPermanentRepositoryConnection(schemaImports);
+                permanentConnection =
+                        this.getPoddRepositoryManager().getPermanentRepositoryConnection(schemaImports, artifactId);
                 final URI topObjectIRI =
                         this.getPoddArtifactManager().getSesameManager()
                                 .getTopObjectIRI(artifactId, permanentConnection);
@@ -422,6 +417,7 @@ public class UploadArtifactResourceImpl extends AbstractPoddResourceImpl
     {
         final PoddArtifactManager artifactManager =
                 ((PoddWebServiceApplication)this.getApplication()).getPoddArtifactManager();
+        final PhaseTimer phaseTimer = PhaseTimer.start("loadArtifact");
         try
         {
             if(artifactManager != null)
@@ -442,90 +438,153 @@ public class UploadArtifactResourceImpl extends AbstractPoddResourceImpl
             this.log.warn("Attempting to load duplicate artifact {}", e);
             throw new ResourceException(Status.CLIENT_ERROR_BAD_REQUEST, "Failed loading duplicate artifact to PODD", e);
         }
+        catch(final FileUploadIOException e)
+        {
+            this.log.warn("Artifact upload was too large: {}", e.getMessage());
+            throw new ResourceException(Status.CLIENT_ERROR_REQUEST_ENTITY_TOO_LARGE, e.getMessage(), e);
+        }
         catch(OpenRDFException | PoddException | IOException | OWLException e)
         {
             this.log.error("Failed to load artifact: {}", e.getMessage());
             throw new ResourceException(Status.SERVER_ERROR_INTERNAL, "Error loading artifact to PODD", e);
         }
+        finally
+        {
+            this.addPhaseTimingHeader(phaseTimer);
+        }
         
     }
     
+    /**
+     * Loads the file part of a multipart upload into the artifact manager, parsing it straight from
+     * the request. Any parts that follow the file part are read when the parser reaches the end of
+     * the file part, before the artifact is stored, so that an artifact is never loaded from a
+     * request that turns out to be invalid or larger than the upload size limit.
+     *
+     * @param entity
+     *            The multipart form representation containing a single artifact file.
+     * @return The ID of the loaded artifact.
+     * @throws ResourceException
+     */
     private InferredOWLOntologyID uploadFileAndLoadArtifactIntoPodd(final Representation entity)
         throws ResourceException
     {
-        List<FileItem> items;
-        Path filePath = null;
-        String contentType = null;
-        
-        // 1: Create a factory for disk-based file items
-        final DiskFileItemFactory factory = new DiskFileItemFactory(1000240, this.tempDirectory.toFile());
+        final long maxUploadSize = this.getMaxUploadSize();
+        final RestletFileUpload upload = new RestletFileUpload();
+        upload.setSizeMax(maxUploadSize);
         
-        // 2: Create a new file upload handler
-        final RestletFileUpload upload = new RestletFileUpload(factory);
         final Map<String, String> props = new HashMap<String, String>();
         try
         {
-            // 3: Request is parsed by the handler which generates a list of
-            // FileItems
-            items = upload.parseRequest(this.getRequest());
+            final FileItemIterator items = upload.getItemIterator(entity);
             
-            for(final FileItem fi : items)
+            while(items.hasNext())
             {
-                final String name = fi.getName();
+                final FileItemStream item = items.next();
                 
-                if(name == null)
+                if(item.getName() == null)
                 {
-                    props.put(fi.getFieldName(), new String(fi.get(), StandardCharsets.UTF_8));
+                    this.readFormField(item, props);
                 }
                 else
                 {
-                    // FIXME: Strip everything up to the last . out of the
-                    // filename so that
-                    // the filename can be used for content type determination
-                    // where
-                    // possible.
-                    // InputStream uploadedFileInputStream =
-                    // fi.getInputStream();
+                    final String contentType = item.getContentType();
+                    props.put("Content-Type", contentType);
+                    
+                    this.log.info("filename={}", item.getName());
+                    this.log.info("contentType={}", contentType);
+                    
+                    final RDFFormat format = this.getUploadFormat(item.getName(), contentType);
+                    
+                    final MultipartFileInputStream fileStream =
+                            new MultipartFileInputStream(this.limitUploadSize(item.openStream(), maxUploadSize),
+                                    items, props);
                     try
                     {
-                        // Note: These are Java-7 APIs
-                        contentType = fi.getContentType();
-                        props.put("Content-Type", fi.getContentType());
-                        
-                        filePath = Files.createTempFile(this.tempDirectory, "ontologyupload-", name);
-                        final File file = filePath.toFile();
-                        file.deleteOnExit();
-                        fi.write(file);
+                        return this.uploadFileAndLoadArtifactIntoPodd(new BufferedInputStream(fileStream), format,
+                                DanglingObjectPolicy.REPORT, DataReferenceVerificationPolicy.DO_NOT_VERIFY);
                     }
-                    catch(final IOException ioe)
+                    catch(final ResourceException e)
                     {
-                        throw ioe;
+                        // Report a failure reading the rest of the request in preference to the
+                        // parse failure that it caused
+                        if(fileStream.getUploadFailure() != null)
+                        {
+                            throw this.getUploadException(fileStream.getUploadFailure());
+                        }
+                        throw e;
                     }
-                    catch(final Exception e)
+                    finally
                     {
-                        // avoid throwing a generic exception just because the
-                        // apache
-                        // commons library throws Exception
-                        throw new IOException(e);
+                        this.log.info("props={}", props.toString());
                     }
                 }
             }
         }
         catch(final IOException | FileUploadException e)
         {
-            throw new ResourceException(Status.CLIENT_ERROR_BAD_REQUEST, e);
+            throw this.getUploadException(e);
         }
         
         this.log.info("props={}", props.toString());
-        
-        if(filePath == null)
+        throw new ResourceException(Status.CLIENT_ERROR_BAD_REQUEST, "Did not submit a valid file and filename");
+    }
+    
+    /**
+     * Reads a form field from a multipart upload into the given properties.
+     */
+    private void readFormField(final FileItemStream item, final Map<String, String> props) throws IOException
+    {
+        try (final InputStream fieldStream = item.openStream();)
         {
-            throw new ResourceException(Status.CLIENT_ERROR_BAD_REQUEST, "Did not submit a valid file and filename");
+            props.put(item.getFieldName(), Streams.asString(fieldStream, StandardCharsets.UTF_8.name()));
         }
-        
-        this.log.info("filename={}", filePath.toAbsolutePath().toString());
-        this.log.info("contentType={}", contentType);
-        
+    }
+    
+    /**
+     * Reads the parts that follow the file part of a multipart upload, so that they are counted
+     * towards the upload size limit. Additional files are read and ignored.
+     */
+    private void readRemainingParts(final FileItemIterator items, final Map<String, String> props)
+        throws IOException, FileUploadException
+    {
+        while(items.hasNext())
+        {
+            final FileItemStream item = items.next();
+            
+            if(item.getName() == null)
+            {
+                this.readFormField(item, props);
+            }
+            else
+            {
+                this.log.warn("Ignoring additional file in artifact upload: {}", item.getName());
+                try (final InputStream ignoredStream = item.openStream();)
+                {
+                    Streams.copy(ignoredStream, NullOutputStream.NULL_OUTPUT_STREAM, false);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Converts a failure reading a multipart upload into the response status for the client.
+     */
+    private ResourceException getUploadException(final Exception e)
+    {
+        if(e instanceof FileUploadBase.SizeLimitExceededException || e instanceof FileUploadIOException)
+        {
+            this.log.warn("Artifact upload was too large: {}", e.getMessage());
+            return new ResourceException(Status.CLIENT_ERROR_REQUEST_ENTITY_TOO_LARGE, e.getMessage(), e);
+        }
+        return new ResourceException(Status.CLIENT_ERROR_BAD_REQUEST, e);
+    }
+    
+    /**
+     * Determines the RDF format for an uploaded file from its content type and file name.
+     */
+    private RDFFormat getUploadFormat(final String fileName, final String contentType)
+    {
         RDFFormat format = null;
         
         // If the content type was application/octet-stream then use the file
@@ -534,7 +593,7 @@ public class UploadArtifactResourceImpl extends AbstractPoddResourceImpl
         // real type is
         if(MediaType.APPLICATION_OCTET_STREAM.getName().equals(contentType))
         {
-            format = Rio.getParserFormatForFileName(filePath.getFileName().toString());
+            format = Rio.getParserFormatForFileName(fileName);
             
             this.log.info("octet-stream contentType filename format={}", format);
         }
@@ -551,7 +610,7 @@ public class UploadArtifactResourceImpl extends AbstractPoddResourceImpl
         // filename
         if(format == null)
         {
-            format = Rio.getParserFormatForFileName(filePath.getFileName().toString());
+            format = Rio.getParserFormatForFileName(fileName);
             
             this.log.info("non-content-type filename format={}", format);
         }
@@ -565,17 +624,108 @@ public class UploadArtifactResourceImpl extends AbstractPoddResourceImpl
             format = RDFFormat.RDFXML;
         }
         
-        try (final InputStream inputStream =
-                new BufferedInputStream(Files.newInputStream(filePath, StandardOpenOption.READ));)
+        return format;
+    }
+    
+    /**
+     * @return The maximum size of an artifact upload in bytes, or -1 if there is no limit.
+     */
+    private long getMaxUploadSize()
+    {
+        return Long.parseLong(this.getPropertyUtil().get(PoddWebConstants.PROPERTY_UPLOAD_MAX_SIZE,
+                PoddWebConstants.DEFAULT_UPLOAD_MAX_SIZE));
+    }
+    
+    /**
+     * Wraps the given stream so that reading more than the maximum upload size fails with a
+     * {@link FileUploadIOException}, in the same way as the multipart upload size limit.
+     */
+    private InputStream limitUploadSize(final InputStream inputStream, final long maxUploadSize)
+    {
+        if(maxUploadSize < 0)
+        {
+            return inputStream;
+        }
+        
+        return new LimitedInputStream(inputStream, maxUploadSize)
+            {
+                @Override
+                protected void raiseError(final long sizeMax, final long count) throws IOException
+                {
+                    throw new FileUploadIOException(new FileUploadBase.SizeLimitExceededException(
+                            "Artifact upload is larger than the maximum of " + sizeMax + " bytes", count, sizeMax));
+                }
+            };
+    }
+    
+    /**
+     * The stream of the file part of a multipart upload. When the file part has been read, the rest
+     * of the request is read before the end of the stream is reported, so that the parser only
+     * finishes once the whole request has been read within the upload size limit.
+     */
+    private final class MultipartFileInputStream extends FilterInputStream
+    {
+        private final FileItemIterator items;
+        
+        private final Map<String, String> props;
+        
+        private boolean remainingPartsRead = false;
+        
+        private Exception uploadFailure;
+        
+        MultipartFileInputStream(final InputStream fileStream, final FileItemIterator items,
+                final Map<String, String> props)
+        {
+            super(fileStream);
+            this.items = items;
+            this.props = props;
+        }
+        
+        /**
+         * @return The exception thrown while reading the request, or null if it was read
+         *         successfully.
+         */
+        Exception getUploadFailure()
         {
-            return this.uploadFileAndLoadArtifactIntoPodd(inputStream, format, DanglingObjectPolicy.REPORT,
-                    DataReferenceVerificationPolicy.DO_NOT_VERIFY);
+            return this.uploadFailure;
         }
-        catch(final IOException e)
+        
+        @Override
+        public int read() throws IOException
         {
-            throw new ResourceException(Status.SERVER_ERROR_INTERNAL, "File IO error occurred", e);
+            final byte[] next = new byte[1];
+            int result;
+            do
+            {
+                result = this.readChecked(next, 0, 1);
+            }
+            while(result == 0);
+            return result < 0 ? -1 : next[0] & 0xFF;
         }
         
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException
+        {
+            return this.readChecked(b, off, len);
+        }
+        
+        private int readChecked(final byte[] b, final int off, final int len) throws IOException
+        {
+            try
+            {
+                final int result = super.read(b, off, len);
+                if(result < 0 && !this.remainingPartsRead)
+                {
+                    this.remainingPartsRead = true;
+                    UploadArtifactResourceImpl.this.readRemainingParts(this.items, this.props);
+                }
+                return result;
+            }
+            catch(final IOException | FileUploadException e)
+            {
+                this.uploadFailure = e;
+                throw new IOException("Could not read artifact upload", e);
+            }
+        }
     }
-    
 }
@@ -18,17 +18,30 @@ package com.github.podd.restlet;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.openrdf.OpenRDFException;
 import org.openrdf.model.Model;
@@ -44,6 +57,7 @@ import org.openrdf.repository.config.RepositoryImplConfigBase;
 import org.openrdf.repository.http.HTTPRepository;
 import org.openrdf.repository.sail.SailRepository;
 import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.RDFParseException;
 import org.openrdf.rio.Rio;
 import org.openrdf.rio.UnsupportedRDFormatException;
 import org.openrdf.sail.memory.MemoryStore;
@@ -65,6 +79,7 @@ import com.github.ansell.propertyutil.PropertyUtil;
 import com.github.ansell.restletutils.FixedRedirectCookieAuthenticator;
 import com.github.podd.api.PoddArtifactManager;
 import com.github.podd.api.PoddOWLManager;
+import com.github.podd.api.PoddRepositoryManager;
 import com.github.podd.api.PoddSchemaManager;
 import com.github.podd.api.PoddSesameManager;
 import com.github.podd.api.data.DataReferenceManager;
@@ -85,10 +100,14 @@ import com.github.podd.impl.purl.UUIDPurlProcessorFactoryImpl;
 import com.github.podd.utils.DebugUtils;
 import com.github.podd.utils.InferredOWLOntologyID;
 import com.github.podd.utils.PODD;
+import com.github.podd.utils.PhaseTimer;
 import com.github.podd.utils.PoddRoles;
 import com.github.podd.utils.PoddUser;
 import com.github.podd.utils.PoddUserStatus;
 import com.github.podd.utils.PoddWebConstants;
+import com.github.podd.utils.QueryMetrics;
+import com.github.podd.utils.RenderedArtifactCache;
+import com.github.podd.utils.ReplicatedRepository;
 
 import freemarker.ext.beans.BeansWrapper;
 import freemarker.template.Configuration;
@@ -162,16 +181,46 @@ public class ApplicationUtils
         return result;
     }
     
+    /**
+     * Creates the cache of serialised artifact versions based on the given properties.
+     */
+    public static RenderedArtifactCache getNewRenderedArtifactCache(final PropertyUtil props)
+    {
+        final long memorySize =
+                Long.parseLong(props.get(PoddWebConstants.PROPERTY_ARTIFACT_CACHE_MEMORY_SIZE,
+                        PoddWebConstants.DEFAULT_ARTIFACT_CACHE_MEMORY_SIZE));
+        final String spillDirectory =
+                props.get(PoddWebConstants.PROPERTY_ARTIFACT_CACHE_SPILL_DIRECTORY,
+                        PoddWebConstants.DEFAULT_ARTIFACT_CACHE_SPILL_DIRECTORY);
+        
+        if(spillDirectory.trim().isEmpty())
+        {
+            return new RenderedArtifactCache(memorySize);
+        }
+        
+        final long spillSize =
+                Long.parseLong(props.get(PoddWebConstants.PROPERTY_ARTIFACT_CACHE_SPILL_SIZE,
+                        PoddWebConstants.DEFAULT_ARTIFACT_CACHE_SPILL_SIZE));
+        return new RenderedArtifactCache(memorySize, Paths.get(spillDirectory.trim()), spillSize);
+    }
+    
     public static Repository getNewManagementRepository(final PropertyUtil props) throws RepositoryException
     {
         final String repositoryUrl =
                 props.get(PoddWebConstants.PROPERTY_MANAGEMENT_SESAME_LOCATION,
                         PoddWebConstants.DEFAULT_MANAGEMENT_SESAME_LOCATION);
-        
-        return ApplicationUtils.getNewManagementRepositoryInternal(repositoryUrl);
+        final boolean replicate =
+                Boolean.parseBoolean(props.get(PoddWebConstants.PROPERTY_MANAGEMENT_SESAME_REPLICA,
+                        PoddWebConstants.DEFAULT_MANAGEMENT_SESAME_REPLICA));
+        final long replicaSyncInterval =
+                Long.parseLong(props.get(PoddWebConstants.PROPERTY_MANAGEMENT_SESAME_REPLICA_SYNC_INTERVAL,
+                        PoddWebConstants.DEFAULT_MANAGEMENT_SESAME_REPLICA_SYNC_INTERVAL));
+        
+        return ApplicationUtils.getNewManagementRepositoryInternal(repositoryUrl, replicate, replicaSyncInterval);
     }
     
-    private static Repository getNewManagementRepositoryInternal(final String repositoryUrl) throws RepositoryException
+    private static Repository getNewManagementRepositoryInternal(final String repositoryUrl, final boolean replicate,
+            final long replicaSyncInterval) throws RepositoryException
     {
         Repository repository;
         // if we weren't able to find a repository URL in the configuration, we
@@ -196,6 +245,10 @@ public class ApplicationUtils
         else
         {
             repository = new HTTPRepository(repositoryUrl.trim());
+            if(replicate)
+            {
+                repository = new ReplicatedRepository(repository, replicaSyncInterval);
+            }
             
             try
             {
@@ -203,6 +256,10 @@ public class ApplicationUtils
                 
                 ApplicationUtils.log.info("Using sesame http repository as management repository for PODD: {}",
                         repositoryUrl);
+                if(replicate)
+                {
+                    ApplicationUtils.log.info("Reading management repository from a local replica");
+                }
             }
             catch(final RepositoryException ex)
             {
@@ -234,32 +291,13 @@ public class ApplicationUtils
         return repository;
     }
     
-    public static Configuration getNewTemplateConfiguration(final Context newChildContext)
-    {
-        final Configuration result = new Configuration();
-        result.setDefaultEncoding("UTF-8");
-        result.setURLEscapingCharset("UTF-8");
-        
-        // FIXME: Make this configurable
-        result.setTemplateLoader(new ContextTemplateLoader(newChildContext, "clap://class/templates"));
-        
-        final BeansWrapper myWrapper = new BeansWrapper();
-        myWrapper.setSimpleMapWrapper(true);
-        result.setObjectWrapper(myWrapper);
-        
-        return result;
-    }
-    
-    public static void setupApplication(final PoddWebServiceApplication application, final Context applicationContext)
-        throws OpenRDFException, UnsupportedRDFormatException, IOException, OWLException, PoddException
+    /**
+     * Creates the permanent repository manager, using the permanent repository configuration and
+     * PODD home directory from the given properties.
+     */
+    public static PoddRepositoryManager getNewPoddRepositoryManager(final Repository managementRepository,
+            final PropertyUtil props) throws OpenRDFException, IOException
     {
-        final PropertyUtil props = application.getPropertyUtil();
-        
-        ApplicationUtils.log.debug("application {}", application);
-        ApplicationUtils.log.debug("applicationContext {}", applicationContext);
-        
-        final Repository nextManagementRepository = ApplicationUtils.getNewManagementRepository(props);
-        
         final String permanentRepositoryConfigPath =
                 props.get(PoddWebConstants.PROPERTY_PERMANENT_SESAME_REPOSITORY_CONFIG,
                         PoddWebConstants.DEFAULT_PERMANENT_SESAME_REPOSITORY_CONFIG);
@@ -276,14 +314,16 @@ public class ApplicationUtils
         final String poddHome = props.get(PoddWebConstants.PROPERTY_PODD_HOME, "");
         final Path poddHomePath = Paths.get(poddHome);
         
-        application.setPoddRepositoryManager(new PoddRepositoryManagerImpl(nextManagementRepository,
-                repositoryImplConfig, props.get(PoddWebConstants.PROPERTY_PERMANENT_SESAME_REPOSITORY_SERVER,
-                        PoddWebConstants.DEFAULT_PERMANENT_SESAME_REPOSITORY_SERVER), poddHomePath, props));
-        
-        // File Reference Manager
-        final DataReferenceManager nextDataReferenceManager = new DataReferenceManagerImpl();
-        
-        // PURL manager
+        return new PoddRepositoryManagerImpl(managementRepository, repositoryImplConfig, props.get(
+                PoddWebConstants.PROPERTY_PERMANENT_SESAME_REPOSITORY_SERVER,
+                PoddWebConstants.DEFAULT_PERMANENT_SESAME_REPOSITORY_SERVER), poddHomePath, props);
+    }
+    
+    /**
+     * Creates the PURL manager, using the PURL prefix from the given properties.
+     */
+    public static PoddPurlManager getNewPurlManager(final PropertyUtil props)
+    {
         final PoddPurlProcessorFactoryRegistry nextPurlRegistry = new PoddPurlProcessorFactoryRegistry();
         
         // TODO: Generalise the following so they don't have to be done here
@@ -296,7 +336,15 @@ public class ApplicationUtils
         
         final PoddPurlManager nextPurlManager = new PoddPurlManagerImpl();
         nextPurlManager.setPurlProcessorRegistry(nextPurlRegistry);
-        
+        return nextPurlManager;
+    }
+    
+    /**
+     * Creates the OWL manager, using the OWLAPI manager from the given properties and the Pellet
+     * reasoner.
+     */
+    public static PoddOWLManager getNewOWLManager(final PropertyUtil props)
+    {
         final Collection<OWLOntologyManagerFactory> ontologyManagers =
                 OWLOntologyManagerFactoryRegistry.getInstance().get(
                         props.get(PoddWebConstants.PROPERTY_OWLAPI_MANAGER, PoddWebConstants.DEFAULT_OWLAPI_MANAGER));
@@ -313,8 +361,61 @@ public class ApplicationUtils
             ApplicationUtils.log.error("OWLReasonerFactory was null");
         }
         
-        final PoddOWLManager nextOWLManager =
-                new PoddOWLManagerImpl(ontologyManagers.iterator().next(), reasonerFactory);
+        return new PoddOWLManagerImpl(ontologyManagers.iterator().next(), reasonerFactory, props);
+    }
+    
+    public static Configuration getNewTemplateConfiguration(final Context newChildContext)
+    {
+        final Configuration result = new Configuration();
+        result.setDefaultEncoding("UTF-8");
+        result.setURLEscapingCharset("UTF-8");
+        
+        // FIXME: Make this configurable
+        result.setTemplateLoader(new ContextTemplateLoader(newChildContext, "clap://class/templates"));
+        
+        final BeansWrapper myWrapper = new BeansWrapper();
+        myWrapper.setSimpleMapWrapper(true);
+        result.setObjectWrapper(myWrapper);
+        
+        return result;
+    }
+    
+    public static void setupApplication(final PoddWebServiceApplication application, final Context applicationContext)
+        throws OpenRDFException, UnsupportedRDFormatException, IOException, OWLException, PoddException
+    {
+        final PropertyUtil props = application.getPropertyUtil();
+        
+        ApplicationUtils.log.debug("application {}", application);
+        ApplicationUtils.log.debug("applicationContext {}", applicationContext);
+        
+        final QueryMetrics queryMetrics = QueryMetrics.getInstance();
+        queryMetrics.setSlowQueryThreshold(Long.parseLong(props.get(PoddWebConstants.PROPERTY_QUERY_SLOW_THRESHOLD,
+                PoddWebConstants.DEFAULT_QUERY_SLOW_THRESHOLD)));
+        queryMetrics.setSlowQueryCapacity(Integer.parseInt(props.get(PoddWebConstants.PROPERTY_QUERY_SLOW_CAPACITY,
+                PoddWebConstants.DEFAULT_QUERY_SLOW_CAPACITY)));
+        queryMetrics.registerMBean();
+        QueryMetrics.getRequestInstance().registerMBean();
+        QueryMetrics.getPhaseInstance().registerMBean();
+        
+        PhaseTimer.setEnabled(Boolean.parseBoolean(props.get(PoddWebConstants.PROPERTY_TRACE_PHASES,
+                PoddWebConstants.DEFAULT_TRACE_PHASES)));
+        
+        // Compress responses using gzip or deflate when the client accepts either of them
+        application.getEncoderService().setEnabled(
+                Boolean.parseBoolean(props.get(PoddWebConstants.PROPERTY_HTTP_COMPRESSION,
+                        PoddWebConstants.DEFAULT_HTTP_COMPRESSION)));
+        
+        final Repository nextManagementRepository = ApplicationUtils.getNewManagementRepository(props);
+        
+        application.setPoddRepositoryManager(ApplicationUtils.getNewPoddRepositoryManager(nextManagementRepository,
+                props));
+        
+        // File Reference Manager
+        final DataReferenceManager nextDataReferenceManager = new DataReferenceManagerImpl();
+        
+        final PoddPurlManager nextPurlManager = ApplicationUtils.getNewPurlManager(props);
+        
+        final PoddOWLManager nextOWLManager = ApplicationUtils.getNewOWLManager(props);
         
         // File Repository Manager
         final PoddDataRepositoryManager nextDataRepositoryManager = new PoddDataRepositoryManagerImpl();
@@ -335,7 +436,8 @@ public class ApplicationUtils
         
         final PoddSesameManager poddSesameManager = new PoddSesameManagerImpl();
         
-        application.setPoddSchemaManager(new PoddSchemaManagerImpl());
+        application.setPoddSchemaManager(new PoddSchemaManagerImpl(Integer.parseInt(props.get(
+                PoddWebConstants.PROPERTY_SCHEMA_UPLOAD_THREADS, PoddWebConstants.DEFAULT_SCHEMA_UPLOAD_THREADS))));
         application.getPoddSchemaManager().setOwlManager(nextOWLManager);
         application.getPoddSchemaManager().setRepositoryManager(application.getPoddRepositoryManager());
         application.getPoddSchemaManager().setSesameManager(poddSesameManager);
@@ -348,9 +450,13 @@ public class ApplicationUtils
         application.getPoddArtifactManager().setOwlManager(nextOWLManager);
         application.getPoddArtifactManager().setSchemaManager(application.getPoddSchemaManager());
         application.getPoddArtifactManager().setSesameManager(poddSesameManager);
+        application.getPoddArtifactManager().setRenderedArtifactCache(
+                ApplicationUtils.getNewRenderedArtifactCache(props));
         
         ApplicationUtils.setupSchemas(application);
         
+        ApplicationUtils.warmUpSchemas(application, nextOWLManager);
+        
         final List<Role> roles = application.getRoles();
         // FIXME: Why does the list need to be cleared here?
         roles.clear();
@@ -362,6 +468,8 @@ public class ApplicationUtils
         
         // FIXME: Make this configurable
         nextRealm.setName("PODDRealm");
+        nextRealm.setUserDirectoryTimeout(Long.parseLong(props.get(PoddWebConstants.PROPERTY_USER_DIRECTORY_TIMEOUT,
+                PoddWebConstants.DEFAULT_USER_DIRECTORY_TIMEOUT)));
         
         // Check if there is a current admin, and only add our test admin user if there is no admin
         // in the system
@@ -459,6 +567,7 @@ public class ApplicationUtils
             if(!schemaOntologies.isEmpty())
             {
                 ApplicationUtils.log.debug("Uploaded new schema ontologies: {}", schemaOntologies);
+                poddArtifactManager.clearObjectMetadataCache();
             }
             else
             {
@@ -602,6 +711,9 @@ public class ApplicationUtils
             // Enable the following for debugging
             // dumpSchemaGraph(application, nextRepository);
             
+            // Fill the metadata cache now so that the first add/edit forms are not slowed down
+            poddArtifactManager.preloadObjectMetadata();
+            
         }
         catch(IOException | OpenRDFException | OWLException | PoddException e)
         {
@@ -611,6 +723,184 @@ public class ApplicationUtils
         
     }
     
+    /**
+     * Loads and classifies every set of schema ontologies that is currently in use, so that the
+     * first requests after startup do not need to parse the schemas and run the reasoner. If PODD
+     * home is configured, the class hierarchies are stored there and reused on restart, although
+     * the schema reasoners are still classified so that the first upload does not need to.
+     *
+     * @param application
+     *            The application, after {@link #setupSchemas(PoddWebServiceApplication)} has been
+     *            called.
+     * @param owlManager
+     *            The OWL manager to warm up.
+     * @throws OpenRDFException
+     *             If the schema sets could not be found.
+     */
+    public static void warmUpSchemas(final PoddWebServiceApplication application, final PoddOWLManager owlManager)
+        throws OpenRDFException
+    {
+        final PropertyUtil props = application.getPropertyUtil();
+        final int threads =
+                Integer.parseInt(props.get(PoddWebConstants.PROPERTY_SCHEMA_WARMUP_THREADS,
+                        PoddWebConstants.DEFAULT_SCHEMA_WARMUP_THREADS));
+        if(threads <= 0)
+        {
+            ApplicationUtils.log.info("Schema warm-up is disabled");
+            return;
+        }
+        
+        final PoddArtifactManager poddArtifactManager = application.getPoddArtifactManager();
+        final Set<Set<? extends OWLOntologyID>> schemaSets = new LinkedHashSet<>();
+        schemaSets.add(application.getPoddSchemaManager().getCurrentSchemaOntologies());
+        
+        final List<InferredOWLOntologyID> artifacts = new ArrayList<>();
+        artifacts.addAll(poddArtifactManager.listPublishedArtifacts());
+        artifacts.addAll(poddArtifactManager.listUnpublishedArtifacts());
+        for(final InferredOWLOntologyID nextArtifact : artifacts)
+        {
+            try
+            {
+                schemaSets.add(poddArtifactManager.getSchemaImports(nextArtifact));
+            }
+            catch(PoddException | IOException e)
+            {
+                ApplicationUtils.log.warn("Could not find schema imports for artifact: {}", nextArtifact);
+            }
+        }
+        schemaSets.remove(Collections.<OWLOntologyID> emptySet());
+        
+        final String poddHome = props.get(PoddWebConstants.PROPERTY_PODD_HOME, "");
+        final Path snapshotDirectory = poddHome.isEmpty() ? null : Paths.get(poddHome).resolve("schema-hierarchy");
+        final PoddRepositoryManager repositoryManager = application.getPoddRepositoryManager();
+        
+        ApplicationUtils.log.info("Warming up {} schema ontology sets using {} threads", schemaSets.size(), threads);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try
+        {
+            final List<Future<Model>> results = new ArrayList<>();
+            for(final Set<? extends OWLOntologyID> nextSchemaSet : schemaSets)
+            {
+                results.add(executor.submit(new Callable<Model>()
+                    {
+                        @Override
+                        public Model call() throws Exception
+                        {
+                            return ApplicationUtils.warmUpSchemaSet(repositoryManager, owlManager, nextSchemaSet,
+                                    snapshotDirectory);
+                        }
+                    }));
+            }
+            
+            for(final Future<Model> nextResult : results)
+            {
+                try
+                {
+                    nextResult.get();
+                }
+                catch(final ExecutionException e)
+                {
+                    // Warm-up failures are not fatal, the schemas will be loaded when first used
+                    ApplicationUtils.log.error("Could not warm up schema ontologies", e.getCause());
+                }
+            }
+        }
+        catch(final InterruptedException e)
+        {
+            ApplicationUtils.log.warn("Interrupted while warming up schema ontologies");
+            Thread.currentThread().interrupt();
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+    
+    private static Model warmUpSchemaSet(final PoddRepositoryManager repositoryManager,
+            final PoddOWLManager owlManager, final Set<? extends OWLOntologyID> schemaSet,
+            final Path snapshotDirectory) throws OpenRDFException, OWLException, PoddException, IOException
+    {
+        Path snapshotFile = null;
+        if(snapshotDirectory != null)
+        {
+            snapshotFile = snapshotDirectory.resolve(ApplicationUtils.getSchemaSetKey(schemaSet) + ".brf");
+            if(Files.exists(snapshotFile))
+            {
+                try (final InputStream input = Files.newInputStream(snapshotFile);)
+                {
+                    owlManager.cacheSchemaClassHierarchy(schemaSet, Rio.parse(input, "", RDFFormat.BINARY));
+                    ApplicationUtils.log.debug("Loaded schema hierarchy snapshot: {}", snapshotFile);
+                }
+                catch(final RDFParseException | IOException e)
+                {
+                    ApplicationUtils.log.warn("Replacing unreadable schema hierarchy snapshot: " + snapshotFile, e);
+                    Files.deleteIfExists(snapshotFile);
+                }
+            }
+        }
+        
+        Model classHierarchy = null;
+        final RepositoryConnection managementConnection = repositoryManager.getManagementRepositoryConnection();
+        try
+        {
+            classHierarchy =
+                    owlManager.classifySchemaOntologies(schemaSet, managementConnection,
+                            repositoryManager.getSchemaManagementGraph());
+        }
+        finally
+        {
+            managementConnection.close();
+        }
+        
+        if(snapshotFile != null && !Files.exists(snapshotFile))
+        {
+            Files.createDirectories(snapshotDirectory);
+            final Path tempFile = Files.createTempFile(snapshotDirectory, "schema-hierarchy-", ".tmp");
+            try
+            {
+                try (final OutputStream output = Files.newOutputStream(tempFile);)
+                {
+                    Rio.write(classHierarchy, output, RDFFormat.BINARY);
+                }
+                Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            finally
+            {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+        
+        return classHierarchy;
+    }
+    
+    /**
+     * Creates a file name safe key that identifies a set of schema ontology versions.
+     */
+    private static String getSchemaSetKey(final Set<? extends OWLOntologyID> schemaSet)
+    {
+        final List<String> versions = new ArrayList<>();
+        for(final OWLOntologyID nextSchema : schemaSet)
+        {
+            versions.add(nextSchema.getOntologyIRI() + " " + nextSchema.getVersionIRI());
+        }
+        Collections.sort(versions);
+        
+        try
+        {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for(final String nextVersion : versions)
+            {
+                digest.update(nextVersion.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte)'\n');
+            }
+            return String.format("%064x", new BigInteger(1, digest.digest()));
+        }
+        catch(final NoSuchAlgorithmException e)
+        {
+            throw new RuntimeException("SHA-256 is not supported", e);
+        }
+    }
+    
     private ApplicationUtils()
     {
     }
@@ -69,6 +69,7 @@ import com.github.podd.resources.HelpResourceImpl;
 import com.github.podd.resources.IndexResourceImpl;
 import com.github.podd.resources.ListArtifactsResourceImpl;
 import com.github.podd.resources.ListDataRepositoriesResourceImpl;
+import com.github.podd.resources.QueryMetricsResourceImpl;
 import com.github.podd.resources.SearchOntologyResourceImpl;
 import com.github.podd.resources.SparqlResourceImpl;
 import com.github.podd.resources.UploadArtifactResourceImpl;
@@ -150,6 +151,8 @@ public class PoddWebServiceApplicationImpl extends PoddWebServiceApplication
         this.getMetadataService().addExtension("nt", MediaType.TEXT_RDF_NTRIPLES, true);
         this.getMetadataService().addExtension("nq",
                 MediaType.register("text/nquads", "The NQuads extension to the NTriples RDF serialisation"), true);
+        this.getMetadataService().addExtension("brf",
+                MediaType.register(RDFFormat.BINARY.getDefaultMIMEType(), "The Sesame binary RDF serialisation"), true);
         
         this.getMetadataService().addExtension("js", MediaType.TEXT_JAVASCRIPT, true);
         this.getMetadataService().addExtension("css", MediaType.TEXT_CSS, true);
@@ -252,10 +255,28 @@ public class PoddWebServiceApplicationImpl extends PoddWebServiceApplication
     }
     
     /**
-     * Call this method to clean up resources used by PODD. At present it shuts down the Repository.
+     * Call this method to clean up resources used by PODD. At present it shuts down the data
+     * repositories and the Repository.
      */
     public void cleanUpResources()
     {
+        if(this.getPoddArtifactManager() != null && this.getPoddArtifactManager().getRenderedArtifactCache() != null)
+        {
+            this.getPoddArtifactManager().getRenderedArtifactCache().shutDown();
+        }
+        
+        try
+        {
+            if(this.getPoddDataRepositoryManager() != null)
+            {
+                this.getPoddDataRepositoryManager().shutDown();
+            }
+        }
+        catch(final OpenRDFException e)
+        {
+            this.log.error("Data Repository Manager could not be shutdown", e);
+        }
+        
         try
         {
             // Avoid NPE if setup failed and we want to shutdown immediately
@@ -399,6 +420,11 @@ public class PoddWebServiceApplicationImpl extends PoddWebServiceApplication
         this.log.debug("attaching List Data Repositories service to path={}", listDataRepositories);
         router.attach(listDataRepositories, ListDataRepositoriesResourceImpl.class);
         
+        // Add a route for the administrator query metrics service.
+        final String queryMetrics = PoddWebConstants.PATH_ADMIN_QUERY_METRICS;
+        this.log.debug("attaching Query Metrics service to path={}", queryMetrics);
+        router.attach(queryMetrics, QueryMetricsResourceImpl.class);
+        
         // Add a route for the Search ontology service.
         final String searchService = PoddWebConstants.PATH_SEARCH;
         this.log.debug("attaching Search Ontology service to path={}", searchService);
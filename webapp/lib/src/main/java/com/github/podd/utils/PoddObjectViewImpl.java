@@ -0,0 +1,112 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ *
+ * Copyright (C) 2009-2013 The University Of Queensland
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.utils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.openrdf.model.Model;
+import org.openrdf.model.URI;
+
+/**
+ * Encapsulates the details that are needed to display a single object.
+ *
+ * @author Peter Ansell p_ansell@yahoo.com
+ */
+public class PoddObjectViewImpl implements PoddObjectView
+{
+    private final PoddObjectLabel object;
+    
+    private final List<PoddObjectLabel> objectTypes;
+    
+    private final List<URI> orderedProperties;
+    
+    private final Model displayModel;
+    
+    private final Map<String, String> parentDetails;
+    
+    private final List<Map<String, String>> childDetails;
+    
+    public PoddObjectViewImpl(final PoddObjectLabel object, final List<PoddObjectLabel> objectTypes,
+            final List<URI> orderedProperties, final Model displayModel, final Map<String, String> parentDetails,
+            final List<Map<String, String>> childDetails)
+    {
+        this.object = object;
+        this.objectTypes = Collections.unmodifiableList(objectTypes);
+        this.orderedProperties = Collections.unmodifiableList(orderedProperties);
+        this.displayModel = displayModel;
+        this.parentDetails = Collections.unmodifiableMap(parentDetails);
+        this.childDetails = Collections.unmodifiableList(childDetails);
+    }
+    
+    @Override
+    public int getChildCount()
+    {
+        return this.childDetails.size();
+    }
+    
+    @Override
+    public List<Map<String, String>> getChildDetails()
+    {
+        return this.childDetails;
+    }
+    
+    @Override
+    public Model getDisplayModel()
+    {
+        return this.displayModel;
+    }
+    
+    @Override
+    public PoddObjectLabel getObject()
+    {
+        return this.object;
+    }
+    
+    @Override
+    public List<PoddObjectLabel> getObjectTypes()
+    {
+        return this.objectTypes;
+    }
+    
+    @Override
+    public List<URI> getOrderedProperties()
+    {
+        return this.orderedProperties;
+    }
+    
+    @Override
+    public Map<String, String> getParentDetails()
+    {
+        return this.parentDetails;
+    }
+    
+    @Override
+    public String toString()
+    {
+        final StringBuilder b = new StringBuilder("[");
+        b.append(" object=");
+        b.append(this.object);
+        b.append(" types=");
+        b.append(this.objectTypes);
+        b.append(" childCount=");
+        b.append(this.childDetails.size());
+        b.append("]");
+        return b.toString();
+    }
+}
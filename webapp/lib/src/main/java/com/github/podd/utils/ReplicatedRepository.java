@@ -0,0 +1,467 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ *
+ * Copyright (C) 2009-2013 The University Of Queensland
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.utils;
+
+import info.aduna.iteration.Iterations;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.openrdf.model.Literal;
+import org.openrdf.model.Model;
+import org.openrdf.model.Namespace;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.Value;
+import org.openrdf.model.impl.LinkedHashModel;
+import org.openrdf.query.MalformedQueryException;
+import org.openrdf.query.QueryLanguage;
+import org.openrdf.query.Update;
+import org.openrdf.repository.Repository;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.RepositoryException;
+import org.openrdf.repository.base.RepositoryConnectionWrapper;
+import org.openrdf.repository.base.RepositoryWrapper;
+import org.openrdf.repository.sail.SailRepository;
+import org.openrdf.sail.memory.MemoryStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A wrapper for a remote {@link Repository}, such as a Sesame HTTP repository, that keeps a complete
+ * copy of its statements and namespaces in a local in-memory repository.
+ * <p>
+ * Connections read only from the local copy. Changes are written to the remote repository first,
+ * and then to the local copy once the remote transaction has committed. Every commit also replaces
+ * a change token in the remote repository. Before a connection is returned, the remote change token
+ * is checked, at most once per synchronisation interval, and the local copy is reloaded if the
+ * token was changed by another client. The token is also checked inside the remote transaction for
+ * each commit, and the local copy is reloaded after the commit if another client had changed it.
+ * <p>
+ * SPARQL updates are not supported, as they could not be applied consistently to both copies.
+ *
+ * @author Peter Ansell p_ansell@yahoo.com
+ */
+public class ReplicatedRepository extends RepositoryWrapper
+{
+    /**
+     * The context in the remote repository that contains the change token.
+     */
+    public static final URI CHANGE_CONTEXT = PODD.VF.createURI("urn:podd:repository:replica:changes");
+    
+    /**
+     * The predicate linking {@link #CHANGE_CONTEXT} to the change token, which is a random literal
+     * replaced on every commit.
+     */
+    public static final URI CHANGE_TOKEN = PODD.VF.createURI(PODD.PODD_BASE, "replicaChangeToken");
+    
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+    
+    private final Repository local = new SailRepository(new MemoryStore());
+    
+    private final long syncInterval;
+    
+    private final Object syncLock = new Object();
+    
+    /**
+     * The change token that the local copy matches, or null if there was no token.
+     */
+    private volatile Value localToken;
+    
+    private volatile boolean stale = true;
+    
+    private volatile long lastCheck;
+    
+    /**
+     * @param remote
+     *            The repository to replicate.
+     * @param syncInterval
+     *            The minimum time, in milliseconds, between checks for changes made to the remote
+     *            repository by other clients. Set to 0 to check before every connection, or to a
+     *            negative number to never check after the initial load.
+     */
+    public ReplicatedRepository(final Repository remote, final long syncInterval)
+    {
+        super(remote);
+        this.syncInterval = syncInterval;
+    }
+    
+    @Override
+    public void initialize() throws RepositoryException
+    {
+        super.initialize();
+        this.local.initialize();
+        this.synchroniseIfChanged();
+    }
+    
+    @Override
+    public void shutDown() throws RepositoryException
+    {
+        try
+        {
+            this.local.shutDown();
+        }
+        finally
+        {
+            super.shutDown();
+        }
+    }
+    
+    @Override
+    public RepositoryConnection getConnection() throws RepositoryException
+    {
+        this.synchroniseIfChanged();
+        return new ReplicatedRepositoryConnection(this, this.local.getConnection());
+    }
+    
+    /**
+     * Reloads the local copy if the remote change token has changed since the local copy was last
+     * loaded, or if the local copy may not match the remote repository.
+     *
+     * @throws RepositoryException
+     *             If the remote repository could not be read.
+     */
+    public void synchroniseIfChanged() throws RepositoryException
+    {
+        if(!this.isDue())
+        {
+            return;
+        }
+        
+        synchronized(this.syncLock)
+        {
+            if(!this.isDue())
+            {
+                return;
+            }
+            this.lastCheck = System.currentTimeMillis();
+            
+            RepositoryConnection remoteConnection = null;
+            RepositoryConnection localConnection = null;
+            try
+            {
+                remoteConnection = this.getDelegate().getConnection();
+                // Read the token before the statements, so that changes made while copying cause
+                // another reload on the next check
+                final Value remoteToken = ReplicatedRepository.getToken(remoteConnection);
+                if(!this.stale && (remoteToken == null ? this.localToken == null : remoteToken.equals(this.localToken)))
+                {
+                    return;
+                }
+                
+                this.log.info("Reloading local copy of remote repository");
+                final Model statements =
+                        new LinkedHashModel(Iterations.asList(remoteConnection.getStatements(null, null, null, false)));
+                final List<Namespace> namespaces = Iterations.asList(remoteConnection.getNamespaces());
+                
+                localConnection = this.local.getConnection();
+                localConnection.begin();
+                localConnection.clear();
+                localConnection.clearNamespaces();
+                localConnection.add(statements);
+                for(final Namespace nextNamespace : namespaces)
+                {
+                    localConnection.setNamespace(nextNamespace.getPrefix(), nextNamespace.getName());
+                }
+                localConnection.commit();
+                
+                this.localToken = remoteToken;
+                this.stale = false;
+                this.log.info("Reloaded {} statements from remote repository", statements.size());
+            }
+            catch(final RepositoryException e)
+            {
+                if(localConnection != null && localConnection.isActive())
+                {
+                    localConnection.rollback();
+                }
+                throw e;
+            }
+            finally
+            {
+                try
+                {
+                    if(localConnection != null)
+                    {
+                        localConnection.close();
+                    }
+                }
+                finally
+                {
+                    if(remoteConnection != null)
+                    {
+                        remoteConnection.close();
+                    }
+                }
+            }
+        }
+    }
+    
+    private boolean isDue()
+    {
+        if(this.stale)
+        {
+            return true;
+        }
+        if(this.syncInterval < 0)
+        {
+            return false;
+        }
+        return System.currentTimeMillis() - this.lastCheck >= this.syncInterval;
+    }
+    
+    private static Value getToken(final RepositoryConnection connection) throws RepositoryException
+    {
+        for(final Statement nextStatement : Iterations.asList(connection.getStatements(
+                ReplicatedRepository.CHANGE_CONTEXT, ReplicatedRepository.CHANGE_TOKEN, null, false,
+                ReplicatedRepository.CHANGE_CONTEXT)))
+        {
+            return nextStatement.getObject();
+        }
+        return null;
+    }
+    
+    /**
+     * @return True if the given remote change token is the token that the local copy matches.
+     */
+    boolean isCurrentToken(final Value remoteToken)
+    {
+        final Value currentToken = this.localToken;
+        return remoteToken == null ? currentToken == null : remoteToken.equals(currentToken);
+    }
+    
+    /**
+     * Called after a change has been committed to both copies.
+     */
+    void changeCommitted(final Value newToken)
+    {
+        this.localToken = newToken;
+    }
+    
+    /**
+     * Called if a change was committed to the remote repository, but could not be committed to the
+     * local copy, so that the local copy is reloaded before the next connection is returned.
+     */
+    void markStale()
+    {
+        this.stale = true;
+    }
+    
+    /**
+     * A connection that reads from the local copy and writes to both the remote repository and the
+     * local copy.
+     */
+    private static final class ReplicatedRepositoryConnection extends RepositoryConnectionWrapper
+    {
+        private final ReplicatedRepository replica;
+        
+        private RepositoryConnection remoteConnection;
+        
+        private boolean changed;
+        
+        ReplicatedRepositoryConnection(final ReplicatedRepository replica, final RepositoryConnection localConnection)
+        {
+            super(replica, localConnection);
+            this.replica = replica;
+        }
+        
+        private RepositoryConnection getRemoteConnection() throws RepositoryException
+        {
+            if(this.remoteConnection == null)
+            {
+                this.remoteConnection = this.replica.getDelegate().getConnection();
+            }
+            return this.remoteConnection;
+        }
+        
+        @Override
+        protected boolean isDelegatingAdd() throws RepositoryException
+        {
+            return false;
+        }
+        
+        @Override
+        protected boolean isDelegatingRemove() throws RepositoryException
+        {
+            return false;
+        }
+        
+        @Override
+        protected void addWithoutCommit(final Resource subject, final URI predicate, final Value object,
+                final Resource... contexts) throws RepositoryException
+        {
+            this.changed = true;
+            this.getRemoteConnection().add(subject, predicate, object, contexts);
+            this.getDelegate().add(subject, predicate, object, contexts);
+        }
+        
+        @Override
+        protected void removeWithoutCommit(final Resource subject, final URI predicate, final Value object,
+                final Resource... contexts) throws RepositoryException
+        {
+            this.changed = true;
+            this.getRemoteConnection().remove(subject, predicate, object, contexts);
+            this.getDelegate().remove(subject, predicate, object, contexts);
+        }
+        
+        @Override
+        public void setNamespace(final String prefix, final String name) throws RepositoryException
+        {
+            this.getRemoteConnection().setNamespace(prefix, name);
+            this.getDelegate().setNamespace(prefix, name);
+        }
+        
+        @Override
+        public void removeNamespace(final String prefix) throws RepositoryException
+        {
+            this.getRemoteConnection().removeNamespace(prefix);
+            this.getDelegate().removeNamespace(prefix);
+        }
+        
+        @Override
+        public void clearNamespaces() throws RepositoryException
+        {
+            this.getRemoteConnection().clearNamespaces();
+            this.getDelegate().clearNamespaces();
+        }
+        
+        @Override
+        public Update prepareUpdate(final QueryLanguage ql, final String update, final String baseURI)
+            throws RepositoryException, MalformedQueryException
+        {
+            throw new UnsupportedOperationException("SPARQL updates are not supported on a replicated repository");
+        }
+        
+        @Override
+        public void begin() throws RepositoryException
+        {
+            this.getRemoteConnection().begin();
+            this.getDelegate().begin();
+        }
+        
+        @Override
+        public void commit() throws RepositoryException
+        {
+            Literal newToken = null;
+            boolean changedByOthers = false;
+            if(this.changed)
+            {
+                // Read the token inside the remote transaction, as it is only the token that the
+                // local copy matches if no other client has committed since the copy was loaded
+                final Value remoteToken = ReplicatedRepository.getToken(this.getRemoteConnection());
+                changedByOthers = !this.replica.isCurrentToken(remoteToken);
+                newToken = PODD.VF.createLiteral(UUID.randomUUID().toString());
+                this.getRemoteConnection().remove(ReplicatedRepository.CHANGE_CONTEXT,
+                        ReplicatedRepository.CHANGE_TOKEN, null, ReplicatedRepository.CHANGE_CONTEXT);
+                this.getRemoteConnection().add(ReplicatedRepository.CHANGE_CONTEXT, ReplicatedRepository.CHANGE_TOKEN,
+                        newToken, ReplicatedRepository.CHANGE_CONTEXT);
+                this.getDelegate().remove(ReplicatedRepository.CHANGE_CONTEXT, ReplicatedRepository.CHANGE_TOKEN, null,
+                        ReplicatedRepository.CHANGE_CONTEXT);
+                this.getDelegate().add(ReplicatedRepository.CHANGE_CONTEXT, ReplicatedRepository.CHANGE_TOKEN,
+                        newToken, ReplicatedRepository.CHANGE_CONTEXT);
+                this.changed = false;
+            }
+            
+            try
+            {
+                if(this.remoteConnection != null && this.remoteConnection.isActive())
+                {
+                    this.remoteConnection.commit();
+                }
+            }
+            catch(final RepositoryException e)
+            {
+                if(this.getDelegate().isActive())
+                {
+                    this.getDelegate().rollback();
+                }
+                throw e;
+            }
+            
+            try
+            {
+                if(this.getDelegate().isActive())
+                {
+                    this.getDelegate().commit();
+                }
+            }
+            catch(final RepositoryException e)
+            {
+                this.replica.markStale();
+                throw e;
+            }
+            
+            if(changedByOthers)
+            {
+                // The local copy is missing the changes made by other clients, so it must be
+                // reloaded even though the remote token now matches this change
+                this.replica.markStale();
+            }
+            else if(newToken != null)
+            {
+                this.replica.changeCommitted(newToken);
+            }
+        }
+        
+        @Override
+        public void rollback() throws RepositoryException
+        {
+            this.changed = false;
+            try
+            {
+                if(this.remoteConnection != null && this.remoteConnection.isActive())
+                {
+                    this.remoteConnection.rollback();
+                }
+            }
+            finally
+            {
+                if(this.getDelegate().isActive())
+                {
+                    this.getDelegate().rollback();
+                }
+            }
+        }
+        
+        @Override
+        public void close() throws RepositoryException
+        {
+            try
+            {
+                if(this.isOpen() && this.isActive())
+                {
+                    this.rollback();
+                }
+            }
+            finally
+            {
+                try
+                {
+                    if(this.remoteConnection != null)
+                    {
+                        this.remoteConnection.close();
+                    }
+                }
+                finally
+                {
+                    super.close();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,274 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ *
+ * Copyright (C) 2009-2013 The University Of Queensland
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.utils;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.openrdf.repository.Repository;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.RepositoryException;
+import org.openrdf.repository.base.RepositoryConnectionWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shares a single connection to each repository between all of the operations on a thread, such
+ * as all of the manager calls made while handling a single HTTP request.
+ * <p>
+ * The outermost caller on a thread calls {@link #begin()} and later {@link #close()} on the
+ * returned unit of work. Code running on the same thread in between obtains connections using
+ * {@link #getConnection(Repository)}, which lazily opens one shared connection per repository and
+ * returns a separate handle to it for each caller. Calling {@link RepositoryConnection#close()} on
+ * a handle only rolls back a transaction that the handle started and did not complete, as the
+ * shared connections are closed when the unit of work is closed.
+ * <p>
+ * Transactions on the shared connection must not interleave with callers further up the stack,
+ * which may still be iterating over results from it. If a handle starts a transaction while
+ * another handle to the same shared connection is open, the handle switches to a separate
+ * connection of its own until it is closed. If the shared connection is already in a transaction
+ * when another connection is requested, for example when a permanent repository is created while
+ * an artifact is being loaded, a separate connection is returned so that the nested transaction is
+ * still committed independently. When no unit of work is active,
+ * {@link #getConnection(Repository)} always returns a new connection.
+ *
+ * @author Peter Ansell p_ansell@yahoo.com
+ */
+public final class RepositoryUnitOfWork
+{
+    private static final ThreadLocal<RepositoryUnitOfWork> CURRENT = new ThreadLocal<RepositoryUnitOfWork>();
+    
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+    
+    private final Map<Repository, SharedConnection> connections = new IdentityHashMap<Repository, SharedConnection>();
+    
+    private RepositoryUnitOfWork()
+    {
+    }
+    
+    /**
+     * Starts a unit of work on the current thread.
+     *
+     * @return A new unit of work that the caller must {@link #close()}, or null if a unit of work is
+     *         already active on this thread.
+     */
+    public static RepositoryUnitOfWork begin()
+    {
+        if(RepositoryUnitOfWork.CURRENT.get() != null)
+        {
+            return null;
+        }
+        final RepositoryUnitOfWork result = new RepositoryUnitOfWork();
+        RepositoryUnitOfWork.CURRENT.set(result);
+        return result;
+    }
+    
+    /**
+     * @return The unit of work that is active on the current thread, or null if there is none.
+     */
+    public static RepositoryUnitOfWork current()
+    {
+        return RepositoryUnitOfWork.CURRENT.get();
+    }
+    
+    /**
+     * Returns a connection to the given repository, which is shared with the other operations in
+     * the unit of work that is active on this thread, if there is one.
+     *
+     * @param repository
+     *            The repository to connect to.
+     * @return A connection that the caller must close as usual.
+     * @throws RepositoryException
+     *             If a connection could not be opened.
+     */
+    public static RepositoryConnection getConnection(final Repository repository) throws RepositoryException
+    {
+        final RepositoryUnitOfWork current = RepositoryUnitOfWork.CURRENT.get();
+        if(current == null)
+        {
+            return repository.getConnection();
+        }
+        return current.getConnectionInternal(repository);
+    }
+    
+    private RepositoryConnection getConnectionInternal(final Repository repository) throws RepositoryException
+    {
+        SharedConnection shared = this.connections.get(repository);
+        if(shared == null || !shared.connection.isOpen())
+        {
+            shared = new SharedConnection(repository.getConnection());
+            this.connections.put(repository, shared);
+        }
+        else if(shared.connection.isActive())
+        {
+            this.log.debug("Shared connection is in a transaction, opening a separate connection");
+            return repository.getConnection();
+        }
+        return new SharedRepositoryConnection(repository, shared);
+    }
+    
+    /**
+     * @return The number of repositories that a shared connection has been opened for.
+     */
+    public int getConnectionCount()
+    {
+        return this.connections.size();
+    }
+    
+    /**
+     * Detaches this unit of work from the current thread and closes all of its connections. Any
+     * transactions that were not completed are rolled back.
+     */
+    public void close()
+    {
+        if(RepositoryUnitOfWork.CURRENT.get() == this)
+        {
+            RepositoryUnitOfWork.CURRENT.remove();
+        }
+        
+        for(final SharedConnection nextConnection : this.connections.values())
+        {
+            final RepositoryConnection delegate = nextConnection.connection;
+            try
+            {
+                if(delegate.isOpen() && delegate.isActive())
+                {
+                    this.log.warn("Rolling back transaction that was not completed");
+                    delegate.rollback();
+                }
+            }
+            catch(final RepositoryException e)
+            {
+                this.log.error("Found error rolling back repository connection", e);
+            }
+            finally
+            {
+                try
+                {
+                    delegate.close();
+                }
+                catch(final RepositoryException e)
+                {
+                    this.log.error("Found error closing repository connection", e);
+                }
+            }
+        }
+        this.connections.clear();
+    }
+    
+    /**
+     * A connection that is shared by the handles for one repository, and the number of those
+     * handles that have not been closed.
+     */
+    private static final class SharedConnection
+    {
+        private final RepositoryConnection connection;
+        private int openHandles;
+        
+        SharedConnection(final RepositoryConnection connection)
+        {
+            this.connection = connection;
+        }
+    }
+    
+    /**
+     * A caller's handle to a shared connection. The shared connection is only closed when the unit
+     * of work that it belongs to is closed. Closing the handle rolls back any transaction that it
+     * started and did not complete, as closing an unshared connection would.
+     */
+    private static final class SharedRepositoryConnection extends RepositoryConnectionWrapper
+    {
+        private final SharedConnection shared;
+        
+        private RepositoryConnection separate;
+        
+        private boolean ownsTransaction;
+        
+        private boolean closed;
+        
+        SharedRepositoryConnection(final Repository repository, final SharedConnection shared)
+        {
+            super(repository, shared.connection);
+            this.shared = shared;
+            this.shared.openHandles++;
+        }
+        
+        @Override
+        public void begin() throws RepositoryException
+        {
+            if(this.separate == null && this.shared.openHandles > 1)
+            {
+                // Another caller on this thread holds the shared connection and may be iterating
+                // over results from it, so this transaction uses a connection of its own
+                this.separate = this.getRepository().getConnection();
+                this.setDelegate(this.separate);
+            }
+            this.getDelegate().begin();
+            this.ownsTransaction = this.separate == null;
+        }
+        
+        @Override
+        public void commit() throws RepositoryException
+        {
+            this.getDelegate().commit();
+            this.ownsTransaction = false;
+        }
+        
+        @Override
+        public void rollback() throws RepositoryException
+        {
+            this.getDelegate().rollback();
+            this.ownsTransaction = false;
+        }
+        
+        @Override
+        public boolean isOpen() throws RepositoryException
+        {
+            return !this.closed && this.getDelegate().isOpen();
+        }
+        
+        @Override
+        public void close() throws RepositoryException
+        {
+            if(this.closed)
+            {
+                return;
+            }
+            this.closed = true;
+            this.shared.openHandles--;
+            
+            if(this.separate != null)
+            {
+                try
+                {
+                    if(this.separate.isActive())
+                    {
+                        this.separate.rollback();
+                    }
+                }
+                finally
+                {
+                    this.separate.close();
+                }
+            }
+            else if(this.ownsTransaction && this.shared.connection.isOpen() && this.shared.connection.isActive())
+            {
+                this.shared.connection.rollback();
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+<#if childObjects?? && childObjects?has_content>
+<br />
+<h3 class="underlined_heading">Child Objects
+    <a href="javascript:animatedcollapse.toggle('child_details')" icon="toggle" title="View Child Objects"></a>
+</h3>
+
+<div id="child_details">  <!-- Collapsible div -->
+    <div id="childInfo" class="fieldset">
+        <div class="legend">Child Object Summary Information</div>
+        <ol>
+        <#list childObjects as child>
+        <li><span class="bold">${child.type!""}: </span>
+        	<a href="${baseUrl}/artifact/base?artifacturi=${artifactUri?url}&amp;objecturi=${(child.uri!"")?url}">${child.label!child.uri!""}</a>
+        </li>
+        </#list>
+        </ol>
+    </div>
+</div>  <!-- childDetails - Collapsable div -->
+</#if>
@@ -146,6 +146,8 @@
     <@referencedByTable/>
 </#if>
 
+<#include "child_details.html.ftl"/>
+
 <#if isProject?? && isProject>
 <br />
 <!--#include "projectParticipantDetails.html.ftl"/-->
@@ -320,6 +322,7 @@ Macro to format a given text field for display by HTML encoding it and replacing
 <script type="text/javascript">
     animatedcollapse.addDiv('parent_details', 'fade=1,hide=0');
     animatedcollapse.addDiv('details', 'fade=1,hide=0');
+    animatedcollapse.addDiv('child_details', 'fade=1,hide=0');
 	animatedcollapse.addDiv('participants', 'fade=1,hide=0');
 	animatedcollapse.addDiv('files', 'fade=1,hide=0');
 	animatedcollapse.addDiv('hierarchy', 'fade=1,hide=0');
@@ -19,12 +19,15 @@ package com.github.podd.impl.data.test;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.UUID;
 
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
+import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.junit.rules.Timeout;
 import org.openrdf.model.Model;
@@ -34,7 +37,9 @@ import org.openrdf.model.impl.LinkedHashModel;
 import org.openrdf.model.impl.ValueFactoryImpl;
 import org.openrdf.model.util.GraphUtil;
 import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.model.vocabulary.RDFS;
 import org.openrdf.repository.Repository;
+import org.openrdf.repository.RepositoryConnection;
 import org.openrdf.repository.config.RepositoryConfigSchema;
 import org.openrdf.repository.config.RepositoryImplConfig;
 import org.openrdf.repository.config.RepositoryImplConfigBase;
@@ -52,11 +57,14 @@ import com.github.podd.api.PoddOWLManager;
 import com.github.podd.api.data.DataReference;
 import com.github.podd.api.data.PoddDataRepository;
 import com.github.podd.api.data.PoddDataRepositoryManager;
+import com.github.podd.api.data.SPARQLDataReference;
 import com.github.podd.api.data.test.AbstractPoddDataRepositoryManagerTest;
 import com.github.podd.exception.DataReferenceNotSupportedException;
 import com.github.podd.impl.PoddOWLManagerImpl;
 import com.github.podd.impl.PoddRepositoryManagerImpl;
 import com.github.podd.impl.data.PoddDataRepositoryManagerImpl;
+import com.github.podd.impl.data.SPARQLDataReferenceImpl;
+import com.github.podd.impl.data.SPARQLDataRepositoryImpl;
 import com.github.podd.utils.PODD;
 import com.github.podd.utils.PoddWebConstants;
 
@@ -111,12 +119,24 @@ public class PoddDataRepositoryManagerImplTest extends AbstractPoddDataRepositor
                     return null;
                 }
                 
+                @Override
+                public void shutDown()
+                {
+                }
+                
                 @Override
                 public boolean validate(final DataReference reference) throws DataReferenceNotSupportedException,
                     IOException
                 {
                     return false;
                 }
+                
+                @Override
+                public Set<DataReference> validateAll(final Collection<DataReference> references)
+                    throws DataReferenceNotSupportedException, IOException
+                {
+                    return new LinkedHashSet<DataReference>(references);
+                }
             };
     }
     
@@ -226,6 +246,85 @@ public class PoddDataRepositoryManagerImplTest extends AbstractPoddDataRepositor
     {
     }
     
+    private Model buildModelForSparqlDataRepository(final URI aliasUri, final String alias, final int port)
+    {
+        final Model model = new LinkedHashModel();
+        model.add(aliasUri, PODD.PODD_DATA_REPOSITORY_ALIAS, PODD.VF.createLiteral(alias));
+        model.add(aliasUri, RDF.TYPE, PODD.PODD_DATA_REPOSITORY);
+        model.add(aliasUri, RDF.TYPE, PODD.PODD_SPARQL_DATA_REPOSITORY);
+        model.add(aliasUri, PODD.PODD_DATA_REPOSITORY_PROTOCOL,
+                PODD.VF.createLiteral(PoddDataRepository.PROTOCOL_HTTP));
+        model.add(aliasUri, PODD.PODD_DATA_REPOSITORY_HOST, PODD.VF.createLiteral("localhost"));
+        model.add(aliasUri, PODD.PODD_DATA_REPOSITORY_PORT, PODD.VF.createLiteral(port));
+        model.add(aliasUri, PODD.PODD_DATA_REPOSITORY_PATH, PODD.VF.createLiteral("/sparql"));
+        return model;
+    }
+    
+    @Test
+    public void testVerifyDataReferencesReusesRepository() throws Exception
+    {
+        final String alias = "sparql-alias";
+        final URI aliasUri = PODD.VF.createURI("http://purl.org/podd/alias/sparql");
+        final URI graph = PODD.VF.createURI("urn:test:graph:exists");
+        this.testDataRepositoryManager.addRepositoryMapping(alias, new SPARQLDataRepositoryImpl(aliasUri,
+                this.buildModelForSparqlDataRepository(aliasUri, alias, 12345)));
+        
+        // An in-memory repository standing in for the remote SPARQL endpoint
+        final Repository sparqlRepository = new SailRepository(new MemoryStore());
+        sparqlRepository.initialize();
+        try
+        {
+            final RepositoryConnection conn = sparqlRepository.getConnection();
+            try
+            {
+                conn.add(graph, RDFS.LABEL, PODD.VF.createLiteral("Test graph"), graph);
+            }
+            finally
+            {
+                conn.close();
+            }
+            
+            final SPARQLDataRepositoryImpl repository =
+                    (SPARQLDataRepositoryImpl)this.testDataRepositoryManager.getRepository(alias);
+            Assert.assertSame(repository, this.testDataRepositoryManager.getRepository(alias));
+            repository.setSparqlRepository(sparqlRepository);
+            
+            final SPARQLDataReference reference = new SPARQLDataReferenceImpl();
+            reference.setRepositoryAlias(alias);
+            reference.setGraph(graph.stringValue());
+            final Set<DataReference> references = Collections.<DataReference> singleton(reference);
+            
+            this.testDataRepositoryManager.verifyDataReferences(references);
+            
+            // The graph no longer exists remotely, so verification only succeeds if the result
+            // cached by the first verification is used instead of querying the remote repository
+            final RepositoryConnection clearConn = sparqlRepository.getConnection();
+            try
+            {
+                clearConn.clear();
+            }
+            finally
+            {
+                clearConn.close();
+            }
+            
+            this.testDataRepositoryManager.verifyDataReferences(references);
+            
+            // Changing the configuration for the alias replaces the repository
+            this.testDataRepositoryManager.addRepositoryMapping(alias, new SPARQLDataRepositoryImpl(aliasUri,
+                    this.buildModelForSparqlDataRepository(aliasUri, alias, 12346)), true);
+            final PoddDataRepository<?> replacement = this.testDataRepositoryManager.getRepository(alias);
+            Assert.assertNotNull(replacement);
+            Assert.assertNotSame(repository, replacement);
+            Assert.assertSame(replacement, this.testDataRepositoryManager.getRepository(alias));
+        }
+        finally
+        {
+            this.testDataRepositoryManager.shutDown();
+            sparqlRepository.shutDown();
+        }
+    }
+    
     @Override
     protected void stopRepositorySource() throws Exception
     {
@@ -18,12 +18,14 @@ package com.github.podd.impl.data.test;
 
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
+import org.junit.Assert;
 import org.junit.Before;
-import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -34,6 +36,11 @@ import org.openrdf.model.URI;
 import org.openrdf.model.ValueFactory;
 import org.openrdf.model.impl.LinkedHashModel;
 import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.model.vocabulary.RDFS;
+import org.openrdf.repository.Repository;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.sail.SailRepository;
+import org.openrdf.sail.memory.MemoryStore;
 
 import com.github.podd.api.data.PoddDataRepository;
 import com.github.podd.api.data.SPARQLDataReference;
@@ -52,8 +59,17 @@ public class SPARQLDataRepositoryImplTest extends AbstractPoddDataRepositoryTest
     @Rule
     public final TemporaryFolder tempDirectory = new TemporaryFolder();
     
+    private static final String TEST_GRAPH_EXISTS = "urn:test:graph:exists";
+    
+    private static final String TEST_GRAPH_MISSING = "urn:test:graph:missing";
+    
     private Path sshDir = null;
     
+    /**
+     * An in-memory repository standing in for the remote SPARQL endpoint.
+     */
+    private Repository sparqlRepository = null;
+    
     @Override
     protected Collection<URI> getExpectedTypes() throws Exception
     {
@@ -116,10 +132,20 @@ public class SPARQLDataRepositoryImplTest extends AbstractPoddDataRepositoryTest
         return incompleteModels;
     }
     
+    private SPARQLDataReference getNewDataReference(final String graph)
+    {
+        final SPARQLDataReference result = new SPARQLDataReferenceImpl();
+        result.setRepositoryAlias(this.getAliasGood());
+        result.setGraph(graph);
+        return result;
+    }
+    
     @Override
     protected SPARQLDataReference getNewNonValidatingDataReference()
     {
-        return new SPARQLDataReferenceImpl();
+        final SPARQLDataReference result = new SPARQLDataReferenceImpl();
+        result.setGraph(SPARQLDataRepositoryImplTest.TEST_GRAPH_MISSING);
+        return result;
     }
     
     @Override
@@ -159,7 +185,9 @@ public class SPARQLDataRepositoryImplTest extends AbstractPoddDataRepositoryTest
     @Override
     protected SPARQLDataReference getNewValidatingDataReference()
     {
-        return new SPARQLDataReferenceImpl();
+        final SPARQLDataReference result = new SPARQLDataReferenceImpl();
+        result.setGraph(SPARQLDataRepositoryImplTest.TEST_GRAPH_EXISTS);
+        return result;
     }
     
     @Before
@@ -172,18 +200,117 @@ public class SPARQLDataRepositoryImplTest extends AbstractPoddDataRepositoryTest
     @Override
     protected void startRepositorySource() throws Exception
     {
+        this.sparqlRepository = new SailRepository(new MemoryStore());
+        this.sparqlRepository.initialize();
+        
+        final RepositoryConnection conn = this.sparqlRepository.getConnection();
+        try
+        {
+            final URI graph = PODD.VF.createURI(SPARQLDataRepositoryImplTest.TEST_GRAPH_EXISTS);
+            conn.add(graph, RDFS.LABEL, PODD.VF.createLiteral("Test graph"), graph);
+        }
+        finally
+        {
+            conn.close();
+        }
+        
+        ((SPARQLDataRepositoryImpl)this.testDataRepository).setSparqlRepository(this.sparqlRepository);
     }
     
     @Override
     protected void stopRepositorySource() throws Exception
     {
+        if(this.sparqlRepository != null)
+        {
+            this.sparqlRepository.shutDown();
+            this.sparqlRepository = null;
+        }
     }
     
-    @Ignore("TODO: Implement validation")
     @Test
-    @Override
-    public void testValidateWithNonExistentFile() throws Exception
+    public void testValidateAllWithMixedReferences() throws Exception
+    {
+        try
+        {
+            this.startRepositorySource();
+            
+            final SPARQLDataReference existing1 =
+                    this.getNewDataReference(SPARQLDataRepositoryImplTest.TEST_GRAPH_EXISTS);
+            final SPARQLDataReference existing2 =
+                    this.getNewDataReference(SPARQLDataRepositoryImplTest.TEST_GRAPH_EXISTS);
+            final SPARQLDataReference missing =
+                    this.getNewDataReference(SPARQLDataRepositoryImplTest.TEST_GRAPH_MISSING);
+            final SPARQLDataReference notIri = this.getNewDataReference("not an IRI");
+            
+            final Set<SPARQLDataReference> invalid =
+                    this.testDataRepository.validateAll(Arrays.asList(existing1, missing, existing2, notIri));
+            
+            Assert.assertEquals(2, invalid.size());
+            Assert.assertTrue(invalid.contains(missing));
+            Assert.assertTrue(invalid.contains(notIri));
+        }
+        finally
+        {
+            this.stopRepositorySource();
+        }
+    }
+    
+    @Test
+    public void testValidateAllWithManyGraphs() throws Exception
+    {
+        try
+        {
+            this.startRepositorySource();
+            
+            final int count = SPARQLDataRepositoryImpl.VALIDATION_BATCH_SIZE * 2 + 1;
+            final Collection<SPARQLDataReference> references = new ArrayList<SPARQLDataReference>(count + 1);
+            for(int i = 0; i < count; i++)
+            {
+                references.add(this.getNewDataReference(SPARQLDataRepositoryImplTest.TEST_GRAPH_MISSING + ":" + i));
+            }
+            references.add(this.getNewDataReference(SPARQLDataRepositoryImplTest.TEST_GRAPH_EXISTS));
+            
+            final Set<SPARQLDataReference> invalid = this.testDataRepository.validateAll(references);
+            
+            Assert.assertEquals(count, invalid.size());
+        }
+        finally
+        {
+            this.stopRepositorySource();
+        }
+    }
+    
+    @Test
+    public void testValidateUsesCache() throws Exception
     {
+        try
+        {
+            this.startRepositorySource();
+            
+            final SPARQLDataReference reference =
+                    this.getNewDataReference(SPARQLDataRepositoryImplTest.TEST_GRAPH_EXISTS);
+            Assert.assertTrue(this.testDataRepository.validate(reference));
+            
+            final RepositoryConnection conn = this.sparqlRepository.getConnection();
+            try
+            {
+                conn.clear();
+            }
+            finally
+            {
+                conn.close();
+            }
+            
+            Assert.assertTrue("Cached result should have been used", this.testDataRepository.validate(reference));
+            
+            ((SPARQLDataRepositoryImpl)this.testDataRepository).setValidationCacheTtl(0);
+            
+            Assert.assertFalse("Graph should no longer exist", this.testDataRepository.validate(reference));
+        }
+        finally
+        {
+            this.stopRepositorySource();
+        }
     }
     
 }
@@ -0,0 +1,253 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ *
+ * Copyright (C) 2009-2013 The University Of Queensland
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.impl.test;
+
+import java.io.BufferedOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.util.GraphUtil;
+import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.repository.Repository;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.config.RepositoryConfigSchema;
+import org.openrdf.repository.config.RepositoryImplConfig;
+import org.openrdf.repository.config.RepositoryImplConfigBase;
+import org.openrdf.repository.sail.SailRepository;
+import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.Rio;
+import org.openrdf.sail.memory.MemoryStore;
+import org.semanticweb.owlapi.model.OWLOntologyManagerFactoryRegistry;
+import org.semanticweb.owlapi.reasoner.OWLReasonerFactoryRegistry;
+
+import com.github.ansell.propertyutil.PropertyUtil;
+import com.github.podd.api.PoddOWLManager;
+import com.github.podd.api.PoddRepositoryManager;
+import com.github.podd.api.data.DataReferenceProcessorRegistry;
+import com.github.podd.api.purl.PoddPurlProcessorFactoryRegistry;
+import com.github.podd.api.test.ArtifactGenerator;
+import com.github.podd.impl.PoddArtifactManagerImpl;
+import com.github.podd.impl.PoddOWLManagerImpl;
+import com.github.podd.impl.PoddRepositoryManagerImpl;
+import com.github.podd.impl.PoddSchemaManagerImpl;
+import com.github.podd.impl.PoddSesameManagerImpl;
+import com.github.podd.impl.data.DataReferenceManagerImpl;
+import com.github.podd.impl.purl.PoddPurlManagerImpl;
+import com.github.podd.impl.purl.UUIDPurlProcessorFactoryImpl;
+import com.github.podd.utils.InferredOWLOntologyID;
+import com.github.podd.utils.PODD;
+import com.github.podd.utils.PoddWebConstants;
+
+/**
+ * Tests loading a generated artifact that is large enough to use the bounded memory ingest
+ * settings, including a temporary native store and chunked inference, within the fixed maximum
+ * heap size that the tests in this module are run with.
+ *
+ * The number of objects defaults to a size that runs quickly, and can be changed using the
+ * "podd.test.large.objects" system property. The "large-artifacts" profile runs this test with
+ * 100000 objects.
+ *
+ * @author Peter Ansell p_ansell@yahoo.com
+ */
+public class PoddArtifactManagerImplLargeArtifactTest
+{
+    private static final String PROPERTY_OBJECT_COUNT = "podd.test.large.objects";
+    
+    private static final String[] OVERRIDDEN_PROPERTIES = { PoddWebConstants.PROPERTY_TEMPORARY_REPOSITORY_TYPE,
+            PoddWebConstants.PROPERTY_INGEST_LARGE_ARTIFACT_INDIVIDUALS,
+            PoddWebConstants.PROPERTY_INGEST_INFERENCE_CHUNK_SIZE };
+    
+    @Rule
+    public Timeout timeout = new Timeout(3000000);
+    
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+    
+    private final Map<String, String> previousProperties = new HashMap<>();
+    
+    private int objectCount;
+    
+    private Repository managementRepository;
+    
+    private PoddRepositoryManager testRepositoryManager;
+    
+    private PoddArtifactManagerImpl testArtifactManager;
+    
+    @Before
+    public void setUp() throws Exception
+    {
+        this.objectCount = Integer.getInteger(PoddArtifactManagerImplLargeArtifactTest.PROPERTY_OBJECT_COUNT, 2000);
+        
+        for(final String nextProperty : PoddArtifactManagerImplLargeArtifactTest.OVERRIDDEN_PROPERTIES)
+        {
+            this.previousProperties.put(nextProperty, System.getProperty(nextProperty));
+        }
+        System.setProperty(PoddWebConstants.PROPERTY_TEMPORARY_REPOSITORY_TYPE, "native");
+        System.setProperty(PoddWebConstants.PROPERTY_INGEST_LARGE_ARTIFACT_INDIVIDUALS,
+                Integer.toString(Math.min(1000, this.objectCount)));
+        System.setProperty(PoddWebConstants.PROPERTY_INGEST_INFERENCE_CHUNK_SIZE, "250");
+        final PropertyUtil props = new PropertyUtil("podd");
+        
+        this.managementRepository = new SailRepository(new MemoryStore());
+        this.managementRepository.initialize();
+        
+        final Model graph =
+                Rio.parse(this.getClass().getResourceAsStream("/memorystoreconfig.ttl"), "", RDFFormat.TURTLE);
+        final Resource repositoryNode = GraphUtil.getUniqueSubject(graph, RepositoryConfigSchema.REPOSITORYTYPE, null);
+        final RepositoryImplConfig repositoryImplConfig = RepositoryImplConfigBase.create(graph, repositoryNode);
+        this.testRepositoryManager =
+                new PoddRepositoryManagerImpl(this.managementRepository, repositoryImplConfig, "", this.tempDir
+                        .newFolder("podd-home").toPath(), props);
+        
+        final DataReferenceProcessorRegistry testFileRegistry = new DataReferenceProcessorRegistry();
+        testFileRegistry.clear();
+        final DataReferenceManagerImpl testFileReferenceManager = new DataReferenceManagerImpl();
+        testFileReferenceManager.setDataProcessorRegistry(testFileRegistry);
+        
+        final PoddPurlProcessorFactoryRegistry testPurlRegistry = new PoddPurlProcessorFactoryRegistry();
+        testPurlRegistry.clear();
+        testPurlRegistry.add(new UUIDPurlProcessorFactoryImpl());
+        final PoddPurlManagerImpl testPurlManager = new PoddPurlManagerImpl();
+        testPurlManager.setPurlProcessorRegistry(testPurlRegistry);
+        
+        final PoddOWLManager testOWLManager =
+                new PoddOWLManagerImpl(OWLOntologyManagerFactoryRegistry.getInstance()
+                        .get(PoddWebConstants.DEFAULT_OWLAPI_MANAGER).iterator().next(), OWLReasonerFactoryRegistry
+                        .getInstance().getReasonerFactory("Pellet"), props);
+        
+        final PoddSesameManagerImpl testSesameManager = new PoddSesameManagerImpl();
+        
+        final PoddSchemaManagerImpl testSchemaManager = new PoddSchemaManagerImpl();
+        testSchemaManager.setOwlManager(testOWLManager);
+        testSchemaManager.setRepositoryManager(this.testRepositoryManager);
+        testSchemaManager.setSesameManager(testSesameManager);
+        
+        this.testArtifactManager = new PoddArtifactManagerImpl();
+        this.testArtifactManager.setRepositoryManager(this.testRepositoryManager);
+        this.testArtifactManager.setDataReferenceManager(testFileReferenceManager);
+        this.testArtifactManager.setPurlManager(testPurlManager);
+        this.testArtifactManager.setOwlManager(testOWLManager);
+        this.testArtifactManager.setSchemaManager(testSchemaManager);
+        this.testArtifactManager.setSesameManager(testSesameManager);
+        
+        try (final InputStream input = this.getClass().getResourceAsStream(PODD.PATH_DEFAULT_SCHEMAS);)
+        {
+            testSchemaManager.uploadSchemaOntologies(Rio.parse(input, "", RDFFormat.TURTLE));
+        }
+    }
+    
+    @After
+    public void tearDown() throws Exception
+    {
+        // Restore the properties that were set before the test, for example by the build
+        for(final Map.Entry<String, String> nextProperty : this.previousProperties.entrySet())
+        {
+            if(nextProperty.getValue() == null)
+            {
+                System.clearProperty(nextProperty.getKey());
+            }
+            else
+            {
+                System.setProperty(nextProperty.getKey(), nextProperty.getValue());
+            }
+        }
+        this.previousProperties.clear();
+        
+        if(this.testRepositoryManager != null)
+        {
+            this.testRepositoryManager.shutDown();
+        }
+        if(this.managementRepository != null)
+        {
+            this.managementRepository.shutDown();
+        }
+    }
+    
+    /**
+     * Writes a Turtle artifact containing a project with the given number of child objects to a
+     * file, so that the fixture is not held in memory while it is loaded.
+     */
+    private Path generateArtifact(final int count) throws Exception
+    {
+        final Path result = this.tempDir.newFile("generated-" + count + ".ttl").toPath();
+        try (final OutputStream output = new BufferedOutputStream(Files.newOutputStream(result));)
+        {
+            new ArtifactGenerator().writeArtifact(output, RDFFormat.TURTLE, count, "generated" + count);
+        }
+        return result;
+    }
+    
+    @Test
+    public void testLoadLargeArtifact() throws Exception
+    {
+        final Path artifact = this.generateArtifact(this.objectCount);
+        
+        final InferredOWLOntologyID result;
+        try (final InputStream input = Files.newInputStream(artifact);)
+        {
+            result = this.testArtifactManager.loadArtifact(input, RDFFormat.TURTLE);
+        }
+        
+        Assert.assertNotNull(result);
+        Assert.assertNotNull(result.getInferredOntologyIRI());
+        
+        final RepositoryConnection permanentConnection =
+                this.testRepositoryManager.getPermanentRepositoryConnection(this.testArtifactManager
+                        .getSchemaImports(result));
+        try
+        {
+            // Every object must have inferred types, which are stored in chunks
+            final Set<Resource> typedObjects = new HashSet<>();
+            for(final Statement nextType : permanentConnection.getStatements(null, RDF.TYPE, null, false,
+                    result.getInferredOntologyIRI().toOpenRDFURI()).asList())
+            {
+                typedObjects.add(nextType.getSubject());
+            }
+            Assert.assertTrue("Inferred types missing for some objects: " + typedObjects.size(),
+                    typedObjects.size() >= this.objectCount + 1);
+            
+            // Each generated run contains one investigation and two platforms
+            final int runCount = ArtifactGenerator.getRunCount(this.objectCount);
+            Assert.assertEquals(runCount,
+                    permanentConnection.getStatements(null, PODD.VF.createURI(PODD.PODD_SCIENCE, "hasInvestigation"),
+                            null, false, result.getVersionIRI().toOpenRDFURI()).asList().size());
+            Assert.assertEquals(runCount * 2,
+                    permanentConnection.getStatements(null, PODD.VF.createURI(PODD.PODD_SCIENCE, "hasPlatform"),
+                            null, false, result.getVersionIRI().toOpenRDFURI()).asList().size());
+        }
+        finally
+        {
+            permanentConnection.close();
+        }
+    }
+}
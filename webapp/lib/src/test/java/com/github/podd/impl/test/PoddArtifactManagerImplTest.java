@@ -16,6 +16,8 @@
  */
 package com.github.podd.impl.test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.List;
@@ -24,19 +26,25 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.openrdf.model.Model;
 import org.openrdf.model.Resource;
+import org.openrdf.model.URI;
 import org.openrdf.model.util.GraphUtil;
 import org.openrdf.repository.Repository;
+import org.openrdf.repository.RepositoryConnection;
 import org.openrdf.repository.config.RepositoryConfigSchema;
 import org.openrdf.repository.config.RepositoryImplConfig;
 import org.openrdf.repository.config.RepositoryImplConfigBase;
+import org.openrdf.repository.sail.SailRepository;
 import org.openrdf.rio.RDFFormat;
 import org.openrdf.rio.Rio;
+import org.openrdf.sail.memory.MemoryStore;
 import org.semanticweb.owlapi.model.OWLOntologyManagerFactory;
 import org.semanticweb.owlapi.model.OWLOntologyManagerFactoryRegistry;
 import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
 import org.semanticweb.owlapi.reasoner.OWLReasonerFactoryRegistry;
 
 import com.github.ansell.propertyutil.PropertyUtil;
+import com.github.podd.api.DataReferenceVerificationPolicy;
+import com.github.podd.api.MetadataPolicy;
 import com.github.podd.api.PoddOWLManager;
 import com.github.podd.api.PoddRepositoryManager;
 import com.github.podd.api.PoddSchemaManager;
@@ -46,6 +54,8 @@ import com.github.podd.api.data.DataReferenceProcessorFactory;
 import com.github.podd.api.purl.PoddPurlManager;
 import com.github.podd.api.purl.PoddPurlProcessorFactory;
 import com.github.podd.api.test.AbstractPoddArtifactManagerTest;
+import com.github.podd.api.test.TestConstants;
+import com.github.podd.exception.InconsistentOntologyException;
 import com.github.podd.impl.PoddArtifactManagerImpl;
 import com.github.podd.impl.PoddOWLManagerImpl;
 import com.github.podd.impl.PoddRepositoryManagerImpl;
@@ -56,6 +66,7 @@ import com.github.podd.impl.data.SSHFileReferenceProcessorFactoryImpl;
 import com.github.podd.impl.purl.PoddPurlManagerImpl;
 import com.github.podd.impl.purl.UUIDPurlProcessorFactoryImpl;
 import com.github.podd.utils.InferredOWLOntologyID;
+import com.github.podd.utils.PODD;
 import com.github.podd.utils.PoddWebConstants;
 
 /**
@@ -195,6 +206,163 @@ public class PoddArtifactManagerImplTest extends AbstractPoddArtifactManagerTest
         Assert.assertEquals("Version not incremented as expected", artifactURI + ":v51", newAppendedVersion);
     }
     
+    /**
+     * Tests that object type metadata for different versions of an artifact share a single cache
+     * entry, as the metadata only depends on the schema ontology versions.
+     */
+    @Test
+    public void testExportObjectMetadataCacheSharedAcrossVersions() throws Exception
+    {
+        this.loadVersion1SchemaOntologies();
+        final PoddArtifactManagerImpl artifactManager = (PoddArtifactManagerImpl)this.testArtifactManager;
+        artifactManager.clearObjectMetadataCache();
+        
+        final InferredOWLOntologyID version1;
+        try (final InputStream input = this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_20130206);)
+        {
+            version1 = artifactManager.loadArtifact(input, RDFFormat.TURTLE);
+        }
+        final InferredOWLOntologyID version2;
+        try (final InputStream input =
+                this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_FRAGMENT_NEW_FILE_REF_OBJECT);)
+        {
+            version2 =
+                    artifactManager.attachDataReferences(version1, Rio.parse(input, "", RDFFormat.RDFXML),
+                            DataReferenceVerificationPolicy.DO_NOT_VERIFY);
+        }
+        Assert.assertNotEquals(version1.getVersionIRI(), version2.getVersionIRI());
+        
+        final URI objectType = PODD.VF.createURI(PODD.PODD_SCIENCE, "Investigation");
+        final ByteArrayOutputStream output1 = new ByteArrayOutputStream();
+        artifactManager.exportObjectMetadata(objectType, output1, RDFFormat.RDFJSON, false,
+                MetadataPolicy.EXCLUDE_CONTAINS, version1);
+        final ByteArrayOutputStream output2 = new ByteArrayOutputStream();
+        artifactManager.exportObjectMetadata(objectType, output2, RDFFormat.RDFJSON, false,
+                MetadataPolicy.EXCLUDE_CONTAINS, version2);
+        
+        Assert.assertTrue(output1.size() > 0);
+        Assert.assertArrayEquals(output1.toByteArray(), output2.toByteArray());
+        Assert.assertEquals(1, artifactManager.getObjectMetadataCacheSize());
+    }
+    
+    /**
+     * Tests that deleting every version of an artifact removes the record of the shard that it was
+     * assigned to.
+     */
+    @Test
+    public void testDeleteArtifactRemovesShardAssignment() throws Exception
+    {
+        final Repository managementRepository = new SailRepository(new MemoryStore());
+        managementRepository.initialize();
+        System.setProperty(PoddWebConstants.PROPERTY_PERMANENT_SESAME_REPOSITORY_SHARDS, "2");
+        PoddRepositoryManager repositoryManager = null;
+        try
+        {
+            repositoryManager =
+                    this.getNewRepositoryManager(managementRepository, this.tempDir.newFolder("shards").toPath());
+            repositoryManager.setSchemaManagementGraph(this.schemaGraph);
+            repositoryManager.setArtifactManagementGraph(PODD.VF.createURI("urn:test:shard:artifact-graph"));
+            this.testArtifactManager.setRepositoryManager(repositoryManager);
+            this.testArtifactManager.getSchemaManager().setRepositoryManager(repositoryManager);
+            
+            this.loadVersion1SchemaOntologies();
+            final InferredOWLOntologyID artifactId;
+            try (final InputStream input = this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_20130206);)
+            {
+                artifactId = this.testArtifactManager.loadArtifact(input, RDFFormat.TURTLE);
+            }
+            final URI artifactUri = artifactId.getOntologyIRI().toOpenRDFURI();
+            
+            RepositoryConnection managementConnection = repositoryManager.getManagementRepositoryConnection();
+            try
+            {
+                Assert.assertTrue("Artifact was not assigned to a shard", managementConnection.hasStatement(null,
+                        PODD.PODD_REPOSITORY_CONTAINS_ARTIFACT, artifactUri, false));
+            }
+            finally
+            {
+                managementConnection.close();
+            }
+            
+            Assert.assertTrue("Could not delete artifact", this.testArtifactManager.deleteArtifact(artifactId));
+            
+            managementConnection = repositoryManager.getManagementRepositoryConnection();
+            try
+            {
+                Assert.assertFalse("Shard assignment was not removed", managementConnection.hasStatement(null,
+                        PODD.PODD_REPOSITORY_CONTAINS_ARTIFACT, artifactUri, false));
+            }
+            finally
+            {
+                managementConnection.close();
+            }
+        }
+        finally
+        {
+            System.clearProperty(PoddWebConstants.PROPERTY_PERMANENT_SESAME_REPOSITORY_SHARDS);
+            if(repositoryManager != null)
+            {
+                repositoryManager.shutDown();
+            }
+            managementRepository.shutDown();
+        }
+    }
+    
+    /**
+     * Tests that an artifact that fails to load after being assigned to a shard does not leave the
+     * assignment behind.
+     */
+    @Test
+    public void testLoadArtifactFailureRemovesShardAssignment() throws Exception
+    {
+        final Repository managementRepository = new SailRepository(new MemoryStore());
+        managementRepository.initialize();
+        System.setProperty(PoddWebConstants.PROPERTY_PERMANENT_SESAME_REPOSITORY_SHARDS, "2");
+        PoddRepositoryManager repositoryManager = null;
+        try
+        {
+            repositoryManager =
+                    this.getNewRepositoryManager(managementRepository, this.tempDir.newFolder("shards").toPath());
+            repositoryManager.setSchemaManagementGraph(this.schemaGraph);
+            repositoryManager.setArtifactManagementGraph(PODD.VF.createURI("urn:test:shard:artifact-graph"));
+            this.testArtifactManager.setRepositoryManager(repositoryManager);
+            this.testArtifactManager.getSchemaManager().setRepositoryManager(repositoryManager);
+            
+            this.loadVersion1SchemaOntologies();
+            try (final InputStream input =
+                    this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_BAD_2_LEAD_INSTITUTES);)
+            {
+                this.testArtifactManager.loadArtifact(input, RDFFormat.RDFXML);
+                Assert.fail("Should have thrown an InconsistentOntologyException");
+            }
+            catch(final InconsistentOntologyException e)
+            {
+                Assert.assertTrue("Not the expected error message", e.getMessage()
+                        .startsWith("Ontology is inconsistent"));
+            }
+            
+            final RepositoryConnection managementConnection = repositoryManager.getManagementRepositoryConnection();
+            try
+            {
+                Assert.assertFalse("Shard assignment was left for an artifact that was not loaded",
+                        managementConnection.hasStatement(null, PODD.PODD_REPOSITORY_CONTAINS_ARTIFACT, null, false));
+            }
+            finally
+            {
+                managementConnection.close();
+            }
+        }
+        finally
+        {
+            System.clearProperty(PoddWebConstants.PROPERTY_PERMANENT_SESAME_REPOSITORY_SHARDS);
+            if(repositoryManager != null)
+            {
+                repositoryManager.shutDown();
+            }
+            managementRepository.shutDown();
+        }
+    }
+    
     @Override
     protected OWLOntologyManagerFactory getNewOWLOntologyManagerFactory()
     {
@@ -30,7 +30,9 @@ import org.junit.Ignore;
 import org.junit.Test;
 import org.openrdf.model.Model;
 import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
 import org.openrdf.model.URI;
+import org.openrdf.model.impl.LinkedHashModel;
 import org.openrdf.model.impl.ValueFactoryImpl;
 import org.openrdf.model.util.GraphUtil;
 import org.openrdf.model.vocabulary.OWL;
@@ -43,6 +45,7 @@ import org.openrdf.repository.config.RepositoryImplConfigBase;
 import org.openrdf.repository.sail.SailRepository;
 import org.openrdf.rio.RDFFormat;
 import org.openrdf.rio.Rio;
+import org.openrdf.rio.helpers.StatementCollector;
 import org.openrdf.sail.memory.MemoryStore;
 import org.semanticweb.owlapi.formats.OWLOntologyFormatFactoryRegistry;
 import org.semanticweb.owlapi.io.OWLOntologyDocumentSource;
@@ -57,6 +60,7 @@ import org.semanticweb.owlapi.profiles.OWLProfile;
 import org.semanticweb.owlapi.reasoner.OWLReasoner;
 import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
 import org.semanticweb.owlapi.reasoner.OWLReasonerFactoryRegistry;
+import org.semanticweb.owlapi.reasoner.TimeOutException;
 
 import com.github.ansell.propertyutil.PropertyUtil;
 import com.github.podd.api.PoddRepositoryManager;
@@ -1071,4 +1075,141 @@ public class PoddOWLManagerImplTest extends AbstractPoddOWLManagerTest
         }
     }
     
+    /**
+     * Test that a classification time out is reported when the RDFS fallback is disabled, and
+     * that the reasoner worker has stopped when it is reported.
+     */
+    @Test
+    public void testLoadAndInferClassificationTimeout() throws Exception
+    {
+        final PoddOWLManagerImpl timeoutManager = this.getNewTimeoutOWLManagerInstance(false);
+        final Repository permanentRepository = new SailRepository(new MemoryStore());
+        permanentRepository.initialize();
+        final RepositoryConnection managementConnection =
+                this.testRepositoryManager.getManagementRepositoryConnection();
+        final RepositoryConnection permanentConnection = permanentRepository.getConnection();
+        try
+        {
+            final Set<InferredOWLOntologyID> schemaOntologies = this.loadVersion1SchemaOntologies();
+            
+            permanentConnection.begin();
+            try
+            {
+                timeoutManager.loadAndInfer(this.getArtifactSource(), permanentConnection, null, schemaOntologies,
+                        managementConnection, this.testRepositoryManager.getSchemaManagementGraph());
+                Assert.fail("Did not find expected exception");
+            }
+            catch(final TimeOutException e)
+            {
+                Assert.assertTrue(e.getMessage().contains("did not finish within"));
+            }
+            finally
+            {
+                permanentConnection.rollback();
+            }
+            
+            for(final Thread nextThread : Thread.getAllStackTraces().keySet())
+            {
+                if(nextThread.getName().startsWith("podd-reasoner-"))
+                {
+                    Assert.assertNotEquals("Reasoner worker was still running: " + nextThread.getName(),
+                            Thread.State.RUNNABLE, nextThread.getState());
+                }
+            }
+        }
+        finally
+        {
+            permanentConnection.close();
+            managementConnection.close();
+            permanentRepository.shutDown();
+        }
+    }
+    
+    /**
+     * Test that inferred statements are generated using the RDFS fallback when classification
+     * times out.
+     */
+    @Test
+    public void testLoadAndInferClassificationTimeoutFallback() throws Exception
+    {
+        final PoddOWLManagerImpl timeoutManager = this.getNewTimeoutOWLManagerInstance(true);
+        final Repository permanentRepository = new SailRepository(new MemoryStore());
+        permanentRepository.initialize();
+        final RepositoryConnection managementConnection =
+                this.testRepositoryManager.getManagementRepositoryConnection();
+        final RepositoryConnection permanentConnection = permanentRepository.getConnection();
+        try
+        {
+            final Set<InferredOWLOntologyID> schemaOntologies = this.loadVersion1SchemaOntologies();
+            
+            permanentConnection.begin();
+            final InferredOWLOntologyID artifactId =
+                    timeoutManager.loadAndInfer(this.getArtifactSource(), permanentConnection, null,
+                            schemaOntologies, managementConnection,
+                            this.testRepositoryManager.getSchemaManagementGraph());
+            permanentConnection.commit();
+            
+            final URI inferredUri = artifactId.getInferredOntologyIRI().toOpenRDFURI();
+            final Model asserted = new LinkedHashModel();
+            permanentConnection.export(new StatementCollector(asserted), artifactId.getVersionIRI().toOpenRDFURI());
+            final Model inferred = new LinkedHashModel();
+            permanentConnection.export(new StatementCollector(inferred), inferredUri);
+            
+            Assert.assertFalse(asserted.isEmpty());
+            Assert.assertTrue(inferred.contains(inferredUri, RDF.TYPE, OWL.ONTOLOGY));
+            Assert.assertTrue(inferred.contains(inferredUri, OWL.IMPORTS, artifactId.getVersionIRI().toOpenRDFURI()));
+            
+            // The top object has types inferred from the schema class hierarchy, and no inferred
+            // statement was already asserted
+            final URI topObject = asserted.filter(null, PODD.PODD_BASE_HAS_TOP_OBJECT, null).objectURI();
+            Assert.assertNotNull(topObject);
+            Assert.assertFalse(inferred.filter(topObject, RDF.TYPE, null).isEmpty());
+            for(final Statement nextInferred : inferred)
+            {
+                Assert.assertFalse("Inferred statement was already asserted: " + nextInferred, asserted.contains(
+                        nextInferred.getSubject(), nextInferred.getPredicate(), nextInferred.getObject()));
+            }
+        }
+        finally
+        {
+            permanentConnection.close();
+            managementConnection.close();
+            permanentRepository.shutDown();
+        }
+    }
+    
+    private OWLOntologyDocumentSource getArtifactSource()
+    {
+        final InputStream inputStream = this.getClass().getResourceAsStream(TestConstants.TEST_ARTIFACT_20130206);
+        Assert.assertNotNull("Could not find resource", inputStream);
+        return new StreamDocumentSource(inputStream, OWLOntologyFormatFactoryRegistry.getInstance().getByMIMEType(
+                RDFFormat.TURTLE.getDefaultMIMEType()));
+    }
+    
+    /**
+     * Creates an OWL manager with a classification time limit that is too short for any artifact
+     * to be classified within.
+     */
+    private PoddOWLManagerImpl getNewTimeoutOWLManagerInstance(final boolean fallback)
+    {
+        System.setProperty(PoddWebConstants.PROPERTY_REASONER_TIMEOUT_CLASSIFICATION, "1");
+        System.setProperty(PoddWebConstants.PROPERTY_REASONER_FALLBACK, Boolean.toString(fallback));
+        try
+        {
+            return new PoddOWLManagerImpl(this.getNewOWLOntologyManagerFactory(),
+                    this.getNewOWLReasonerFactoryInstance(), new PropertyUtil("podd"));
+        }
+        finally
+        {
+            System.clearProperty(PoddWebConstants.PROPERTY_REASONER_TIMEOUT_CLASSIFICATION);
+            System.clearProperty(PoddWebConstants.PROPERTY_REASONER_FALLBACK);
+        }
+    }
+    
+    private Set<InferredOWLOntologyID> loadVersion1SchemaOntologies() throws Exception
+    {
+        return new LinkedHashSet<>(this.testSchemaManager.uploadSchemaOntologies(Rio.parse(this.getClass()
+                .getResourceAsStream("/podd-schema-manifest-version1only.ttl"), "", RDFFormat.TURTLE)));
+    }
+    
 }
@@ -16,23 +16,50 @@
  */
 package com.github.podd.impl.test;
 
+import info.aduna.iteration.Iterations;
+
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.junit.Assert;
+import org.junit.Test;
 import org.openrdf.model.Model;
 import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
 import org.openrdf.model.util.GraphUtil;
+import org.openrdf.model.vocabulary.OWL;
+import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.model.vocabulary.RDFS;
+import org.openrdf.query.QueryLanguage;
+import org.openrdf.repository.DelegatingRepositoryConnection;
 import org.openrdf.repository.Repository;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.RepositoryResult;
 import org.openrdf.repository.config.RepositoryConfigSchema;
 import org.openrdf.repository.config.RepositoryImplConfig;
 import org.openrdf.repository.config.RepositoryImplConfigBase;
+import org.openrdf.repository.manager.LocalRepositoryManager;
+import org.openrdf.repository.sail.SailRepository;
 import org.openrdf.rio.RDFFormat;
 import org.openrdf.rio.Rio;
+import org.openrdf.sail.memory.MemoryStore;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntologyID;
 
 import com.github.ansell.propertyutil.PropertyUtil;
 import com.github.podd.api.PoddRepositoryManager;
 import com.github.podd.api.test.AbstractPoddRepositoryManagerTest;
 import com.github.podd.impl.PoddRepositoryManagerImpl;
+import com.github.podd.utils.PODD;
+import com.github.podd.utils.PoddWebConstants;
+import com.github.podd.utils.RepositorySnapshot;
+import com.github.podd.utils.RepositoryUnitOfWork;
 
 /**
  * @author kutila
@@ -54,4 +81,361 @@ public class PoddRepositoryManagerImplTest extends AbstractPoddRepositoryManager
         return new PoddRepositoryManagerImpl(managementRepository, repositoryImplConfig, "", tempDirPath,
                 new PropertyUtil("podd"));
     }
+    
+    @Test
+    public void testGetManagementRepositoryConnectionInUnitOfWork() throws Exception
+    {
+        final Repository managementRepository = new SailRepository(new MemoryStore());
+        managementRepository.initialize();
+        final PoddRepositoryManager repositoryManager =
+                this.getNewPoddRepositoryManagerInstance(managementRepository, this.tempDir.newFolder("unitofwork")
+                        .toPath());
+        
+        final RepositoryUnitOfWork unitOfWork = RepositoryUnitOfWork.begin();
+        Assert.assertNotNull(unitOfWork);
+        try
+        {
+            // Nested units of work are not created
+            Assert.assertNull(RepositoryUnitOfWork.begin());
+            Assert.assertSame(unitOfWork, RepositoryUnitOfWork.current());
+            
+            final RepositoryConnection first = repositoryManager.getManagementRepositoryConnection();
+            first.close();
+            final RepositoryConnection second = repositoryManager.getManagementRepositoryConnection();
+            Assert.assertSame(((DelegatingRepositoryConnection)first).getDelegate(),
+                    ((DelegatingRepositoryConnection)second).getDelegate());
+            Assert.assertEquals(1, unitOfWork.getConnectionCount());
+            
+            // Connections requested while the shared connection is in a transaction are separate
+            second.begin();
+            final RepositoryConnection nested = repositoryManager.getManagementRepositoryConnection();
+            Assert.assertNotSame(second, nested);
+            Assert.assertFalse(nested.isActive());
+            nested.close();
+            second.commit();
+            
+            final RepositoryConnection third = repositoryManager.getManagementRepositoryConnection();
+            Assert.assertSame(((DelegatingRepositoryConnection)second).getDelegate(),
+                    ((DelegatingRepositoryConnection)third).getDelegate());
+        }
+        finally
+        {
+            unitOfWork.close();
+            managementRepository.shutDown();
+        }
+        
+        Assert.assertNull(RepositoryUnitOfWork.current());
+    }
+    
+    @Test
+    public void testGetManagementRepositoryConnectionInUnitOfWorkNestedBegin() throws Exception
+    {
+        final URI subject = PODD.VF.createURI("urn:test:unitofwork:subject");
+        final URI nestedSubject = PODD.VF.createURI("urn:test:unitofwork:nested");
+        final Repository managementRepository = new SailRepository(new MemoryStore());
+        managementRepository.initialize();
+        final PoddRepositoryManager repositoryManager =
+                this.getNewPoddRepositoryManagerInstance(managementRepository, this.tempDir.newFolder("nestedbegin")
+                        .toPath());
+        
+        final RepositoryUnitOfWork unitOfWork = RepositoryUnitOfWork.begin();
+        try
+        {
+            final RepositoryConnection outer = repositoryManager.getManagementRepositoryConnection();
+            outer.add(subject, RDFS.LABEL, PODD.VF.createLiteral("first"));
+            outer.add(subject, RDFS.LABEL, PODD.VF.createLiteral("second"));
+            
+            int count = 0;
+            final RepositoryResult<Statement> statements = outer.getStatements(subject, RDFS.LABEL, null, false);
+            try
+            {
+                while(statements.hasNext())
+                {
+                    statements.next();
+                    count++;
+                    
+                    // A nested caller starts a transaction while the outer caller is iterating
+                    final RepositoryConnection nested = repositoryManager.getManagementRepositoryConnection();
+                    try
+                    {
+                        nested.begin();
+                        Assert.assertTrue(nested.isActive());
+                        Assert.assertFalse(outer.isActive());
+                        Assert.assertNotSame(((DelegatingRepositoryConnection)outer).getDelegate(),
+                                ((DelegatingRepositoryConnection)nested).getDelegate());
+                        nested.add(nestedSubject, RDFS.LABEL, PODD.VF.createLiteral("nested " + count));
+                        nested.commit();
+                    }
+                    finally
+                    {
+                        nested.close();
+                    }
+                }
+            }
+            finally
+            {
+                statements.close();
+            }
+            
+            Assert.assertEquals(2, count);
+            Assert.assertFalse(outer.isActive());
+            Assert.assertEquals(2, Iterations.asList(outer.getStatements(nestedSubject, RDFS.LABEL, null, false))
+                    .size());
+            outer.close();
+            
+            // Once the outer caller has closed its handle, transactions use the shared connection
+            final RepositoryConnection next = repositoryManager.getManagementRepositoryConnection();
+            next.begin();
+            Assert.assertSame(((DelegatingRepositoryConnection)outer).getDelegate(),
+                    ((DelegatingRepositoryConnection)next).getDelegate());
+            next.rollback();
+            next.close();
+            Assert.assertEquals(1, unitOfWork.getConnectionCount());
+        }
+        finally
+        {
+            unitOfWork.close();
+            managementRepository.shutDown();
+        }
+    }
+    
+    @Test
+    public void testRestoreSnapshotRemovesRepositories() throws Exception
+    {
+        final Set<OWLOntologyID> schemaOntologies1 =
+                Collections.<OWLOntologyID> singleton(new OWLOntologyID(IRI.create("urn:test:snapshot:schema:1"), IRI
+                        .create("urn:test:snapshot:schema:1:version:1")));
+        final Set<OWLOntologyID> schemaOntologies2 =
+                Collections.<OWLOntologyID> singleton(new OWLOntologyID(IRI.create("urn:test:snapshot:schema:2"), IRI
+                        .create("urn:test:snapshot:schema:2:version:1")));
+        
+        final Repository managementRepository = new SailRepository(new MemoryStore());
+        managementRepository.initialize();
+        final PoddRepositoryManager repositoryManager =
+                this.getNewPoddRepositoryManagerInstance(managementRepository, this.tempDir.newFolder("snapshot")
+                        .toPath());
+        String snapshotRepositoryId = null;
+        String newRepositoryId = null;
+        String repositoryManagerDirectory = null;
+        try
+        {
+            final RepositoryConnection managementConnection = repositoryManager.getManagementRepositoryConnection();
+            try
+            {
+                for(final OWLOntologyID nextSchema : Arrays.asList(schemaOntologies1.iterator().next(),
+                        schemaOntologies2.iterator().next()))
+                {
+                    final URI versionUri = nextSchema.getVersionIRI().toOpenRDFURI();
+                    managementConnection.add(nextSchema.getOntologyIRI().toOpenRDFURI(), RDF.TYPE, OWL.ONTOLOGY,
+                            versionUri);
+                    managementConnection.add(nextSchema.getOntologyIRI().toOpenRDFURI(), OWL.VERSIONIRI, versionUri,
+                            versionUri);
+                }
+            }
+            finally
+            {
+                managementConnection.close();
+            }
+            
+            repositoryManager.getPermanentRepositoryConnection(schemaOntologies1, true).close();
+            snapshotRepositoryId = this.getRepositoryIds(repositoryManager).iterator().next();
+            final RepositorySnapshot snapshot = repositoryManager.createSnapshot();
+            
+            repositoryManager.getPermanentRepositoryConnection(schemaOntologies2, true).close();
+            final Set<String> repositoryIds = this.getRepositoryIds(repositoryManager);
+            Assert.assertEquals(2, repositoryIds.size());
+            repositoryIds.remove(snapshotRepositoryId);
+            newRepositoryId = repositoryIds.iterator().next();
+            
+            final RepositoryConnection managementConnection2 = repositoryManager.getManagementRepositoryConnection();
+            try
+            {
+                repositoryManagerDirectory =
+                        Iterations.asList(managementConnection2.getStatements(null,
+                                PODD.PODD_REPOSITORY_MANAGER_LOCAL_DIRECTORY, null, false)).get(0).getObject()
+                                .stringValue();
+            }
+            finally
+            {
+                managementConnection2.close();
+            }
+            
+            repositoryManager.restoreSnapshot(snapshot);
+            
+            Assert.assertEquals(Collections.singleton(snapshotRepositoryId), this.getRepositoryIds(repositoryManager));
+            repositoryManager.getPermanentRepositoryConnection(schemaOntologies1).close();
+        }
+        finally
+        {
+            repositoryManager.shutDown();
+            managementRepository.shutDown();
+        }
+        
+        // The repository created after the snapshot is no longer known to its repository manager
+        final LocalRepositoryManager localRepositoryManager =
+                new LocalRepositoryManager(Paths.get(repositoryManagerDirectory).toFile());
+        localRepositoryManager.initialize();
+        try
+        {
+            Assert.assertTrue(localRepositoryManager.hasRepositoryConfig(snapshotRepositoryId));
+            Assert.assertFalse(localRepositoryManager.hasRepositoryConfig(newRepositoryId));
+        }
+        finally
+        {
+            localRepositoryManager.shutDown();
+        }
+    }
+    
+    private Set<String> getRepositoryIds(final PoddRepositoryManager repositoryManager) throws Exception
+    {
+        final Set<String> results = new HashSet<String>();
+        final RepositoryConnection managementConnection = repositoryManager.getManagementRepositoryConnection();
+        try
+        {
+            for(final Statement nextId : Iterations.asList(managementConnection.getStatements(null,
+                    PODD.PODD_REPOSITORY_ID_IN_MANAGER, null, false)))
+            {
+                results.add(nextId.getObject().stringValue());
+            }
+        }
+        finally
+        {
+            managementConnection.close();
+        }
+        return results;
+    }
+    
+    @Test
+    public void testGetPermanentRepositoryConnectionShards() throws Exception
+    {
+        final URI schemaUri = PODD.VF.createURI("urn:test:shard:schema");
+        final URI schemaVersionUri = PODD.VF.createURI("urn:test:shard:schema:version:1");
+        final Set<OWLOntologyID> schemaOntologies =
+                Collections.singleton(new OWLOntologyID(IRI.create(schemaUri), IRI.create(schemaVersionUri)));
+        final OWLOntologyID artifact1 = new OWLOntologyID(IRI.create("urn:test:shard:artifact:1"));
+        final OWLOntologyID artifact2 = new OWLOntologyID(IRI.create("urn:test:shard:artifact:2"));
+        final URI artifact1Uri = artifact1.getOntologyIRI().toOpenRDFURI();
+        final URI artifact2Uri = artifact2.getOntologyIRI().toOpenRDFURI();
+        
+        final Repository managementRepository = new SailRepository(new MemoryStore());
+        managementRepository.initialize();
+        System.setProperty(PoddWebConstants.PROPERTY_PERMANENT_SESAME_REPOSITORY_SHARDS, "2");
+        System.setProperty(PoddWebConstants.PROPERTY_PERMANENT_SESAME_REPOSITORY_SHARD_PLACEMENT, "size");
+        PoddRepositoryManager repositoryManager = null;
+        try
+        {
+            repositoryManager =
+                    this.getNewPoddRepositoryManagerInstance(managementRepository, this.tempDir.newFolder("shards")
+                            .toPath());
+            
+            final RepositoryConnection managementConnection = repositoryManager.getManagementRepositoryConnection();
+            try
+            {
+                managementConnection.add(schemaUri, RDF.TYPE, OWL.ONTOLOGY, schemaVersionUri);
+                managementConnection.add(schemaUri, OWL.VERSIONIRI, schemaVersionUri, schemaVersionUri);
+            }
+            finally
+            {
+                managementConnection.close();
+            }
+            
+            // Each artifact is placed in the shard with the fewest statements
+            for(final URI nextArtifactUri : new URI[] { artifact1Uri, artifact2Uri })
+            {
+                final RepositoryConnection permanentConnection =
+                        repositoryManager.getPermanentRepositoryConnection(schemaOntologies,
+                                new OWLOntologyID(IRI.create(nextArtifactUri)), true);
+                try
+                {
+                    Assert.assertTrue(permanentConnection.hasStatement(schemaUri, OWL.VERSIONIRI, schemaVersionUri,
+                            false, schemaVersionUri));
+                    Assert.assertFalse(permanentConnection.hasStatement(null, RDF.TYPE, OWL.ONTOLOGY, false,
+                            artifact1Uri));
+                    permanentConnection.begin();
+                    permanentConnection.add(nextArtifactUri, RDF.TYPE, OWL.ONTOLOGY, nextArtifactUri);
+                    permanentConnection.add(nextArtifactUri, RDFS.LABEL, PODD.VF.createLiteral("Sharded artifact"),
+                            nextArtifactUri);
+                    permanentConnection.commit();
+                }
+                finally
+                {
+                    permanentConnection.close();
+                }
+            }
+            
+            // Artifacts are routed to the shard they were placed in
+            final RepositoryConnection artifact2Connection =
+                    repositoryManager.getPermanentRepositoryConnection(schemaOntologies, artifact2);
+            try
+            {
+                Assert.assertTrue(artifact2Connection.hasStatement(artifact2Uri, RDF.TYPE, OWL.ONTOLOGY, false));
+                Assert.assertFalse(artifact2Connection.hasStatement(artifact1Uri, RDF.TYPE, OWL.ONTOLOGY, false));
+            }
+            finally
+            {
+                artifact2Connection.close();
+            }
+            
+            // Artifacts that were not placed are found in the first shard
+            final RepositoryConnection unplacedConnection =
+                    repositoryManager.getPermanentRepositoryConnection(schemaOntologies, new OWLOntologyID(IRI
+                            .create("urn:test:shard:artifact:3")));
+            try
+            {
+                Assert.assertTrue(unplacedConnection.hasStatement(artifact1Uri, RDF.TYPE, OWL.ONTOLOGY, false));
+            }
+            finally
+            {
+                unplacedConnection.close();
+            }
+            
+            final List<RepositoryConnection> allConnections =
+                    repositoryManager.getPermanentRepositoryConnections(schemaOntologies);
+            try
+            {
+                Assert.assertEquals(2, allConnections.size());
+                Assert.assertTrue(allConnections.get(0).hasStatement(artifact1Uri, RDF.TYPE, OWL.ONTOLOGY, false));
+                Assert.assertTrue(allConnections.get(1).hasStatement(artifact2Uri, RDF.TYPE, OWL.ONTOLOGY, false));
+            }
+            finally
+            {
+                for(final RepositoryConnection nextConnection : allConnections)
+                {
+                    nextConnection.close();
+                }
+            }
+            
+            // The federated repository covers the management repository and every shard
+            final Repository federatedRepository = repositoryManager.getReadOnlyFederatedRepository(schemaOntologies);
+            Assert.assertSame(federatedRepository, repositoryManager.getReadOnlyFederatedRepository(schemaOntologies));
+            final RepositoryConnection federatedConnection = federatedRepository.getConnection();
+            try
+            {
+                Assert.assertTrue(federatedConnection.hasStatement(artifact1Uri, RDF.TYPE, OWL.ONTOLOGY, false));
+                Assert.assertTrue(federatedConnection.hasStatement(artifact2Uri, RDF.TYPE, OWL.ONTOLOGY, false));
+                Assert.assertTrue(federatedConnection.hasStatement(null, PODD.PODD_REPOSITORY_HAS_SHARD, null, false));
+                
+                final String query =
+                        "SELECT ?artifact WHERE { ?artifact a <" + OWL.ONTOLOGY + "> . ?artifact <" + RDFS.LABEL
+                                + "> ?label . FILTER(STRSTARTS(STR(?artifact), \"urn:test:shard:artifact:\")) }";
+                Assert.assertEquals(2,
+                        Iterations.asList(federatedConnection.prepareTupleQuery(QueryLanguage.SPARQL, query).evaluate())
+                                .size());
+            }
+            finally
+            {
+                federatedConnection.close();
+            }
+        }
+        finally
+        {
+            System.clearProperty(PoddWebConstants.PROPERTY_PERMANENT_SESAME_REPOSITORY_SHARDS);
+            System.clearProperty(PoddWebConstants.PROPERTY_PERMANENT_SESAME_REPOSITORY_SHARD_PLACEMENT);
+            if(repositoryManager != null)
+            {
+                repositoryManager.shutDown();
+            }
+            managementRepository.shutDown();
+        }
+    }
 }
@@ -20,10 +20,14 @@ import java.io.File;
 import java.util.Collection;
 
 import org.junit.Assert;
+import org.junit.Test;
 import org.openrdf.model.Model;
 import org.openrdf.model.Resource;
+import org.openrdf.model.impl.LinkedHashModel;
 import org.openrdf.model.util.GraphUtil;
+import org.openrdf.model.util.ModelUtil;
 import org.openrdf.repository.Repository;
+import org.openrdf.repository.RepositoryConnection;
 import org.openrdf.repository.config.RepositoryConfigSchema;
 import org.openrdf.repository.config.RepositoryImplConfig;
 import org.openrdf.repository.config.RepositoryImplConfigBase;
@@ -31,6 +35,7 @@ import org.openrdf.repository.manager.LocalRepositoryManager;
 import org.openrdf.repository.sail.SailRepository;
 import org.openrdf.rio.RDFFormat;
 import org.openrdf.rio.Rio;
+import org.openrdf.rio.helpers.StatementCollector;
 import org.openrdf.sail.memory.MemoryStore;
 import org.semanticweb.owlapi.model.OWLOntologyManagerFactory;
 import org.semanticweb.owlapi.model.OWLOntologyManagerFactoryRegistry;
@@ -47,6 +52,7 @@ import com.github.podd.impl.PoddOWLManagerImpl;
 import com.github.podd.impl.PoddRepositoryManagerImpl;
 import com.github.podd.impl.PoddSchemaManagerImpl;
 import com.github.podd.impl.PoddSesameManagerImpl;
+import com.github.podd.test.TestUtils;
 import com.github.podd.utils.PoddWebConstants;
 
 /**
@@ -78,8 +84,13 @@ public class PoddSchemaManagerImplTest extends AbstractPoddSchemaManagerTest
     @Override
     protected PoddRepositoryManager getNewPoddRepositoryManagerInstance() throws Exception
     {
-        final File repositoryManagerDirectory = this.tempDir.newFolder("repositorymanager");
-        final File managementRepositoryDirectory = this.tempDir.newFolder("managementrepository");
+        return this.getNewPoddRepositoryManagerInstance("");
+    }
+    
+    private PoddRepositoryManager getNewPoddRepositoryManagerInstance(final String prefix) throws Exception
+    {
+        final File repositoryManagerDirectory = this.tempDir.newFolder(prefix + "repositorymanager");
+        final File managementRepositoryDirectory = this.tempDir.newFolder(prefix + "managementrepository");
         
         final Repository managementRepository = new SailRepository(new MemoryStore(managementRepositoryDirectory));
         managementRepository.initialize();
@@ -113,4 +124,52 @@ public class PoddSchemaManagerImplTest extends AbstractPoddSchemaManagerTest
     {
         return OWLReasonerFactoryRegistry.getInstance().getReasonerFactory("Pellet");
     }
+    
+    /**
+     * Loads the default schema ontologies using a new repository manager and the given schema
+     * manager, and returns the resulting schema management graph.
+     */
+    private Model loadDefaultSchemaManagementGraph(final PoddSchemaManager schemaManager, final String prefix)
+        throws Exception
+    {
+        final PoddRepositoryManager repositoryManager = this.getNewPoddRepositoryManagerInstance(prefix);
+        try
+        {
+            schemaManager.setRepositoryManager(repositoryManager);
+            schemaManager.setSesameManager(this.getNewPoddSesameManagerInstance());
+            schemaManager.setOwlManager(this.getNewPoddOwlManagerInstance(this.getNewOWLOntologyManagerFactory(),
+                    this.getNewReasonerFactory()));
+            
+            TestUtils.loadDefaultSchemaOntologies(schemaManager);
+            
+            final Model result = new LinkedHashModel();
+            final RepositoryConnection managementConnection = repositoryManager.getManagementRepositoryConnection();
+            try
+            {
+                managementConnection.export(new StatementCollector(result),
+                        repositoryManager.getSchemaManagementGraph());
+            }
+            finally
+            {
+                managementConnection.close();
+            }
+            return result;
+        }
+        finally
+        {
+            repositoryManager.shutDown();
+        }
+    }
+    
+    @Test
+    public void testUploadSchemaOntologiesParallelMatchesSequential() throws Exception
+    {
+        final Model sequentialGraph =
+                this.loadDefaultSchemaManagementGraph(new PoddSchemaManagerImpl(1), "sequential");
+        final Model parallelGraph = this.loadDefaultSchemaManagementGraph(new PoddSchemaManagerImpl(4), "parallel");
+        
+        Assert.assertFalse("Schema management graph was empty", sequentialGraph.isEmpty());
+        Assert.assertTrue("Parallel schema upload did not produce the same schema management graph",
+                ModelUtil.equals(sequentialGraph, parallelGraph));
+    }
 }
@@ -101,4 +101,54 @@ public class DeleteObjectResourceImplTest extends AbstractResourceImplTest
             this.releaseClient(deleteObjectClientResource);
         }
     }
+    
+    @Test
+    public void testDeleteObjectsBasicRdf() throws Exception
+    {
+        // prepare: add an artifact
+        final InferredOWLOntologyID artifactID =
+                this.loadTestArtifact(TestConstants.TEST_ARTIFACT_20130206, MediaType.APPLICATION_RDF_TURTLE);
+        final String[] objectsToDelete =
+                { "http://purl.org/podd/basic-2-20130206/artifact:1#publication45",
+                        "http://purl.org/podd/basic-2-20130206/artifact:1#My_Treatment1" };
+        
+        final ClientResource deleteObjectClientResource =
+                new ClientResource(this.getUrl(PoddWebConstants.PATH_OBJECT_DELETE));
+        
+        try
+        {
+            deleteObjectClientResource.addQueryParameter(PoddWebConstants.KEY_ARTIFACT_IDENTIFIER, artifactID
+                    .getOntologyIRI().toString());
+            deleteObjectClientResource.addQueryParameter(PoddWebConstants.KEY_ARTIFACT_VERSION_IDENTIFIER, artifactID
+                    .getVersionIRI().toString());
+            for(final String objectToDelete : objectsToDelete)
+            {
+                deleteObjectClientResource.addQueryParameter(PoddWebConstants.KEY_OBJECT_IDENTIFIER, objectToDelete);
+            }
+            deleteObjectClientResource.addQueryParameter(PoddWebConstants.KEY_CASCADE, Boolean.toString(false));
+            
+            final Representation results =
+                    this.doTestAuthenticatedRequest(deleteObjectClientResource, Method.DELETE, null,
+                            MediaType.APPLICATION_RDF_XML, Status.SUCCESS_OK, AbstractResourceImplTest.WITH_ADMIN);
+            
+            // verify: both objects were deleted in a single new version
+            final String updatedArtifactDetails = this.getText(results);
+            Assert.assertTrue("Artifact version has not been updated properly",
+                    updatedArtifactDetails.contains("artifact:1:version:2"));
+            
+            final Model retrievedArtifact = this.getArtifact(artifactID.getOntologyIRI().toString(), 77);
+            for(final String objectToDelete : objectsToDelete)
+            {
+                final URI objectToDeleteUri = PODD.VF.createURI(objectToDelete);
+                Assert.assertTrue("Object not deleted", retrievedArtifact.filter(objectToDeleteUri, null, null)
+                        .isEmpty());
+                Assert.assertTrue("Object not deleted", retrievedArtifact.filter(null, null, objectToDeleteUri)
+                        .isEmpty());
+            }
+        }
+        finally
+        {
+            this.releaseClient(deleteObjectClientResource);
+        }
+    }
 }
@@ -23,9 +23,14 @@ import org.junit.Ignore;
 import org.junit.Test;
 import org.openrdf.model.Model;
 import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.Rio;
+import org.restlet.data.Encoding;
 import org.restlet.data.MediaType;
 import org.restlet.data.Method;
+import org.restlet.data.Preference;
 import org.restlet.data.Status;
+import org.restlet.data.Tag;
+import org.restlet.engine.application.DecodeRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.resource.ClientResource;
 import org.restlet.resource.ResourceException;
@@ -106,6 +111,39 @@ public class GetArtifactResourceImplTest extends AbstractResourceImplTest
         }
     }
     
+    /**
+     * Test that a conditional request for an unmanaged version of a managed artifact gives a 404
+     * error instead of a 304 (Not Modified).
+     */
+    @Test
+    public void testErrorGetArtifactUnmanagedVersionConditional() throws Exception
+    {
+        final String artifactUri = this.loadTestArtifact(TestConstants.TEST_ARTIFACT_BASIC_1_INTERNAL_OBJECT);
+        
+        final ClientResource getArtifactClientResource =
+                new ClientResource(this.getUrl(PoddWebConstants.PATH_ARTIFACT_GET_BASE));
+        
+        try
+        {
+            getArtifactClientResource.addQueryParameter(PoddWebConstants.KEY_ARTIFACT_IDENTIFIER, artifactUri);
+            getArtifactClientResource.addQueryParameter(PoddWebConstants.KEY_ARTIFACT_VERSION_IDENTIFIER,
+                    artifactUri + ":version:99");
+            getArtifactClientResource.getConditions().getNoneMatch().add(Tag.ALL);
+            
+            this.doTestAuthenticatedRequest(getArtifactClientResource, Method.GET, null, MediaType.APPLICATION_RDF_XML,
+                    Status.CLIENT_ERROR_NOT_FOUND, AbstractResourceImplTest.WITH_ADMIN);
+            Assert.fail("Should have thrown a ResourceException with Status Code 404");
+        }
+        catch(final ResourceException e)
+        {
+            Assert.assertEquals("Not the expected HTTP status code", Status.CLIENT_ERROR_NOT_FOUND, e.getStatus());
+        }
+        finally
+        {
+            this.releaseClient(getArtifactClientResource);
+        }
+    }
+    
     /**
      * Test authenticated access attempts to an unmanaged artifact gives a 404 error.
      */
@@ -369,6 +407,140 @@ public class GetArtifactResourceImplTest extends AbstractResourceImplTest
         }
     }
     
+    /**
+     * Test authenticated access to get Artifact in the binary RDF format
+     */
+    @Test
+    public void testGetArtifactBasicBinary() throws Exception
+    {
+        // prepare: add an artifact
+        final String artifactUri = this.loadTestArtifact(TestConstants.TEST_ARTIFACT_BASIC_1_INTERNAL_OBJECT);
+        
+        final ClientResource getArtifactClientResource =
+                new ClientResource(this.getUrl(PoddWebConstants.PATH_ARTIFACT_GET_BASE));
+        
+        try
+        {
+            getArtifactClientResource.addQueryParameter(PoddWebConstants.KEY_ARTIFACT_IDENTIFIER, artifactUri);
+            
+            final Representation results =
+                    this.doTestAuthenticatedRequest(getArtifactClientResource, Method.GET, null,
+                            MediaType.valueOf(RDFFormat.BINARY.getDefaultMIMEType()), Status.SUCCESS_OK,
+                            AbstractResourceImplTest.WITH_ADMIN);
+            
+            Assert.assertEquals(RDFFormat.BINARY.getDefaultMIMEType(), results.getMediaType().getName());
+            
+            final Model model = Rio.parse(results.getStream(), "", RDFFormat.BINARY);
+            
+            Assert.assertEquals(29, model.size());
+            Assert.assertEquals(6, model.subjects().size());
+            Assert.assertEquals(14, model.predicates().size());
+            Assert.assertEquals(24, model.objects().size());
+        }
+        finally
+        {
+            this.releaseClient(getArtifactClientResource);
+        }
+    }
+    
+    /**
+     * Test that a second request for an unchanged artifact with the ETag from the first response
+     * returns 304 (Not Modified)
+     */
+    @Test
+    public void testGetArtifactConditional() throws Exception
+    {
+        // prepare: add an artifact
+        final String artifactUri = this.loadTestArtifact(TestConstants.TEST_ARTIFACT_BASIC_1_INTERNAL_OBJECT);
+        
+        final ClientResource firstClientResource =
+                new ClientResource(this.getUrl(PoddWebConstants.PATH_ARTIFACT_GET_BASE));
+        Tag tag = null;
+        try
+        {
+            firstClientResource.addQueryParameter(PoddWebConstants.KEY_ARTIFACT_IDENTIFIER, artifactUri);
+            
+            final Representation results =
+                    this.doTestAuthenticatedRequest(firstClientResource, Method.GET, null,
+                            MediaType.APPLICATION_RDF_TURTLE, Status.SUCCESS_OK, AbstractResourceImplTest.WITH_ADMIN);
+            
+            tag = results.getTag();
+            Assert.assertNotNull("Response did not have an ETag", tag);
+            Assert.assertFalse("ETag should be strong", tag.isWeak());
+            this.assertRdf(results, RDFFormat.TURTLE, 29);
+        }
+        finally
+        {
+            this.releaseClient(firstClientResource);
+        }
+        
+        final ClientResource secondClientResource =
+                new ClientResource(this.getUrl(PoddWebConstants.PATH_ARTIFACT_GET_BASE));
+        try
+        {
+            secondClientResource.addQueryParameter(PoddWebConstants.KEY_ARTIFACT_IDENTIFIER, artifactUri);
+            secondClientResource.getConditions().getNoneMatch().add(tag);
+            
+            this.doTestAuthenticatedRequest(secondClientResource, Method.GET, null, MediaType.APPLICATION_RDF_TURTLE,
+                    Status.REDIRECTION_NOT_MODIFIED, AbstractResourceImplTest.WITH_ADMIN);
+        }
+        finally
+        {
+            this.releaseClient(secondClientResource);
+        }
+        
+        final ClientResource otherFormatClientResource =
+                new ClientResource(this.getUrl(PoddWebConstants.PATH_ARTIFACT_GET_BASE));
+        try
+        {
+            otherFormatClientResource.addQueryParameter(PoddWebConstants.KEY_ARTIFACT_IDENTIFIER, artifactUri);
+            otherFormatClientResource.getConditions().getNoneMatch().add(tag);
+            
+            final Representation results =
+                    this.doTestAuthenticatedRequest(otherFormatClientResource, Method.GET, null,
+                            MediaType.APPLICATION_RDF_XML, Status.SUCCESS_OK, AbstractResourceImplTest.WITH_ADMIN);
+            
+            Assert.assertNotEquals("Different formats should have different ETags", tag, results.getTag());
+            this.assertRdf(results, RDFFormat.RDFXML, 29);
+        }
+        finally
+        {
+            this.releaseClient(otherFormatClientResource);
+        }
+    }
+    
+    /**
+     * Test that artifacts are compressed when the client accepts gzip encoding
+     */
+    @Test
+    public void testGetArtifactCompressed() throws Exception
+    {
+        // prepare: add an artifact
+        final String artifactUri = this.loadTestArtifact(TestConstants.TEST_ARTIFACT_BASIC_1_INTERNAL_OBJECT);
+        
+        final ClientResource getArtifactClientResource =
+                new ClientResource(this.getUrl(PoddWebConstants.PATH_ARTIFACT_GET_BASE));
+        
+        try
+        {
+            getArtifactClientResource.addQueryParameter(PoddWebConstants.KEY_ARTIFACT_IDENTIFIER, artifactUri);
+            getArtifactClientResource.getClientInfo().getAcceptedEncodings()
+                    .add(new Preference<Encoding>(Encoding.GZIP));
+            
+            final Representation results =
+                    this.doTestAuthenticatedRequest(getArtifactClientResource, Method.GET, null,
+                            MediaType.APPLICATION_RDF_XML, Status.SUCCESS_OK, AbstractResourceImplTest.WITH_ADMIN);
+            
+            Assert.assertTrue("Response was not compressed", results.getEncodings().contains(Encoding.GZIP));
+            
+            this.assertRdf(new DecodeRepresentation(results), RDFFormat.RDFXML, 29);
+        }
+        finally
+        {
+            this.releaseClient(getArtifactClientResource);
+        }
+    }
+    
     /**
      * Test authenticated access to get Artifact in RDF/Turtle
      */
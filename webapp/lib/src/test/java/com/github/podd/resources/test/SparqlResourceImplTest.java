@@ -19,7 +19,9 @@ package com.github.podd.resources.test;
 import org.junit.Assert;
 import org.junit.Test;
 import org.openrdf.model.Model;
+import org.openrdf.model.vocabulary.OWL;
 import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.model.vocabulary.RDFS;
 import org.openrdf.rio.RDFFormat;
 import org.restlet.data.MediaType;
 import org.restlet.data.Method;
@@ -320,4 +322,48 @@ public class SparqlResourceImplTest extends AbstractResourceImplTest
         }
     }
     
+    /**
+     * Tests that a query over more than one artifact can join statements from different artifacts.
+     */
+    @Test
+    public void testSparqlAcrossArtifacts() throws Exception
+    {
+        // prepare: add two artifacts
+        final InferredOWLOntologyID testArtifact1 =
+                this.loadTestArtifact(TestConstants.TEST_ARTIFACT_20130206, MediaType.APPLICATION_RDF_TURTLE);
+        final InferredOWLOntologyID testArtifact2 =
+                this.loadTestArtifact(TestConstants.TEST_ARTIFACT_BASIC_1_INTERNAL_OBJECT,
+                        MediaType.APPLICATION_RDF_XML);
+        final String artifact1 = "<" + testArtifact1.getOntologyIRI().toString() + ">";
+        final String artifact2 = "<" + testArtifact2.getOntologyIRI().toString() + ">";
+        
+        final ClientResource searchClientResource = new ClientResource(this.getUrl(PoddWebConstants.PATH_SPARQL));
+        
+        try
+        {
+            // Each pattern only matches statements in one of the artifacts
+            searchClientResource.addQueryParameter(PoddWebConstants.KEY_SPARQLQUERY, "CONSTRUCT { " + artifact1
+                    + " <" + RDFS.SEEALSO + "> " + artifact2 + " } WHERE { " + artifact1 + " a <" + OWL.ONTOLOGY
+                    + "> . " + artifact2 + " a <" + OWL.ONTOLOGY + "> . }");
+            searchClientResource.addQueryParameter(PoddWebConstants.KEY_ARTIFACT_IDENTIFIER, testArtifact1
+                    .getOntologyIRI().toString());
+            searchClientResource.addQueryParameter(PoddWebConstants.KEY_ARTIFACT_IDENTIFIER, testArtifact2
+                    .getOntologyIRI().toString());
+            
+            // invoke service
+            final Representation results =
+                    this.doTestAuthenticatedRequest(searchClientResource, Method.GET, null,
+                            MediaType.APPLICATION_RDF_XML, Status.SUCCESS_OK, AbstractResourceImplTest.WITH_ADMIN);
+            
+            // verify: response
+            final Model resultModel = this.assertRdf(results, RDFFormat.RDFXML, 1);
+            Assert.assertTrue(resultModel.contains(testArtifact1.getOntologyIRI().toOpenRDFURI(), RDFS.SEEALSO,
+                    testArtifact2.getOntologyIRI().toOpenRDFURI()));
+        }
+        finally
+        {
+            this.releaseClient(searchClientResource);
+        }
+    }
+    
 }
@@ -239,6 +239,91 @@ public class UploadArtifactResourceImplTest extends AbstractResourceImplTest
         }
     }
     
+    /**
+     * Test upload of a file that is larger than the configured maximum upload size leads to a
+     * REQUEST_ENTITY_TOO_LARGE error
+     */
+    @Test
+    public void testErrorUploadTooLarge() throws Exception
+    {
+        final ClientResource uploadArtifactClientResource =
+                new ClientResource(this.getUrl(PoddWebConstants.PATH_ARTIFACT_UPLOAD));
+        
+        System.setProperty(PoddWebConstants.PROPERTY_UPLOAD_MAX_SIZE, "100");
+        try
+        {
+            final Representation input =
+                    this.buildRepresentationFromResource("/test/artifacts/basicProject-1-internal-object.rdf",
+                            MediaType.APPLICATION_RDF_XML);
+            
+            final FormDataSet form = new FormDataSet();
+            form.setMultipart(true);
+            form.getEntries().add(new FormData("file", input));
+            
+            this.doTestAuthenticatedRequest(uploadArtifactClientResource, Method.POST, form, MediaType.TEXT_PLAIN,
+                    Status.CLIENT_ERROR_REQUEST_ENTITY_TOO_LARGE, AbstractResourceImplTest.WITH_ADMIN);
+            Assert.fail("Should have thrown a ResourceException with Status Code 413");
+        }
+        catch(final ResourceException e)
+        {
+            Assert.assertEquals("Not the expected HTTP status code", Status.CLIENT_ERROR_REQUEST_ENTITY_TOO_LARGE,
+                    e.getStatus());
+        }
+        finally
+        {
+            System.clearProperty(PoddWebConstants.PROPERTY_UPLOAD_MAX_SIZE);
+            this.releaseClient(uploadArtifactClientResource);
+        }
+    }
+    
+    /**
+     * Test that an upload whose file part is followed by a part that takes it over the maximum
+     * upload size leads to a REQUEST_ENTITY_TOO_LARGE error without loading the artifact
+     */
+    @Test
+    public void testErrorUploadTooLargeTrailingPart() throws Exception
+    {
+        final ClientResource uploadArtifactClientResource =
+                new ClientResource(this.getUrl(PoddWebConstants.PATH_ARTIFACT_UPLOAD));
+        
+        final int artifactCount = this.getPoddApplication().getPoddArtifactManager().listUnpublishedArtifacts().size();
+        
+        System.setProperty(PoddWebConstants.PROPERTY_UPLOAD_MAX_SIZE, "100000");
+        try
+        {
+            final Representation input =
+                    this.buildRepresentationFromResource("/test/artifacts/basicProject-1-internal-object.rdf",
+                            MediaType.APPLICATION_RDF_XML);
+            final StringBuilder trailing = new StringBuilder(200000);
+            while(trailing.length() < 200000)
+            {
+                trailing.append("Trailing part larger than the maximum upload size. ");
+            }
+            
+            final FormDataSet form = new FormDataSet();
+            form.setMultipart(true);
+            form.getEntries().add(new FormData("file", input));
+            form.getEntries().add(new FormData("trailing", trailing.toString()));
+            
+            this.doTestAuthenticatedRequest(uploadArtifactClientResource, Method.POST, form, MediaType.TEXT_PLAIN,
+                    Status.CLIENT_ERROR_REQUEST_ENTITY_TOO_LARGE, AbstractResourceImplTest.WITH_ADMIN);
+            Assert.fail("Should have thrown a ResourceException with Status Code 413");
+        }
+        catch(final ResourceException e)
+        {
+            Assert.assertEquals("Not the expected HTTP status code", Status.CLIENT_ERROR_REQUEST_ENTITY_TOO_LARGE,
+                    e.getStatus());
+        }
+        finally
+        {
+            System.clearProperty(PoddWebConstants.PROPERTY_UPLOAD_MAX_SIZE);
+            this.releaseClient(uploadArtifactClientResource);
+        }
+        
+        Assert.assertEquals("An artifact was loaded from a rejected upload", artifactCount, this.getPoddApplication()
+                .getPoddArtifactManager().listUnpublishedArtifacts().size());
+    }
+    
     /**
      * Test authenticated access to the upload Artifact page in HTML
      */
@@ -478,6 +563,45 @@ public class UploadArtifactResourceImplTest extends AbstractResourceImplTest
         }
     }
     
+    /**
+     * Test successful upload of a new artifact file that is followed by another form field, which
+     * is read after the file part has been parsed.
+     */
+    @Test
+    public void testUploadArtifactBasicRdfWithTrailingFormData() throws Exception
+    {
+        final ClientResource uploadArtifactClientResource =
+                new ClientResource(this.getUrl(PoddWebConstants.PATH_ARTIFACT_UPLOAD));
+        
+        final int artifactCount = this.getPoddApplication().getPoddArtifactManager().listUnpublishedArtifacts().size();
+        
+        try
+        {
+            final Representation input =
+                    this.buildRepresentationFromResource("/test/artifacts/basicProject-1-internal-object.rdf",
+                            MediaType.APPLICATION_RDF_XML);
+            
+            final FormDataSet form = new FormDataSet();
+            form.setMultipart(true);
+            form.getEntries().add(new FormData("file", input));
+            form.getEntries().add(new FormData("comment", "A form field after the file"));
+            
+            final Representation results =
+                    this.doTestAuthenticatedRequest(uploadArtifactClientResource, Method.POST, form,
+                            MediaType.TEXT_PLAIN, Status.SUCCESS_OK, AbstractResourceImplTest.WITH_ADMIN);
+            
+            final String body = this.getText(results);
+            Assert.assertTrue(body.contains("http://"));
+        }
+        finally
+        {
+            this.releaseClient(uploadArtifactClientResource);
+        }
+        
+        Assert.assertEquals(artifactCount + 1, this.getPoddApplication().getPoddArtifactManager()
+                .listUnpublishedArtifacts().size());
+    }
+    
     /**
      * Test successful upload of a new artifact file while authenticated with the admin role.
      * Expects a plain text response.
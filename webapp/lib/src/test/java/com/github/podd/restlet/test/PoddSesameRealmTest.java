@@ -40,6 +40,7 @@ import org.restlet.security.Role;
 import com.github.ansell.restletutils.SesameRealmConstants;
 import com.github.podd.exception.PoddRuntimeException;
 import com.github.podd.restlet.PoddSesameRealm;
+import com.github.podd.restlet.PoddUserDirectory;
 import com.github.podd.utils.PODD;
 import com.github.podd.utils.PoddRoles;
 import com.github.podd.utils.PoddUser;
@@ -652,4 +653,78 @@ public class PoddSesameRealmTest
         Assert.assertEquals("Status was not overwritten", PoddUserStatus.INACTIVE, userFromRealm.getUserStatus());
     }
     
+    /**
+     * Test that the user directory reflects changes made through the realm, and that changes made
+     * directly to the repository are only seen after it is invalidated.
+     */
+    @Test
+    public void testUserDirectory() throws Exception
+    {
+        final PoddUser user1 = this.addTestUser("john@example.com");
+        this.addTestUser("bob@hope.com");
+        
+        final PoddUserDirectory directory = this.testRealm.getUserDirectory();
+        Assert.assertEquals(2, directory.size());
+        Assert.assertSame("Directory was not reused", directory, this.testRealm.getUserDirectory());
+        Assert.assertEquals("john@example.com", directory.getUsername(directory.getUserUri("john@example.com")));
+        
+        // Changes through the realm are visible immediately
+        this.testRealm.map(user1, PoddRoles.ADMIN.getRole());
+        Assert.assertTrue(this.testRealm.findRoles(user1).contains(PoddRoles.ADMIN.getRole()));
+        this.addTestUser("charles@hope.com");
+        Assert.assertEquals(3, this.testRealm.getUsers().size());
+        Assert.assertEquals(3, this.testRealm.getUserByStatus(PoddUserStatus.ACTIVE, false, -1, 0).size());
+        
+        // Direct changes to the repository are only visible after invalidating the directory
+        RepositoryConnection conn = null;
+        try
+        {
+            conn = this.testRepository.getConnection();
+            conn.remove(this.testRealm.getUserUri("bob@hope.com"), null, null, PoddSesameRealmTest.userMgtContext);
+        }
+        finally
+        {
+            if(conn != null)
+            {
+                conn.close();
+            }
+        }
+        Assert.assertNotNull(this.testRealm.findUser("bob@hope.com"));
+        
+        this.testRealm.invalidateUserDirectory();
+        Assert.assertNull(this.testRealm.findUser("bob@hope.com"));
+        Assert.assertEquals(2, this.testRealm.getUsers().size());
+    }
+    
+    /**
+     * Test that changes made directly to the repository are seen without invalidating the user
+     * directory once the user directory timeout has passed.
+     */
+    @Test
+    public void testUserDirectoryTimeout() throws Exception
+    {
+        this.testRealm.setUserDirectoryTimeout(100);
+        this.addTestUser("john@example.com");
+        this.addTestUser("bob@hope.com");
+        Assert.assertNotNull(this.testRealm.findUser("bob@hope.com"));
+        
+        RepositoryConnection conn = null;
+        try
+        {
+            conn = this.testRepository.getConnection();
+            conn.remove(this.testRealm.getUserUri("bob@hope.com"), null, null, PoddSesameRealmTest.userMgtContext);
+        }
+        finally
+        {
+            if(conn != null)
+            {
+                conn.close();
+            }
+        }
+        
+        Thread.sleep(200);
+        Assert.assertNull(this.testRealm.findUser("bob@hope.com"));
+        Assert.assertEquals(1, this.testRealm.getUsers().size());
+    }
+    
 }
@@ -0,0 +1,302 @@
+/**
+ * PODD is an OWL ontology database used for scientific project management
+ *
+ * Copyright (C) 2009-2013 The University Of Queensland
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.podd.utils.test;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openrdf.model.URI;
+import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.model.vocabulary.RDFS;
+import org.openrdf.query.QueryLanguage;
+import org.openrdf.repository.Repository;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.sail.SailRepository;
+import org.openrdf.sail.memory.MemoryStore;
+
+import com.github.podd.utils.PODD;
+import com.github.podd.utils.ReplicatedRepository;
+
+/**
+ * Tests that {@link ReplicatedRepository} writes changes through to the remote repository and
+ * reloads its local copy when the remote repository is changed by another client.
+ *
+ * @author Peter Ansell p_ansell@yahoo.com
+ */
+public class ReplicatedRepositoryTest
+{
+    private static final URI TEST_SUBJECT = PODD.VF.createURI("urn:test:replica:subject");
+    
+    private static final URI TEST_CONTEXT = PODD.VF.createURI("urn:test:replica:context");
+    
+    private Repository remote;
+    
+    private ReplicatedRepository testRepository;
+    
+    @Before
+    public void setUp() throws Exception
+    {
+        this.remote = new SailRepository(new MemoryStore());
+        this.remote.initialize();
+        
+        final RepositoryConnection remoteConnection = this.remote.getConnection();
+        try
+        {
+            remoteConnection.begin();
+            remoteConnection.add(ReplicatedRepositoryTest.TEST_SUBJECT, RDF.TYPE, RDFS.RESOURCE,
+                    ReplicatedRepositoryTest.TEST_CONTEXT);
+            remoteConnection.setNamespace("test", "urn:test:replica:");
+            remoteConnection.commit();
+        }
+        finally
+        {
+            remoteConnection.close();
+        }
+        
+        this.testRepository = new ReplicatedRepository(this.remote, 0);
+        this.testRepository.initialize();
+    }
+    
+    @After
+    public void tearDown() throws Exception
+    {
+        if(this.testRepository != null)
+        {
+            this.testRepository.shutDown();
+        }
+    }
+    
+    @Test
+    public final void testInitialLoad() throws Exception
+    {
+        final RepositoryConnection connection = this.testRepository.getConnection();
+        try
+        {
+            Assert.assertTrue(connection.hasStatement(ReplicatedRepositoryTest.TEST_SUBJECT, RDF.TYPE, RDFS.RESOURCE,
+                    false, ReplicatedRepositoryTest.TEST_CONTEXT));
+            Assert.assertEquals("urn:test:replica:", connection.getNamespace("test"));
+        }
+        finally
+        {
+            connection.close();
+        }
+    }
+    
+    @Test
+    public final void testWriteThrough() throws Exception
+    {
+        final RepositoryConnection connection = this.testRepository.getConnection();
+        try
+        {
+            connection.begin();
+            connection.remove(ReplicatedRepositoryTest.TEST_SUBJECT, RDF.TYPE, RDFS.RESOURCE,
+                    ReplicatedRepositoryTest.TEST_CONTEXT);
+            connection.add(ReplicatedRepositoryTest.TEST_SUBJECT, RDFS.LABEL, PODD.VF.createLiteral("Replicated"),
+                    ReplicatedRepositoryTest.TEST_CONTEXT);
+            connection.commit();
+            
+            Assert.assertFalse(connection.hasStatement(ReplicatedRepositoryTest.TEST_SUBJECT, RDF.TYPE, null, false,
+                    ReplicatedRepositoryTest.TEST_CONTEXT));
+            Assert.assertTrue(connection.hasStatement(ReplicatedRepositoryTest.TEST_SUBJECT, RDFS.LABEL, null, false,
+                    ReplicatedRepositoryTest.TEST_CONTEXT));
+        }
+        finally
+        {
+            connection.close();
+        }
+        
+        final RepositoryConnection remoteConnection = this.remote.getConnection();
+        try
+        {
+            Assert.assertFalse(remoteConnection.hasStatement(ReplicatedRepositoryTest.TEST_SUBJECT, RDF.TYPE, null,
+                    false, ReplicatedRepositoryTest.TEST_CONTEXT));
+            Assert.assertTrue(remoteConnection.hasStatement(ReplicatedRepositoryTest.TEST_SUBJECT, RDFS.LABEL, null,
+                    false, ReplicatedRepositoryTest.TEST_CONTEXT));
+            Assert.assertTrue(remoteConnection.hasStatement(ReplicatedRepository.CHANGE_CONTEXT,
+                    ReplicatedRepository.CHANGE_TOKEN, null, false, ReplicatedRepository.CHANGE_CONTEXT));
+        }
+        finally
+        {
+            remoteConnection.close();
+        }
+    }
+    
+    @Test
+    public final void testRollback() throws Exception
+    {
+        final RepositoryConnection connection = this.testRepository.getConnection();
+        try
+        {
+            connection.begin();
+            connection.add(ReplicatedRepositoryTest.TEST_SUBJECT, RDFS.LABEL, PODD.VF.createLiteral("Rolled back"),
+                    ReplicatedRepositoryTest.TEST_CONTEXT);
+            connection.rollback();
+            
+            Assert.assertFalse(connection.hasStatement(ReplicatedRepositoryTest.TEST_SUBJECT, RDFS.LABEL, null, false));
+        }
+        finally
+        {
+            connection.close();
+        }
+        
+        final RepositoryConnection remoteConnection = this.remote.getConnection();
+        try
+        {
+            Assert.assertFalse(remoteConnection.hasStatement(ReplicatedRepositoryTest.TEST_SUBJECT, RDFS.LABEL, null,
+                    false));
+        }
+        finally
+        {
+            remoteConnection.close();
+        }
+    }
+    
+    @Test
+    public final void testReloadAfterExternalChange() throws Exception
+    {
+        final URI otherSubject = PODD.VF.createURI("urn:test:replica:other");
+        
+        final RepositoryConnection remoteConnection = this.remote.getConnection();
+        try
+        {
+            remoteConnection.begin();
+            remoteConnection.add(otherSubject, RDF.TYPE, RDFS.RESOURCE, ReplicatedRepositoryTest.TEST_CONTEXT);
+            remoteConnection.remove(ReplicatedRepository.CHANGE_CONTEXT, ReplicatedRepository.CHANGE_TOKEN, null,
+                    ReplicatedRepository.CHANGE_CONTEXT);
+            remoteConnection.add(ReplicatedRepository.CHANGE_CONTEXT, ReplicatedRepository.CHANGE_TOKEN,
+                    PODD.VF.createLiteral("external-change"), ReplicatedRepository.CHANGE_CONTEXT);
+            remoteConnection.commit();
+        }
+        finally
+        {
+            remoteConnection.close();
+        }
+        
+        final RepositoryConnection connection = this.testRepository.getConnection();
+        try
+        {
+            Assert.assertTrue(connection.hasStatement(otherSubject, RDF.TYPE, RDFS.RESOURCE, false,
+                    ReplicatedRepositoryTest.TEST_CONTEXT));
+            Assert.assertTrue(connection.hasStatement(ReplicatedRepositoryTest.TEST_SUBJECT, RDF.TYPE, RDFS.RESOURCE,
+                    false, ReplicatedRepositoryTest.TEST_CONTEXT));
+        }
+        finally
+        {
+            connection.close();
+        }
+    }
+    
+    @Test
+    public final void testConcurrentWritersSharingRemote() throws Exception
+    {
+        final URI firstSubject = PODD.VF.createURI("urn:test:replica:first");
+        final URI secondSubject = PODD.VF.createURI("urn:test:replica:second");
+        
+        // Never check the remote token when getting connections, so that only commits can detect
+        // changes made through the other replica
+        final ReplicatedRepository first = new ReplicatedRepository(this.remote, -1);
+        first.initialize();
+        final ReplicatedRepository second = new ReplicatedRepository(this.remote, -1);
+        second.initialize();
+        
+        try
+        {
+            final RepositoryConnection firstConnection = first.getConnection();
+            try
+            {
+                firstConnection.begin();
+                firstConnection.add(firstSubject, RDF.TYPE, RDFS.RESOURCE, ReplicatedRepositoryTest.TEST_CONTEXT);
+                firstConnection.commit();
+            }
+            finally
+            {
+                firstConnection.close();
+            }
+            
+            RepositoryConnection secondConnection = second.getConnection();
+            try
+            {
+                Assert.assertFalse(secondConnection.hasStatement(firstSubject, RDF.TYPE, RDFS.RESOURCE, false));
+                secondConnection.begin();
+                secondConnection.add(secondSubject, RDF.TYPE, RDFS.RESOURCE, ReplicatedRepositoryTest.TEST_CONTEXT);
+                secondConnection.commit();
+            }
+            finally
+            {
+                secondConnection.close();
+            }
+            
+            // The second replica saw a token it did not write when it committed, so it reloads
+            secondConnection = second.getConnection();
+            try
+            {
+                Assert.assertTrue(secondConnection.hasStatement(firstSubject, RDF.TYPE, RDFS.RESOURCE, false,
+                        ReplicatedRepositoryTest.TEST_CONTEXT));
+                Assert.assertTrue(secondConnection.hasStatement(secondSubject, RDF.TYPE, RDFS.RESOURCE, false,
+                        ReplicatedRepositoryTest.TEST_CONTEXT));
+            }
+            finally
+            {
+                secondConnection.close();
+            }
+            
+            final RepositoryConnection remoteConnection = this.remote.getConnection();
+            try
+            {
+                Assert.assertTrue(remoteConnection.hasStatement(firstSubject, RDF.TYPE, RDFS.RESOURCE, false,
+                        ReplicatedRepositoryTest.TEST_CONTEXT));
+                Assert.assertTrue(remoteConnection.hasStatement(secondSubject, RDF.TYPE, RDFS.RESOURCE, false,
+                        ReplicatedRepositoryTest.TEST_CONTEXT));
+            }
+            finally
+            {
+                remoteConnection.close();
+            }
+            
+            // The first replica still matched the token when it committed, so it was not reloaded
+            final RepositoryConnection firstCheckConnection = first.getConnection();
+            try
+            {
+                Assert.assertFalse(firstCheckConnection.hasStatement(secondSubject, RDF.TYPE, RDFS.RESOURCE, false));
+            }
+            finally
+            {
+                firstCheckConnection.close();
+            }
+        }
+        finally
+        {
+            first.shutDown();
+            second.shutDown();
+        }
+    }
+    
+    @Test(expected = UnsupportedOperationException.class)
+    public final void testSparqlUpdateUnsupported() throws Exception
+    {
+        final RepositoryConnection connection = this.testRepository.getConnection();
+        try
+        {
+            connection.prepareUpdate(QueryLanguage.SPARQL, "CLEAR ALL");
+        }
+        finally
+        {
+            connection.close();
+        }
+    }
+}